@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.jung;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+import de.bund.bfr.jung.layout.FRLayoutBenchmark;
+import de.bund.bfr.jung.layout.ISOMLayoutBenchmark;
+import de.bund.bfr.jung.layout.MultilevelLayoutBenchmark;
+
+/**
+ * Layout of large graphs with time limits. Run separately from {@link AllJungTests}.
+ */
+@RunWith(Suite.class)
+@SuiteClasses({ FRLayoutBenchmark.class, ISOMLayoutBenchmark.class, MultilevelLayoutBenchmark.class })
+public class JungBenchmarks {
+}
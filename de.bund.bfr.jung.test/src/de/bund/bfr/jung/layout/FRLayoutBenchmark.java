@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.jung.layout;
+
+import static de.bund.bfr.jung.layout.LayoutTestUtils.SIZE;
+import static de.bund.bfr.jung.layout.LayoutTestUtils.assertInside;
+import static de.bund.bfr.jung.layout.LayoutTestUtils.createTree;
+import static de.bund.bfr.jung.layout.LayoutTestUtils.getCrossingRatio;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.Point2D;
+import java.util.Map;
+
+import org.junit.Test;
+
+import edu.uci.ics.jung.graph.Graph;
+
+/**
+ * Lays out large trees within a time limit. Part of {@link de.bund.bfr.jung.JungBenchmarks} and
+ * not of the default test suite, since the run time depends on the machine.
+ */
+public class FRLayoutBenchmark {
+
+	@Test(timeout = 10000)
+	public void test1000Nodes() {
+		Graph<Integer, Integer> graph = createTree(1000, 2);
+		Map<Integer, Point2D> positions = new FRLayout<>(graph, SIZE, true).getNodePositions(null, null);
+
+		assertInside(positions.values());
+		assertTrue(getCrossingRatio(graph, positions) < 0.02);
+	}
+
+	@Test(timeout = 30000)
+	public void test10000Nodes() {
+		Graph<Integer, Integer> graph = createTree(10000, 3);
+		Map<Integer, Point2D> positions = new FRLayout<>(graph, SIZE, true).getNodePositions(null, null);
+
+		assertInside(positions.values());
+		assertTrue(getCrossingRatio(graph, positions) < 0.02);
+	}
+
+	@Test(timeout = 120000)
+	public void test50000Nodes() {
+		Graph<Integer, Integer> graph = createTree(50000, 4);
+		Map<Integer, Point2D> positions = new FRLayout<>(graph, SIZE, true).getNodePositions(null, null);
+
+		assertInside(positions.values());
+		assertTrue(getCrossingRatio(graph, positions) < 0.02);
+	}
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.jung.layout;
+
+import static de.bund.bfr.jung.layout.LayoutTestUtils.SIZE;
+import static de.bund.bfr.jung.layout.LayoutTestUtils.assertInside;
+import static de.bund.bfr.jung.layout.LayoutTestUtils.createGrid;
+import static de.bund.bfr.jung.layout.LayoutTestUtils.createTree;
+import static de.bund.bfr.jung.layout.LayoutTestUtils.getCrossingRatio;
+import static de.bund.bfr.jung.layout.LayoutTestUtils.getStress;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.Point2D;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+import edu.uci.ics.jung.graph.Graph;
+
+public class FRLayoutTest {
+
+	@Test
+	public void testStressOfBarnesHutIsCloseToExact() {
+		Graph<Integer, Integer> graph = createGrid(25, 40);
+		double exactStress = getStress(graph, new FRLayout<>(graph, SIZE, false, 0.0).getNodePositions(null, null));
+		double stress = getStress(graph, new FRLayout<>(graph, SIZE, false).getNodePositions(null, null));
+
+		assertTrue("Stress " + stress + " exceeds exact stress " + exactStress, stress < 1.5 * exactStress + 0.01);
+	}
+
+	@Test
+	public void testCrossingsOfBarnesHutAreCloseToExact() {
+		Graph<Integer, Integer> graph = createTree(500, 2);
+		double exactCrossings = getCrossingRatio(graph,
+				new FRLayout<>(graph, SIZE, false, 0.0).getNodePositions(null, null));
+		double crossings = getCrossingRatio(graph, new FRLayout<>(graph, SIZE, false).getNodePositions(null, null));
+
+		assertTrue("Crossing ratio " + crossings + " exceeds exact crossing ratio " + exactCrossings,
+				crossings < 1.5 * exactCrossings + 0.01);
+	}
+
+	@Test
+	public void testLockedNodesKeepPosition() {
+		Graph<Integer, Integer> graph = createTree(100, 1);
+		FRLayout<Integer, Integer> layout = new FRLayout<>(graph, SIZE, true);
+
+		layout.setLocked(0, true);
+
+		Map<Integer, Point2D> positions = layout
+				.getNodePositions(Collections.singletonMap(0, new Point2D.Double(500.0, 500.0)), null);
+
+		assertEquals(new Point2D.Double(500.0, 500.0), positions.get(0));
+		assertInside(positions.values());
+	}
+}
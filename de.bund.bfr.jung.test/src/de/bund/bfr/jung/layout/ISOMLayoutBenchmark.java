@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.jung.layout;
+
+import static de.bund.bfr.jung.layout.LayoutTestUtils.SIZE;
+import static de.bund.bfr.jung.layout.LayoutTestUtils.createTree;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+import edu.uci.ics.jung.graph.Graph;
+
+/**
+ * Lays out large trees within a time limit and logs the time of the layout with the linear search
+ * for the closest vertex of {@link ISOMLayoutTest}. Part of {@link de.bund.bfr.jung.JungBenchmarks}
+ * and not of the default test suite, since the run time depends on the machine.
+ */
+public class ISOMLayoutBenchmark {
+
+	private static Logger logger = Logger.getLogger("de.bund.bfr");
+
+	@Test(timeout = 30000)
+	public void test10000Nodes() {
+		testLayout(10000);
+	}
+
+	@Test(timeout = 120000)
+	public void test50000Nodes() {
+		testLayout(50000);
+	}
+
+	private static void testLayout(int vertexCount) {
+		Graph<Integer, Integer> graph = createTree(vertexCount, 2);
+		long start = System.nanoTime();
+
+		assertEquals(vertexCount, new ISOMLayout<>(graph, SIZE, 42).getNodePositions(null, null).size());
+
+		long gridTime = (System.nanoTime() - start) / 1000000;
+
+		start = System.nanoTime();
+		ISOMLayoutTest.getNodePositionsLinear(graph, 42, Collections.emptyMap(), Collections.emptySet());
+
+		long linearTime = (System.nanoTime() - start) / 1000000;
+
+		logger.info("ISOMLayout with " + vertexCount + " vertices took " + gridTime + " ms with grid, "
+				+ linearTime + " ms with linear search");
+	}
+}
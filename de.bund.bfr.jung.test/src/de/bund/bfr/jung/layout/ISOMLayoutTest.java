@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.jung.layout;
+
+import static de.bund.bfr.jung.layout.LayoutTestUtils.SIZE;
+import static de.bund.bfr.jung.layout.LayoutTestUtils.createGrid;
+import static de.bund.bfr.jung.layout.LayoutTestUtils.createTree;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.geom.Point2D;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import edu.uci.ics.jung.graph.Graph;
+
+public class ISOMLayoutTest {
+
+	@Test
+	public void testDeterministicForSeed() {
+		Graph<Integer, Integer> graph = createGrid(40, 50);
+
+		assertEquals(new ISOMLayout<>(graph, SIZE, 42).getNodePositions(null, null),
+				new ISOMLayout<>(graph, SIZE, 42).getNodePositions(null, null));
+	}
+
+	@Test
+	public void testGridMatchesLinearSearch() {
+		Graph<Integer, Integer> graph = createGrid(40, 50);
+
+		assertEquals(getNodePositionsLinear(graph, 42, Collections.emptyMap(), Collections.emptySet()),
+				new ISOMLayout<>(graph, SIZE, 42).getNodePositions(null, null));
+	}
+
+	@Test
+	public void testTreeWithLockedNodesMatchesLinearSearch() {
+		Graph<Integer, Integer> graph = createTree(2000, 1);
+		ISOMLayout<Integer, Integer> layout = new ISOMLayout<>(graph, SIZE, 7);
+		Map<Integer, Point2D> initialPositions = new LinkedHashMap<>();
+
+		for (int i = 0; i < 2000; i += 10) {
+			initialPositions.put(i, new Point2D.Double(i / 2.0, i / 2.0));
+			layout.setLocked(i, true);
+		}
+
+		assertEquals(getNodePositionsLinear(graph, 7, initialPositions, initialPositions.keySet()),
+				layout.getNodePositions(initialPositions, null));
+	}
+
+	@Test
+	public void testLockedNodesKeepPosition() {
+		Graph<Integer, Integer> graph = createTree(2000, 1);
+		ISOMLayout<Integer, Integer> layout = new ISOMLayout<>(graph, SIZE, 42);
+		Map<Integer, Point2D> initialPositions = new LinkedHashMap<>();
+
+		for (int i = 0; i < 2000; i += 10) {
+			initialPositions.put(i, new Point2D.Double(i / 2.0, i / 2.0));
+			layout.setLocked(i, true);
+		}
+
+		Map<Integer, Point2D> positions = layout.getNodePositions(initialPositions, null);
+
+		for (Map.Entry<Integer, Point2D> entry : initialPositions.entrySet()) {
+			assertEquals(entry.getValue(), positions.get(entry.getKey()));
+		}
+	}
+
+	@Test
+	public void test50000Nodes() {
+		Graph<Integer, Integer> graph = createTree(50000, 2);
+
+		assertEquals(50000, new ISOMLayout<>(graph, SIZE).getNodePositions(null, null).size());
+	}
+
+	/**
+	 * Layout without grid, that compares the random point with all vertices, and with the
+	 * neighborhood adaptation on maps.
+	 */
+	static <V> Map<V, Point2D> getNodePositionsLinear(Graph<V, ?> graph, long seed,
+			Map<V, Point2D> initialPositions, Set<V> lockedVertices) {
+		Random random = new Random(seed);
+		Map<V, Point2D> positions = new LinkedHashMap<>();
+
+		for (V v : graph.getVertices()) {
+			positions.put(v, lockedVertices.contains(v) ? initialPositions.get(v)
+					: new Point2D.Double(random.nextDouble() * SIZE.width, random.nextDouble() * SIZE.height));
+		}
+
+		int radius = 5;
+		double adaption = 0.9;
+
+		for (int epoch = 1; epoch < 2000;) {
+			double tempX = 10.0 + random.nextDouble() * SIZE.getWidth();
+			double tempY = 10.0 + random.nextDouble() * SIZE.getHeight();
+			double minDistance = Double.POSITIVE_INFINITY;
+			V winner = null;
+
+			for (Map.Entry<V, Point2D> pos : positions.entrySet()) {
+				if (lockedVertices.contains(pos.getKey())) {
+					continue;
+				}
+
+				double dx = pos.getValue().getX() - tempX;
+				double dy = pos.getValue().getY() - tempY;
+				double dist = dx * dx + dy * dy;
+
+				if (dist < minDistance) {
+					minDistance = dist;
+					winner = pos.getKey();
+				}
+			}
+
+			Map<V, Integer> distances = new LinkedHashMap<>();
+			Deque<V> queue = new LinkedList<>();
+
+			distances.put(winner, 0);
+			queue.addLast(winner);
+
+			while (!queue.isEmpty()) {
+				V current = queue.removeFirst();
+				int distance = distances.get(current);
+				Point2D currPos = positions.get(current);
+				double dx = tempX - currPos.getX();
+				double dy = tempY - currPos.getY();
+				double factor = adaption / Math.pow(2, distance);
+
+				currPos.setLocation(currPos.getX() + factor * dx, currPos.getY() + factor * dy);
+
+				if (distance < radius) {
+					for (V child : graph.getNeighbors(current)) {
+						if (!lockedVertices.contains(child) && !distances.containsKey(child)) {
+							distances.put(child, distance + 1);
+							queue.addLast(child);
+						}
+					}
+				}
+			}
+
+			adaption = Math.max(0.0, Math.exp(-2.0 * ++epoch / 2000) * 0.9);
+
+			if (radius > 1 && epoch % 100 == 0) {
+				radius--;
+			}
+		}
+
+		return positions;
+	}
+}
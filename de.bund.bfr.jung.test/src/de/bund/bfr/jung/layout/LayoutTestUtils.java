@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.jung.layout;
+
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Dimension;
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.UndirectedSparseGraph;
+import edu.uci.ics.jung.graph.util.Pair;
+
+public class LayoutTestUtils {
+
+	public static final Dimension SIZE = new Dimension(1000, 1000);
+
+	private LayoutTestUtils() {
+	}
+
+	public static Graph<Integer, Integer> createGrid(int rows, int columns) {
+		Graph<Integer, Integer> graph = new UndirectedSparseGraph<>();
+
+		for (int i = 0; i < rows * columns; i++) {
+			graph.addVertex(i);
+		}
+
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < columns; c++) {
+				int v = r * columns + c;
+
+				if (c + 1 < columns) {
+					graph.addEdge(graph.getEdgeCount(), v, v + 1);
+				}
+
+				if (r + 1 < rows) {
+					graph.addEdge(graph.getEdgeCount(), v, v + columns);
+				}
+			}
+		}
+
+		return graph;
+	}
+
+	/**
+	 * Random tree, in which each vertex is attached to one of the previous vertices.
+	 */
+	public static Graph<Integer, Integer> createTree(int vertexCount, long seed) {
+		Random random = new Random(seed);
+		Graph<Integer, Integer> graph = new UndirectedSparseGraph<>();
+
+		graph.addVertex(0);
+
+		for (int i = 1; i < vertexCount; i++) {
+			graph.addVertex(i);
+			graph.addEdge(i - 1, random.nextInt(i), i);
+		}
+
+		return graph;
+	}
+
+	/**
+	 * Normalized stress of the layout: the mean squared relative difference between the euclidean
+	 * distances, scaled by the best fitting factor, and the graph distances of all pairs of
+	 * vertices.
+	 */
+	public static double getStress(Graph<Integer, Integer> graph, Map<Integer, Point2D> positions) {
+		List<Integer> vertices = new ArrayList<>(graph.getVertices());
+		List<double[]> pairs = new ArrayList<>();
+		double numerator = 0.0;
+		double denominator = 0.0;
+
+		for (Integer source : vertices) {
+			Map<Integer, Integer> distances = getGraphDistances(graph, source);
+
+			for (Integer target : vertices) {
+				if (source < target) {
+					double graphDistance = distances.get(target);
+					double distance = positions.get(source).distance(positions.get(target));
+
+					pairs.add(new double[] { distance, graphDistance });
+					numerator += distance / graphDistance;
+					denominator += distance * distance / graphDistance / graphDistance;
+				}
+			}
+		}
+
+		double scale = numerator / denominator;
+		double stress = 0.0;
+
+		for (double[] pair : pairs) {
+			double diff = (scale * pair[0] - pair[1]) / pair[1];
+
+			stress += diff * diff;
+		}
+
+		return stress / pairs.size();
+	}
+
+	private static Map<Integer, Integer> getGraphDistances(Graph<Integer, Integer> graph, Integer source) {
+		Map<Integer, Integer> distances = new HashMap<>();
+		Deque<Integer> queue = new ArrayDeque<>();
+
+		distances.put(source, 0);
+		queue.add(source);
+
+		while (!queue.isEmpty()) {
+			Integer v = queue.poll();
+
+			for (Integer n : graph.getNeighbors(v)) {
+				if (!distances.containsKey(n)) {
+					distances.put(n, distances.get(v) + 1);
+					queue.add(n);
+				}
+			}
+		}
+
+		return distances;
+	}
+
+	/**
+	 * Ratio of crossing edges among a random sample of pairs of edges, that do not share a vertex.
+	 */
+	public static double getCrossingRatio(Graph<Integer, Integer> graph, Map<Integer, Point2D> positions) {
+		List<Integer> edges = new ArrayList<>(graph.getEdges());
+		Random random = new Random(0);
+		int crossings = 0;
+		int samples = 0;
+
+		while (samples < 100000) {
+			Pair<Integer> e1 = graph.getEndpoints(edges.get(random.nextInt(edges.size())));
+			Pair<Integer> e2 = graph.getEndpoints(edges.get(random.nextInt(edges.size())));
+
+			if (e1.getFirst().equals(e2.getFirst()) || e1.getFirst().equals(e2.getSecond())
+					|| e1.getSecond().equals(e2.getFirst()) || e1.getSecond().equals(e2.getSecond())) {
+				continue;
+			}
+
+			samples++;
+
+			if (Line2D.linesIntersect(positions.get(e1.getFirst()).getX(), positions.get(e1.getFirst()).getY(),
+					positions.get(e1.getSecond()).getX(), positions.get(e1.getSecond()).getY(),
+					positions.get(e2.getFirst()).getX(), positions.get(e2.getFirst()).getY(),
+					positions.get(e2.getSecond()).getX(), positions.get(e2.getSecond()).getY())) {
+				crossings++;
+			}
+		}
+
+		return (double) crossings / (double) samples;
+	}
+
+	public static void assertInside(Iterable<Point2D> positions) {
+		for (Point2D p : positions) {
+			assertTrue(p.getX() >= 0.0 && p.getX() <= SIZE.width && p.getY() >= 0.0 && p.getY() <= SIZE.height);
+		}
+	}
+}
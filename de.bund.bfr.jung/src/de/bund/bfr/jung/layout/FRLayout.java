@@ -21,22 +21,36 @@ package de.bund.bfr.jung.layout;
 
 import java.awt.Dimension;
 import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.function.DoubleConsumer;
+import java.util.stream.IntStream;
 
 import edu.uci.ics.jung.graph.Graph;
 import edu.uci.ics.jung.graph.util.Pair;
 
+/**
+ * Fruchterman-Reingold layout. Repulsion between all vertices is approximated with a Barnes-Hut
+ * quadtree: a group of vertices, whose cell is small compared to its distance (cell size /
+ * distance &lt; theta), acts as one vertex at its center of mass. With theta = 0 all pairs are
+ * computed exactly. Positions are kept in arrays indexed by vertex and attraction is computed from
+ * the adjacency of each vertex, so both forces can be computed for all vertices in parallel.
+ */
 public class FRLayout<V, E> extends Layout<V, E> {
 
+	public static final double DEFAULT_THETA = 0.5;
+
 	private static final double EPSILON = 0.000001;
 	private static final double ATTRACTION_MULTIPLIER = 0.75;
 	private static final double REPULSION_MULTIPLIER = 0.75;
 	private static final int MAX_ITERATIONS = 700;
 
 	private boolean restrictToSize;
+	private double theta;
 
 	private double forceConstant;
 	private double temperature;
@@ -45,39 +59,67 @@ public class FRLayout<V, E> extends Layout<V, E> {
 	private double repulsion_constant;
 	private double max_dimension;
 
-	private Map<V, Point2D> newPositions;
-	private Map<V, Point2D> positionChanges;
+	private List<V> vertices;
+	private boolean[] lockedVertices;
+	private int[] neighborStarts;
+	private int[] neighbors;
+	private double[] x;
+	private double[] y;
+	private double[] xChanges;
+	private double[] yChanges;
+	private QuadTree tree;
 
 	public FRLayout(Graph<V, E> graph, Dimension size, boolean restrictToSize) {
+		this(graph, size, restrictToSize, DEFAULT_THETA);
+	}
+
+	public FRLayout(Graph<V, E> graph, Dimension size, boolean restrictToSize, double theta) {
 		super(graph, size);
 		this.restrictToSize = restrictToSize;
+		this.theta = theta;
+	}
+
+	public double getTheta() {
+		return theta;
+	}
+
+	public void setTheta(double theta) {
+		this.theta = theta;
 	}
 
 	@Override
 	public Map<V, Point2D> getNodePositions(Map<V, Point2D> initialPositions, DoubleConsumer progressListener) {
 		Random random = new Random();
+		int n = getGraph().getVertexCount();
 
 		max_dimension = Math.max(size.height, size.width);
 		currentIteration = 0;
 		temperature = size.getWidth() / 10;
-		forceConstant = Math.sqrt(size.getHeight() * size.getWidth() / getGraph().getVertexCount());
+		forceConstant = Math.sqrt(size.getHeight() * size.getWidth() / n);
 		attraction_constant = ATTRACTION_MULTIPLIER * forceConstant;
 		repulsion_constant = REPULSION_MULTIPLIER * forceConstant;
-		newPositions = new LinkedHashMap<>();
-		positionChanges = new LinkedHashMap<>();
+		vertices = new ArrayList<>(getGraph().getVertices());
+		lockedVertices = new boolean[n];
+		x = new double[n];
+		y = new double[n];
+		xChanges = new double[n];
+		yChanges = new double[n];
+		tree = new QuadTree(n);
+
+		for (int i = 0; i < n; i++) {
+			V v = vertices.get(i);
 
-		for (V v : getGraph().getVertices()) {
 			if (isLocked(v)) {
-				newPositions.put(v, initialPositions.get(v));
+				lockedVertices[i] = true;
+				x[i] = initialPositions.get(v).getX();
+				y[i] = initialPositions.get(v).getY();
 			} else {
-				newPositions.put(v,
-						new Point2D.Double(random.nextDouble() * size.width, random.nextDouble() * size.height));
+				x[i] = random.nextDouble() * size.width;
+				y[i] = random.nextDouble() * size.height;
 			}
 		}
 
-		for (V v : getGraph().getVertices()) {
-			positionChanges.put(v, new Point2D.Double());
-		}
+		initNeighbors();
 
 		while (!done()) {
 			if (progressListener != null) {
@@ -87,6 +129,12 @@ public class FRLayout<V, E> extends Layout<V, E> {
 			step();
 		}
 
+		Map<V, Point2D> newPositions = new LinkedHashMap<>();
+
+		for (int i = 0; i < n; i++) {
+			newPositions.put(vertices.get(i), new Point2D.Double(x[i], y[i]));
+		}
+
 		return newPositions;
 	}
 
@@ -97,94 +145,99 @@ public class FRLayout<V, E> extends Layout<V, E> {
 	public void step() {
 		currentIteration++;
 
-		getGraph().getVertices().parallelStream().forEach(v -> calcRepulsion(v));
-		getGraph().getEdges().forEach(e -> calcAttraction(e));
-		getGraph().getVertices().forEach(v -> calcPositions(v));
+		tree.build(x, y);
+		IntStream.range(0, vertices.size()).parallel().forEach(i -> calcForces(i));
+		IntStream.range(0, vertices.size()).forEach(i -> calcPositions(i));
 
 		cool();
 	}
 
-	private void calcRepulsion(V v1) {
-		if (isLocked(v1)) {
-			return;
+	/**
+	 * Stores the other endpoint of each edge at both endpoints (compressed sparse rows). Self loops
+	 * do not contribute to attraction and are skipped.
+	 */
+	private void initNeighbors() {
+		Map<V, Integer> indices = new HashMap<>();
+		int[] edgeSources = new int[getGraph().getEdgeCount()];
+		int[] edgeTargets = new int[getGraph().getEdgeCount()];
+		int edgeCount = 0;
+
+		for (int i = 0; i < vertices.size(); i++) {
+			indices.put(vertices.get(i), i);
 		}
 
-		Point2D move = positionChanges.get(v1);
+		neighborStarts = new int[vertices.size() + 1];
 
-		move.setLocation(0, 0);
+		for (E e : getGraph().getEdges()) {
+			Pair<V> endpoints = getGraph().getEndpoints(e);
+			int source = indices.get(endpoints.getFirst());
+			int target = indices.get(endpoints.getSecond());
 
-		for (V v2 : getGraph().getVertices()) {
-			if (v1 == v2) {
-				continue;
+			if (source != target) {
+				edgeSources[edgeCount] = source;
+				edgeTargets[edgeCount] = target;
+				edgeCount++;
+				neighborStarts[source + 1]++;
+				neighborStarts[target + 1]++;
 			}
+		}
+
+		for (int i = 0; i < vertices.size(); i++) {
+			neighborStarts[i + 1] += neighborStarts[i];
+		}
+
+		int[] positions = neighborStarts.clone();
 
-			Point2D p1 = newPositions.get(v1);
-			Point2D p2 = newPositions.get(v2);
-			double xDelta = p1.getX() - p2.getX();
-			double yDelta = p1.getY() - p2.getY();
-			double deltaLength = Math.max(EPSILON, Math.sqrt((xDelta * xDelta) + (yDelta * yDelta)));
-			double factor = repulsion_constant * repulsion_constant / deltaLength / deltaLength;
+		neighbors = new int[2 * edgeCount];
 
-			move.setLocation(move.getX() + xDelta * factor, move.getY() + yDelta * factor);
+		for (int i = 0; i < edgeCount; i++) {
+			neighbors[positions[edgeSources[i]]++] = edgeTargets[i];
+			neighbors[positions[edgeTargets[i]]++] = edgeSources[i];
 		}
 	}
 
-	private void calcAttraction(E e) {
-		Pair<V> endpoints = getGraph().getEndpoints(e);
-		V v1 = endpoints.getFirst();
-		V v2 = endpoints.getSecond();
-		boolean v1Locked = isLocked(v1);
-		boolean v2Locked = isLocked(v2);
-
-		if (v1Locked && v2Locked) {
+	private void calcForces(int i) {
+		if (lockedVertices[i]) {
 			return;
 		}
 
-		Point2D p1 = newPositions.get(v1);
-		Point2D p2 = newPositions.get(v2);
-		double xDelta = p1.getX() - p2.getX();
-		double yDelta = p1.getY() - p2.getY();
-		double deltaLength = Math.max(EPSILON, Math.sqrt(xDelta * xDelta + yDelta * yDelta));
-		double factor = deltaLength / attraction_constant;
-
-		xDelta *= factor;
-		yDelta *= factor;
+		double[] change = tree.getRepulsion(i, x, y, repulsion_constant * repulsion_constant, theta);
 
-		if (!v1Locked) {
-			Point2D move = positionChanges.get(v1);
+		for (int j = neighborStarts[i]; j < neighborStarts[i + 1]; j++) {
+			int neighbor = neighbors[j];
+			double xDelta = x[i] - x[neighbor];
+			double yDelta = y[i] - y[neighbor];
+			double deltaLength = Math.max(EPSILON, Math.sqrt(xDelta * xDelta + yDelta * yDelta));
+			double factor = deltaLength / attraction_constant;
 
-			move.setLocation(move.getX() - xDelta, move.getY() - yDelta);
+			change[0] -= xDelta * factor;
+			change[1] -= yDelta * factor;
 		}
 
-		if (!v2Locked) {
-			Point2D move = positionChanges.get(v2);
-
-			move.setLocation(move.getX() + xDelta, move.getY() + yDelta);
-		}
+		xChanges[i] = change[0];
+		yChanges[i] = change[1];
 	}
 
-	private void calcPositions(V v) {
-		if (isLocked(v)) {
+	private void calcPositions(int i) {
+		if (lockedVertices[i]) {
 			return;
 		}
 
-		Point2D move = positionChanges.get(v);
-		double xDelta = move.getX();
-		double yDelta = move.getY();
+		double xDelta = xChanges[i];
+		double yDelta = yChanges[i];
 		double deltaLength = Math.max(EPSILON, Math.sqrt(xDelta * xDelta + yDelta * yDelta));
 		double factor = Math.min(deltaLength, temperature) / deltaLength;
 
-		Point2D pos = newPositions.get(v);
-
-		double xNew = pos.getX() + xDelta * factor;
-		double yNew = pos.getY() + yDelta * factor;
+		double xNew = x[i] + xDelta * factor;
+		double yNew = y[i] + yDelta * factor;
 
 		if (restrictToSize) {
 			xNew = Math.max(0.0, Math.min(size.width, xNew));
 			yNew = Math.max(0.0, Math.min(size.height, yNew));
 		}
 
-		pos.setLocation(xNew, yNew);
+		x[i] = xNew;
+		y[i] = yNew;
 	}
 
 	private void cool() {
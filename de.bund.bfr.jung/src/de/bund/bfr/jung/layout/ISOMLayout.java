@@ -21,15 +21,22 @@ package de.bund.bfr.jung.layout;
 
 import java.awt.Dimension;
 import java.awt.geom.Point2D;
-import java.util.Deque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.function.DoubleConsumer;
 
 import edu.uci.ics.jung.graph.Graph;
 
+/**
+ * Self-organizing map layout. Vertices are indexed by int: the vertex closest to a random point is
+ * found with a uniform grid over the positions of the unlocked vertices and the neighborhood of
+ * that vertex is adapted by a breadth first search on arrays.
+ */
 public class ISOMLayout<V, E> extends Layout<V, E> {
 
 	private static final int MAX_EPOCH = 2000;
@@ -38,47 +45,81 @@ public class ISOMLayout<V, E> extends Layout<V, E> {
 	private static final double INITIAL_ADAPTION = 0.9;
 	private static final double COOLING_FACTOR = 2.0;
 	private static final double MIN_ADAPTION = 0.0;
+	private static final int VERTICES_PER_CELL = 2;
+
+	private Long seed;
 
 	private int epoch;
 	private int radius;
 	private double adaption;
 
-	private Map<V, Point2D> newPositions;
-	private Map<V, VertexState> vertexStates;
+	private boolean[] lockedVertices;
+	private double[] x;
+	private double[] y;
+	private int[] neighborStarts;
+	private int[] neighbors;
+
+	private int[] distances;
+	private int[] visited;
+	private int[] queue;
+
+	private PositionGrid grid;
 
 	private Random random;
 
 	public ISOMLayout(Graph<V, E> graph, Dimension size) {
 		super(graph, size);
+		seed = null;
+	}
+
+	public ISOMLayout(Graph<V, E> graph, Dimension size, long seed) {
+		super(graph, size);
+		this.seed = seed;
 	}
 
 	@Override
 	public Map<V, Point2D> getNodePositions(Map<V, Point2D> initialPositions, DoubleConsumer progressListener) {
-		random = new Random();
-		newPositions = new LinkedHashMap<>();
+		List<V> vertices = new ArrayList<>(getGraph().getVertices());
+		int n = vertices.size();
+
+		random = seed != null ? new Random(seed) : new Random();
+		lockedVertices = new boolean[n];
+		x = new double[n];
+		y = new double[n];
+
+		for (int i = 0; i < n; i++) {
+			V v = vertices.get(i);
 
-		for (V v : getGraph().getVertices()) {
 			if (isLocked(v)) {
-				newPositions.put(v, initialPositions.get(v));
+				lockedVertices[i] = true;
+				x[i] = initialPositions.get(v).getX();
+				y[i] = initialPositions.get(v).getY();
 			} else {
-				newPositions.put(v,
-						new Point2D.Double(random.nextDouble() * size.width, random.nextDouble() * size.height));
+				x[i] = random.nextDouble() * size.width;
+				y[i] = random.nextDouble() * size.height;
 			}
 		}
 
+		initNeighbors(vertices);
+
 		epoch = 1;
 		radius = 5;
 		adaption = INITIAL_ADAPTION;
-		vertexStates = new LinkedHashMap<>();
-
-		for (V v : getGraph().getVertices()) {
-			vertexStates.put(v, new VertexState());
-		}
+		distances = new int[n];
+		visited = new int[n];
+		queue = new int[n];
+		grid = new PositionGrid();
 
 		while (!done()) {
 			step();
 		}
 
+		Map<V, Point2D> newPositions = new LinkedHashMap<>();
+
+		for (int i = 0; i < n; i++) {
+			newPositions.put(vertices.get(i), new Point2D.Double(x[i], y[i]));
+		}
+
 		return newPositions;
 	}
 
@@ -91,19 +132,41 @@ public class ISOMLayout<V, E> extends Layout<V, E> {
 		updateParameters();
 	}
 
-	private void adjust() {
-		for (V v : getGraph().getVertices()) {
-			VertexState state = vertexStates.get(v);
+	private void initNeighbors(List<V> vertices) {
+		Map<V, Integer> indices = new HashMap<>();
+		List<int[]> neighborLists = new ArrayList<>(vertices.size());
+		int neighborCount = 0;
 
-			state.distance = 0;
-			state.visited = false;
+		for (int i = 0; i < vertices.size(); i++) {
+			indices.put(vertices.get(i), i);
 		}
 
-		Point2D tempPos = new Point2D.Double(10.0 + random.nextDouble() * getSize().getWidth(),
-				10.0 + random.nextDouble() * getSize().getHeight());
-		V winner = getClosest(tempPos.getX(), tempPos.getY());
+		for (V v : vertices) {
+			int[] list = getGraph().getNeighbors(v).stream().mapToInt(indices::get).toArray();
+
+			neighborLists.add(list);
+			neighborCount += list.length;
+		}
 
-		adjustVertex(winner, tempPos);
+		neighborStarts = new int[vertices.size() + 1];
+		neighbors = new int[neighborCount];
+
+		for (int i = 0; i < vertices.size(); i++) {
+			int[] list = neighborLists.get(i);
+
+			neighborStarts[i + 1] = neighborStarts[i] + list.length;
+			System.arraycopy(list, 0, neighbors, neighborStarts[i], list.length);
+		}
+	}
+
+	private void adjust() {
+		double tempX = 10.0 + random.nextDouble() * getSize().getWidth();
+		double tempY = 10.0 + random.nextDouble() * getSize().getHeight();
+		int winner = grid.getClosest(tempX, tempY);
+
+		if (winner != -1) {
+			adjustVertex(winner, tempX, tempY);
+		}
 	}
 
 	private void updateParameters() {
@@ -116,73 +179,175 @@ public class ISOMLayout<V, E> extends Layout<V, E> {
 		}
 	}
 
-	private void adjustVertex(V v, Point2D tempPos) {
-		VertexState state = vertexStates.get(v);
-		Deque<V> queue = new LinkedList<>();
-
-		state.distance = 0;
-		state.visited = true;
-		queue.addLast(v);
+	/**
+	 * Moves the vertex and its neighborhood up to {@link #radius} towards the temporary position.
+	 * Vertices are marked as visited with the current epoch, so that the marks never have to be
+	 * reset.
+	 */
+	private void adjustVertex(int v, double tempX, double tempY) {
+		int queueStart = 0;
+		int queueEnd = 0;
+
+		distances[v] = 0;
+		visited[v] = epoch;
+		queue[queueEnd++] = v;
+
+		while (queueStart < queueEnd) {
+			int current = queue[queueStart++];
+			double dx = tempX - x[current];
+			double dy = tempY - y[current];
+			double factor = adaption / Math.pow(2, distances[current]);
+
+			grid.move(current, x[current] + factor * dx, y[current] + factor * dy);
+
+			if (distances[current] < radius) {
+				for (int j = neighborStarts[current]; j < neighborStarts[current + 1]; j++) {
+					int child = neighbors[j];
+
+					if (!lockedVertices[child] && visited[child] != epoch) {
+						visited[child] = epoch;
+						distances[child] = distances[current] + 1;
+						queue[queueEnd++] = child;
+					}
+				}
+			}
+		}
+	}
 
-		while (!queue.isEmpty()) {
-			V current = queue.removeFirst();
-			VertexState currState = vertexStates.get(current);
-			Point2D currPos = newPositions.get(current);
+	/**
+	 * Uniform grid over the positions of the unlocked vertices. The grid covers the area of the
+	 * random points, vertices outside of it are stored in the nearest border cell. The closest
+	 * vertex is searched in rings of cells around the point, until no cell of the next ring can
+	 * contain a closer vertex.
+	 */
+	private class PositionGrid {
+
+		private double cellSize;
+		private int columns;
+		private int rows;
+		private int[][] cells;
+		private int[] cellSizes;
+		private int[] vertexCells;
+		private int[] vertexPositions;
+
+		public PositionGrid() {
+			double width = size.getWidth() + 10.0;
+			double height = size.getHeight() + 10.0;
+			int unlockedCount = 0;
+
+			for (boolean locked : lockedVertices) {
+				if (!locked) {
+					unlockedCount++;
+				}
+			}
 
-			double dx = tempPos.getX() - currPos.getX();
-			double dy = tempPos.getY() - currPos.getY();
-			double factor = adaption / Math.pow(2, currState.distance);
+			cellSize = Math.max(1.0, Math.sqrt(width * height * VERTICES_PER_CELL / Math.max(1, unlockedCount)));
+			columns = Math.max(1, (int) Math.ceil(width / cellSize));
+			rows = Math.max(1, (int) Math.ceil(height / cellSize));
+			cells = new int[columns * rows][];
+			cellSizes = new int[columns * rows];
+			vertexCells = new int[x.length];
+			vertexPositions = new int[x.length];
+
+			for (int i = 0; i < x.length; i++) {
+				if (!lockedVertices[i]) {
+					add(i, getCell(x[i], y[i]));
+				}
+			}
+		}
 
-			currPos.setLocation(currPos.getX() + factor * dx, currPos.getY() + factor * dy);
+		/**
+		 * @return the closest unlocked vertex, the one with the smallest index if several are
+		 *         equally close, or -1 if all vertices are locked
+		 */
+		public int getClosest(double px, double py) {
+			int column = getColumn(px);
+			int row = getRow(py);
+			int maxRing = Math.max(Math.max(column, columns - 1 - column), Math.max(row, rows - 1 - row));
+			double minDistance = Double.POSITIVE_INFINITY;
+			int closest = -1;
+
+			for (int ring = 0; ring <= maxRing; ring++) {
+				double ringDistance = (ring - 1) * cellSize;
+
+				if (ring > 0 && ringDistance * ringDistance > minDistance) {
+					break;
+				}
 
-			if (currState.distance < radius) {
-				for (V child : getGraph().getNeighbors(current)) {
-					if (isLocked(child)) {
+				for (int r = row - ring; r <= row + ring; r++) {
+					if (r < 0 || r >= rows) {
 						continue;
 					}
 
-					VertexState childState = vertexStates.get(child);
+					boolean borderRow = r == row - ring || r == row + ring;
+
+					for (int c = column - ring; c <= column + ring; c += borderRow ? 1 : 2 * ring) {
+						if (c < 0 || c >= columns) {
+							continue;
+						}
+
+						int cell = r * columns + c;
 
-					if (!childState.visited) {
-						childState.visited = true;
-						childState.distance = currState.distance + 1;
-						queue.addLast(child);
+						for (int k = 0; k < cellSizes[cell]; k++) {
+							int i = cells[cell][k];
+							double dx = x[i] - px;
+							double dy = y[i] - py;
+							double dist = dx * dx + dy * dy;
+
+							if (dist < minDistance || (dist == minDistance && i < closest)) {
+								minDistance = dist;
+								closest = i;
+							}
+						}
 					}
 				}
 			}
+
+			return closest;
 		}
-	}
 
-	private V getClosest(double x, double y) {
-		double minDistance = Double.POSITIVE_INFINITY;
-		V closest = null;
+		public void move(int i, double newX, double newY) {
+			int newCell = getCell(newX, newY);
 
-		for (Map.Entry<V, Point2D> pos : newPositions.entrySet()) {
-			if (isLocked(pos.getKey())) {
-				continue;
-			}
+			x[i] = newX;
+			y[i] = newY;
 
-			double dx = pos.getValue().getX() - x;
-			double dy = pos.getValue().getY() - y;
-			double dist = dx * dx + dy * dy;
+			if (newCell != vertexCells[i]) {
+				remove(i);
+				add(i, newCell);
+			}
+		}
 
-			if (dist < minDistance) {
-				minDistance = dist;
-				closest = pos.getKey();
+		private void add(int i, int cell) {
+			if (cells[cell] == null) {
+				cells[cell] = new int[4];
+			} else if (cellSizes[cell] == cells[cell].length) {
+				cells[cell] = Arrays.copyOf(cells[cell], 2 * cellSizes[cell]);
 			}
+
+			vertexCells[i] = cell;
+			vertexPositions[i] = cellSizes[cell];
+			cells[cell][cellSizes[cell]++] = i;
 		}
 
-		return closest;
-	}
+		private void remove(int i) {
+			int cell = vertexCells[i];
+			int last = cells[cell][--cellSizes[cell]];
+
+			cells[cell][vertexPositions[i]] = last;
+			vertexPositions[last] = vertexPositions[i];
+		}
 
-	private static class VertexState {
+		private int getCell(double px, double py) {
+			return getRow(py) * columns + getColumn(px);
+		}
 
-		private int distance;
-		private boolean visited;
+		private int getColumn(double px) {
+			return Math.max(0, Math.min(columns - 1, (int) Math.floor(px / cellSize)));
+		}
 
-		public VertexState() {
-			distance = 0;
-			visited = false;
+		private int getRow(double py) {
+			return Math.max(0, Math.min(rows - 1, (int) Math.floor(py / cellSize)));
 		}
 	}
 }
\ No newline at end of file
@@ -47,8 +47,20 @@ public enum LayoutType {
 		public <V, E> Layout<V, E> create(Graph<V, E> graph, Dimension size) {
 			return new ISOMLayout<>(graph, size);
 		}
+	},
+	MULTILEVEL_LAYOUT("Multilevel Layout") {
+		@Override
+		public <V, E> Layout<V, E> create(Graph<V, E> graph, Dimension size) {
+			return new MultilevelLayout<>(graph, size);
+		}
 	};
 
+	/**
+	 * Number of nodes, above which {@link #MULTILEVEL_LAYOUT} is used as initial layout instead of
+	 * {@link #ISOM_LAYOUT}.
+	 */
+	public static final int MULTILEVEL_THRESHOLD = 1000;
+
 	private String name;
 
 	private LayoutType(String name) {
@@ -57,6 +69,10 @@ public enum LayoutType {
 
 	public abstract <V, E> Layout<V, E> create(Graph<V, E> graph, Dimension size);
 
+	public static LayoutType getInitialLayout(int nodeCount) {
+		return nodeCount > MULTILEVEL_THRESHOLD ? MULTILEVEL_LAYOUT : ISOM_LAYOUT;
+	}
+
 	@Override
 	public String toString() {
 		return name;
@@ -0,0 +1,451 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.jung.layout;
+
+import java.awt.Dimension;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.DoubleConsumer;
+import java.util.stream.IntStream;
+
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.util.Pair;
+
+/**
+ * Multilevel force-directed layout for large graphs. The graph is coarsened repeatedly by heavy
+ * edge matching, vertices of degree one are merged into their neighbor. The coarsest graph is laid
+ * out from random positions and the positions are then prolonged level by level to the original
+ * graph, with a short force-directed refinement (Fruchterman-Reingold forces with Barnes-Hut
+ * repulsion) at each level. The result only depends on the seed and the order of the vertices in
+ * the graph.
+ */
+public class MultilevelLayout<V, E> extends Layout<V, E> {
+
+	public static final long DEFAULT_SEED = 0;
+
+	private static final double EPSILON = 0.000001;
+	private static final double FORCE_MULTIPLIER = 0.75;
+	private static final double THETA = 0.5;
+	private static final int COARSEST_SIZE = 50;
+	private static final double MAX_SIZE_RATIO = 0.95;
+	private static final int COARSEST_ITERATIONS = 300;
+	private static final int ITERATIONS = 50;
+	private static final double COOLING_FACTOR = 0.95;
+	private static final double JITTER = 0.1;
+
+	private long seed;
+
+	public MultilevelLayout(Graph<V, E> graph, Dimension size) {
+		this(graph, size, DEFAULT_SEED);
+	}
+
+	public MultilevelLayout(Graph<V, E> graph, Dimension size, long seed) {
+		super(graph, size);
+		this.seed = seed;
+	}
+
+	@Override
+	public Map<V, Point2D> getNodePositions(Map<V, Point2D> initialPositions, DoubleConsumer progressListener) {
+		Random random = new Random(seed);
+		List<V> vertices = new ArrayList<>(getGraph().getVertices());
+		List<Level> levels = new ArrayList<>();
+
+		levels.add(createLevel(vertices, initialPositions));
+
+		while (true) {
+			Level level = levels.get(levels.size() - 1);
+			Level coarse = level.coarsen(random);
+
+			if (coarse.size() > MAX_SIZE_RATIO * level.size()) {
+				break;
+			}
+
+			levels.add(coarse);
+
+			if (coarse.size() <= COARSEST_SIZE) {
+				break;
+			}
+		}
+
+		Level coarsest = levels.get(levels.size() - 1);
+
+		for (int i = 0; i < coarsest.size(); i++) {
+			if (!coarsest.locked[i]) {
+				coarsest.x[i] = random.nextDouble() * size.width;
+				coarsest.y[i] = random.nextDouble() * size.height;
+			}
+		}
+
+		refine(coarsest, COARSEST_ITERATIONS, size.getWidth() / 10);
+
+		for (int l = levels.size() - 2; l >= 0; l--) {
+			if (progressListener != null) {
+				progressListener.accept((double) (levels.size() - 1 - l) / (double) levels.size());
+			}
+
+			Level level = levels.get(l);
+			Level coarse = levels.get(l + 1);
+			double forceConstant = getForceConstant(level);
+
+			for (int i = 0; i < level.size(); i++) {
+				if (!level.locked[i]) {
+					level.x[i] = coarse.x[level.parents[i]] + (random.nextDouble() - 0.5) * JITTER * forceConstant;
+					level.y[i] = coarse.y[level.parents[i]] + (random.nextDouble() - 0.5) * JITTER * forceConstant;
+				}
+			}
+
+			refine(level, ITERATIONS, forceConstant);
+		}
+
+		Level finest = levels.get(0);
+
+		if (locked.isEmpty()) {
+			fitToSize(finest);
+		}
+
+		Map<V, Point2D> newPositions = new LinkedHashMap<>();
+
+		for (int i = 0; i < vertices.size(); i++) {
+			newPositions.put(vertices.get(i), new Point2D.Double(finest.x[i], finest.y[i]));
+		}
+
+		return newPositions;
+	}
+
+	private Level createLevel(List<V> vertices, Map<V, Point2D> initialPositions) {
+		Map<V, Integer> indices = new HashMap<>();
+		Level level = new Level(vertices.size());
+
+		for (int i = 0; i < vertices.size(); i++) {
+			V v = vertices.get(i);
+
+			indices.put(v, i);
+
+			if (isLocked(v)) {
+				level.locked[i] = true;
+				level.x[i] = initialPositions.get(v).getX();
+				level.y[i] = initialPositions.get(v).getY();
+			}
+		}
+
+		int[] sources = new int[getGraph().getEdgeCount()];
+		int[] targets = new int[getGraph().getEdgeCount()];
+		double[] weights = new double[getGraph().getEdgeCount()];
+		int edgeCount = 0;
+
+		for (E e : getGraph().getEdges()) {
+			Pair<V> endpoints = getGraph().getEndpoints(e);
+
+			sources[edgeCount] = indices.get(endpoints.getFirst());
+			targets[edgeCount] = indices.get(endpoints.getSecond());
+			weights[edgeCount] = 1.0;
+			edgeCount++;
+		}
+
+		level.setEdges(sources, targets, weights, edgeCount);
+
+		return level;
+	}
+
+	private double getForceConstant(Level level) {
+		return FORCE_MULTIPLIER * Math.sqrt(size.getWidth() * size.getHeight() / level.size());
+	}
+
+	/**
+	 * Moves the unlocked vertices of the level by Fruchterman-Reingold forces. The length of each
+	 * move is limited by the temperature, which decreases geometrically. If there are locked
+	 * vertices, positions are restricted to the size of the layout. Otherwise the layout can grow
+	 * and is fitted to the size afterwards.
+	 */
+	private void refine(Level level, int iterations, double temperature) {
+		int n = level.size();
+		double forceConstant = getForceConstant(level);
+		QuadTree tree = new QuadTree(n);
+		double[] xChanges = new double[n];
+		double[] yChanges = new double[n];
+
+		for (int iteration = 0; iteration < iterations; iteration++) {
+			double maxMove = temperature;
+
+			tree.build(level.x, level.y);
+			IntStream.range(0, n).parallel().forEach(i -> {
+				if (level.locked[i]) {
+					return;
+				}
+
+				double[] change = tree.getRepulsion(i, level.x, level.y, forceConstant * forceConstant, THETA);
+
+				for (int j = level.neighborStarts[i]; j < level.neighborStarts[i + 1]; j++) {
+					int neighbor = level.neighbors[j];
+					double xDelta = level.x[i] - level.x[neighbor];
+					double yDelta = level.y[i] - level.y[neighbor];
+					double deltaLength = Math.max(EPSILON, Math.sqrt(xDelta * xDelta + yDelta * yDelta));
+					double factor = deltaLength / forceConstant;
+
+					change[0] -= xDelta * factor;
+					change[1] -= yDelta * factor;
+				}
+
+				double changeLength = Math.max(EPSILON, Math.sqrt(change[0] * change[0] + change[1] * change[1]));
+				double factor = Math.min(changeLength, maxMove) / changeLength;
+
+				xChanges[i] = change[0] * factor;
+				yChanges[i] = change[1] * factor;
+			});
+
+			for (int i = 0; i < n; i++) {
+				if (level.locked[i]) {
+					continue;
+				}
+
+				level.x[i] += xChanges[i];
+				level.y[i] += yChanges[i];
+
+				if (!locked.isEmpty()) {
+					level.x[i] = Math.max(0.0, Math.min(size.width, level.x[i]));
+					level.y[i] = Math.max(0.0, Math.min(size.height, level.y[i]));
+				}
+			}
+
+			temperature *= COOLING_FACTOR;
+		}
+	}
+
+	private void fitToSize(Level level) {
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+
+		for (int i = 0; i < level.size(); i++) {
+			minX = Math.min(minX, level.x[i]);
+			minY = Math.min(minY, level.y[i]);
+			maxX = Math.max(maxX, level.x[i]);
+			maxY = Math.max(maxY, level.y[i]);
+		}
+
+		double scale = Math.min(size.getWidth() / Math.max(EPSILON, maxX - minX),
+				size.getHeight() / Math.max(EPSILON, maxY - minY));
+		double xOffset = (size.getWidth() - scale * (maxX - minX)) / 2.0;
+		double yOffset = (size.getHeight() - scale * (maxY - minY)) / 2.0;
+
+		for (int i = 0; i < level.size(); i++) {
+			level.x[i] = xOffset + scale * (level.x[i] - minX);
+			level.y[i] = yOffset + scale * (level.y[i] - minY);
+		}
+	}
+
+	/**
+	 * One level of the coarsening hierarchy. Edges are stored in both directions in compressed
+	 * rows, parallel edges are merged and their weights added.
+	 */
+	private static class Level {
+
+		private boolean[] locked;
+		private double[] x;
+		private double[] y;
+		private int[] neighborStarts;
+		private int[] neighbors;
+		private double[] neighborWeights;
+		private int[] parents;
+
+		public Level(int size) {
+			locked = new boolean[size];
+			x = new double[size];
+			y = new double[size];
+		}
+
+		public int size() {
+			return locked.length;
+		}
+
+		public void setEdges(int[] sources, int[] targets, double[] weights, int edgeCount) {
+			int n = size();
+			int[] starts = new int[n + 1];
+
+			for (int i = 0; i < edgeCount; i++) {
+				if (sources[i] != targets[i]) {
+					starts[sources[i] + 1]++;
+					starts[targets[i] + 1]++;
+				}
+			}
+
+			for (int i = 0; i < n; i++) {
+				starts[i + 1] += starts[i];
+			}
+
+			int[] positions = Arrays.copyOf(starts, n);
+			int[] rowNeighbors = new int[starts[n]];
+			double[] rowWeights = new double[starts[n]];
+
+			for (int i = 0; i < edgeCount; i++) {
+				if (sources[i] != targets[i]) {
+					rowNeighbors[positions[sources[i]]] = targets[i];
+					rowWeights[positions[sources[i]]++] = weights[i];
+					rowNeighbors[positions[targets[i]]] = sources[i];
+					rowWeights[positions[targets[i]]++] = weights[i];
+				}
+			}
+
+			int[] merged = new int[n];
+			int count = 0;
+
+			Arrays.fill(merged, -1);
+			neighborStarts = new int[n + 1];
+			neighbors = new int[starts[n]];
+			neighborWeights = new double[starts[n]];
+
+			for (int i = 0; i < n; i++) {
+				neighborStarts[i] = count;
+
+				for (int j = starts[i]; j < starts[i + 1]; j++) {
+					int neighbor = rowNeighbors[j];
+
+					if (merged[neighbor] >= neighborStarts[i]) {
+						neighborWeights[merged[neighbor]] += rowWeights[j];
+					} else {
+						merged[neighbor] = count;
+						neighbors[count] = neighbor;
+						neighborWeights[count++] = rowWeights[j];
+					}
+				}
+			}
+
+			neighborStarts[n] = count;
+			neighbors = Arrays.copyOf(neighbors, count);
+			neighborWeights = Arrays.copyOf(neighborWeights, count);
+		}
+
+		/**
+		 * Matches each unlocked vertex, in random order, with the unmatched neighbor connected by the
+		 * heaviest edge. Unmatched vertices of degree one are merged into the group of their
+		 * neighbor. Locked vertices stay alone, so that their positions are kept on all levels.
+		 *
+		 * @return the coarse level, the coarse vertex of each vertex is stored in {@link #parents}
+		 */
+		public Level coarsen(Random random) {
+			int n = size();
+			int[] permutation = IntStream.range(0, n).toArray();
+			int[] matches = new int[n];
+
+			for (int i = n - 1; i > 0; i--) {
+				int j = random.nextInt(i + 1);
+				int tmp = permutation[i];
+
+				permutation[i] = permutation[j];
+				permutation[j] = tmp;
+			}
+
+			Arrays.fill(matches, -1);
+
+			for (int u : permutation) {
+				if (locked[u] || matches[u] != -1) {
+					continue;
+				}
+
+				int best = -1;
+				double bestWeight = 0.0;
+
+				for (int j = neighborStarts[u]; j < neighborStarts[u + 1]; j++) {
+					int v = neighbors[j];
+
+					if (!locked[v] && matches[v] == -1 && neighborWeights[j] > bestWeight) {
+						best = v;
+						bestWeight = neighborWeights[j];
+					}
+				}
+
+				if (best != -1) {
+					matches[u] = best;
+					matches[best] = u;
+				}
+			}
+
+			parents = new int[n];
+			Arrays.fill(parents, -1);
+
+			int coarseCount = 0;
+
+			for (int u = 0; u < n; u++) {
+				if (parents[u] == -1 && !isMergedLeaf(u, matches)) {
+					parents[u] = coarseCount;
+
+					if (matches[u] != -1) {
+						parents[matches[u]] = coarseCount;
+					}
+
+					coarseCount++;
+				}
+			}
+
+			for (int u = 0; u < n; u++) {
+				if (parents[u] == -1) {
+					parents[u] = parents[neighbors[neighborStarts[u]]];
+				}
+			}
+
+			Level coarse = new Level(coarseCount);
+
+			for (int u = 0; u < n; u++) {
+				if (locked[u]) {
+					coarse.locked[parents[u]] = true;
+					coarse.x[parents[u]] = x[u];
+					coarse.y[parents[u]] = y[u];
+				}
+			}
+
+			int[] sources = new int[neighbors.length / 2];
+			int[] targets = new int[neighbors.length / 2];
+			double[] weights = new double[neighbors.length / 2];
+			int edgeCount = 0;
+
+			for (int u = 0; u < n; u++) {
+				for (int j = neighborStarts[u]; j < neighborStarts[u + 1]; j++) {
+					if (u < neighbors[j]) {
+						sources[edgeCount] = parents[u];
+						targets[edgeCount] = parents[neighbors[j]];
+						weights[edgeCount] = neighborWeights[j];
+						edgeCount++;
+					}
+				}
+			}
+
+			coarse.setEdges(sources, targets, weights, edgeCount);
+
+			return coarse;
+		}
+
+		private boolean isMergedLeaf(int u, int[] matches) {
+			if (locked[u] || matches[u] != -1 || neighborStarts[u + 1] - neighborStarts[u] != 1) {
+				return false;
+			}
+
+			int v = neighbors[neighborStarts[u]];
+
+			return !locked[v] && (matches[v] != -1 || neighborStarts[v + 1] - neighborStarts[v] != 1);
+		}
+	}
+}
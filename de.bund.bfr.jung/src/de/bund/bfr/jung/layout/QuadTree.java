@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.jung.layout;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Quadtree over vertex positions for the Barnes-Hut approximation of repulsive forces. Each cell
+ * stores the number of its vertices and their center of mass. Leaves hold up to
+ * {@link #LEAF_SIZE} vertices, which are compared exactly. The arrays are reused when the tree is
+ * rebuilt for new positions.
+ */
+class QuadTree {
+
+	private static final double EPSILON = 0.000001;
+	private static final int LEAF_SIZE = 8;
+	private static final int MAX_DEPTH = 40;
+
+	private int[] order;
+	private int cellCount;
+	private double[] cellSizes;
+	private double[] cellMasses;
+	private double[] cellXs;
+	private double[] cellYs;
+	private int[] cellStarts;
+	private int[] cellEnds;
+	private int[] cellChildren;
+	private boolean[] cellLeaves;
+
+	public QuadTree(int vertexCount) {
+		order = new int[vertexCount];
+		allocate(Math.max(16, vertexCount / 2));
+	}
+
+	public void build(double[] x, double[] y) {
+		int n = order.length;
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+
+		cellCount = 0;
+
+		if (n > 0) {
+			buildCell(x, y, 0, n, minX, minY, Math.max(maxX - minX, maxY - minY), 0);
+		}
+	}
+
+	/**
+	 * @return the repulsive force on vertex {@code i} as {x, y}
+	 */
+	public double[] getRepulsion(int i, double[] x, double[] y, double constant, double theta) {
+		double[] force = new double[2];
+
+		if (cellCount == 0) {
+			return force;
+		}
+
+		int[] stack = new int[4 * MAX_DEPTH + 4];
+		int stackSize = 0;
+
+		stack[stackSize++] = 0;
+
+		while (stackSize > 0) {
+			int cell = stack[--stackSize];
+
+			if (cellLeaves[cell]) {
+				for (int k = cellStarts[cell]; k < cellEnds[cell]; k++) {
+					int j = order[k];
+
+					if (j != i) {
+						addRepulsion(force, x[i] - x[j], y[i] - y[j], constant, 1.0);
+					}
+				}
+
+				continue;
+			}
+
+			double xDelta = x[i] - cellXs[cell];
+			double yDelta = y[i] - cellYs[cell];
+			double distance = Math.sqrt(xDelta * xDelta + yDelta * yDelta);
+
+			if (cellSizes[cell] < theta * distance) {
+				addRepulsion(force, xDelta, yDelta, constant, cellMasses[cell]);
+			} else {
+				for (int c = 0; c < 4; c++) {
+					int child = cellChildren[4 * cell + c];
+
+					if (child != -1) {
+						stack[stackSize++] = child;
+					}
+				}
+			}
+		}
+
+		return force;
+	}
+
+	private static void addRepulsion(double[] force, double xDelta, double yDelta, double constant,
+			double mass) {
+		double deltaLength = Math.max(EPSILON, Math.sqrt((xDelta * xDelta) + (yDelta * yDelta)));
+		double factor = mass * constant / deltaLength / deltaLength;
+
+		force[0] += xDelta * factor;
+		force[1] += yDelta * factor;
+	}
+
+	private int buildCell(double[] x, double[] y, int start, int end, double minX, double minY, double size,
+			int depth) {
+		int cell = cellCount++;
+
+		if (cell == cellSizes.length) {
+			allocate(2 * cellSizes.length);
+		}
+
+		double xSum = 0.0;
+		double ySum = 0.0;
+
+		for (int k = start; k < end; k++) {
+			xSum += x[order[k]];
+			ySum += y[order[k]];
+		}
+
+		cellSizes[cell] = size;
+		cellMasses[cell] = end - start;
+		cellXs[cell] = xSum / (end - start);
+		cellYs[cell] = ySum / (end - start);
+		cellStarts[cell] = start;
+		cellEnds[cell] = end;
+		cellChildren[4 * cell] = -1;
+		cellChildren[4 * cell + 1] = -1;
+		cellChildren[4 * cell + 2] = -1;
+		cellChildren[4 * cell + 3] = -1;
+
+		cellLeaves[cell] = end - start <= LEAF_SIZE || depth >= MAX_DEPTH || size == 0.0;
+
+		if (cellLeaves[cell]) {
+			return cell;
+		}
+
+		double half = size / 2.0;
+		double xMid = minX + half;
+		double yMid = minY + half;
+		int yEnd = partition(start, end, k -> y[k] < yMid);
+		int xEnd1 = partition(start, yEnd, k -> x[k] < xMid);
+		int xEnd2 = partition(yEnd, end, k -> x[k] < xMid);
+		int[] bounds = { start, xEnd1, yEnd, xEnd2, end };
+		double[] childXs = { minX, xMid, minX, xMid };
+		double[] childYs = { minY, minY, yMid, yMid };
+
+		for (int c = 0; c < 4; c++) {
+			if (bounds[c] < bounds[c + 1]) {
+				int child = buildCell(x, y, bounds[c], bounds[c + 1], childXs[c], childYs[c], half, depth + 1);
+
+				cellChildren[4 * cell + c] = child;
+			}
+		}
+
+		return cell;
+	}
+
+	/**
+	 * Moves the vertices in {@code order[start, end)} that satisfy {@code first} to the front.
+	 *
+	 * @return the end of the first part
+	 */
+	private int partition(int start, int end, IntPredicate first) {
+		int i = start;
+
+		for (int k = start; k < end; k++) {
+			if (first.test(order[k])) {
+				int tmp = order[i];
+
+				order[i++] = order[k];
+				order[k] = tmp;
+			}
+		}
+
+		return i;
+	}
+
+	private void allocate(int capacity) {
+		cellSizes = copy(cellSizes, capacity);
+		cellMasses = copy(cellMasses, capacity);
+		cellXs = copy(cellXs, capacity);
+		cellYs = copy(cellYs, capacity);
+		cellStarts = copy(cellStarts, capacity);
+		cellEnds = copy(cellEnds, capacity);
+		cellChildren = copy(cellChildren, 4 * capacity);
+		cellLeaves = cellLeaves != null ? Arrays.copyOf(cellLeaves, capacity) : new boolean[capacity];
+	}
+
+	private static double[] copy(double[] array, int length) {
+		return array != null ? Arrays.copyOf(array, length) : new double[length];
+	}
+
+	private static int[] copy(int[] array, int length) {
+		return array != null ? Arrays.copyOf(array, length) : new int[length];
+	}
+}
@@ -23,13 +23,30 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import de.bund.bfr.knime.gis.shapecell.ShapeBlobSerializerTest;
+import de.bund.bfr.knime.gis.views.canvas.CanvasUtilsTest;
+import de.bund.bfr.knime.gis.views.canvas.GraphCanvasTest;
+import de.bund.bfr.knime.gis.views.canvas.LocationCanvasUtilsTest;
+import de.bund.bfr.knime.gis.views.canvas.element.PropertyStoreTest;
+import de.bund.bfr.knime.gis.views.canvas.element.RegionNodeTest;
 import de.bund.bfr.knime.gis.views.canvas.highlighting.AndOrHighlightConditionTest;
+import de.bund.bfr.knime.gis.views.canvas.highlighting.HighlightConditionCacheTest;
 import de.bund.bfr.knime.gis.views.canvas.highlighting.LogicalHighlightConditionTest;
 import de.bund.bfr.knime.gis.views.canvas.highlighting.LogicalValueHighlightConditionTest;
 import de.bund.bfr.knime.gis.views.canvas.highlighting.ValueHighlightConditionTest;
+import de.bund.bfr.knime.gis.views.canvas.util.DiskTileCacheTest;
+import de.bund.bfr.knime.gis.views.canvas.util.EdgeJoinerTest;
+import de.bund.bfr.knime.gis.views.canvas.util.RegionIndexTest;
+import de.bund.bfr.knime.gis.views.canvas.util.SvgStreamGraphics2DTest;
+import de.bund.bfr.knime.gis.views.canvas.util.TileManagerTest;
+import de.bund.bfr.knime.gis.views.canvas.util.TiledPngWriterTest;
 
 @RunWith(Suite.class)
 @SuiteClasses({ LogicalHighlightConditionTest.class, AndOrHighlightConditionTest.class,
-		ValueHighlightConditionTest.class, LogicalValueHighlightConditionTest.class })
+		ValueHighlightConditionTest.class, LogicalValueHighlightConditionTest.class, PropertyStoreTest.class,
+		DiskTileCacheTest.class, TileManagerTest.class, RegionIndexTest.class, LocationCanvasUtilsTest.class,
+		CanvasUtilsTest.class, HighlightConditionCacheTest.class, GraphCanvasTest.class,
+		EdgeJoinerTest.class, TiledPngWriterTest.class, SvgStreamGraphics2DTest.class, CoverageSimplifierTest.class,
+		ShapeBlobSerializerTest.class, RegionNodeTest.class })
 public class AllGisTests {
 }
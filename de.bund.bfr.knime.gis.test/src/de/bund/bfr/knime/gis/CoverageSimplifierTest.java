@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+
+import com.vividsolutions.jts.algorithm.distance.DiscreteHausdorffDistance;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.operation.union.CascadedPolygonUnion;
+
+public class CoverageSimplifierTest {
+
+	private static final GeometryFactory FACTORY = new GeometryFactory();
+
+	/**
+	 * Moves the grid away from the cell boundaries of the quadtree used by the
+	 * {@link com.vividsolutions.jts.simplify.TopologyPreservingSimplifier}. Otherwise all segments of
+	 * the borders would cross cell boundaries and end up in the root of the quadtree.
+	 */
+	private static final double OFFSET = 0.1234;
+
+	@Test
+	public void testSharedBordersStayConsistent() throws CanceledExecutionException {
+		List<MultiPolygon> coverage = createCoverage(4, 200, 0);
+		CoverageSimplifier simplifier = new CoverageSimplifier(coverage);
+		int previousCount = getVertexCount(coverage);
+
+		for (double tolerance : new double[] { 0.001, 0.005, 0.02, 0.2 }) {
+			List<MultiPolygon> simplified = simplifier.simplify(tolerance, new ExecutionMonitor());
+			Geometry union = CascadedPolygonUnion.union(new ArrayList<>(simplified));
+			double area = 0.0;
+
+			for (int i = 0; i < coverage.size(); i++) {
+				assertTrue(simplified.get(i).isValid());
+				assertTrue(DiscreteHausdorffDistance.distance(coverage.get(i).getBoundary(),
+						simplified.get(i).getBoundary()) <= tolerance + 1e-9);
+				area += simplified.get(i).getArea();
+			}
+
+			assertEquals(1, union.getNumGeometries());
+			assertEquals(0, ((Polygon) union.getGeometryN(0)).getNumInteriorRing());
+			assertEquals(area, union.getArea(), 1e-9);
+			assertTrue(getVertexCount(simplified) < previousCount);
+			previousCount = getVertexCount(simplified);
+		}
+	}
+
+	@Test
+	public void testEnclaveStaysConsistent() throws CanceledExecutionException {
+		Polygon square = createSquare(0.0, 0.0, 10.0, 200, new Random(0));
+		Polygon hole = createSquare(4.0, 4.0, 1.0, 200, new Random(1));
+		MultiPolygon polygon = FACTORY.createMultiPolygon(new Polygon[] { FACTORY.createPolygon(
+				(LinearRing) square.getExteriorRing(), new LinearRing[] { (LinearRing) hole.getExteriorRing() }) });
+		MultiPolygon enclave = FACTORY.createMultiPolygon(new Polygon[] { hole });
+		List<MultiPolygon> simplified = new CoverageSimplifier(Arrays.asList(polygon, enclave)).simplify(0.1,
+				new ExecutionMonitor());
+		Polygon simplifiedPolygon = (Polygon) simplified.get(0).getGeometryN(0);
+
+		assertEquals(1, simplifiedPolygon.getNumInteriorRing());
+		assertTrue(simplifiedPolygon.getInteriorRingN(0).getNumPoints() < hole.getNumPoints());
+		assertTrue(FACTORY.createPolygon((LinearRing) simplifiedPolygon.getInteriorRingN(0), null)
+				.equalsNorm(simplified.get(1).getGeometryN(0)));
+	}
+
+	@Test
+	public void testCollapsedRingsAreRemoved() throws CanceledExecutionException {
+		Coordinate[] lower = createLine(-0.01);
+		Coordinate[] upper = createLine(0.01);
+		List<Coordinate> below = new ArrayList<>(Arrays.asList(lower));
+		List<Coordinate> above = new ArrayList<>(Arrays.asList(upper));
+		List<Coordinate> lens = new ArrayList<>(Arrays.asList(lower));
+
+		below.addAll(Arrays.asList(new Coordinate(1, 0), new Coordinate(0, 0), lower[0]));
+		above.addAll(Arrays.asList(new Coordinate(1, 2), new Coordinate(0, 2), upper[0]));
+
+		for (int i = upper.length - 2; i >= 0; i--) {
+			lens.add(upper[i]);
+		}
+
+		List<MultiPolygon> simplified = new CoverageSimplifier(
+				Arrays.asList(createPolygon(below), createPolygon(lens), createPolygon(above)))
+						.simplify(0.1, new ExecutionMonitor());
+		Geometry union = CascadedPolygonUnion.union(Arrays.asList(simplified.get(0), simplified.get(2)));
+
+		assertTrue(simplified.get(1).isEmpty());
+		assertEquals(1, union.getNumGeometries());
+		assertEquals(simplified.get(0).getArea() + simplified.get(2).getArea(), union.getArea(), 1e-9);
+	}
+
+	@Test
+	public void testUnchangedLevelsAreShared() throws CanceledExecutionException {
+		MultiPolygon square = FACTORY
+				.createMultiPolygon(new Polygon[] { createSquare(0.0, 0.0, 1.0, 0, new Random(0)) });
+		MultiPolygon jagged = FACTORY
+				.createMultiPolygon(new Polygon[] { createSquare(2.0, 0.0, 1.0, 100, new Random(0)) });
+		List<NavigableMap<Double, MultiPolygon>> levels = CoverageSimplifier
+				.getLevels(Arrays.asList(square, jagged), new ExecutionMonitor(), 0.2, 0.001, 0.1);
+
+		assertEquals(Arrays.asList(0.001, 0.1, 0.2), new ArrayList<>(levels.get(0).keySet()));
+		levels.get(0).values().forEach(p -> assertSame(square, p));
+		assertSame(levels.get(1).get(0.1), levels.get(1).get(0.2));
+		assertTrue(getVertexCount(Arrays.asList(levels.get(1).get(0.001))) > getVertexCount(
+				Arrays.asList(levels.get(1).get(0.1))));
+	}
+
+	@Test(expected = CanceledExecutionException.class)
+	public void testCanceledExecution() throws CanceledExecutionException {
+		ExecutionMonitor exec = new ExecutionMonitor();
+
+		exec.getProgressMonitor().setExecuteCanceled();
+		CoverageSimplifier.getLevels(createCoverage(2, 10, 0), exec, 0.1);
+	}
+
+	/**
+	 * Creates a grid of size x size unit squares, whose edges are replaced by jagged lines. Edges
+	 * shared by two squares have identical vertices in both squares.
+	 */
+	public static List<MultiPolygon> createCoverage(int size, int verticesPerEdge, long seed) {
+		Random random = new Random(seed);
+		Map<String, List<Coordinate>> edges = new HashMap<>();
+		List<MultiPolygon> coverage = new ArrayList<>();
+
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				List<Coordinate> ring = new ArrayList<>();
+
+				addEdge(ring, getEdge(edges, x, y, true, verticesPerEdge, random), false);
+				addEdge(ring, getEdge(edges, x + 1, y, false, verticesPerEdge, random), false);
+				addEdge(ring, getEdge(edges, x, y + 1, true, verticesPerEdge, random), true);
+				addEdge(ring, getEdge(edges, x, y, false, verticesPerEdge, random), true);
+				ring.add(ring.get(0));
+				coverage.add(FACTORY.createMultiPolygon(new Polygon[] {
+						FACTORY.createPolygon(FACTORY.createLinearRing(ring.toArray(new Coordinate[0])), null) }));
+			}
+		}
+
+		return coverage;
+	}
+
+	public static int getVertexCount(List<MultiPolygon> polygons) {
+		return polygons.stream().mapToInt(p -> p.getNumPoints()).sum();
+	}
+
+	private static Polygon createSquare(double x, double y, double size, int verticesPerEdge, Random random) {
+		Coordinate[] ring = Stream.of(createCoverage(1, verticesPerEdge, random.nextLong()).get(0).getCoordinates())
+				.map(c -> new Coordinate(x + c.x * size, y + c.y * size)).toArray(Coordinate[]::new);
+
+		return FACTORY.createPolygon(FACTORY.createLinearRing(ring), null);
+	}
+
+	/**
+	 * @return a line from (0, 1) to (1, 1), that bulges by the amplitude
+	 */
+	private static Coordinate[] createLine(double amplitude) {
+		Coordinate[] line = new Coordinate[101];
+
+		for (int i = 0; i <= 100; i++) {
+			line[i] = new Coordinate(i / 100.0, 1.0 + amplitude * Math.sin(Math.PI * i / 100.0));
+		}
+
+		return line;
+	}
+
+	private static MultiPolygon createPolygon(List<Coordinate> ring) {
+		return FACTORY.createMultiPolygon(new Polygon[] {
+				FACTORY.createPolygon(FACTORY.createLinearRing(ring.toArray(new Coordinate[0])), null) });
+	}
+
+	/**
+	 * @return the edge from (x, y) to (x + 1, y) or (x, y + 1). The offsets of the vertices are
+	 *         small near the end points, so that edges never cross.
+	 */
+	private static List<Coordinate> getEdge(Map<String, List<Coordinate>> edges, int x, int y, boolean horizontal,
+			int verticesPerEdge, Random random) {
+		return edges.computeIfAbsent(x + " " + y + " " + horizontal, key -> {
+			List<Coordinate> edge = new ArrayList<>();
+			double x0 = x + OFFSET;
+			double y0 = y + OFFSET;
+
+			edge.add(new Coordinate(x0, y0));
+
+			for (int i = 1; i <= verticesPerEdge; i++) {
+				double t = (double) i / (verticesPerEdge + 1);
+				double offset = 0.05 * Math.sin(Math.PI * t) * (2.0 * random.nextDouble() - 1.0);
+
+				edge.add(horizontal ? new Coordinate(x0 + t, y0 + offset) : new Coordinate(x0 + offset, y0 + t));
+			}
+
+			edge.add(horizontal ? new Coordinate(x0 + 1, y0) : new Coordinate(x0, y0 + 1));
+
+			return edge;
+		});
+	}
+
+	private static void addEdge(List<Coordinate> ring, List<Coordinate> edge, boolean reversed) {
+		for (int i = 0; i < edge.size() - 1; i++) {
+			ring.add(edge.get(reversed ? edge.size() - 1 - i : i));
+		}
+	}
+}
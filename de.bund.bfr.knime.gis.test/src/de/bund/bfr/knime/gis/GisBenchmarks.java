@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+import de.bund.bfr.knime.gis.views.canvas.CanvasUtilsBenchmark;
+import de.bund.bfr.knime.gis.views.canvas.GraphCanvasBenchmark;
+import de.bund.bfr.knime.gis.views.canvas.LocationCanvasUtilsBenchmark;
+import de.bund.bfr.knime.gis.views.canvas.element.RegionNodeBenchmark;
+import de.bund.bfr.knime.gis.views.canvas.util.RegionIndexBenchmark;
+
+/**
+ * Tests with large inputs and time limits. Run separately from {@link AllGisTests}.
+ */
+@RunWith(Suite.class)
+@SuiteClasses({ CanvasUtilsBenchmark.class, GraphCanvasBenchmark.class, LocationCanvasUtilsBenchmark.class,
+		RegionNodeBenchmark.class, RegionIndexBenchmark.class })
+public class GisBenchmarks {
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.shapecell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.NavigableMap;
+
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataCellDataInput;
+import org.knime.core.data.DataCellDataOutput;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.io.WKBWriter;
+
+import de.bund.bfr.knime.gis.CoverageSimplifier;
+import de.bund.bfr.knime.gis.CoverageSimplifierTest;
+
+public class ShapeBlobSerializerTest {
+
+	@Test
+	public void testSimplifiedShapes() throws IOException, CanceledExecutionException {
+		List<MultiPolygon> coverage = CoverageSimplifierTest.createCoverage(2, 100, 0);
+		NavigableMap<Double, MultiPolygon> levels = CoverageSimplifier
+				.getLevels(coverage, new ExecutionMonitor(), 0.001, 0.01, 1.0, 2.0).get(0);
+		ShapeBlobCell cell = serializeAndDeserialize(new ShapeBlobCell(coverage.get(0), levels));
+
+		assertTrue(cell.getShape().equalsExact(coverage.get(0)));
+		assertEquals(levels.keySet(), cell.getSimplifiedShapes().keySet());
+		levels.forEach((tolerance, polygon) -> assertTrue(
+				polygon.equalsExact(cell.getSimplifiedShapes().get(tolerance))));
+		assertSame(levels.get(1.0), levels.get(2.0));
+		assertSame(cell.getSimplifiedShapes().get(1.0), cell.getSimplifiedShapes().get(2.0));
+	}
+
+	@Test
+	public void testShapeWithoutSimplifiedShapes() throws IOException {
+		MultiPolygon shape = CoverageSimplifierTest.createCoverage(1, 10, 0).get(0);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] wkb = new WKBWriter().write(shape);
+
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(wkb.length);
+			out.write(wkb);
+		}
+
+		ShapeBlobCell cell = new ShapeBlobSerializer()
+				.deserialize(new Input(new ByteArrayInputStream(bytes.toByteArray())));
+
+		assertTrue(cell.getShape().equalsExact(shape));
+		assertTrue(cell.getSimplifiedShapes().isEmpty());
+		assertTrue(serializeAndDeserialize(cell).getShape().equalsExact(shape));
+	}
+
+	private static ShapeBlobCell serializeAndDeserialize(ShapeBlobCell cell) throws IOException {
+		ShapeBlobSerializer serializer = new ShapeBlobSerializer();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (Output output = new Output(bytes)) {
+			serializer.serialize(cell, output);
+		}
+
+		return serializer.deserialize(new Input(new ByteArrayInputStream(bytes.toByteArray())));
+	}
+
+	private static class Output extends DataOutputStream implements DataCellDataOutput {
+
+		public Output(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void writeDataCell(DataCell cell) throws IOException {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private static class Input extends DataInputStream implements DataCellDataInput {
+
+		public Input(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public DataCell readDataCell() throws IOException {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas;
+
+import java.awt.Dimension;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+/**
+ * Measures the images, that the tracing view node creates during execution, for a graph with 5000
+ * nodes in two canvases without a window. The images are created one after another with
+ * {@link CanvasUtils#getImage(boolean, ICanvas...)}, as the node did before, and with
+ * {@link CanvasUtils#getImages(java.util.concurrent.Executor, boolean, ICanvas...)}. Part of
+ * {@link de.bund.bfr.knime.gis.GisBenchmarks} and not of the default test suite, since the run time
+ * depends on the machine.
+ */
+public class CanvasUtilsBenchmark {
+
+	private static Logger logger = Logger.getLogger("de.bund.bfr");
+
+	@Test(timeout = 120000)
+	public void testGetImages5000Nodes() throws Exception {
+		GraphCanvas canvas1 = CanvasUtilsTest.createCanvas(5000, new Dimension(2000, 1500));
+		GraphCanvas canvas2 = CanvasUtilsTest.createCanvas(5000, new Dimension(2000, 1500));
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+
+		try {
+			for (boolean asSvg : new boolean[] { false, true }) {
+				long start = System.nanoTime();
+
+				CanvasUtils.getImage(asSvg, canvas1);
+				CanvasUtils.getImage(asSvg, canvas2);
+				CanvasUtils.getImage(asSvg, canvas1, canvas2);
+
+				long sequential = (System.nanoTime() - start) / 1000000;
+
+				start = System.nanoTime();
+				CanvasUtils.getImages(executor, asSvg, canvas1, canvas2);
+
+				long concurrent = (System.nanoTime() - start) / 1000000;
+
+				logger.info("Tracing view images " + (asSvg ? "as SVG" : "as PNG") + " in ms: " + sequential
+						+ " one after another, " + concurrent + " concurrently");
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
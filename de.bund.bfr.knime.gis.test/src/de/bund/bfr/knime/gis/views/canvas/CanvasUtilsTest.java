@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Paint;
+import java.awt.TexturePaint;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.imageio.ImageIO;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import com.google.common.collect.ImmutableMap;
+
+import de.bund.bfr.knime.gis.views.canvas.element.Edge;
+import de.bund.bfr.knime.gis.views.canvas.element.GraphNode;
+import de.bund.bfr.knime.gis.views.canvas.util.EdgePropertySchema;
+import de.bund.bfr.knime.gis.views.canvas.util.Naming;
+import de.bund.bfr.knime.gis.views.canvas.util.NodePropertySchema;
+import de.bund.bfr.knime.gis.views.canvas.util.Transform;
+
+public class CanvasUtilsTest {
+
+	private static final List<Color> COLORS = Arrays.asList(Color.RED, Color.GREEN, Color.BLUE);
+
+	@Test
+	public void testMixColorsWithoutColors() {
+		assertSame(Color.WHITE, CanvasUtils.mixColors(Color.WHITE, COLORS, Arrays.asList(0.0, 0.0, 0.0), false));
+	}
+
+	@Test
+	public void testMixColorsWithOneColor() {
+		assertEquals(new Color(255, 128, 128),
+				CanvasUtils.mixColors(Color.WHITE, COLORS, Arrays.asList(0.5, 0.0, 0.0), false));
+	}
+
+	@Test
+	public void testMixColorsStriped() {
+		BufferedImage img = getImage(CanvasUtils.mixColors(Color.WHITE, COLORS, Arrays.asList(1.0, 1.0, 1.0), false));
+
+		assertEquals(9, img.getWidth());
+		assertEquals(1, img.getHeight());
+
+		for (int x = 0; x < img.getWidth(); x++) {
+			assertEquals(COLORS.get(x / 3).getRGB(), img.getRGB(x, 0));
+		}
+	}
+
+	@Test
+	public void testMixColorsChecked() {
+		BufferedImage img = getImage(CanvasUtils.mixColors(Color.BLACK, COLORS, Arrays.asList(1.0, 1.0, 1.0), true));
+
+		assertEquals(15, img.getWidth());
+		assertEquals(15, img.getHeight());
+
+		for (int x = 0; x < img.getWidth(); x++) {
+			for (int y = 0; y < img.getHeight(); y++) {
+				assertEquals(COLORS.get((x / 5 + y / 5) % 3).getRGB(), img.getRGB(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void testGetBufferedImages() {
+		GraphCanvas canvas1 = createCanvas(20, new Dimension(300, 200));
+		GraphCanvas canvas2 = createCanvas(30, new Dimension(200, 250));
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		List<BufferedImage> images;
+
+		try {
+			images = CanvasUtils.getBufferedImages(executor, canvas1, canvas2);
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(3, images.size());
+		assertImageEquals(CanvasUtils.getBufferedImage(canvas1), images.get(0));
+		assertImageEquals(CanvasUtils.getBufferedImage(canvas2), images.get(1));
+		assertImageEquals(CanvasUtils.getBufferedImage(canvas1, canvas2), images.get(2));
+	}
+
+	@Test
+	public void testWritePng() throws Exception {
+		GraphCanvas canvas1 = createCanvas(20, new Dimension(300, 200));
+		GraphCanvas canvas2 = createCanvas(30, new Dimension(200, 250));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		CanvasUtils.writePng(out, canvas1, canvas2);
+		assertImageEquals(CanvasUtils.getBufferedImage(canvas1, canvas2),
+				ImageIO.read(new ByteArrayInputStream(out.toByteArray())));
+	}
+
+	@Test
+	public void testWriteSvg() throws Exception {
+		GraphCanvas canvas1 = createCanvas(20, new Dimension(300, 200));
+		GraphCanvas canvas2 = createCanvas(30, new Dimension(200, 250));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		CanvasUtils.writeSvg(out, canvas1, canvas2);
+
+		Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+				.parse(new ByteArrayInputStream(out.toByteArray()));
+
+		assertEquals("500", document.getDocumentElement().getAttribute("width"));
+		assertEquals("250", document.getDocumentElement().getAttribute("height"));
+		assertTrue(document.getElementsByTagName("path").getLength() >= 50);
+	}
+
+	@Test
+	public void testMixColorsSharesPaints() {
+		Paint paint = CanvasUtils.mixColors(Color.WHITE, COLORS, Arrays.asList(1.0, 0.5, 1.0), false);
+
+		assertSame(paint, CanvasUtils.mixColors(Color.WHITE, COLORS, Arrays.asList(1.0, 0.5, 1.0), false));
+		assertSame(paint, CanvasUtils.mixColors(Color.WHITE, Arrays.asList(Color.RED, Color.GREEN, Color.BLUE),
+				Arrays.asList(1.0, 0.5, 1.0), false));
+		assertTrue(paint != CanvasUtils.mixColors(Color.WHITE, COLORS, Arrays.asList(1.0, 0.5, 1.0), true));
+		assertTrue(paint != CanvasUtils.mixColors(Color.WHITE, COLORS, Arrays.asList(1.0, 0.6, 1.0), false));
+	}
+
+	private static BufferedImage getImage(Paint paint) {
+		assertTrue(paint instanceof TexturePaint);
+
+		return ((TexturePaint) paint).getImage();
+	}
+
+	static GraphCanvas createCanvas(int nodeCount, Dimension size) {
+		List<GraphNode> nodes = new ArrayList<>();
+		List<Edge<GraphNode>> edges = new ArrayList<>();
+		Map<String, Point2D> positions = new LinkedHashMap<>();
+
+		for (int i = 0; i < nodeCount; i++) {
+			nodes.add(new GraphNode("n" + i, new LinkedHashMap<>(ImmutableMap.of("ID", "n" + i))));
+			positions.put("n" + i, new Point2D.Double(i * 37 % size.width, i * 53 % size.height));
+		}
+
+		for (int i = 1; i < nodeCount; i++) {
+			edges.add(new Edge<>("e" + i,
+					new LinkedHashMap<>(ImmutableMap.of("ID", "e" + i, "From", "n" + (i - 1), "To", "n" + i)),
+					nodes.get(i - 1), nodes.get(i)));
+		}
+
+		GraphCanvas canvas = new GraphCanvas(nodes, edges,
+				new NodePropertySchema(new LinkedHashMap<>(ImmutableMap.of("ID", String.class)), "ID"),
+				new EdgePropertySchema(new LinkedHashMap<>(
+						ImmutableMap.of("ID", String.class, "From", String.class, "To", String.class)), "ID", "From",
+						"To"),
+				Naming.DEFAULT_NAMING, true);
+
+		canvas.setCanvasSize(size);
+		canvas.setNodePositions(positions);
+		canvas.setTransform(Transform.IDENTITY_TRANSFORM);
+
+		return canvas;
+	}
+
+	private static void assertImageEquals(BufferedImage expected, BufferedImage actual) {
+		assertEquals(expected.getWidth(), actual.getWidth());
+		assertEquals(expected.getHeight(), actual.getHeight());
+
+		for (int x = 0; x < expected.getWidth(); x++) {
+			for (int y = 0; y < expected.getHeight(); y++) {
+				assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+			}
+		}
+	}
+}
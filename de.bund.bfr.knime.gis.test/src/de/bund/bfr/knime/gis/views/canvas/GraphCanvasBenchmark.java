@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+import de.bund.bfr.knime.gis.views.canvas.element.Edge;
+import de.bund.bfr.knime.gis.views.canvas.element.GraphNode;
+
+/**
+ * Replays the session of {@link GraphCanvasTest} on a canvas with 10000 nodes and 30000 edges and
+ * logs the time of each step. Part of {@link de.bund.bfr.knime.gis.GisBenchmarks} and not of the
+ * default test suite, since the run time depends on the machine.
+ */
+public class GraphCanvasBenchmark {
+
+	private static Logger logger = Logger.getLogger("de.bund.bfr");
+
+	@Test(timeout = 120000)
+	public void testScriptedSession30000Edges() {
+		List<GraphNode> nodes = GraphCanvasTest.createNodes(10000);
+		List<Edge<GraphNode>> edges = GraphCanvasTest.createEdges(nodes, 30000);
+		GraphCanvas canvas = GraphCanvasTest.createCanvas(nodes, edges);
+		Map<String, Long> latencies = new LinkedHashMap<>();
+
+		GraphCanvasTest.createSession(100, 10).forEach((name, step) -> {
+			long start = System.nanoTime();
+
+			step.apply(canvas);
+			latencies.put(name, (System.nanoTime() - start) / 1000000);
+		});
+
+		logger.info("GraphCanvas latencies in ms: " + latencies);
+	}
+}
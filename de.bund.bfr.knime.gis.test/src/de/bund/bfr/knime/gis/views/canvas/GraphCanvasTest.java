@@ -0,0 +1,291 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import de.bund.bfr.knime.gis.views.canvas.element.Edge;
+import de.bund.bfr.knime.gis.views.canvas.element.GraphNode;
+import de.bund.bfr.knime.gis.views.canvas.element.PropertyStore;
+import de.bund.bfr.knime.gis.views.canvas.highlighting.AndOrHighlightCondition;
+import de.bund.bfr.knime.gis.views.canvas.highlighting.HighlightCondition;
+import de.bund.bfr.knime.gis.views.canvas.highlighting.HighlightConditionList;
+import de.bund.bfr.knime.gis.views.canvas.highlighting.LogicalHighlightCondition;
+import de.bund.bfr.knime.gis.views.canvas.util.EdgePropertySchema;
+import de.bund.bfr.knime.gis.views.canvas.util.Naming;
+import de.bund.bfr.knime.gis.views.canvas.util.NodePropertySchema;
+
+public class GraphCanvasTest {
+
+	private static final int NODE_COUNT = 300;
+	private static final int EDGE_COUNT = 900;
+	private static final int META_NODE_COUNT = 10;
+	private static final int META_NODE_SIZE = 5;
+
+	private static final String ID = "ID";
+	private static final String FROM = "From";
+	private static final String TO = "To";
+	private static final String TYPE = "Type";
+
+	private List<GraphNode> nodes;
+	private List<Edge<GraphNode>> edges;
+
+	@Before
+	public void setUp() throws Exception {
+		nodes = createNodes(NODE_COUNT);
+		edges = createEdges(nodes, EDGE_COUNT);
+	}
+
+	/**
+	 * Replays a session of highlighting, hiding, collapsing and joining on a canvas. After each
+	 * step the graph must contain the same elements as a canvas, on which only the settings of that
+	 * step are applied.
+	 */
+	@Test
+	public void testScriptedSession() {
+		GraphCanvas canvas = createCanvas(nodes, edges);
+
+		for (Settings step : createSession(META_NODE_COUNT, META_NODE_SIZE).values()) {
+			step.apply(canvas);
+
+			GraphCanvas expected = createCanvas(nodes, edges);
+
+			step.apply(expected);
+			assertGraphEquals(expected, canvas);
+		}
+	}
+
+	static List<GraphNode> createNodes(int count) {
+		PropertyStore nodeStore = new PropertyStore(ImmutableMap.of(ID, String.class, TYPE, String.class));
+		List<GraphNode> nodes = new ArrayList<>();
+
+		for (int i = 0; i < count; i++) {
+			Map<String, Object> properties = nodeStore.getRow(nodeStore.addRow());
+
+			properties.put(ID, "n" + i);
+			properties.put(TYPE, String.valueOf((char) ('A' + i % 3)));
+			nodes.add(new GraphNode("n" + i, properties));
+		}
+
+		return nodes;
+	}
+
+	static List<Edge<GraphNode>> createEdges(List<GraphNode> nodes, int count) {
+		PropertyStore edgeStore = new PropertyStore(
+				ImmutableMap.of(ID, String.class, FROM, String.class, TO, String.class, TYPE, String.class));
+		List<Edge<GraphNode>> edges = new ArrayList<>();
+		Random random = new Random(0);
+
+		for (int i = 0; i < count; i++) {
+			GraphNode from = nodes.get(random.nextInt(nodes.size()));
+			GraphNode to = nodes.get(random.nextInt(nodes.size()));
+			Map<String, Object> properties = edgeStore.getRow(edgeStore.addRow());
+
+			properties.put(ID, "e" + i);
+			properties.put(FROM, from.getId());
+			properties.put(TO, to.getId());
+			properties.put(TYPE, i % 2 == 0 ? "X" : "Y");
+			edges.add(new Edge<>("e" + i, properties, from, to));
+		}
+
+		return edges;
+	}
+
+	static GraphCanvas createCanvas(List<GraphNode> nodes, List<Edge<GraphNode>> edges) {
+		NodePropertySchema nodeSchema = new NodePropertySchema(
+				new LinkedHashMap<>(ImmutableMap.of(ID, String.class, TYPE, String.class)), ID);
+		EdgePropertySchema edgeSchema = new EdgePropertySchema(
+				new LinkedHashMap<>(ImmutableMap.of(ID, String.class, FROM, String.class, TO, String.class,
+						TYPE, String.class)),
+				ID, FROM, TO);
+
+		return new GraphCanvas(nodes, edges, nodeSchema, edgeSchema, Naming.DEFAULT_NAMING, true);
+	}
+
+	/**
+	 * @return the steps of the session by name. The meta nodes contain every third node, so
+	 *         {@code 3 * metaNodeCount * metaNodeSize} must not exceed the number of nodes.
+	 */
+	static Map<String, Settings> createSession(int metaNodeCount, int metaNodeSize) {
+		Map<String, Set<String>> collapsedNodes = new LinkedHashMap<>();
+
+		for (int i = 0; i < metaNodeCount; i++) {
+			Set<String> containedIds = new LinkedHashSet<>();
+
+			for (int j = 0; j < metaNodeSize; j++) {
+				containedIds.add("n" + (3 * (i * metaNodeSize + j)));
+			}
+
+			collapsedNodes.put("meta" + i, containedIds);
+		}
+
+		Map<String, Settings> session = new LinkedHashMap<>();
+		Settings settings = new Settings();
+
+		settings = settings.withNodeConditions(createCondition("A", Color.RED, false, null));
+		session.put("node highlight", settings);
+		settings = settings.withNodeConditions(createCondition("A", Color.BLUE, false, null));
+		session.put("node highlight color", settings);
+		settings = settings.withEdgeConditions(createCondition("X", null, false, TYPE));
+		session.put("edge label", settings);
+		settings = settings.withNodeConditions(createCondition("A", Color.BLUE, false, null),
+				createCondition("C", null, true, null));
+		session.put("invisible nodes", settings);
+		settings = settings.withCollapsedNodes(collapsedNodes);
+		session.put("collapse", settings);
+		settings = settings.withNodeConditions(createCondition("A", Color.GREEN, false, null),
+				createCondition("C", null, true, null));
+		session.put("node highlight color with collapse", settings);
+		settings = settings.withJoinEdges(true);
+		session.put("join edges", settings);
+		settings = settings.withEdgeConditions(createCondition("X", Color.RED, false, TYPE));
+		session.put("edge highlight with join", settings);
+		settings = settings.withCollapsedNodes(new LinkedHashMap<>());
+		session.put("expand", settings);
+		settings = settings.withJoinEdges(false);
+		session.put("split edges", settings);
+
+		return session;
+	}
+
+	private static HighlightCondition createCondition(String type, Color color, boolean invisible,
+			String labelProperty) {
+		return new AndOrHighlightCondition(
+				new LogicalHighlightCondition(TYPE, LogicalHighlightCondition.Type.EQUAL, type), null, true, color,
+				invisible, false, labelProperty, null);
+	}
+
+	private static void assertGraphEquals(GraphCanvas expected, GraphCanvas actual) {
+		Set<String> expectedNodeIds = CanvasUtils.getElementIds(expected.getNodes());
+		Set<String> expectedEdgeIds = CanvasUtils.getElementIds(expected.getEdges());
+
+		assertEquals(expectedNodeIds, CanvasUtils.getElementIds(actual.getNodes()));
+		assertEquals(expectedEdgeIds, CanvasUtils.getElementIds(actual.getEdges()));
+		assertEquals(new HashSet<>(actual.getNodes()),
+				new HashSet<>(actual.getViewer().getGraphLayout().getGraph().getVertices()));
+		assertEquals(new HashSet<>(actual.getEdges()),
+				new HashSet<>(actual.getViewer().getGraphLayout().getGraph().getEdges()));
+	}
+
+	static class Settings {
+
+		private List<HighlightCondition> nodeConditions = new ArrayList<>();
+		private List<HighlightCondition> edgeConditions = new ArrayList<>();
+		private Map<String, Set<String>> collapsedNodes = new LinkedHashMap<>();
+		private boolean joinEdges = false;
+
+		public Settings withNodeConditions(HighlightCondition... nodeConditions) {
+			Settings copy = copy();
+
+			copy.nodeConditions = Arrays.asList(nodeConditions);
+
+			return copy;
+		}
+
+		public Settings withEdgeConditions(HighlightCondition... edgeConditions) {
+			Settings copy = copy();
+
+			copy.edgeConditions = Arrays.asList(edgeConditions);
+
+			return copy;
+		}
+
+		public Settings withCollapsedNodes(Map<String, Set<String>> collapsedNodes) {
+			Settings copy = copy();
+
+			copy.collapsedNodes = collapsedNodes;
+
+			return copy;
+		}
+
+		public Settings withJoinEdges(boolean joinEdges) {
+			Settings copy = copy();
+
+			copy.joinEdges = joinEdges;
+
+			return copy;
+		}
+
+		/**
+		 * Only changed settings are set, so that each step triggers the same updates as the
+		 * corresponding action in the user interface.
+		 */
+		public void apply(GraphCanvas canvas) {
+			if (!copyList(nodeConditions).equals(canvas.getNodeHighlightConditions().getConditions())) {
+				canvas.setNodeHighlightConditions(new HighlightConditionList(copyList(nodeConditions), false));
+			}
+
+			if (!copyList(edgeConditions).equals(canvas.getEdgeHighlightConditions().getConditions())) {
+				canvas.setEdgeHighlightConditions(new HighlightConditionList(copyList(edgeConditions), false));
+			}
+
+			if (!collapsedNodes.equals(canvas.getCollapsedNodes())) {
+				canvas.setCollapsedNodes(copyMap(collapsedNodes));
+			}
+
+			if (joinEdges != canvas.getOptionsPanel().isJoinEdges()) {
+				canvas.getOptionsPanel().setJoinEdges(joinEdges);
+			}
+		}
+
+		private Settings copy() {
+			Settings copy = new Settings();
+
+			copy.nodeConditions = nodeConditions;
+			copy.edgeConditions = edgeConditions;
+			copy.collapsedNodes = collapsedNodes;
+			copy.joinEdges = joinEdges;
+
+			return copy;
+		}
+
+		private static List<HighlightCondition> copyList(List<HighlightCondition> conditions) {
+			List<HighlightCondition> copy = new ArrayList<>();
+
+			conditions.forEach(c -> copy.add(c.copy()));
+
+			return copy;
+		}
+
+		private static Map<String, Set<String>> copyMap(Map<String, Set<String>> map) {
+			Map<String, Set<String>> copy = new LinkedHashMap<>();
+
+			map.forEach((key, value) -> copy.put(key, new LinkedHashSet<>(value)));
+
+			return copy;
+		}
+	}
+}
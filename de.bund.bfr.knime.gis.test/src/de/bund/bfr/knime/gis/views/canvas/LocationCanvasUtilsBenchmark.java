@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.bund.bfr.knime.gis.views.canvas.element.Edge;
+import de.bund.bfr.knime.gis.views.canvas.element.LocationNode;
+import de.bund.bfr.knime.gis.views.canvas.util.Transform;
+import edu.uci.ics.jung.algorithms.layout.Layout;
+
+/**
+ * Places a large number of nodes within a time limit. Part of
+ * {@link de.bund.bfr.knime.gis.GisBenchmarks} and not of the default test suite, since the run
+ * time depends on the machine.
+ */
+public class LocationCanvasUtilsBenchmark {
+
+	@Test(timeout = 60000)
+	public void testUpdateNodeLocations50000Nodes() {
+		List<LocationNode> nodes = LocationCanvasUtilsTest.createCities(50000, 5, new Random(0));
+		Layout<LocationNode, Edge<LocationNode>> layout = LocationCanvasUtilsTest.createLayout();
+
+		for (double scale : new double[] { 1.0, 4.0, 16.0, 64.0 }) {
+			LocationCanvasUtils.updateNodeLocations(nodes, layout, new Transform(scale, scale, 0, 0), 10, true);
+		}
+	}
+}
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.bund.bfr.knime.gis.views.canvas.element.Edge;
+import de.bund.bfr.knime.gis.views.canvas.element.LocationNode;
+import de.bund.bfr.knime.gis.views.canvas.util.Transform;
+import edu.uci.ics.jung.algorithms.layout.Layout;
+import edu.uci.ics.jung.algorithms.layout.StaticLayout;
+import edu.uci.ics.jung.graph.DirectedSparseMultigraph;
+
+public class LocationCanvasUtilsTest {
+
+	@Test
+	public void testUpdateNodeLocationsMatchesPairwiseSearch() {
+		Random random = new Random(1);
+
+		for (int fixture = 0; fixture < 20; fixture++) {
+			List<LocationNode> nodes = createCities(50 + random.nextInt(500), 1 + random.nextInt(4), random);
+			Transform transform = new Transform(0.5 + 20 * random.nextDouble(), 0.5 + 20 * random.nextDouble(), 0,
+					0);
+			int nodeSize = 4 + random.nextInt(20);
+			Layout<LocationNode, Edge<LocationNode>> layout = createLayout();
+
+			LocationCanvasUtils.updateNodeLocations(nodes, layout, transform, nodeSize, true);
+
+			Map<LocationNode, Point2D> expected = updateNodeLocationsPairwise(nodes, transform, nodeSize);
+
+			for (LocationNode node : nodes) {
+				assertEquals(expected.get(node), layout.transform(node));
+			}
+		}
+	}
+
+	@Test
+	public void testUpdateNodeLocationsMatchesPairwiseSearchInDenseCity() {
+		List<LocationNode> nodes = createCities(1500, 1, new Random(2));
+		Transform transform = new Transform(1, 1, 0, 0);
+		Layout<LocationNode, Edge<LocationNode>> layout = createLayout();
+
+		LocationCanvasUtils.updateNodeLocations(nodes, layout, transform, 10, true);
+
+		Map<LocationNode, Point2D> expected = updateNodeLocationsPairwise(nodes, transform, 10);
+
+		for (LocationNode node : nodes) {
+			assertEquals(expected.get(node), layout.transform(node));
+		}
+	}
+
+	@Test
+	public void testUpdateNodeLocationsWithoutAvoidOverlay() {
+		List<LocationNode> nodes = createCities(100, 2, new Random(0));
+		Layout<LocationNode, Edge<LocationNode>> layout = createLayout();
+
+		LocationCanvasUtils.updateNodeLocations(nodes, layout, new Transform(10, 10, 0, 0), 10, false);
+
+		for (LocationNode node : nodes) {
+			assertEquals(node.getCenter(), layout.transform(node));
+		}
+	}
+
+	/**
+	 * Creates nodes, that are normally distributed around a few city centers.
+	 */
+	static List<LocationNode> createCities(int nodeCount, int cityCount, Random random) {
+		double[][] cities = new double[cityCount][];
+		List<LocationNode> nodes = new ArrayList<>();
+
+		for (int i = 0; i < cityCount; i++) {
+			cities[i] = new double[] { 1000 * random.nextDouble(), 1000 * random.nextDouble(),
+					1 + 20 * random.nextDouble() };
+		}
+
+		for (int i = 0; i < nodeCount; i++) {
+			double[] city = cities[random.nextInt(cityCount)];
+
+			nodes.add(new LocationNode(String.valueOf(i), new LinkedHashMap<>(), new Point2D.Double(
+					city[0] + city[2] * random.nextGaussian(), city[1] + city[2] * random.nextGaussian())));
+		}
+
+		return nodes;
+	}
+
+	static Layout<LocationNode, Edge<LocationNode>> createLayout() {
+		return new StaticLayout<>(new DirectedSparseMultigraph<>());
+	}
+
+	/**
+	 * Placement of the nodes without spatial hash, that compares all pairs of nodes.
+	 */
+	private static Map<LocationNode, Point2D> updateNodeLocationsPairwise(List<LocationNode> nodes,
+			Transform transform, int nodeSize) {
+		Map<LocationNode, Point2D> positions = new LinkedHashMap<>();
+
+		for (LocationNode n : nodes) {
+			positions.put(n, n.getCenter());
+		}
+
+		double s = nodeSize / transform.getScaleX();
+		double d = s / 5.0;
+		Random rand = new Random(0);
+
+		for (LocationNode n1 : nodes) {
+			Point2D p1 = positions.get(n1);
+			List<Point2D> neighbors = new ArrayList<>();
+
+			for (LocationNode n2 : nodes) {
+				Point2D p2 = positions.get(n2);
+
+				if (n1 != n2 && p1.distance(p2) < 2 * s) {
+					neighbors.add(p2);
+				}
+			}
+
+			double randX = rand.nextDouble();
+			double randY = rand.nextDouble();
+			double bestDistance = 0.0;
+			Point2D bestPoint = null;
+
+			for (double x = p1.getX() - s + randX * d; x <= p1.getX() + s; x += d) {
+				for (double y = p1.getY() - s + randY * d; y <= p1.getY() + s; y += d) {
+					double distance = Double.POSITIVE_INFINITY;
+
+					for (Point2D p : neighbors) {
+						distance = Math.min(distance, p.distance(x, y));
+					}
+
+					if (distance > bestDistance) {
+						bestDistance = distance;
+						bestPoint = new Point2D.Double(x, y);
+					}
+				}
+			}
+
+			positions.put(n1, bestPoint);
+		}
+
+		return positions;
+	}
+}
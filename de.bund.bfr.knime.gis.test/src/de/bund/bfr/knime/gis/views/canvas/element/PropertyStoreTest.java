@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas.element;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PropertyStoreTest {
+
+	private static final String STRING = "string";
+	private static final String DOUBLE = "double";
+	private static final String INT = "int";
+	private static final String BOOLEAN = "boolean";
+
+	private PropertyStore store;
+
+	@Before
+	public void setUp() throws Exception {
+		Map<String, Class<?>> types = new LinkedHashMap<>();
+
+		types.put(STRING, String.class);
+		types.put(DOUBLE, Double.class);
+		types.put(INT, Integer.class);
+		types.put(BOOLEAN, Boolean.class);
+		store = new PropertyStore(types);
+	}
+
+	@Test
+	public void testPutAndGet() {
+		Map<String, Object> row = store.getRow(store.addRow());
+
+		assertTrue(row.isEmpty());
+		assertNull(row.put(STRING, "a"));
+		assertNull(row.put(DOUBLE, null));
+		assertNull(row.put(INT, 3));
+		assertNull(row.put(BOOLEAN, true));
+
+		assertEquals("a", row.get(STRING));
+		assertNull(row.get(DOUBLE));
+		assertTrue(row.containsKey(DOUBLE));
+		assertEquals(3, row.get(INT));
+		assertEquals(true, row.get(BOOLEAN));
+		assertEquals(4, row.size());
+		assertEquals(Arrays.asList(STRING, DOUBLE, INT, BOOLEAN), Arrays.asList(row.keySet().toArray()));
+
+		assertEquals("a", row.put(STRING, null));
+		assertNull(row.get(STRING));
+		assertEquals(3, row.remove(INT));
+		assertFalse(row.containsKey(INT));
+		assertEquals(3, row.size());
+	}
+
+	@Test
+	public void testNewAndMixedProperties() {
+		Map<String, Object> row1 = store.getRow(store.addRow());
+		Map<String, Object> row2 = store.getRow(store.addRow());
+
+		row1.put("new", 1.5);
+		row2.put(INT, 2);
+		row2.put(INT, "two");
+
+		assertEquals(1.5, row1.get("new"));
+		assertFalse(row2.containsKey("new"));
+		assertEquals("two", row2.get(INT));
+		assertFalse(row1.containsKey(INT));
+	}
+
+	@Test
+	public void testEqualsMap() {
+		Random random = new Random(0);
+		Map<String, Object> expected = new LinkedHashMap<>();
+		Map<String, Object> row = store.getRow(store.addRow());
+
+		for (int i = 0; i < 10000; i++) {
+			String property = Arrays.asList(STRING, DOUBLE, INT, BOOLEAN, "other").get(random.nextInt(5));
+			Object value = Arrays.asList("x", "y", 1.0, 2, false, null).get(random.nextInt(6));
+
+			if (random.nextInt(4) == 0) {
+				assertEquals(expected.remove(property), row.remove(property));
+			} else {
+				assertEquals(expected.put(property, value), row.put(property, value));
+			}
+
+			assertEquals(expected, row);
+			assertEquals(row, expected);
+			assertEquals(expected.hashCode(), row.hashCode());
+		}
+	}
+
+	@Test
+	public void testEntryIterator() {
+		Map<String, Object> row = store.getRow(store.addRow());
+
+		row.put(STRING, "a");
+		row.put(INT, 1);
+
+		Iterator<Map.Entry<String, Object>> iterator = row.entrySet().iterator();
+		Map.Entry<String, Object> entry = iterator.next();
+
+		assertEquals(STRING, entry.getKey());
+		entry.setValue("b");
+		assertEquals("b", row.get(STRING));
+		assertEquals(INT, iterator.next().getKey());
+		iterator.remove();
+		assertFalse(iterator.hasNext());
+		assertFalse(row.containsKey(INT));
+	}
+
+	@Test
+	public void testCopy() {
+		Map<String, Object> row = store.getRow(store.addRow());
+
+		row.put(STRING, "a");
+		row.put(DOUBLE, 1.0);
+
+		PropertyStore copy = store.copy();
+		Map<String, Object> copiedRow = copy.getRow(0);
+
+		assertEquals(row, copiedRow);
+		copiedRow.put(STRING, "b");
+		assertEquals("a", row.get(STRING));
+		assertSame(copy, PropertyStore.getStore(copiedRow));
+		assertEquals(0, PropertyStore.getRowIndex(copiedRow));
+		assertNull(PropertyStore.getStore(new LinkedHashMap<>()));
+		assertEquals(-1, PropertyStore.getRowIndex(new LinkedHashMap<>()));
+	}
+
+	@Test
+	public void testAddRowWithProperties() {
+		Map<String, Object> properties = new LinkedHashMap<>();
+
+		properties.put(STRING, "a");
+		properties.put("new", null);
+
+		Map<String, Object> row = store.addRow(properties);
+
+		assertEquals(properties, row);
+		assertSame(store, PropertyStore.getStore(row));
+		assertEquals(store.getVersion(), PropertyStore.getRowVersion(row));
+	}
+
+	@Test
+	public void testVersion() {
+		Map<String, Object> row = store.getRow(store.addRow());
+		long version = store.getVersion();
+
+		row.get(STRING);
+		row.containsKey(STRING);
+		assertEquals(version, store.getVersion());
+
+		row.put(STRING, "a");
+		assertTrue(store.getVersion() > version);
+		version = store.getVersion();
+
+		row.entrySet().iterator().next().setValue("b");
+		assertTrue(store.getVersion() > version);
+		version = store.getVersion();
+
+		row.remove(STRING);
+		assertTrue(store.getVersion() > version);
+	}
+
+	@Test
+	public void testRowVersion() {
+		Map<String, Object> row1 = store.getRow(store.addRow());
+		Map<String, Object> row2 = store.getRow(store.addRow());
+
+		row1.put(STRING, "a");
+		row2.put(STRING, "b");
+
+		long version1 = PropertyStore.getRowVersion(row1);
+		long version2 = PropertyStore.getRowVersion(row2);
+
+		assertTrue(version1 < version2);
+		assertEquals(store.getVersion(), version2);
+
+		row1.put(STRING, "a");
+		assertEquals(version1, PropertyStore.getRowVersion(row1));
+		assertEquals(version2, store.getVersion());
+
+		row1.put(STRING, "c");
+		assertTrue(PropertyStore.getRowVersion(row1) > version2);
+		assertEquals(version2, PropertyStore.getRowVersion(row2));
+		assertEquals(-1, PropertyStore.getRowVersion(new HashMap<>()));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testMissingRow() {
+		store.getRow(0);
+	}
+}
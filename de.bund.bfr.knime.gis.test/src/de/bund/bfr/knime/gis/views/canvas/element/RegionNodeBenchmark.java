@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas.element;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.NavigableMap;
+
+import org.junit.Test;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+
+import com.vividsolutions.jts.geom.MultiPolygon;
+
+import de.bund.bfr.knime.gis.CoverageSimplifier;
+import de.bund.bfr.knime.gis.CoverageSimplifierTest;
+import de.bund.bfr.knime.gis.views.canvas.util.Transform;
+
+/**
+ * Paints a coverage with about 500000 vertices within a time limit. Part of
+ * {@link de.bund.bfr.knime.gis.GisBenchmarks} and not of the default test suite, since the run
+ * time depends on the machine.
+ */
+public class RegionNodeBenchmark {
+
+	@Test(timeout = 300000)
+	public void testPaintPerLevel() throws CanceledExecutionException {
+		List<MultiPolygon> coverage = CoverageSimplifierTest.createCoverage(8, 2000, 0);
+		List<NavigableMap<Double, MultiPolygon>> levels = CoverageSimplifier.getLevels(coverage,
+				new ExecutionMonitor(), RegionNodeTest.TOLERANCES);
+		List<RegionNode> nodes = new ArrayList<>();
+		List<Double> zoomLevels = new ArrayList<>();
+
+		for (int i = 0; i < coverage.size(); i++) {
+			nodes.add(new RegionNode(String.valueOf(i), new LinkedHashMap<>(), coverage.get(i), levels.get(i)));
+		}
+
+		zoomLevels.add(RegionNodeTest.TOLERANCES[0] * 0.5);
+
+		for (double tolerance : RegionNodeTest.TOLERANCES) {
+			zoomLevels.add(tolerance * 1.01);
+		}
+
+		for (double tolerance : zoomLevels) {
+			paint(nodes, RegionNodeTest.getTransform(tolerance, 0.0));
+			paint(nodes, RegionNodeTest.getTransform(tolerance, -100.0));
+		}
+	}
+
+	private static void paint(List<RegionNode> nodes, Transform transform) {
+		BufferedImage image = new BufferedImage(1000, 1000, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = image.createGraphics();
+
+		g.setColor(Color.BLACK);
+
+		for (RegionNode node : nodes) {
+			node.createTransformedPolygons(transform);
+
+			Shape shape = node.getTransformedPolygon();
+
+			if (shape.intersects(0, 0, image.getWidth(), image.getHeight())) {
+				g.draw(shape);
+			}
+		}
+
+		g.dispose();
+	}
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas.element;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.NavigableMap;
+
+import org.junit.Test;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+
+import com.vividsolutions.jts.geom.MultiPolygon;
+
+import de.bund.bfr.knime.gis.CoverageSimplifier;
+import de.bund.bfr.knime.gis.CoverageSimplifierTest;
+import de.bund.bfr.knime.gis.views.canvas.util.Transform;
+
+public class RegionNodeTest {
+
+	static final double[] TOLERANCES = { 0.0005, 0.002, 0.008, 0.032 };
+
+	@Test
+	public void testLevelIsChosenByZoom() throws CanceledExecutionException {
+		List<MultiPolygon> coverage = CoverageSimplifierTest.createCoverage(1, 2000, 0);
+		NavigableMap<Double, MultiPolygon> levels = CoverageSimplifier
+				.getLevels(coverage, new ExecutionMonitor(), TOLERANCES).get(0);
+		RegionNode node = new RegionNode("r", new LinkedHashMap<>(), coverage.get(0), levels);
+		int previousCount = Integer.MAX_VALUE;
+
+		for (double tolerance : TOLERANCES) {
+			Transform transform = getTransform(tolerance * 1.01, 0.0);
+			int count = getPointCount(node, transform);
+
+			assertEquals(getPointCount(transform.apply(levels.get(tolerance))), count);
+			assertTrue(count < previousCount);
+			previousCount = count;
+		}
+
+		Transform transform = getTransform(TOLERANCES[0] * 0.5, 0.0);
+
+		assertEquals(getPointCount(transform.apply(coverage.get(0))), getPointCount(node, transform));
+		assertEquals(levels, node.copy().getSimplifiedPolygons());
+	}
+
+	/**
+	 * @return a transform, for which the tolerance corresponds to the maximum error of the
+	 *         simplified polygons
+	 */
+	static Transform getTransform(double tolerance, double translation) {
+		double scale = 0.5 / tolerance;
+
+		return new Transform(scale, scale, translation, translation);
+	}
+
+	private static int getPointCount(RegionNode node, Transform transform) {
+		node.createTransformedPolygons(transform);
+
+		return getPointCount(node.getTransformedPolygon());
+	}
+
+	private static int getPointCount(Shape shape) {
+		int count = 0;
+
+		for (PathIterator iterator = shape.getPathIterator(null); !iterator.isDone(); iterator.next()) {
+			count++;
+		}
+
+		return count;
+	}
+}
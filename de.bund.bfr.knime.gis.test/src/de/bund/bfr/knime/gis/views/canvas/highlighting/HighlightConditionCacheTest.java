@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas.highlighting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import de.bund.bfr.knime.gis.views.canvas.element.Element;
+import de.bund.bfr.knime.gis.views.canvas.element.GraphNode;
+import de.bund.bfr.knime.gis.views.canvas.element.PropertyStore;
+
+public class HighlightConditionCacheTest {
+
+	private static final String PROPERTY = "property";
+	private static final String VALUE_1 = "value1";
+	private static final String VALUE_2 = "value2";
+
+	private PropertyStore store;
+	private List<Element> elements;
+	private AndOrHighlightCondition condition;
+	private HighlightConditionCache cache;
+
+	@Before
+	public void setUp() throws Exception {
+		store = new PropertyStore(ImmutableMap.of(PROPERTY, String.class));
+		elements = Arrays.asList(createElement(VALUE_1), createElement(VALUE_2));
+		condition = new AndOrHighlightCondition(
+				new LogicalHighlightCondition(PROPERTY, LogicalHighlightCondition.Type.EQUAL, VALUE_1), null, true,
+				null, false, false, null, null);
+		cache = new HighlightConditionCache();
+	}
+
+	@Test
+	public void testValuesAreCached() {
+		Map<Element, Double> values = cache.getValues(condition, elements);
+
+		assertEquals(condition.getValues(elements), values);
+		assertSame(values, cache.getValues(condition, elements));
+		assertSame(values, cache.getValues(condition.copy(), elements));
+	}
+
+	@Test
+	public void testChangedPropertyIsEvaluated() {
+		Map<Element, Double> values = cache.getValues(condition, elements);
+
+		elements.get(1).getProperties().put(PROPERTY, VALUE_1);
+
+		Map<Element, Double> newValues = cache.getValues(condition, elements);
+
+		assertNotSame(values, newValues);
+		assertEquals(ImmutableMap.of(elements.get(0), 1.0, elements.get(1), 1.0), newValues);
+	}
+
+	@Test
+	public void testChangedConditionIsEvaluated() {
+		Map<Element, Double> values = cache.getValues(condition, elements);
+
+		condition.getConditions().get(0).get(0).setValue(VALUE_2);
+
+		Map<Element, Double> newValues = cache.getValues(condition, elements);
+
+		assertNotSame(values, newValues);
+		assertEquals(ImmutableMap.of(elements.get(0), 0.0, elements.get(1), 1.0), newValues);
+	}
+
+	@Test
+	public void testOtherElementsAreEvaluated() {
+		Map<Element, Double> values = cache.getValues(condition, elements);
+		Map<Element, Double> newValues = cache.getValues(condition,
+				Collections.singletonList(elements.get(1)));
+
+		assertNotSame(values, newValues);
+		assertEquals(ImmutableMap.of(elements.get(1), 0.0), newValues);
+	}
+
+	@Test
+	public void testOtherElementsWithSameCountAreEvaluated() {
+		Map<Element, Double> values = cache.getValues(condition, Collections.singletonList(elements.get(0)));
+		Map<Element, Double> newValues = cache.getValues(condition, Collections.singletonList(elements.get(1)));
+
+		assertEquals(ImmutableMap.of(elements.get(0), 1.0), values);
+		assertEquals(ImmutableMap.of(elements.get(1), 0.0), newValues);
+	}
+
+	@Test
+	public void testElementsWithoutStoreAreNotCached() {
+		List<Element> elements = Arrays.asList(new GraphNode(null, ImmutableMap.of(PROPERTY, VALUE_1)));
+
+		assertNotSame(cache.getValues(condition, elements),
+				cache.getValues(condition, elements));
+	}
+
+	private Element createElement(String value) {
+		Map<String, Object> properties = store.getRow(store.addRow());
+
+		properties.put(PROPERTY, value);
+
+		return new GraphNode(null, properties);
+	}
+}
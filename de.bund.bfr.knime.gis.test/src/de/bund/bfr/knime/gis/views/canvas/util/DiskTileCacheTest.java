@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DiskTileCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path directory;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = folder.newFolder("cache").toPath();
+	}
+
+	@Test
+	public void testPutAndGet() throws IOException {
+		DiskTileCache cache = new DiskTileCache(directory, 100);
+		String key = DiskTileCache.getKey("TEST", 1, 2, 3);
+
+		assertNull(cache.get(key));
+		cache.put(key, new byte[] { 1, 2, 3 });
+		assertArrayEquals(new byte[] { 1, 2, 3 }, cache.get(key));
+		assertEquals(3, cache.getSize());
+		assertEquals(1, cache.getTileCount());
+	}
+
+	@Test
+	public void testEvictsLeastRecentlyUsed() throws IOException {
+		DiskTileCache cache = new DiskTileCache(directory, 30);
+
+		cache.put("a", new byte[10]);
+		cache.put("b", new byte[10]);
+		cache.put("c", new byte[10]);
+		cache.get("a");
+		cache.put("d", new byte[10]);
+
+		assertTrue(cache.contains("a"));
+		assertFalse(cache.contains("b"));
+		assertTrue(cache.contains("c"));
+		assertTrue(cache.contains("d"));
+		assertEquals(30, cache.getSize());
+	}
+
+	@Test
+	public void testOrderSurvivesRestart() throws IOException {
+		DiskTileCache cache = new DiskTileCache(directory, 30);
+
+		cache.put("a", new byte[10]);
+		cache.put("b", new byte[10]);
+		cache.put("c", new byte[10]);
+		cache.get("a");
+		cache.flush();
+
+		DiskTileCache restarted = new DiskTileCache(directory, 20);
+
+		assertTrue(restarted.contains("a"));
+		assertFalse(restarted.contains("b"));
+		assertTrue(restarted.contains("c"));
+		assertEquals(20, restarted.getSize());
+	}
+
+	@Test
+	public void testConcurrentPutAndGet() throws IOException, InterruptedException, ExecutionException {
+		DiskTileCache cache = new DiskTileCache(directory, 1000);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<?>> futures = new ArrayList<>();
+
+		for (int t = 0; t < 8; t++) {
+			int thread = t;
+
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < 200; i++) {
+					String key = DiskTileCache.getKey("TEST", thread, i, 10);
+
+					cache.put(key, new byte[] { (byte) thread, (byte) i, 0, 0, 0, 0, 0, 0, 0, 0 });
+					cache.get(DiskTileCache.getKey("TEST", thread, i / 2, 10));
+				}
+
+				return null;
+			}));
+		}
+
+		for (Future<?> future : futures) {
+			future.get();
+		}
+
+		executor.shutdown();
+
+		assertTrue(cache.getSize() <= 1000);
+		assertEquals(10L * cache.getTileCount(), cache.getSize());
+
+		for (int thread = 0; thread < 8; thread++) {
+			for (int i = 0; i < 200; i++) {
+				String key = DiskTileCache.getKey("TEST", thread, i, 10);
+
+				if (cache.contains(key)) {
+					assertArrayEquals(new byte[] { (byte) thread, (byte) i, 0, 0, 0, 0, 0, 0, 0, 0 }, cache.get(key));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testTilesWithoutIndex() throws IOException {
+		DiskTileCache cache = new DiskTileCache(directory, 100);
+
+		cache.put(DiskTileCache.getKey("TEST", 0, 0, 0), new byte[10]);
+		cache.put(DiskTileCache.getKey("TEST", 0, 0, 1), new byte[20]);
+
+		DiskTileCache restarted = new DiskTileCache(directory, 100);
+
+		assertEquals(2, restarted.getTileCount());
+		assertEquals(30, restarted.getSize());
+		assertArrayEquals(new byte[20], restarted.get(DiskTileCache.getKey("TEST", 0, 0, 1)));
+	}
+}
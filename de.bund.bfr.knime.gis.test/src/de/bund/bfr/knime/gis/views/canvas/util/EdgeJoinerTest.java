@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.bund.bfr.knime.gis.views.canvas.CanvasUtils;
+import de.bund.bfr.knime.gis.views.canvas.element.Edge;
+import de.bund.bfr.knime.gis.views.canvas.element.GraphNode;
+import de.bund.bfr.knime.gis.views.canvas.element.PropertyStore;
+
+public class EdgeJoinerTest {
+
+	private static final int NODE_COUNT = 10;
+	private static final int EDGE_COUNT = 200;
+	private static final int STEP_COUNT = 200;
+
+	private static final String ID = "ID";
+	private static final String FROM = "From";
+	private static final String TO = "To";
+	private static final String NAME = "Name";
+	private static final String AMOUNT = "Amount";
+	private static final String COUNT = "Count";
+	private static final String OBSERVED = "Observed";
+
+	private EdgePropertySchema schema;
+	private List<GraphNode> nodes;
+	private List<Edge<GraphNode>> allEdges;
+
+	@Before
+	public void setUp() throws Exception {
+		Map<String, Class<?>> types = new LinkedHashMap<>();
+
+		types.put(ID, String.class);
+		types.put(FROM, String.class);
+		types.put(TO, String.class);
+		types.put(NAME, String.class);
+		types.put(AMOUNT, Double.class);
+		types.put(COUNT, Integer.class);
+		types.put(OBSERVED, Boolean.class);
+
+		schema = new EdgePropertySchema(types, ID, FROM, TO);
+		nodes = new ArrayList<>();
+		allEdges = new ArrayList<>();
+
+		for (int i = 0; i < NODE_COUNT; i++) {
+			nodes.add(new GraphNode("n" + i, new LinkedHashMap<>()));
+		}
+
+		PropertyStore store = new PropertyStore(types);
+		Random random = new Random(0);
+
+		for (int i = 0; i < EDGE_COUNT; i++) {
+			GraphNode from = nodes.get(random.nextInt(NODE_COUNT));
+			GraphNode to = nodes.get(random.nextInt(NODE_COUNT));
+			Map<String, Object> properties = store.getRow(store.addRow());
+
+			properties.put(ID, "e" + i);
+			properties.put(FROM, from.getId());
+			properties.put(TO, to.getId());
+			allEdges.add(new Edge<>("e" + i, properties, from, to));
+			setRandomProperties(properties, random);
+		}
+	}
+
+	@Test
+	public void testRandomEdits() {
+		EdgeJoiner<GraphNode> joiner = new EdgeJoiner<>(schema, allEdges);
+		Map<String, Edge<GraphNode>> edgesById = new LinkedHashMap<>();
+		Random random = new Random(1);
+
+		allEdges.forEach(e -> edgesById.put(e.getId(), e));
+
+		for (int step = 0; step < STEP_COUNT; step++) {
+			Edge<GraphNode> edge = allEdges.get(random.nextInt(EDGE_COUNT));
+
+			switch (random.nextInt(4)) {
+			case 0:
+				if (edgesById.remove(edge.getId()) == null) {
+					edgesById.put(edge.getId(), edge);
+				}
+				break;
+			case 1:
+				List<String> ids = new ArrayList<>(edgesById.keySet());
+
+				for (int i = 0; i < ids.size(); i += 2 + random.nextInt(5)) {
+					edgesById.remove(ids.get(i));
+				}
+				break;
+			case 2:
+				setRandomProperties(edge.getProperties(), random);
+				break;
+			case 3:
+				if (edgesById.containsKey(edge.getId())) {
+					GraphNode to = nodes.get(random.nextInt(NODE_COUNT));
+
+					edgesById.put(edge.getId(), new Edge<>(edge.getId(), edge.getProperties(), edge.getFrom(), to));
+				} else {
+					allEdges.forEach(e -> edgesById.putIfAbsent(e.getId(), e));
+				}
+				break;
+			}
+
+			Set<Edge<GraphNode>> edges = new LinkedHashSet<>(edgesById.values());
+
+			assertJoinedEquals(CanvasUtils.joinEdges(edges, schema, allEdges), joiner.join(edges));
+		}
+	}
+
+	@Test
+	public void testUnchangedJoinedEdgesAreReused() {
+		EdgeJoiner<GraphNode> joiner = new EdgeJoiner<>(schema, allEdges);
+		Edge<GraphNode> edge = allEdges.get(0);
+		Map<String, Edge<GraphNode>> joinedBefore = getById(joiner.join(allEdges).keySet());
+
+		edge.getProperties().put(NAME, "changed");
+
+		Map<String, Edge<GraphNode>> joinedAfter = getById(joiner.join(allEdges).keySet());
+		String changedId = edge.getFrom().getId() + "->" + edge.getTo().getId();
+
+		assertEquals(joinedBefore.keySet(), joinedAfter.keySet());
+
+		for (String id : joinedBefore.keySet()) {
+			assertSame(joinedBefore.get(id), joinedAfter.get(id));
+		}
+
+		assertEquals(getById(CanvasUtils.joinEdges(allEdges, schema, allEdges).keySet()).get(changedId)
+				.getProperties().get(NAME), joinedAfter.get(changedId).getProperties().get(NAME));
+	}
+
+	@Test
+	public void testChangesOfJoinedEdgesAreReset() {
+		EdgeJoiner<GraphNode> joiner = new EdgeJoiner<>(schema, allEdges);
+		Edge<GraphNode> joinedEdge = joiner.join(allEdges).keySet().iterator().next();
+		Object amount = joinedEdge.getProperties().get(AMOUNT);
+
+		joinedEdge.getProperties().put(AMOUNT, null);
+		joinedEdge.getProperties().put("Score", 1.0);
+
+		assertSame(joinedEdge, joiner.join(allEdges).keySet().iterator().next());
+		assertEquals(amount, joinedEdge.getProperties().get(AMOUNT));
+		assertNull(joinedEdge.getProperties().get("Score"));
+	}
+
+	private static void setRandomProperties(Map<String, Object> properties, Random random) {
+		properties.put(NAME, random.nextBoolean() ? "a" : "b");
+		properties.put(AMOUNT, random.nextInt(8) * 0.5);
+		properties.put(COUNT, random.nextInt(4) == 0 ? null : random.nextInt(10));
+		properties.put(OBSERVED, random.nextBoolean());
+	}
+
+	private static Map<String, Edge<GraphNode>> getById(Set<Edge<GraphNode>> edges) {
+		Map<String, Edge<GraphNode>> edgesById = new HashMap<>();
+
+		edges.forEach(e -> edgesById.put(e.getId(), e));
+
+		return edgesById;
+	}
+
+	private static void assertJoinedEquals(Map<Edge<GraphNode>, Set<Edge<GraphNode>>> expected,
+			Map<Edge<GraphNode>, Set<Edge<GraphNode>>> actual) {
+		assertEquals(toComparable(expected), toComparable(actual));
+	}
+
+	private static List<Object> toComparable(Map<Edge<GraphNode>, Set<Edge<GraphNode>>> joined) {
+		List<Object> result = new ArrayList<>();
+
+		joined.forEach((joinedEdge, edges) -> {
+			Set<String> edgeIds = new LinkedHashSet<>();
+
+			edges.forEach(e -> edgeIds.add(e.getId() + ":" + e.getFrom().getId() + "->" + e.getTo().getId()));
+			result.add(Arrays.asList(joinedEdge.getId(), joinedEdge.getFrom(), joinedEdge.getTo(),
+					new HashMap<>(joinedEdge.getProperties()), new HashSet<>(edgeIds)));
+		});
+
+		return result;
+	}
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas.util;
+
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+import de.bund.bfr.knime.gis.views.canvas.element.RegionNode;
+
+/**
+ * Compares the time of painting all regions of a large map with painting only the regions, that
+ * {@link RegionIndex} returns for the viewport. Part of {@link de.bund.bfr.knime.gis.GisBenchmarks}
+ * and not of the default test suite, since the run time depends on the machine.
+ */
+public class RegionIndexBenchmark {
+
+	private static Logger logger = Logger.getLogger("de.bund.bfr");
+
+	@Test(timeout = 120000)
+	public void testPaintingVisibleRegionsIsFaster() {
+		List<RegionNode> regions = RegionIndexTest.createRegions(100, 64);
+		RegionIndex index = new RegionIndex(regions);
+		Transform transform = new Transform(80, 80, -4000, -4000);
+		Rectangle2D viewport = new Rectangle2D.Double(50, 50, RegionIndexTest.CANVAS_SIZE.width / 80.0,
+				RegionIndexTest.CANVAS_SIZE.height / 80.0);
+		long allTime = Long.MAX_VALUE;
+		long visibleTime = Long.MAX_VALUE;
+
+		for (int i = 0; i < 3; i++) {
+			Transform t = transform.concatenate(new Transform(1, 1, i, i));
+
+			allTime = Math.min(allTime, paint(regions, t));
+			visibleTime = Math.min(visibleTime, paint(index.getRegions(viewport), t));
+		}
+
+		logger.info("Painting all regions took " + allTime / 1000000 + " ms, painting visible regions "
+				+ visibleTime / 1000000 + " ms");
+		assertTrue("Painting visible regions took " + visibleTime / 1000000 + " ms, painting all regions "
+				+ allTime / 1000000 + " ms", 5 * visibleTime < allTime);
+	}
+
+	private static long paint(Collection<RegionNode> regions, Transform transform) {
+		BufferedImage image = new BufferedImage(RegionIndexTest.CANVAS_SIZE.width,
+				RegionIndexTest.CANVAS_SIZE.height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		long start = System.nanoTime();
+
+		for (RegionNode region : regions) {
+			region.createTransformedPolygons(transform);
+			g.draw(region.getTransformedPolygon());
+		}
+
+		long time = System.nanoTime() - start;
+
+		g.dispose();
+		image.flush();
+
+		return time;
+	}
+}
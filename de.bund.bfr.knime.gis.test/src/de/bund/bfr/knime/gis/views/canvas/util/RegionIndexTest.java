@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Polygon;
+
+import de.bund.bfr.knime.gis.views.canvas.element.RegionNode;
+
+public class RegionIndexTest {
+
+	static final Dimension CANVAS_SIZE = new Dimension(800, 600);
+
+	@Test
+	public void testGetRegionsOfRectangle() {
+		List<RegionNode> regions = createRegions(20, 16);
+		RegionIndex index = new RegionIndex(regions);
+		Random random = new Random(0);
+
+		for (int i = 0; i < 100; i++) {
+			Rectangle2D bounds = new Rectangle2D.Double(random.nextDouble() * 25 - 5, random.nextDouble() * 25 - 5,
+					random.nextDouble() * 10, random.nextDouble() * 10);
+			List<RegionNode> expected = regions.stream().filter(r -> r.getBoundingBox().intersects(bounds))
+					.collect(Collectors.toList());
+
+			assertEquals(expected, index.getRegions(bounds));
+		}
+	}
+
+	@Test
+	public void testGetRegionsOfPoint() {
+		List<RegionNode> regions = createRegions(20, 16);
+		RegionIndex index = new RegionIndex(regions);
+		Random random = new Random(0);
+
+		for (int i = 0; i < 1000; i++) {
+			Point2D p = new Point2D.Double(random.nextDouble() * 22 - 1, random.nextDouble() * 22 - 1);
+			RegionNode expected = regions.stream().filter(r -> r.containsPoint(p)).findFirst().orElse(null);
+			RegionNode picked = index.getRegions(p).stream().filter(r -> r.containsPoint(p)).findFirst()
+					.orElse(null);
+
+			assertSame(expected, picked);
+		}
+	}
+
+	@Test
+	public void testEmptyIndex() {
+		RegionIndex index = new RegionIndex(Collections.emptyList());
+
+		assertTrue(index.getRegions(new Rectangle2D.Double(0, 0, 1, 1)).isEmpty());
+		assertTrue(index.getRegions(new Point2D.Double(0, 0)).isEmpty());
+	}
+
+	@Test
+	public void testTransformedPolygon() {
+		RegionNode region = createRegions(1, 16).get(0);
+		Transform transform = new Transform(10, 20, 5, 7);
+		Transform moved = new Transform(10, 20, -50, 70);
+
+		assertNull(region.getTransformedPolygon());
+
+		region.createTransformedPolygons(transform);
+		assertBoundsEqual(new Path2D.Double(transform.apply(region.getPolygon())).getBounds2D(),
+				region.getTransformedPolygon().getBounds2D());
+		assertSame(region.getTransformedPolygon(), region.getTransformedPolygon());
+
+		region.createTransformedPolygons(new Transform(10, 20, 5, 7));
+		assertSame(region.getTransformedPolygon(), region.getTransformedPolygon());
+
+		region.createTransformedPolygons(moved);
+		assertBoundsEqual(new Path2D.Double(moved.apply(region.getPolygon())).getBounds2D(),
+				region.getTransformedPolygon().getBounds2D());
+	}
+
+	@Test
+	public void testOnlyVisibleRegionsAreTransformed() {
+		List<RegionNode> regions = createRegions(100, 16);
+		RegionIndex index = new RegionIndex(regions);
+		Transform transform = new Transform(80, 80, -4000, -4000);
+		Rectangle2D viewport = new Rectangle2D.Double(50, 50, CANVAS_SIZE.width / 80.0, CANVAS_SIZE.height / 80.0);
+		List<RegionNode> visible = index.getRegions(viewport);
+
+		paint(visible, transform);
+
+		long transformedCount = regions.stream().filter(r -> r.getTransformedPolygon() != null).count();
+
+		assertEquals(visible.size(), transformedCount);
+		assertTrue(visible.size() + " of " + regions.size() + " regions are visible",
+				100 * visible.size() < regions.size() * 2);
+	}
+
+	private static void paint(Collection<RegionNode> regions, Transform transform) {
+		BufferedImage image = new BufferedImage(CANVAS_SIZE.width, CANVAS_SIZE.height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+
+		for (RegionNode region : regions) {
+			region.createTransformedPolygons(transform);
+			g.draw(region.getTransformedPolygon());
+		}
+
+		g.dispose();
+		image.flush();
+	}
+
+	/**
+	 * Creates a map of {@code n} x {@code n} regions, each with a circle of {@code vertexCount}
+	 * vertices.
+	 */
+	static List<RegionNode> createRegions(int n, int vertexCount) {
+		GeometryFactory factory = new GeometryFactory();
+		List<RegionNode> regions = new ArrayList<>();
+
+		for (int x = 0; x < n; x++) {
+			for (int y = 0; y < n; y++) {
+				Coordinate[] ring = new Coordinate[vertexCount + 1];
+
+				for (int i = 0; i < vertexCount; i++) {
+					double angle = 2.0 * Math.PI * i / vertexCount;
+
+					ring[i] = new Coordinate(x + 0.5 + 0.6 * Math.cos(angle), y + 0.5 + 0.6 * Math.sin(angle));
+				}
+
+				ring[vertexCount] = ring[0];
+
+				Polygon polygon = factory.createPolygon(factory.createLinearRing(ring), null);
+
+				regions.add(new RegionNode(x + "_" + y, new LinkedHashMap<>(),
+						factory.createMultiPolygon(new Polygon[] { polygon })));
+			}
+		}
+
+		return regions;
+	}
+
+	private static void assertBoundsEqual(Rectangle2D expected, Rectangle2D actual) {
+		assertEquals(expected.getMinX(), actual.getMinX(), 1e-6);
+		assertEquals(expected.getMinY(), actual.getMinY(), 1e-6);
+		assertEquals(expected.getMaxX(), actual.getMaxX(), 1e-6);
+		assertEquals(expected.getMaxY(), actual.getMaxY(), 1e-6);
+	}
+}
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RadialGradientPaint;
+import java.awt.Rectangle;
+import java.awt.TexturePaint;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+public class SvgStreamGraphics2DTest {
+
+	@Test
+	public void testShapes() throws Exception {
+		Document document = write(200, 100, g -> {
+			g.setColor(Color.RED);
+			g.fillRect(10, 10, 20, 30);
+			g.setColor(new Color(0, 0, 255, 128));
+			g.setStroke(new BasicStroke(2.0f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 1.0f,
+					new float[] { 4.0f, 2.0f }, 0.0f));
+			g.scale(2.0, 2.0);
+			g.draw(new Ellipse2D.Double(10, 10, 20, 20));
+		});
+		List<Element> paths = getChildren(document, "path");
+
+		assertEquals(2, paths.size());
+		assertEquals("#ff0000", paths.get(0).getAttribute("fill"));
+		assertEquals("M10 10L30 10L30 40L10 40L10 10Z", paths.get(0).getAttribute("d"));
+		assertEquals("none", paths.get(1).getAttribute("fill"));
+		assertEquals("#0000ff", paths.get(1).getAttribute("stroke"));
+		assertEquals("0.5", paths.get(1).getAttribute("stroke-opacity"));
+		assertEquals("4", paths.get(1).getAttribute("stroke-width"));
+		assertEquals("8 4", paths.get(1).getAttribute("stroke-dasharray"));
+	}
+
+	@Test
+	public void testInvisibleElementsAreSkipped() throws Exception {
+		Document document = write(100, 100, g -> {
+			g.fillRect(200, 200, 10, 10);
+			g.drawString("outside", -100, -100);
+			g.clipRect(0, 0, 50, 50);
+			g.fillRect(60, 60, 10, 10);
+			g.fillRect(10, 10, 10, 10);
+			g.fillRect(40, 40, 20, 20);
+		});
+		List<Element> paths = getChildren(document, "path");
+
+		assertEquals(0, getChildren(document, "text").size());
+		assertEquals(1, getChildren(document, "clipPath").size());
+		assertEquals(2, paths.size());
+		assertEquals("", paths.get(0).getAttribute("clip-path"));
+		assertEquals("url(#clip0)", paths.get(1).getAttribute("clip-path"));
+	}
+
+	@Test
+	public void testClipOfCreatedGraphics() throws Exception {
+		Document document = write(100, 100, g -> {
+			Graphics2D child = (Graphics2D) g.create();
+
+			child.translate(50, 0);
+			child.clipRect(0, 0, 50, 100);
+			assertEquals(new Rectangle(0, 0, 50, 100), child.getClipBounds());
+			child.fillRect(-10, 0, 20, 20);
+			child.dispose();
+			g.fillRect(0, 50, 10, 10);
+		});
+		List<Element> paths = getChildren(document, "path");
+
+		assertEquals(2, paths.size());
+		assertEquals("M40 0L60 0L60 20L40 20L40 0Z", paths.get(0).getAttribute("d"));
+		assertEquals("url(#clip0)", paths.get(0).getAttribute("clip-path"));
+		assertEquals("", paths.get(1).getAttribute("clip-path"));
+	}
+
+	@Test
+	public void testText() throws Exception {
+		Document document = write(200, 100, g -> {
+			g.translate(10, 20);
+			g.drawString("a < b & \"c\"", 5, 30);
+			g.rotate(0.5);
+			g.drawString("rotated", 5, 30);
+		});
+		List<Element> texts = getChildren(document, "text");
+
+		assertEquals(1, texts.size());
+		assertEquals("a < b & \"c\"", texts.get(0).getTextContent());
+		assertEquals("15", texts.get(0).getAttribute("x"));
+		assertEquals("50", texts.get(0).getAttribute("y"));
+		assertEquals(1, getChildren(document, "path").size());
+	}
+
+	@Test
+	public void testPaintsAndImages() throws Exception {
+		BufferedImage texture = new BufferedImage(2, 2, BufferedImage.TYPE_INT_ARGB);
+
+		texture.setRGB(0, 0, Color.RED.getRGB());
+
+		Document document = write(100, 100, g -> {
+			g.setPaint(new TexturePaint(texture, new Rectangle(0, 0, 4, 4)));
+			g.fillRect(0, 0, 10, 10);
+			g.fillRect(20, 0, 10, 10);
+			g.setPaint(new GradientPaint(0, 0, Color.RED, 10, 0, Color.BLUE));
+			g.fillRect(0, 20, 10, 10);
+			g.setPaint(new RadialGradientPaint(50, 50, 10, new float[] { 0.0f, 1.0f },
+					new Color[] { Color.RED, Color.BLUE }));
+			g.fillRect(40, 40, 20, 20);
+			g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f));
+			g.drawImage(texture, 70, 70, 10, 10, null);
+		});
+
+		assertEquals(1, document.getElementsByTagName("pattern").getLength());
+		assertEquals(1, document.getElementsByTagName("linearGradient").getLength());
+		assertEquals(1, document.getElementsByTagName("pattern").item(0).getChildNodes().getLength());
+		assertEquals(2, getChildren(document, "image").size());
+		assertEquals("0.5", getChildren(document, "image").get(1).getAttribute("opacity"));
+	}
+
+	@Test(expected = IOException.class)
+	public void testWriteErrorIsThrownByFinish() throws IOException {
+		SvgStreamGraphics2D g = new SvgStreamGraphics2D(new OutputStream() {
+
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException();
+			}
+		}, 100, 100);
+
+		g.fillRect(0, 0, 10, 10);
+		g.finish();
+	}
+
+	private static Document write(int width, int height, Consumer<Graphics2D> painter) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		SvgStreamGraphics2D g = new SvgStreamGraphics2D(out, width, height);
+
+		painter.accept(g);
+		g.finish();
+
+		Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+				.parse(new ByteArrayInputStream(out.toByteArray()));
+
+		assertTrue(document.getDocumentElement().getTagName().equals("svg"));
+		assertEquals(String.valueOf(width), document.getDocumentElement().getAttribute("width"));
+
+		return document;
+	}
+
+	private static List<Element> getChildren(Document document, String tagName) {
+		List<Element> children = new ArrayList<>();
+		NodeList nodes = document.getDocumentElement().getChildNodes();
+
+		for (int i = 0; i < nodes.getLength(); i++) {
+			if (nodes.item(i) instanceof Element && ((Element) nodes.item(i)).getTagName().equals(tagName)) {
+				children.add((Element) nodes.item(i));
+			}
+		}
+
+		return children;
+	}
+}
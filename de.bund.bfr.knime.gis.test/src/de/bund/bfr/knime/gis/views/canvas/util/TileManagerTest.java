@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+import javax.imageio.ImageIO;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openstreetmap.gui.jmapviewer.MemoryTileCache;
+import org.openstreetmap.gui.jmapviewer.Tile;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileSource;
+import org.openstreetmap.gui.jmapviewer.tilesources.AbstractOsmTileSource;
+
+public class TileManagerTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File server;
+	private TileSource tileSource;
+	private DiskTileCache diskCache;
+
+	@Before
+	public void setUp() throws IOException {
+		server = folder.newFolder("server");
+		createTile(0, 0, 0);
+
+		for (int x = 0; x < 2; x++) {
+			for (int y = 0; y < 2; y++) {
+				createTile(x, y, 1);
+			}
+		}
+
+		String url = server.toURI().toString();
+
+		tileSource = new AbstractOsmTileSource("Test", url.substring(0, url.length() - 1), "TEST") {
+		};
+		diskCache = new DiskTileCache(folder.newFolder("cache").toPath(), 1024 * 1024);
+	}
+
+	@Test
+	public void testLoadTile() throws InterruptedException, ExecutionException {
+		TileManager manager = new TileManager(tileSource, new MemoryTileCache(), diskCache, null);
+		Tile tile = manager.loadTile(1, 0, 1).get();
+
+		assertTrue(tile.isLoaded());
+		assertFalse(tile.hasError());
+		assertNotNull(tile.getImage());
+		assertTrue(diskCache.contains(DiskTileCache.getKey("TEST", 1, 0, 1)));
+		assertNull(manager.loadTile(2, 0, 1));
+	}
+
+	@Test
+	public void testLoadTileFromDiskCache() throws InterruptedException, ExecutionException, IOException {
+		new TileManager(tileSource, new MemoryTileCache(), diskCache, null).loadTile(0, 1, 1).get();
+		FileUtils.deleteDirectory(server);
+
+		Tile tile = new TileManager(tileSource, new MemoryTileCache(), diskCache, null).loadTile(0, 1, 1).get();
+
+		assertFalse(tile.hasError());
+		assertNotNull(tile.getImage());
+	}
+
+	@Test
+	public void testDiskCacheWriteFails() throws InterruptedException, ExecutionException, IOException {
+		File cacheDirectory = folder.newFolder("brokenCache");
+		DiskTileCache cache = new DiskTileCache(cacheDirectory.toPath(), 1024 * 1024);
+
+		// A file, where the directory of the tiles should be created, makes writing fail.
+		new File(cacheDirectory, "TEST").createNewFile();
+
+		Tile tile = new TileManager(tileSource, new MemoryTileCache(), cache, null).loadTile(1, 0, 1).get();
+
+		assertFalse(tile.hasError());
+		assertNotNull(tile.getImage());
+		assertFalse(cache.contains(DiskTileCache.getKey("TEST", 1, 0, 1)));
+	}
+
+	@Test
+	public void testMissingTile() throws InterruptedException, ExecutionException {
+		new File(server, "1/1/1.png").delete();
+
+		Tile tile = new TileManager(tileSource, new MemoryTileCache(), diskCache, null).loadTile(1, 1, 1).get();
+
+		assertTrue(tile.isLoaded());
+		assertTrue(tile.hasError());
+		assertFalse(diskCache.contains(DiskTileCache.getKey("TEST", 1, 1, 1)));
+	}
+
+	@Test
+	public void testPrefetch() throws InterruptedException, ExecutionException {
+		TileManager manager = new TileManager(tileSource, new MemoryTileCache(), diskCache, null);
+
+		manager.prefetch(-80.0, -170.0, 80.0, 170.0, 0, 1).get();
+		assertEquals(5, diskCache.getTileCount());
+	}
+
+	private void createTile(int x, int y, int zoom) throws IOException {
+		File file = new File(server, zoom + "/" + x + "/" + y + ".png");
+
+		file.getParentFile().mkdirs();
+		ImageIO.write(new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB), "png", file);
+	}
+}
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+public class TiledPngWriterTest {
+
+	private static final int WIDTH = 301;
+	private static final int HEIGHT = 217;
+
+	@Test
+	public void testStripsMatchImage() throws IOException {
+		for (int stripHeight : new int[] { 1, 16, 100, HEIGHT, 1000 }) {
+			assertImageEquals(paint(WIDTH, HEIGHT, TiledPngWriterTest::paintShapes),
+					write(WIDTH, HEIGHT, stripHeight, TiledPngWriterTest::paintShapes));
+		}
+	}
+
+	@Test
+	public void testDefaultStripHeight() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		TiledPngWriter.write(out, WIDTH, HEIGHT, TiledPngWriterTest::paintShapes);
+		assertImageEquals(paint(WIDTH, HEIGHT, TiledPngWriterTest::paintShapes),
+				ImageIO.read(new ByteArrayInputStream(out.toByteArray())));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmptyImage() throws IOException {
+		TiledPngWriter.write(new ByteArrayOutputStream(), 0, HEIGHT, TiledPngWriterTest::paintShapes);
+	}
+
+	private static void paintShapes(Graphics2D g) {
+		Random random = new Random(0);
+
+		g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		g.setColor(Color.WHITE);
+		g.fillRect(0, 0, WIDTH - 20, HEIGHT);
+
+		for (int i = 0; i < 100; i++) {
+			g.setColor(new Color(random.nextInt(0x1000000)));
+			g.setStroke(new BasicStroke(1 + random.nextInt(4)));
+			g.draw(new Line2D.Double(random.nextDouble() * WIDTH, random.nextDouble() * HEIGHT,
+					random.nextDouble() * WIDTH, random.nextDouble() * HEIGHT));
+			g.fill(new Ellipse2D.Double(random.nextDouble() * WIDTH, random.nextDouble() * HEIGHT, 10, 10));
+		}
+
+		g.setColor(Color.BLACK);
+		g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 14));
+		g.drawString("Tiled", 10, HEIGHT / 2);
+	}
+
+	private static BufferedImage paint(int width, int height, Consumer<Graphics2D> painter) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = image.createGraphics();
+
+		painter.accept(g);
+		g.dispose();
+
+		return image;
+	}
+
+	private static BufferedImage write(int width, int height, int stripHeight, Consumer<Graphics2D> painter)
+			throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		TiledPngWriter.write(out, width, height, stripHeight, painter);
+
+		return ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	private static void assertImageEquals(BufferedImage expected, BufferedImage actual) {
+		assertEquals(expected.getWidth(), actual.getWidth());
+		assertEquals(expected.getHeight(), actual.getHeight());
+
+		for (int x = 0; x < expected.getWidth(); x++) {
+			for (int y = 0; y < expected.getHeight(); y++) {
+				assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+			}
+		}
+	}
+}
@@ -42,6 +42,7 @@ import com.vividsolutions.jts.geom.MultiPolygon;
 import de.bund.bfr.knime.IO;
 import de.bund.bfr.knime.KnimeUtils;
 import de.bund.bfr.knime.gis.GisUtils;
+import de.bund.bfr.knime.gis.shapecell.ShapeValue;
 import de.bund.bfr.knime.gis.views.canvas.CanvasUtils;
 import de.bund.bfr.knime.gis.views.canvas.element.Edge;
 import de.bund.bfr.knime.gis.views.canvas.element.Element;
@@ -94,21 +95,22 @@ public class ViewUtils {
 		return idToRegionMap;
 	}
 
-	public static Map<String, MultiPolygon> readPolygons(BufferedDataTable shapeTable, String shapeColumn,
+	public static Map<String, ShapeValue> readPolygons(BufferedDataTable shapeTable, String shapeColumn,
 			String shapeRegionColumn) throws NotConfigurableException {
 		DataTableSpec spec = shapeTable.getSpec();
 
 		assertColumnNotMissing(spec, shapeColumn, "Shape Table");
 		assertColumnNotMissing(spec, shapeRegionColumn, "Shape Table");
 
-		Map<String, MultiPolygon> polygonMap = new LinkedHashMap<>();
+		Map<String, ShapeValue> polygonMap = new LinkedHashMap<>();
 
 		for (DataRow row : shapeTable) {
-			Geometry shape = GisUtils.getShape(row.getCell(spec.findColumnIndex(shapeColumn)));
+			DataCell cell = row.getCell(spec.findColumnIndex(shapeColumn));
+			Geometry shape = GisUtils.getShape(cell);
 			String region = IO.getToCleanString(row.getCell(spec.findColumnIndex(shapeRegionColumn)));
 
 			if (region != null && shape instanceof MultiPolygon) {
-				polygonMap.put(region, (MultiPolygon) shape);
+				polygonMap.put(region, (ShapeValue) cell);
 			}
 		}
 
@@ -156,10 +158,12 @@ public class ViewUtils {
 		int index = 0;
 
 		for (DataRow row : shapeTable) {
-			Geometry shape = GisUtils.getShape(row.getCell(shapeTable.getSpec().findColumnIndex(shapeColumn)));
+			DataCell cell = row.getCell(shapeTable.getSpec().findColumnIndex(shapeColumn));
+			Geometry shape = GisUtils.getShape(cell);
 
 			if (shape instanceof MultiPolygon) {
-				nodes.add(new RegionNode(String.valueOf(index++), new LinkedHashMap<>(0), (MultiPolygon) shape));
+				nodes.add(new RegionNode(String.valueOf(index++), new LinkedHashMap<>(0), (MultiPolygon) shape,
+						GisUtils.getSimplifiedPolygons(cell)));
 			}
 		}
 
@@ -167,7 +171,7 @@ public class ViewUtils {
 	}
 
 	public static Map<String, RegionNode> readRegionNodes(BufferedDataTable nodeTable,
-			Map<String, Class<?>> nodeProperties, Map<String, MultiPolygon> polygonMap,
+			Map<String, Class<?>> nodeProperties, Map<String, ShapeValue> polygonMap,
 			Map<String, String> idToRegionMap, String nodeIdColumn, Set<String> nonExistingRegions)
 			throws NotConfigurableException {
 		assertColumnNotMissing(nodeTable.getSpec(), nodeIdColumn, "Node Table");
@@ -196,7 +200,7 @@ public class ViewUtils {
 
 		Map<String, RegionNode> nodes = new LinkedHashMap<>();
 
-		polygonMap.forEach((id, polygon) -> {
+		polygonMap.forEach((id, shape) -> {
 			Map<String, Object> properties = nodeMap.get(id);
 
 			if (properties == null) {
@@ -209,7 +213,8 @@ public class ViewUtils {
 				properties.put(nodeIdColumn, id);
 			}
 
-			nodes.put(id, new RegionNode(id, properties, polygon));
+			nodes.put(id, new RegionNode(id, properties, (MultiPolygon) shape.getShape(),
+					GisUtils.getSimplifiedPolygons(shape)));
 		});
 
 		for (String id : nodeMap.keySet()) {
@@ -28,9 +28,8 @@ import java.util.Set;
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.NotConfigurableException;
 
-import com.vividsolutions.jts.geom.MultiPolygon;
-
 import de.bund.bfr.knime.gis.GisType;
+import de.bund.bfr.knime.gis.shapecell.ShapeValue;
 import de.bund.bfr.knime.gis.views.ViewUtils;
 import de.bund.bfr.knime.gis.views.canvas.GisCanvas;
 import de.bund.bfr.knime.gis.views.canvas.RegionCanvas;
@@ -57,7 +56,7 @@ public class RegionVisualizerCanvasCreator {
 	}
 
 	public GisCanvas<RegionNode> createCanvas() throws NotConfigurableException {
-		Map<String, MultiPolygon> polygonMap = ViewUtils.readPolygons(shapeTable, set.getGisSettings().getShapeColumn(),
+		Map<String, ShapeValue> polygonMap = ViewUtils.readPolygons(shapeTable, set.getGisSettings().getShapeColumn(),
 				set.getGisSettings().getShapeRegionColumn());
 		Map<String, Class<?>> nodeProperties = ViewUtils.getTableColumns(nodeTable.getSpec());
 		List<RegionNode> nodes = new ArrayList<>(ViewUtils.readRegionNodes(nodeTable, nodeProperties, polygonMap, null,
@@ -0,0 +1,341 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+
+import com.vividsolutions.jts.algorithm.CGAlgorithms;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.CoordinateArrays;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.simplify.TopologyPreservingSimplifier;
+
+/**
+ * Simplifies a coverage of polygons, so that borders shared by several polygons stay identical. The
+ * rings are split into arcs at the vertices where the neighboring rings change. Each arc is
+ * simplified exactly once with a {@link TopologyPreservingSimplifier}, which keeps the end points
+ * of the arcs and prevents them from crossing each other, and the rings are reassembled from the
+ * simplified arcs. Rings that collapse are removed.
+ */
+public class CoverageSimplifier {
+
+	private static final GeometryFactory FACTORY = new GeometryFactory();
+	private static final Object JUNCTION = new Object();
+
+	private List<Coordinate[]> arcs;
+	private List<int[][][]> polygons;
+
+	/**
+	 * The arcs are computed once, so that the coverage can be simplified with several tolerances.
+	 */
+	public CoverageSimplifier(List<MultiPolygon> polygons) {
+		List<List<List<Coordinate[]>>> rings = new ArrayList<>();
+		Map<Coordinate, Object> neighbors = new HashMap<>();
+
+		for (MultiPolygon multiPolygon : polygons) {
+			List<List<Coordinate[]>> polygonRings = new ArrayList<>();
+
+			for (int i = 0; i < multiPolygon.getNumGeometries(); i++) {
+				Polygon polygon = (Polygon) multiPolygon.getGeometryN(i);
+				Coordinate[] shell = getRing(polygon.getExteriorRing());
+
+				if (shell == null) {
+					continue;
+				}
+
+				List<Coordinate[]> r = new ArrayList<>();
+
+				r.add(shell);
+
+				for (int j = 0; j < polygon.getNumInteriorRing(); j++) {
+					Coordinate[] hole = getRing(polygon.getInteriorRingN(j));
+
+					if (hole != null) {
+						r.add(hole);
+					}
+				}
+
+				r.forEach(ring -> addNeighbors(neighbors, ring));
+				polygonRings.add(r);
+			}
+
+			rings.add(polygonRings);
+		}
+
+		Map<List<Coordinate>, Integer> arcIndices = new HashMap<>();
+
+		arcs = new ArrayList<>();
+		this.polygons = new ArrayList<>();
+
+		for (List<List<Coordinate[]>> polygonRings : rings) {
+			this.polygons.add(polygonRings.stream()
+					.map(r -> r.stream().map(ring -> split(ring, neighbors, arcIndices)).toArray(int[][]::new))
+					.toArray(int[][][]::new));
+		}
+	}
+
+	/**
+	 * The arcs are simplified together in a single call of the {@link TopologyPreservingSimplifier}.
+	 * Cancellation is therefore checked and progress reported for each arc before and after that
+	 * call.
+	 *
+	 * @return the simplified polygons in the order of the polygons passed to the constructor. A
+	 *         polygon whose rings all collapse is an empty {@link MultiPolygon}.
+	 */
+	public List<MultiPolygon> simplify(double tolerance, ExecutionMonitor exec) throws CanceledExecutionException {
+		LineString[] lines = new LineString[arcs.size()];
+
+		for (int i = 0; i < arcs.size(); i++) {
+			exec.checkCanceled();
+			exec.setProgress(0.25 * i / arcs.size());
+			lines[i] = FACTORY.createLineString(arcs.get(i));
+		}
+
+		Geometry simplifiedLines = TopologyPreservingSimplifier.simplify(FACTORY.createMultiLineString(lines),
+				tolerance);
+		Coordinate[][] simplifiedArcs = new Coordinate[arcs.size()][];
+
+		if (simplifiedLines.getNumGeometries() != arcs.size()) {
+			throw new IllegalStateException("Simplification removed arcs");
+		}
+
+		for (int i = 0; i < arcs.size(); i++) {
+			exec.checkCanceled();
+			exec.setProgress(0.75 + 0.25 * i / arcs.size());
+			simplifiedArcs[i] = simplifiedLines.getGeometryN(i).getCoordinates();
+		}
+
+		List<MultiPolygon> simplified = new ArrayList<>();
+
+		for (int[][][] polygonRings : polygons) {
+			List<Polygon> result = new ArrayList<>();
+
+			exec.checkCanceled();
+
+			for (int[][] r : polygonRings) {
+				LinearRing shell = createRing(r[0], simplifiedArcs);
+
+				if (shell == null) {
+					continue;
+				}
+
+				List<LinearRing> holes = new ArrayList<>();
+
+				for (int i = 1; i < r.length; i++) {
+					LinearRing hole = createRing(r[i], simplifiedArcs);
+
+					if (hole != null) {
+						holes.add(hole);
+					}
+				}
+
+				result.add(FACTORY.createPolygon(shell, holes.toArray(new LinearRing[0])));
+			}
+
+			simplified.add(FACTORY.createMultiPolygon(result.toArray(new Polygon[0])));
+		}
+
+		exec.setProgress(1.0);
+
+		return simplified;
+	}
+
+	/**
+	 * Simplifies the coverage with each of the tolerances. When a polygon does not change between
+	 * two tolerances, the same instance is used for both. Each level gets an equal share of the
+	 * progress of the execution monitor.
+	 *
+	 * @return for each polygon a map from tolerance to the simplified polygon
+	 */
+	public static List<NavigableMap<Double, MultiPolygon>> getLevels(List<MultiPolygon> polygons,
+			ExecutionMonitor exec, double... tolerances) throws CanceledExecutionException {
+		CoverageSimplifier simplifier = new CoverageSimplifier(polygons);
+		List<NavigableMap<Double, MultiPolygon>> levels = new ArrayList<>();
+		double[] sortedTolerances = tolerances.clone();
+
+		Arrays.sort(sortedTolerances);
+		polygons.forEach(p -> levels.add(new TreeMap<>()));
+
+		for (double tolerance : sortedTolerances) {
+			exec.checkCanceled();
+
+			List<MultiPolygon> simplified = simplifier.simplify(tolerance,
+					exec.createSubProgress(1.0 / sortedTolerances.length));
+
+			for (int i = 0; i < polygons.size(); i++) {
+				Map.Entry<Double, MultiPolygon> previous = levels.get(i).lastEntry();
+				MultiPolygon previousPolygon = previous != null ? previous.getValue() : polygons.get(i);
+
+				levels.get(i).put(tolerance, simplified.get(i).equalsExact(previousPolygon) ? previousPolygon
+						: simplified.get(i));
+			}
+		}
+
+		return levels;
+	}
+
+	private static Coordinate[] getRing(LineString ring) {
+		Coordinate[] coordinates = CoordinateArrays.removeRepeatedPoints(ring.getCoordinates());
+
+		if (coordinates.length < 4 || !coordinates[0].equals2D(coordinates[coordinates.length - 1])) {
+			return null;
+		}
+
+		return coordinates;
+	}
+
+	/**
+	 * A vertex is a junction, if it is contained in several rings with different neighbors. Shared
+	 * borders are therefore always split at the same vertices.
+	 */
+	private static void addNeighbors(Map<Coordinate, Object> neighbors, Coordinate[] ring) {
+		int n = ring.length - 1;
+
+		for (int i = 0; i < n; i++) {
+			Coordinate previous = ring[i == 0 ? n - 1 : i - 1];
+			Coordinate next = ring[i + 1];
+			Coordinate[] pair = previous.compareTo(next) <= 0 ? new Coordinate[] { previous, next }
+					: new Coordinate[] { next, previous };
+			Object value = neighbors.get(ring[i]);
+
+			if (value == null) {
+				neighbors.put(ring[i], pair);
+			} else if (value != JUNCTION && !Arrays.equals((Coordinate[]) value, pair)) {
+				neighbors.put(ring[i], JUNCTION);
+			}
+		}
+	}
+
+	/**
+	 * @return the arcs of the ring as indices into {@link #arcs}. Arcs that are used in reversed
+	 *         order are stored as the bitwise complement of their index.
+	 */
+	private int[] split(Coordinate[] ring, Map<Coordinate, Object> neighbors,
+			Map<List<Coordinate>, Integer> arcIndices) {
+		int n = ring.length - 1;
+		int start = -1;
+
+		for (int i = 0; i < n; i++) {
+			if (neighbors.get(ring[i]) == JUNCTION) {
+				start = i;
+				break;
+			}
+		}
+
+		if (start == -1) {
+			// Rings without junctions always start at the same vertex, so that for instance an
+			// enclave and the hole around it result in the same arc.
+			start = 0;
+
+			for (int i = 1; i < n; i++) {
+				if (ring[i].compareTo(ring[start]) < 0) {
+					start = i;
+				}
+			}
+
+			List<Coordinate> arc = new ArrayList<>(n + 1);
+
+			for (int k = 0; k <= n; k++) {
+				arc.add(ring[(start + k) % n]);
+			}
+
+			return new int[] { getArc(arc, arcIndices) };
+		}
+
+		List<Integer> refs = new ArrayList<>();
+		List<Coordinate> arc = new ArrayList<>();
+
+		arc.add(ring[start]);
+
+		for (int k = 1; k <= n; k++) {
+			Coordinate c = ring[(start + k) % n];
+
+			arc.add(c);
+
+			if (k == n || neighbors.get(c) == JUNCTION) {
+				refs.add(getArc(arc, arcIndices));
+				arc = new ArrayList<>();
+				arc.add(c);
+			}
+		}
+
+		return refs.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	private int getArc(List<Coordinate> arc, Map<List<Coordinate>, Integer> arcIndices) {
+		int n = arc.size();
+		int order = arc.get(0).compareTo(arc.get(n - 1));
+
+		if (order == 0) {
+			order = arc.get(1).compareTo(arc.get(n - 2));
+		}
+
+		boolean reversed = order > 0;
+
+		if (reversed) {
+			Collections.reverse(arc);
+		}
+
+		Integer index = arcIndices.get(arc);
+
+		if (index == null) {
+			index = arcs.size();
+			arcs.add(arc.toArray(new Coordinate[0]));
+			arcIndices.put(arc, index);
+		}
+
+		return reversed ? ~index : index;
+	}
+
+	private static LinearRing createRing(int[] refs, Coordinate[][] simplifiedArcs) {
+		List<Coordinate> coordinates = new ArrayList<>();
+
+		for (int ref : refs) {
+			Coordinate[] arc = simplifiedArcs[ref >= 0 ? ref : ~ref];
+
+			for (int i = coordinates.isEmpty() ? 0 : 1; i < arc.length; i++) {
+				coordinates.add(arc[ref >= 0 ? i : arc.length - 1 - i]);
+			}
+		}
+
+		Coordinate[] ring = CoordinateArrays.removeRepeatedPoints(coordinates.toArray(new Coordinate[0]));
+
+		if (ring.length < 4 || CGAlgorithms.signedArea(ring) == 0.0) {
+			return null;
+		}
+
+		return FACTORY.createLinearRing(ring);
+	}
+}
@@ -28,9 +28,12 @@ import java.nio.file.InvalidPathException;
 import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -38,12 +41,14 @@ import org.apache.commons.io.FilenameUtils;
 import org.geotools.data.shapefile.ShapefileDataStore;
 import org.geotools.referencing.CRS;
 import org.knime.core.data.DataCell;
+import org.knime.core.data.DataValue;
 import org.opengis.referencing.FactoryException;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 import org.openstreetmap.gui.jmapviewer.OsmMercator;
 
 import com.google.common.base.Joiner;
 import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.geom.LinearRing;
@@ -60,6 +65,7 @@ import de.bund.bfr.knime.gis.shapecell.ShapeValue;
 public class GisUtils {
 
 	private static final GeometryFactory FACTORY = new GeometryFactory();
+	private static final double MAX_LATITUDE = 85.0511;
 
 	private GisUtils() {
 	}
@@ -94,6 +100,30 @@ public class GisUtils {
 		return FACTORY.createPolygon(exterior, interior);
 	}
 
+	/**
+	 * Converts simplified polygons and their tolerances. The tolerances are scaled by the largest
+	 * stretch of the mercator projection within the bounds of the polygon, so that they are upper
+	 * bounds of the error in visualization coordinates.
+	 */
+	public static NavigableMap<Double, MultiPolygon> latLonToViz(
+			NavigableMap<Double, MultiPolygon> simplifiedPolygons) {
+		NavigableMap<Double, MultiPolygon> converted = new TreeMap<>();
+		Map<MultiPolygon, MultiPolygon> convertedPolygons = new IdentityHashMap<>();
+		OsmMercator mercator = new OsmMercator();
+		double vizPerDegree = (mercator.lonToX(180.0, 0) - mercator.lonToX(-180.0, 0)) / 360.0;
+
+		simplifiedPolygons.forEach((tolerance, polygon) -> {
+			Envelope bounds = polygon.getEnvelopeInternal();
+			double maxLat = bounds.isNull() ? 0.0
+					: Math.min(Math.max(Math.abs(bounds.getMinX()), Math.abs(bounds.getMaxX())), MAX_LATITUDE);
+
+			converted.put(tolerance * vizPerDegree / Math.cos(Math.toRadians(maxLat)),
+					convertedPolygons.computeIfAbsent(polygon, p -> latLonToViz(p)));
+		});
+
+		return converted;
+	}
+
 	private static LinearRing latLonToViz(LinearRing ring) {
 		return FACTORY.createLinearRing(Stream.of(ring.getCoordinates())
 				.map(c -> new Coordinate(new OsmMercator().lonToX(c.y, 0), new OsmMercator().latToY(c.x, 0)))
@@ -116,6 +146,20 @@ public class GisUtils {
 		return cell instanceof ShapeValue ? ((ShapeValue) cell).getShape() : null;
 	}
 
+	public static NavigableMap<Double, MultiPolygon> getSimplifiedPolygons(DataValue value) {
+		NavigableMap<Double, MultiPolygon> polygons = new TreeMap<>();
+
+		if (value instanceof ShapeValue) {
+			((ShapeValue) value).getSimplifiedShapes().forEach((tolerance, shape) -> {
+				if (shape instanceof MultiPolygon) {
+					polygons.put(tolerance, (MultiPolygon) shape);
+				}
+			});
+		}
+
+		return polygons;
+	}
+
 	public static Point2D getCenterOfLargestPolygon(MultiPolygon poly) {
 		Map<Polygon, Double> areas = new LinkedHashMap<>();
 
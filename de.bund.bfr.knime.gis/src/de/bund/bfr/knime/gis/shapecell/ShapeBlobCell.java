@@ -19,6 +19,10 @@
  *******************************************************************************/
 package de.bund.bfr.knime.gis.shapecell;
 
+import java.util.Collections;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataType;
 import org.knime.core.data.container.BlobDataCell;
@@ -32,9 +36,15 @@ public class ShapeBlobCell extends BlobDataCell implements ShapeValue {
 	private static final long serialVersionUID = 1L;
 
 	private Geometry shape;
+	private NavigableMap<Double, Geometry> simplifiedShapes;
 
 	public ShapeBlobCell(Geometry shape) {
+		this(shape, Collections.emptyNavigableMap());
+	}
+
+	public ShapeBlobCell(Geometry shape, NavigableMap<Double, ? extends Geometry> simplifiedShapes) {
 		this.shape = shape;
+		this.simplifiedShapes = Collections.unmodifiableNavigableMap(new TreeMap<>(simplifiedShapes));
 	}
 
 	@Override
@@ -60,4 +70,9 @@ public class ShapeBlobCell extends BlobDataCell implements ShapeValue {
 	public Geometry getShape() {
 		return shape;
 	}
+
+	@Override
+	public NavigableMap<Double, Geometry> getSimplifiedShapes() {
+		return simplifiedShapes;
+	}
 }
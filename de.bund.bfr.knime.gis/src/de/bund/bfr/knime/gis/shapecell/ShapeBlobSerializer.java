@@ -20,33 +20,101 @@
 package de.bund.bfr.knime.gis.shapecell;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 import org.knime.core.data.DataCellDataInput;
 import org.knime.core.data.DataCellDataOutput;
 import org.knime.core.data.DataCellSerializer;
 
+import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.io.ParseException;
 import com.vividsolutions.jts.io.WKBReader;
 import com.vividsolutions.jts.io.WKBWriter;
 
+/**
+ * A cell without simplified shapes is written as the length of the WKB followed by the WKB. Cells
+ * with simplified shapes start with {@link #WITH_SIMPLIFIED_SHAPES}, which cannot be a length, and
+ * the WKB of the shape is followed by the number of simplified shapes and their tolerances and WKB.
+ * Simplified shapes, that are identical to the previous shape, are written as
+ * {@link #SAME_AS_PREVIOUS} instead of the WKB. Cells written by earlier versions can therefore still
+ * be read.
+ */
 public class ShapeBlobSerializer implements DataCellSerializer<ShapeBlobCell> {
 
+	private static final int WITH_SIMPLIFIED_SHAPES = -1;
+	private static final int SAME_AS_PREVIOUS = -1;
+
 	@Override
 	public void serialize(ShapeBlobCell cell, DataCellDataOutput output) throws IOException {
-		byte[] bytes = new WKBWriter().write(cell.getShape());
+		WKBWriter writer = new WKBWriter();
 
-		output.writeInt(bytes.length);
-		output.write(bytes);
+		if (cell.getSimplifiedShapes().isEmpty()) {
+			writeShape(writer, cell.getShape(), output);
+			return;
+		}
+
+		output.writeInt(WITH_SIMPLIFIED_SHAPES);
+		writeShape(writer, cell.getShape(), output);
+		output.writeInt(cell.getSimplifiedShapes().size());
+
+		Geometry previous = cell.getShape();
+
+		for (Map.Entry<Double, Geometry> entry : cell.getSimplifiedShapes().entrySet()) {
+			output.writeDouble(entry.getKey());
+
+			if (entry.getValue() == previous) {
+				output.writeInt(SAME_AS_PREVIOUS);
+			} else {
+				writeShape(writer, entry.getValue(), output);
+			}
+
+			previous = entry.getValue();
+		}
 	}
 
 	@Override
 	public ShapeBlobCell deserialize(DataCellDataInput input) throws IOException {
-		byte[] bytes = new byte[input.readInt()];
+		WKBReader reader = new WKBReader();
+		int length = input.readInt();
+
+		if (length != WITH_SIMPLIFIED_SHAPES) {
+			return new ShapeBlobCell(readShape(reader, length, input));
+		}
+
+		Geometry shape = readShape(reader, input.readInt(), input);
+		NavigableMap<Double, Geometry> simplifiedShapes = new TreeMap<>();
+		Geometry previous = shape;
+
+		for (int n = input.readInt(); n > 0; n--) {
+			double tolerance = input.readDouble();
+			int simplifiedLength = input.readInt();
+
+			if (simplifiedLength != SAME_AS_PREVIOUS) {
+				previous = readShape(reader, simplifiedLength, input);
+			}
+
+			simplifiedShapes.put(tolerance, previous);
+		}
+
+		return new ShapeBlobCell(shape, simplifiedShapes);
+	}
+
+	private static void writeShape(WKBWriter writer, Geometry shape, DataCellDataOutput output) throws IOException {
+		byte[] bytes = writer.write(shape);
+
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	private static Geometry readShape(WKBReader reader, int length, DataCellDataInput input) throws IOException {
+		byte[] bytes = new byte[length];
 
 		input.readFully(bytes);
 
 		try {
-			return new ShapeBlobCell(new WKBReader().read(bytes));
+			return reader.read(bytes);
 		} catch (ParseException e) {
 			throw new IOException(e.getMessage());
 		}
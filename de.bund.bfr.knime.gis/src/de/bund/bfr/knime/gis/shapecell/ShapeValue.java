@@ -19,6 +19,8 @@
  *******************************************************************************/
 package de.bund.bfr.knime.gis.shapecell;
 
+import java.util.NavigableMap;
+
 import org.knime.core.data.DataValue;
 
 import com.vividsolutions.jts.geom.Geometry;
@@ -26,4 +28,10 @@ import com.vividsolutions.jts.geom.Geometry;
 public interface ShapeValue extends DataValue {
 
 	Geometry getShape();
+
+	/**
+	 * @return simplified versions of {@link #getShape()} by simplification tolerance. The map is
+	 *         empty, if no simplified versions were computed.
+	 */
+	NavigableMap<Double, Geometry> getSimplifiedShapes();
 }
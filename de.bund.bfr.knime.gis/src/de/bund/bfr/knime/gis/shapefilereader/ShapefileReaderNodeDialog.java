@@ -19,12 +19,19 @@
  *******************************************************************************/
 package de.bund.bfr.knime.gis.shapefilereader;
 
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NotConfigurableException;
 import org.knime.core.node.defaultnodesettings.DefaultNodeSettingsPane;
+import org.knime.core.node.defaultnodesettings.DialogComponentBoolean;
 import org.knime.core.node.defaultnodesettings.DialogComponentFileChooser;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
+import org.knime.core.node.port.PortObjectSpec;
 
 public class ShapefileReaderNodeDialog extends DefaultNodeSettingsPane {
 
+	private SettingsModelBoolean storeSimplifiedShapes;
+
 	/**
 	 * New pane for configuring the ShapefileReader node.
 	 */
@@ -34,5 +41,17 @@ public class ShapefileReaderNodeDialog extends DefaultNodeSettingsPane {
 
 		shpDialog.setBorderTitle("SHP File");
 		addDialogComponent(shpDialog);
+		storeSimplifiedShapes = new SettingsModelBoolean(ShapefileReaderNodeModel.STORE_SIMPLIFIED_SHAPES, true);
+		addDialogComponent(
+				new DialogComponentBoolean(storeSimplifiedShapes, "Store Simplified Shapes for Faster Drawing"));
+	}
+
+	@Override
+	public void loadAdditionalSettingsFrom(NodeSettingsRO settings, PortObjectSpec[] specs)
+			throws NotConfigurableException {
+		if (!settings.containsKey(ShapefileReaderNodeModel.STORE_SIMPLIFIED_SHAPES)) {
+			// Like in the node model, nodes created before the option do not store simplified shapes
+			storeSimplifiedShapes.setBooleanValue(false);
+		}
 	}
 }
@@ -24,8 +24,10 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.NavigableMap;
 import java.util.Set;
 
 import org.geotools.data.shapefile.ShapefileDataStore;
@@ -51,6 +53,7 @@ import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.InvalidSettingsException;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
 import org.opengis.feature.Property;
 import org.opengis.feature.simple.SimpleFeature;
@@ -64,6 +67,7 @@ import com.vividsolutions.jts.geom.MultiPolygon;
 import de.bund.bfr.knime.IO;
 import de.bund.bfr.knime.KnimeUtils;
 import de.bund.bfr.knime.NoInternalsNodeModel;
+import de.bund.bfr.knime.gis.CoverageSimplifier;
 import de.bund.bfr.knime.gis.GisUtils;
 import de.bund.bfr.knime.gis.shapecell.ShapeBlobCell;
 
@@ -76,13 +80,22 @@ import de.bund.bfr.knime.gis.shapecell.ShapeBlobCell;
 public class ShapefileReaderNodeModel extends NoInternalsNodeModel {
 
 	protected static final String SHP_FILE = "FileName";
+	protected static final String STORE_SIMPLIFIED_SHAPES = "StoreSimplifiedShapes";
 
 	private SettingsModelString shpFile;
+	private SettingsModelBoolean storeSimplifiedShapes;
 
 	private static final String LATITUDE_COLUMN = "PolygonCenterLatitude";
 	private static final String LONGITUDE_COLUMN = "PolygonCenterLongitude";
 	private static final String AREA_COLUMN = "PolygonArea";
 
+	/**
+	 * Tolerances in degrees of the simplified shapes, that are stored in the shape cells. Between
+	 * two levels the tolerance grows by a factor of four, which roughly corresponds to two zoom
+	 * levels of the map.
+	 */
+	private static final double[] SIMPLIFICATION_TOLERANCES = { 0.0001, 0.0004, 0.0016, 0.0064, 0.0256, 0.1024 };
+
 	private String latitudeColumn;
 	private String longitudeColumn;
 	private String areaColumn;
@@ -93,6 +106,7 @@ public class ShapefileReaderNodeModel extends NoInternalsNodeModel {
 	public ShapefileReaderNodeModel() {
 		super(0, 1);
 		shpFile = new SettingsModelString(SHP_FILE, null);
+		storeSimplifiedShapes = new SettingsModelBoolean(STORE_SIMPLIFIED_SHAPES, true);
 	}
 
 	@Override
@@ -102,7 +116,9 @@ public class ShapefileReaderNodeModel extends NoInternalsNodeModel {
 		DataTableSpec spec = createSpec(collection.getSchema());
 		BufferedDataContainer container = exec.createDataContainer(spec);
 		MathTransform transform = null;
-		int index = 0;
+		List<DataCell[]> rows = new ArrayList<>();
+		List<MultiPolygon> shapes = new ArrayList<>();
+		List<Integer> shapeIndices = new ArrayList<>();
 
 		try {
 			transform = CRS.findMathTransform(GisUtils.getCoordinateSystem(shpFile.getStringValue()),
@@ -116,6 +132,7 @@ public class ShapefileReaderNodeModel extends NoInternalsNodeModel {
 				SimpleFeature feature = iterator.next();
 				DataCell[] cells = new DataCell[spec.getNumColumns()];
 				MultiPolygon shape = null;
+				int shapeIndex = -1;
 
 				for (Property p : feature.getProperties()) {
 					String name = p.getName().toString().trim();
@@ -130,7 +147,7 @@ public class ShapefileReaderNodeModel extends NoInternalsNodeModel {
 						}
 
 						shape = (MultiPolygon) JTS.transform((MultiPolygon) value, transform);
-						cells[i] = new ShapeBlobCell(shape);
+						shapeIndex = i;
 					} else if (value instanceof Integer) {
 						cells[i] = new IntCell((Integer) p.getValue());
 					} else if (value instanceof Double) {
@@ -153,13 +170,34 @@ public class ShapefileReaderNodeModel extends NoInternalsNodeModel {
 				cells[spec.findColumnIndex(areaColumn)] = IO.createCell(shape.getArea());
 
 				exec.checkCanceled();
-				exec.setProgress((double) index / (double) collection.size());
-				container.addRowToTable(new DefaultRow(index + "", cells));
-				index++;
+				exec.setProgress(0.4 * rows.size() / collection.size());
+				rows.add(cells);
+				shapes.add(shape);
+				shapeIndices.add(shapeIndex);
 			}
 		}
 
 		dataStore.dispose();
+
+		List<NavigableMap<Double, MultiPolygon>> simplifiedShapes;
+
+		if (storeSimplifiedShapes.getBooleanValue()) {
+			exec.setMessage("Simplifying shapes");
+			simplifiedShapes = CoverageSimplifier.getLevels(shapes, exec.createSubProgress(0.4),
+					SIMPLIFICATION_TOLERANCES);
+		} else {
+			simplifiedShapes = Collections.nCopies(shapes.size(), Collections.emptyNavigableMap());
+		}
+
+		for (int index = 0; index < rows.size(); index++) {
+			DataCell[] cells = rows.get(index);
+
+			cells[shapeIndices.get(index)] = new ShapeBlobCell(shapes.get(index), simplifiedShapes.get(index));
+			exec.checkCanceled();
+			exec.setProgress(0.8 + 0.2 * index / rows.size());
+			container.addRowToTable(new DefaultRow(index + "", cells));
+		}
+
 		container.close();
 
 		return new BufferedDataTable[] { container.getTable() };
@@ -191,6 +229,7 @@ public class ShapefileReaderNodeModel extends NoInternalsNodeModel {
 	@Override
 	protected void saveSettingsTo(final NodeSettingsWO settings) {
 		shpFile.saveSettingsTo(settings);
+		storeSimplifiedShapes.saveSettingsTo(settings);
 	}
 
 	/**
@@ -199,6 +238,13 @@ public class ShapefileReaderNodeModel extends NoInternalsNodeModel {
 	@Override
 	protected void loadValidatedSettingsFrom(final NodeSettingsRO settings) throws InvalidSettingsException {
 		shpFile.loadSettingsFrom(settings);
+
+		try {
+			storeSimplifiedShapes.loadSettingsFrom(settings);
+		} catch (InvalidSettingsException e) {
+			// Nodes created before the option keep their output without simplified shapes
+			storeSimplifiedShapes.setBooleanValue(false);
+		}
 	}
 
 	/**
@@ -29,9 +29,11 @@ import java.awt.event.MouseEvent;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
@@ -84,11 +86,13 @@ import de.bund.bfr.knime.gis.views.canvas.dialogs.SinglePropertiesDialog;
 import de.bund.bfr.knime.gis.views.canvas.element.Edge;
 import de.bund.bfr.knime.gis.views.canvas.element.Element;
 import de.bund.bfr.knime.gis.views.canvas.element.Node;
+import de.bund.bfr.knime.gis.views.canvas.highlighting.HighlightConditionCache;
 import de.bund.bfr.knime.gis.views.canvas.highlighting.HighlightConditionList;
 import de.bund.bfr.knime.gis.views.canvas.util.ArrowHeadType;
 import de.bund.bfr.knime.gis.views.canvas.util.CanvasLegend;
 import de.bund.bfr.knime.gis.views.canvas.util.CanvasOptionsPanel;
 import de.bund.bfr.knime.gis.views.canvas.util.CanvasPopupMenu;
+import de.bund.bfr.knime.gis.views.canvas.util.EdgeJoiner;
 import de.bund.bfr.knime.gis.views.canvas.util.EdgePropertySchema;
 import de.bund.bfr.knime.gis.views.canvas.util.Naming;
 import de.bund.bfr.knime.gis.views.canvas.util.NodePropertySchema;
@@ -129,6 +133,7 @@ public abstract class Canvas<V extends Node> extends JPanel
 	protected Map<String, V> nodeSaveMap;
 	protected Map<String, Edge<V>> edgeSaveMap;
 	protected Map<Edge<V>, Set<Edge<V>>> joinMap;
+	private EdgeJoiner<V> edgeJoiner;
 	protected Map<String, Set<String>> collapsedNodes;
 
 	protected NodePropertySchema nodeSchema;
@@ -137,9 +142,13 @@ public abstract class Canvas<V extends Node> extends JPanel
 
 	protected HighlightConditionList nodeHighlightConditions;
 	protected HighlightConditionList edgeHighlightConditions;
+	private HighlightConditionCache highlightConditionCache;
 
 	private CanvasOptionsPanel optionsPanel;
 	private CanvasPopupMenu popup;
+
+	private List<Object> graphSettings;
+	private List<Object> graphElementsState;
 	
 
 	public Canvas(List<V> nodes, List<Edge<V>> edges, NodePropertySchema nodeSchema, EdgePropertySchema edgeSchema,
@@ -151,6 +160,7 @@ public abstract class Canvas<V extends Node> extends JPanel
 		transform = Transform.IDENTITY_TRANSFORM;
 		nodeHighlightConditions = new HighlightConditionList();
 		edgeHighlightConditions = new HighlightConditionList();
+		highlightConditionCache = new HighlightConditionCache();
 
 		this.nodes = new LinkedHashSet<>();
 		this.edges = new LinkedHashSet<>();
@@ -160,6 +170,7 @@ public abstract class Canvas<V extends Node> extends JPanel
 		nodeSaveMap = CanvasUtils.getElementsById(this.nodes);
 		edgeSaveMap = CanvasUtils.getElementsById(this.edges);
 		joinMap = new LinkedHashMap<>();
+		edgeJoiner = new EdgeJoiner<>(edgeSchema, allEdges);
 		collapsedNodes = new LinkedHashMap<>();
 		metaNodeProperty = KnimeUtils.createNewValue(IS_META_NODE, nodeSchema.getMap().keySet());
 		nodeSchema.getMap().put(metaNodeProperty, Boolean.class);
@@ -359,6 +370,11 @@ public abstract class Canvas<V extends Node> extends JPanel
 		logger.finest("leaving");
 	}
 
+	@Override
+	public HighlightConditionCache getHighlightConditionCache() {
+		return highlightConditionCache;
+	}
+
 	@Override
 	public Map<String, Set<String>> getCollapsedNodes() {
 		return collapsedNodes;
@@ -462,21 +478,36 @@ public abstract class Canvas<V extends Node> extends JPanel
 
 		if (file.getName().toLowerCase().endsWith(".png")) {
 			try {
-				BufferedImage img = new BufferedImage(viewer.getWidth(), viewer.getHeight(),
-						BufferedImage.TYPE_INT_RGB);
+				if (CanvasUtils.isLarge(this)) {
+					try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+						CanvasUtils.writePng(out, this);
+					}
+				} else {
+					BufferedImage img = new BufferedImage(viewer.getWidth(), viewer.getHeight(),
+							BufferedImage.TYPE_INT_RGB);
 
-				getVisualizationServer(false).paint(img.getGraphics());
-				ImageIO.write(img, "png", file);
+					getVisualizationServer(false).paint(img.getGraphics());
+					ImageIO.write(img, "png", file);
+				}
 			} catch (IOException e) {
 				Dialogs.showErrorMessage(this, "Error saving png file");
 			}
 		} else if (file.getName().toLowerCase().endsWith(".svg")) {
-			try (Writer outsvg = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
-				SVGGraphics2D g = new SVGGraphics2D(new SVGDOMImplementation().createDocument(null, "svg", null));
-
-				g.setSVGCanvasSize(new Dimension(viewer.getWidth(), viewer.getHeight()));
-				getVisualizationServer(true).paint(g);
-				g.stream(outsvg, true);
+			try {
+				if (CanvasUtils.isLarge(this)) {
+					try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+						CanvasUtils.writeSvg(out, this);
+					}
+				} else {
+					try (Writer outsvg = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+						SVGGraphics2D g = new SVGGraphics2D(
+								new SVGDOMImplementation().createDocument(null, "svg", null));
+
+						g.setSVGCanvasSize(new Dimension(viewer.getWidth(), viewer.getHeight()));
+						getVisualizationServer(true).paint(g);
+						g.stream(outsvg, true);
+					}
+				}
 			} catch (IOException e) {
 				Dialogs.showErrorMessage(this, "Error saving svg file");
 			}
@@ -585,7 +616,8 @@ public abstract class Canvas<V extends Node> extends JPanel
 		dialog.setVisible(true);
 
 		if (dialog.isApproved()) {
-			setSelectedNodes(CanvasUtils.getHighlightedElements(nodes, dialog.getHighlightConditions()));
+			setSelectedNodes(
+					CanvasUtils.getHighlightedElements(nodes, dialog.getHighlightConditions(), highlightConditionCache));
 		}
 	}
 
@@ -596,7 +628,8 @@ public abstract class Canvas<V extends Node> extends JPanel
 		dialog.setVisible(true);
 
 		if (dialog.isApproved()) {
-			setSelectedEdges(CanvasUtils.getHighlightedElements(edges, dialog.getHighlightConditions()));
+			setSelectedEdges(
+					CanvasUtils.getHighlightedElements(edges, dialog.getHighlightConditions(), highlightConditionCache));
 		}
 	}
 
@@ -633,7 +666,8 @@ public abstract class Canvas<V extends Node> extends JPanel
 		dialog.setVisible(true);
 
 		if (dialog.isApproved()) {
-			setSelectedNodes(CanvasUtils.getHighlightedElements(nodes, Arrays.asList(dialog.getHighlightCondition())));
+			setSelectedNodes(CanvasUtils.getHighlightedElements(nodes, Arrays.asList(dialog.getHighlightCondition()),
+					highlightConditionCache));
 		}
 	}
 
@@ -648,7 +682,8 @@ public abstract class Canvas<V extends Node> extends JPanel
 		dialog.setVisible(true);
 
 		if (dialog.isApproved()) {
-			setSelectedEdges(CanvasUtils.getHighlightedElements(edges, Arrays.asList(dialog.getHighlightCondition())));
+			setSelectedEdges(CanvasUtils.getHighlightedElements(edges, Arrays.asList(dialog.getHighlightCondition()),
+					highlightConditionCache));
 		}
 	}
 
@@ -1113,13 +1148,20 @@ public abstract class Canvas<V extends Node> extends JPanel
 		Set<String> selectedNodeIds = getSelectedNodeIds();
 		Set<String> selectedEdgeIds = getSelectedEdgeIds();
 
-		resetNodesAndEdges();
-		applyNodeCollapse();
-		applyInvisibility();
-		applyJoinEdgesAndSkipEdgeless();
-		applyShowEdgesInMetaNode();
+		List<Object> settings = getGraphSettings();
+
+		if (!settings.equals(graphSettings) || !getGraphElementsState().equals(graphElementsState)) {
+			resetNodesAndEdges();
+			applyNodeCollapse();
+			applyInvisibility();
+			applyJoinEdgesAndSkipEdgeless();
+			applyShowEdgesInMetaNode();
+			CanvasUtils.updateGraph(viewer, nodes, edges);
+			graphSettings = settings;
+			graphElementsState = getGraphElementsState();
+		}
+
 		applyHighlights();
-		viewer.getGraphLayout().setGraph(CanvasUtils.createGraph(viewer, nodes, edges));
 
 		setSelectedNodeIdsWithoutListener(selectedNodeIds);
 		setSelectedEdgeIdsWithoutListener(selectedEdgeIds);
@@ -1192,8 +1234,8 @@ public abstract class Canvas<V extends Node> extends JPanel
 	@Override
 	public void applyInvisibility() {
 		logger.finest("entered");
-		CanvasUtils.removeInvisibleElements(nodes, nodeHighlightConditions);
-		CanvasUtils.removeInvisibleElements(edges, edgeHighlightConditions);
+		CanvasUtils.removeInvisibleElements(nodes, nodeHighlightConditions, highlightConditionCache);
+		CanvasUtils.removeInvisibleElements(edges, edgeHighlightConditions, highlightConditionCache);
 		CanvasUtils.removeNodelessEdges(edges, nodes);
 		logger.finest("leaving");
 	}
@@ -1204,7 +1246,7 @@ public abstract class Canvas<V extends Node> extends JPanel
 		joinMap.clear();
 
 		if (optionsPanel.isJoinEdges()) {
-			joinMap.putAll(CanvasUtils.joinEdges(edges, edgeSchema, allEdges));
+			joinMap.putAll(edgeJoiner.join(edges));
 			edges.clear();
 			edges.addAll(joinMap.keySet());
 		}
@@ -1218,9 +1260,9 @@ public abstract class Canvas<V extends Node> extends JPanel
 	@Override
 	public void applyHighlights() {
 		CanvasUtils.applyNodeHighlights(viewer.getRenderContext(), nodes, nodeHighlightConditions,
-				optionsPanel.getNodeSize(), optionsPanel.getNodeMaxSize(), metaNodeProperty);
+				highlightConditionCache, optionsPanel.getNodeSize(), optionsPanel.getNodeMaxSize(), metaNodeProperty);
 		CanvasUtils.applyEdgeHighlights(viewer.getRenderContext(), edges, edgeHighlightConditions,
-				optionsPanel.getEdgeThickness(), optionsPanel.getEdgeMaxThickness());
+				highlightConditionCache, optionsPanel.getEdgeThickness(), optionsPanel.getEdgeMaxThickness());
 	}
 
 	@Override
@@ -1233,6 +1275,37 @@ public abstract class Canvas<V extends Node> extends JPanel
 		}
 	}
 
+	/**
+	 * @return the settings, that determine the nodes and edges of the graph in
+	 *         {@link #applyChanges()}. The steps are only repeated, if the settings or the
+	 *         {@link #getGraphElementsState() state of the elements} changed since the last run.
+	 *         Highlights are always applied, their values are cached by
+	 *         {@link de.bund.bfr.knime.gis.views.canvas.highlighting.HighlightConditionCache}.
+	 */
+	@Override
+	public List<Object> getGraphSettings() {
+		Map<String, Set<String>> collapsedNodesCopy = new LinkedHashMap<>();
+
+		collapsedNodes.forEach((metaId, containedIds) -> collapsedNodesCopy.put(metaId,
+				new LinkedHashSet<>(containedIds)));
+
+		return Arrays.asList(collapsedNodesCopy, CanvasUtils.getInvisibleConditions(nodeHighlightConditions),
+				CanvasUtils.getInvisibleConditions(edgeHighlightConditions), optionsPanel.isJoinEdges(),
+				optionsPanel.isSkipEdgelessNodes(), optionsPanel.isShowEdgesInMetaNode());
+	}
+
+	/**
+	 * @return the elements and the {@link CanvasUtils#getPropertiesState(Iterable) state of their
+	 *         properties}. Unlike the settings, the state is changed by the steps in
+	 *         {@link #applyChanges()} themselves and therefore taken again after each run. Since the
+	 *         properties are represented by the versions of their stores, this does not copy them.
+	 */
+	@Override
+	public List<Object> getGraphElementsState() {
+		return Arrays.asList(new ArrayList<>(nodeSaveMap.values()), new ArrayList<>(edgeSaveMap.values()),
+				CanvasUtils.getPropertiesState(Iterables.concat(nodeSaveMap.values(), edgeSaveMap.values())));
+	}
+
 	protected Map<String, Point2D> getNodePositions(Collection<V> nodes) {
 		Map<String, Point2D> map = new LinkedHashMap<>();
 		Layout<V, Edge<V>> layout = viewer.getGraphLayout();
@@ -30,13 +30,18 @@ import java.awt.TexturePaint;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.RescaleOp;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -44,6 +49,10 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.IntFunction;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -51,7 +60,9 @@ import java.util.stream.Stream;
 import javax.imageio.ImageIO;
 
 import org.apache.batik.dom.svg.SVGDOMImplementation;
+import org.apache.batik.svggen.SVGGeneratorContext;
 import org.apache.batik.svggen.SVGGraphics2D;
+import org.apache.batik.svggen.SVGIDGenerator;
 import org.apache.commons.collections15.Transformer;
 import org.knime.base.data.xml.SvgCell;
 import org.knime.base.data.xml.SvgImageContent;
@@ -61,6 +72,9 @@ import org.knime.core.node.port.image.ImagePortObjectSpec;
 import org.w3c.dom.svg.SVGDocument;
 
 import com.google.common.base.Joiner;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.ListMultimap;
@@ -77,8 +91,10 @@ import de.bund.bfr.knime.Pair;
 import de.bund.bfr.knime.gis.views.canvas.element.Edge;
 import de.bund.bfr.knime.gis.views.canvas.element.Element;
 import de.bund.bfr.knime.gis.views.canvas.element.Node;
+import de.bund.bfr.knime.gis.views.canvas.element.PropertyStore;
 import de.bund.bfr.knime.gis.views.canvas.highlighting.AndOrHighlightCondition;
 import de.bund.bfr.knime.gis.views.canvas.highlighting.HighlightCondition;
+import de.bund.bfr.knime.gis.views.canvas.highlighting.HighlightConditionCache;
 import de.bund.bfr.knime.gis.views.canvas.highlighting.HighlightConditionList;
 import de.bund.bfr.knime.gis.views.canvas.highlighting.LogicalHighlightCondition;
 import de.bund.bfr.knime.gis.views.canvas.highlighting.LogicalValueHighlightCondition;
@@ -86,6 +102,8 @@ import de.bund.bfr.knime.gis.views.canvas.highlighting.ValueHighlightCondition;
 import de.bund.bfr.knime.gis.views.canvas.util.EdgePropertySchema;
 import de.bund.bfr.knime.gis.views.canvas.util.NodePropertySchema;
 import de.bund.bfr.knime.gis.views.canvas.util.PropertySchema;
+import de.bund.bfr.knime.gis.views.canvas.util.SvgStreamGraphics2D;
+import de.bund.bfr.knime.gis.views.canvas.util.TiledPngWriter;
 import de.bund.bfr.knime.gis.views.canvas.util.Transform;
 import edu.uci.ics.jung.graph.Graph;
 import edu.uci.ics.jung.graph.util.Context;
@@ -97,7 +115,14 @@ public class CanvasUtils {
 	private static Logger logger =  Logger.getLogger("de.bund.bfr");
 	
 	private static final int NODE_TEXTURE_SIZE = 3;
+
 	private static final int EDGE_TEXTURE_SIZE = 5;
+	/**
+	 * Images with more pixels are written with {@link TiledPngWriter} or {@link SvgStreamGraphics2D}
+	 * instead of being painted into one {@link BufferedImage} or {@link SVGDocument}.
+	 */
+	private static final long LARGE_IMAGE_PIXELS = 1L << 24;
+	private static final int MIXED_PAINT_CACHE_SIZE = 10000;
 	
 	private static final Color[] COLORS = new Color[] { new Color(255, 85, 85), new Color(85, 85, 255),
 			new Color(85, 255, 85), new Color(255, 85, 255), new Color(85, 255, 255), new Color(255, 175, 175),
@@ -109,6 +134,9 @@ public class CanvasUtils {
 			new Color(255, 128, 128), new Color(128, 128, 255), new Color(128, 255, 128), new Color(255, 128, 255),
 			new Color(128, 255, 255) };
 
+	private static Cache<Pair<List<Color>, Boolean>, Paint> mixedPaints = CacheBuilder.newBuilder()
+			.maximumSize(MIXED_PAINT_CACHE_SIZE).build();
+
 	private CanvasUtils() {
 	}
 
@@ -169,20 +197,39 @@ public class CanvasUtils {
 	public static <V extends Node> void copyNodesAndEdges(Collection<V> nodes, Collection<Edge<V>> edges,
 			Collection<V> newNodes, Collection<Edge<V>> newEdges) {
 		Map<String, V> nodesById = new LinkedHashMap<>();
+		Map<PropertyStore, PropertyStore> storeCopies = new IdentityHashMap<>();
+		PropertyStore otherStore = new PropertyStore(Collections.emptyMap());
 
 		for (V node : nodes) {
-			V newNode = (V) node.copy();
+			V newNode = (V) node.copy(copyProperties(node.getProperties(), storeCopies, otherStore));
 
 			nodesById.put(node.getId(), newNode);
 			newNodes.add(newNode);
 		}
 
 		for (Edge<V> edge : edges) {
-			newEdges.add(new Edge<>(edge.getId(), new LinkedHashMap<>(edge.getProperties()),
+			newEdges.add(new Edge<>(edge.getId(), copyProperties(edge.getProperties(), storeCopies, otherStore),
 					nodesById.get(edge.getFrom().getId()), nodesById.get(edge.getTo().getId())));
 		}
 	}
 
+	/**
+	 * Properties from a {@link PropertyStore} are copied by copying the whole store once, so that the
+	 * copies stay columnar. All other properties are added to {@code otherStore}, so that the copies
+	 * always have a {@link PropertyStore#getVersion() version}.
+	 */
+	private static Map<String, Object> copyProperties(Map<String, Object> properties,
+			Map<PropertyStore, PropertyStore> storeCopies, PropertyStore otherStore) {
+		PropertyStore store = PropertyStore.getStore(properties);
+
+		if (store == null) {
+			return otherStore.addRow(properties);
+		}
+
+		return storeCopies.computeIfAbsent(store, PropertyStore::copy)
+				.getRow(PropertyStore.getRowIndex(properties));
+	}
+
 	public static <V extends Node> Map<Edge<V>, Set<Edge<V>>> joinEdges(Collection<Edge<V>> edges,
 			EdgePropertySchema schema, Collection<Edge<V>> allEdges) {
 		SetMultimap<Pair<V, V>, Edge<V>> edgeMap = LinkedHashMultimap.create();
@@ -278,15 +325,15 @@ public class CanvasUtils {
 		properties.put(schema.getLatitude(), null);
 		properties.put(schema.getLongitude(), null);
 
-		return properties;
+		return new PropertyStore(schema.getMap()).addRow(properties);
 	}
 
 	public static <T extends Element> Set<T> getHighlightedElements(Collection<T> elements,
-			List<HighlightCondition> highlightConditions) {
+			List<HighlightCondition> highlightConditions, HighlightConditionCache cache) {
 		Set<T> highlightedElements = new LinkedHashSet<>();
 
 		for (HighlightCondition condition : highlightConditions) {
-			condition.getValues(elements).entrySet().stream().filter(e -> e.getValue() != 0.0)
+			cache.getValues(condition, elements).entrySet().stream().filter(e -> e.getValue() != 0.0)
 					.forEach(e -> highlightedElements.add(e.getKey()));
 		}
 
@@ -372,9 +419,9 @@ public class CanvasUtils {
 	}
 
 	public static <V extends Node> void applyNodeHighlights(RenderContext<V, Edge<V>> renderContext,
-			Collection<V> nodes, HighlightConditionList nodeHighlightConditions, int nodeSize, Integer nodeMaxSize,
-			String metaNodeProperty) {
-		HighlightResult<V> result = getResult(nodes, nodeHighlightConditions);
+			Collection<V> nodes, HighlightConditionList nodeHighlightConditions, HighlightConditionCache cache,
+			int nodeSize, Integer nodeMaxSize, String metaNodeProperty) {
+		HighlightResult<V> result = getResult(nodes, nodeHighlightConditions, cache);
 		Set<V> metaNodes = nodes.stream().filter(n -> Boolean.TRUE.equals(n.getProperties().get(metaNodeProperty)))
 				.collect(Collectors.toCollection(LinkedHashSet::new));
 
@@ -386,16 +433,16 @@ public class CanvasUtils {
 	}
 
 	public static <V extends Node> void applyNodeLabels(RenderContext<V, Edge<V>> renderContext, Collection<V> nodes,
-			HighlightConditionList nodeHighlightConditions) {
-		HighlightResult<V> result = getResult(nodes, nodeHighlightConditions);
+			HighlightConditionList nodeHighlightConditions, HighlightConditionCache cache) {
+		HighlightResult<V> result = getResult(nodes, nodeHighlightConditions, cache);
 
 		renderContext.setVertexLabelTransformer(node -> result.labels.get(node));
 	}
 
 	public static <V extends Node> void applyEdgeHighlights(RenderContext<V, Edge<V>> renderContext,
-			Collection<Edge<V>> edges, HighlightConditionList edgeHighlightConditions, int edgeThickness,
-			Integer edgeMaxThickness) {
-		HighlightResult<Edge<V>> result = getResult(edges, edgeHighlightConditions);
+			Collection<Edge<V>> edges, HighlightConditionList edgeHighlightConditions, HighlightConditionCache cache,
+			int edgeThickness, Integer edgeMaxThickness) {
+		HighlightResult<Edge<V>> result = getResult(edges, edgeHighlightConditions, cache);
 		Pair<Transformer<Edge<V>, Stroke>, Transformer<Context<Graph<V, Edge<V>>, Edge<V>>, Shape>> strokeAndArrowTransformers = JungUtils
 				.newEdgeStrokeArrowTransformers(edgeThickness, edgeMaxThickness, result.thicknessValues);
 
@@ -405,6 +452,10 @@ public class CanvasUtils {
 		renderContext.setEdgeLabelTransformer(edge -> result.labels.get(edge));
 	}
 
+	/**
+	 * The paints are cached by the mixed colors and the texture mode, so that elements with the
+	 * same highlighting share the same paint instance.
+	 */
 	public static Paint mixColors(Color backgroundColor, List<Color> colors, List<Double> alphas,
 			boolean checkedInsteadOfStriped) {
 		double rb = backgroundColor.getRed() / 255.0;
@@ -428,29 +479,45 @@ public class CanvasUtils {
 
 		if (cs.isEmpty()) {
 			return backgroundColor;
-		} else if (cs.size() == 1) {
+		}
+
+		Pair<List<Color>, Boolean> key = new Pair<>(cs, checkedInsteadOfStriped);
+		Paint paint = mixedPaints.getIfPresent(key);
+
+		if (paint == null) {
+			paint = createMixedPaint(cs, checkedInsteadOfStriped);
+			mixedPaints.put(key, paint);
+		}
+
+		return paint;
+	}
+
+	private static Paint createMixedPaint(List<Color> cs, boolean checkedInsteadOfStriped) {
+		if (cs.size() == 1) {
 			return cs.get(0);
 		}
 
-		BufferedImage img;
+		int[] rgbs = cs.stream().mapToInt(c -> c.getRGB()).toArray();
 		int size = cs.size() * (checkedInsteadOfStriped ? EDGE_TEXTURE_SIZE : NODE_TEXTURE_SIZE);
+		int height = checkedInsteadOfStriped ? size : 1;
+		int[] pixels = new int[size * height];
 
 		if (checkedInsteadOfStriped) {
-			img = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
-
-			for (int x = 0; x < size; x++) {
-				for (int y = 0; y < size; y++) {
-					img.setRGB(x, y, cs.get((x / EDGE_TEXTURE_SIZE + y / EDGE_TEXTURE_SIZE) % cs.size()).getRGB());
+			for (int y = 0; y < size; y++) {
+				for (int x = 0; x < size; x++) {
+					pixels[y * size + x] = rgbs[(x / EDGE_TEXTURE_SIZE + y / EDGE_TEXTURE_SIZE) % rgbs.length];
 				}
 			}
 		} else {
-			img = new BufferedImage(size, 1, BufferedImage.TYPE_INT_ARGB);
-
 			for (int x = 0; x < size; x++) {
-				img.setRGB(x, 0, cs.get(x / NODE_TEXTURE_SIZE).getRGB());
+				pixels[x] = rgbs[x / NODE_TEXTURE_SIZE];
 			}
 		}
 
+		BufferedImage img = new BufferedImage(size, height, BufferedImage.TYPE_INT_ARGB);
+
+		img.getRaster().setDataElements(0, 0, size, height, pixels);
+
 		return new TexturePaint(img, new Rectangle(img.getWidth(), img.getHeight()));
 	}
 
@@ -462,11 +529,11 @@ public class CanvasUtils {
 	}
 
 	public static <T extends Element> Set<T> removeInvisibleElements(Set<T> elements,
-			HighlightConditionList highlightConditions) {
+			HighlightConditionList highlightConditions, HighlightConditionCache cache) {
 		Set<T> removed = new LinkedHashSet<>();
 
 		highlightConditions.getConditions().stream().filter(c -> c.isInvisible()).forEach(c -> {
-			Set<T> toRemove = c.getValues(elements).entrySet().stream().filter(e -> e.getValue() != 0.0)
+			Set<T> toRemove = cache.getValues(c, elements).entrySet().stream().filter(e -> e.getValue() != 0.0)
 					.map(e -> e.getKey()).collect(Collectors.toCollection(LinkedHashSet::new));
 
 			elements.removeAll(toRemove);
@@ -512,6 +579,81 @@ public class CanvasUtils {
 		return graph;
 	}
 
+	/**
+	 * Changes the graph of the viewer, so that it contains exactly {@code nodes} and {@code edges}.
+	 * Only removed and added elements are changed in the existing graph, instead of creating a new
+	 * graph as in {@link #createGraph(BetterVisualizationViewer, Collection, Collection)}.
+	 */
+	public static <V extends Node> void updateGraph(BetterVisualizationViewer<V, Edge<V>> owner, Collection<V> nodes,
+			Collection<Edge<V>> edges) {
+		logger.finest("entered");
+		Graph<V, Edge<V>> graph = owner.getGraphLayout().getGraph();
+
+		if (!(graph instanceof BetterDirectedSparseMultigraph)) {
+			owner.getGraphLayout().setGraph(createGraph(owner, nodes, edges));
+			logger.finest("leaving with new graph");
+			return;
+		}
+
+		Set<V> nodeSet = nodes instanceof Set ? (Set<V>) nodes : new HashSet<>(nodes);
+		Set<Edge<V>> edgeSet = edges instanceof Set ? (Set<Edge<V>>) edges : new HashSet<>(edges);
+
+		for (Edge<V> edge : new ArrayList<>(graph.getEdges())) {
+			if (!edgeSet.contains(edge)) {
+				graph.removeEdge(edge);
+			}
+		}
+
+		for (V node : new ArrayList<>(graph.getVertices())) {
+			if (!nodeSet.contains(node)) {
+				graph.removeVertex(node);
+			}
+		}
+
+		for (V node : nodes) {
+			if (!graph.containsVertex(node)) {
+				graph.addVertex(node);
+			}
+		}
+
+		for (Edge<V> edge : edges) {
+			if (!graph.containsEdge(edge)) {
+				graph.addEdge(edge, edge.getFrom(), edge.getTo());
+			}
+		}
+
+		logger.finest("leaving");
+	}
+
+	public static List<HighlightCondition> getInvisibleConditions(HighlightConditionList highlightConditions) {
+		return highlightConditions.getConditions().stream().filter(c -> c.isInvisible()).map(c -> c.copy())
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * @return an object, that is equal for two calls, if the properties of the elements did not
+	 *         change in between. Properties in a {@link PropertyStore} are represented by the
+	 *         {@link PropertyStore#getVersion() version} of the store, all other properties are copied.
+	 *         The elements of a canvas never need a copy, since the canvas copies its nodes and edges
+	 *         into stores and meta nodes get their own store.
+	 */
+	public static List<Object> getPropertiesState(Iterable<? extends Element> elements) {
+		Map<PropertyStore, Long> versions = new HashMap<>();
+		List<Map<String, Object>> otherProperties = new ArrayList<>();
+
+		for (Element element : elements) {
+			PropertyStore store = PropertyStore.getStore(element.getProperties());
+
+			if (store != null) {
+				versions.putIfAbsent(store, store.getVersion());
+			} else {
+				otherProperties.add(new LinkedHashMap<>(element.getProperties()));
+			}
+		}
+
+		return Arrays.asList(versions, otherProperties);
+	}
+
 	public static BufferedImage getBufferedImage(ICanvas<?>... canvas) {
 		int width = Math.max(Stream.of(canvas).mapToInt(c -> c.getCanvasSize().width).sum(), 1);
 		int height = Stream.of(canvas).mapToInt(c -> c.getCanvasSize().height).max().orElse(1);
@@ -579,23 +721,253 @@ public class CanvasUtils {
 		return document;
 	}
 	
+	/**
+	 * Paints each canvas once in a thread of {@code executor}. The image with all canvases side by
+	 * side is composed from the painted images instead of painting the canvases again.
+	 *
+	 * @return the image of each canvas followed by the image with all canvases
+	 */
+	public static List<BufferedImage> getBufferedImages(Executor executor, ICanvas<?>... canvas) {
+		List<BufferedImage> images = getConcurrently(executor, canvas.length, i -> getBufferedImage(canvas[i]));
+		BufferedImage combined = new BufferedImage(Math.max(getCombinedWidth(canvas), 1),
+				Math.max(getCombinedHeight(canvas), 1), BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = combined.createGraphics();
+		int x = 0;
+
+		for (int i = 0; i < canvas.length; i++) {
+			g.drawImage(images.get(i), x, 0, null);
+			x += canvas[i].getCanvasSize().width;
+		}
+
+		g.dispose();
+		images.add(combined);
+
+		return images;
+	}
+
+	/**
+	 * Like {@link #getBufferedImages(Executor, ICanvas...)} for SVG. The documents of the canvases are
+	 * nested in the combined document with the ids of each canvas prefixed, so that they stay
+	 * unique.
+	 *
+	 * @return the document of each canvas followed by the document with all canvases
+	 */
+	public static List<SVGDocument> getSvgDocuments(Executor executor, ICanvas<?>... canvas) {
+		List<SVGDocument> documents = getConcurrently(executor, canvas.length,
+				i -> getSvgDocument("canvas" + i + "_", canvas[i]));
+		SVGDocument combined = (SVGDocument) new SVGDOMImplementation().createDocument(null, "svg", null);
+		SVGGraphics2D g = new SVGGraphics2D(combined);
+
+		g.setSVGCanvasSize(new Dimension(Math.max(getCombinedWidth(canvas), 1),
+				Math.max(getCombinedHeight(canvas), 1)));
+
+		org.w3c.dom.Element root = g.getRoot();
+		int x = 0;
+
+		for (int i = 0; i < canvas.length; i++) {
+			org.w3c.dom.Element part = (org.w3c.dom.Element) combined
+					.importNode(documents.get(i).getDocumentElement(), true);
+
+			part.setAttributeNS(null, "x", String.valueOf(x));
+			root.appendChild(part);
+			x += canvas[i].getCanvasSize().width;
+		}
+
+		g.dispose();
+		combined.replaceChild(root, combined.getDocumentElement());
+		documents.add(combined);
+
+		return documents;
+	}
+
+	/**
+	 * Writes the canvases side by side as PNG, which is painted in strips, so that the whole image
+	 * is never in memory.
+	 */
+	public static void writePng(OutputStream out, ICanvas<?>... canvas) throws IOException {
+		List<VisualizationImageServer<?, ?>> servers = new ArrayList<>();
+
+		for (ICanvas<?> c : canvas) {
+			servers.add(c.getVisualizationServer(false));
+		}
+
+		TiledPngWriter.write(out, Math.max(getCombinedWidth(canvas), 1), Math.max(getCombinedHeight(canvas), 1),
+				g -> paintSideBySide(g, servers, canvas));
+	}
+
+	/**
+	 * Writes the canvases side by side as SVG, which is streamed to {@code out} while painting.
+	 */
+	public static void writeSvg(OutputStream out, ICanvas<?>... canvas) throws IOException {
+		List<VisualizationImageServer<?, ?>> servers = new ArrayList<>();
+
+		for (ICanvas<?> c : canvas) {
+			servers.add(c.getVisualizationServer(true));
+		}
+
+		SvgStreamGraphics2D g = new SvgStreamGraphics2D(out, Math.max(getCombinedWidth(canvas), 1),
+				Math.max(getCombinedHeight(canvas), 1));
+
+		paintSideBySide(g, servers, canvas);
+		g.finish();
+	}
+
 	public static ImagePortObject getImage(boolean asSvg, ICanvas<?>... canvas) throws IOException {
-		if (asSvg) {
+		if (canvas.length > 0 && isLarge(canvas)) {
+			return getStreamedImage(asSvg, canvas);
+		} else if (asSvg) {
 			// if canvas list is empty create an empty create an pseudo empty svg document otherwise the SVGImageContent constructor throws an error
 			// because it checks whether were is at least something on the image 
 			// With this setting the image view show not anymore an invalid svg file 
-			return new ImagePortObject(new SvgImageContent((canvas.length>0?CanvasUtils.getSvgDocument(canvas):getPseudoEmptySvgDocument())),
-					new ImagePortObjectSpec(SvgCell.TYPE));
+			return getImage(canvas.length>0?CanvasUtils.getSvgDocument(canvas):getPseudoEmptySvgDocument());
 		} else {
-			try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-				ImageIO.write(CanvasUtils.getBufferedImage(canvas), "png", out);
+			return getImage(CanvasUtils.getBufferedImage(canvas));
+		}
+	}
+
+	/**
+	 * Large images are written one after another with {@link #writePng(OutputStream, ICanvas...)}
+	 * or {@link #writeSvg(OutputStream, ICanvas...)}, so that only one of them is painted at a time.
+	 *
+	 * @return the images of {@link #getBufferedImages(Executor, ICanvas...)} or
+	 *         {@link #getSvgDocuments(Executor, ICanvas...)}
+	 */
+	public static List<ImagePortObject> getImages(Executor executor, boolean asSvg, ICanvas<?>... canvas)
+			throws IOException {
+		List<ImagePortObject> images = new ArrayList<>();
 
-				return new ImagePortObject(new PNGImageContent(out.toByteArray()),
-						new ImagePortObjectSpec(PNGImageContent.TYPE));
+		if (isLarge(canvas)) {
+			for (ICanvas<?> c : canvas) {
+				images.add(getStreamedImage(asSvg, c));
 			}
+
+			images.add(getStreamedImage(asSvg, canvas));
+		} else if (asSvg) {
+			for (SVGDocument document : getSvgDocuments(executor, canvas)) {
+				images.add(getImage(document));
+			}
+		} else {
+			for (BufferedImage image : getBufferedImages(executor, canvas)) {
+				images.add(getImage(image));
+			}
+		}
+
+		return images;
+	}
+
+	private static ImagePortObject getImage(SVGDocument document) {
+		return new ImagePortObject(new SvgImageContent(document), new ImagePortObjectSpec(SvgCell.TYPE));
+	}
+
+	private static ImagePortObject getImage(BufferedImage image) throws IOException {
+		try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			ImageIO.write(image, "png", out);
+
+			return new ImagePortObject(new PNGImageContent(out.toByteArray()),
+					new ImagePortObjectSpec(PNGImageContent.TYPE));
 		}
 	}
 
+	private static ImagePortObject getStreamedImage(boolean asSvg, ICanvas<?>... canvas) throws IOException {
+		try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			if (asSvg) {
+				writeSvg(out, canvas);
+
+				return new ImagePortObject(new SvgImageContent(new ByteArrayInputStream(out.toByteArray())),
+						new ImagePortObjectSpec(SvgCell.TYPE));
+			}
+
+			writePng(out, canvas);
+
+			return new ImagePortObject(new PNGImageContent(out.toByteArray()),
+					new ImagePortObjectSpec(PNGImageContent.TYPE));
+		}
+	}
+
+	private static void paintSideBySide(Graphics2D g, List<VisualizationImageServer<?, ?>> servers,
+			ICanvas<?>... canvas) {
+		int x = 0;
+
+		for (int i = 0; i < canvas.length; i++) {
+			Dimension size = canvas[i].getCanvasSize();
+			Graphics2D canvasGraphics = (Graphics2D) g.create();
+
+			canvasGraphics.translate(x, 0);
+			canvasGraphics.clipRect(0, 0, size.width, size.height);
+			servers.get(i).paint(canvasGraphics);
+			canvasGraphics.dispose();
+			x += size.width;
+		}
+	}
+
+	static boolean isLarge(ICanvas<?>... canvas) {
+		return (long) getCombinedWidth(canvas) * getCombinedHeight(canvas) > LARGE_IMAGE_PIXELS;
+	}
+
+	private static SVGDocument getSvgDocument(String idPrefix, ICanvas<?> canvas) {
+		SVGDocument document = (SVGDocument) new SVGDOMImplementation().createDocument(null, "svg", null);
+		SVGGeneratorContext context = SVGGeneratorContext.createDefault(document);
+
+		context.setIDGenerator(new SVGIDGenerator() {
+
+			@Override
+			public String generateID(String prefix) {
+				return super.generateID(idPrefix + prefix);
+			}
+		});
+
+		SVGGraphics2D g = new SVGGraphics2D(context, false);
+
+		g.setSVGCanvasSize(new Dimension(Math.max(canvas.getCanvasSize().width, 1),
+				Math.max(canvas.getCanvasSize().height, 1)));
+		canvas.getVisualizationServer(true).paint(g);
+		g.dispose();
+		document.replaceChild(g.getRoot(), document.getDocumentElement());
+
+		return document;
+	}
+
+	private static int getCombinedWidth(ICanvas<?>... canvas) {
+		return Stream.of(canvas).mapToInt(c -> c.getCanvasSize().width).sum();
+	}
+
+	private static int getCombinedHeight(ICanvas<?>... canvas) {
+		return Stream.of(canvas).mapToInt(c -> c.getCanvasSize().height).max().orElse(1);
+	}
+
+	/**
+	 * Each canvas is painted by one thread, so different canvases can be painted in parallel as
+	 * long as they do not share mutable state while painting. This holds for the canvases of one
+	 * view: each has its own layout, render context, highlight results and GIS image, which are
+	 * only read while painting, since the graph and the highlights are computed by
+	 * {@link ICanvas#applyChanges()} before. Properties in a {@link PropertyStore} are only read as
+	 * well. Tiles of an OSM canvas must be loaded before with {@link OsmCanvas#loadAllTiles()},
+	 * otherwise a tile finishing in a loader thread would flush the GIS image during painting. The
+	 * textures of {@link #mixColors(Color, List, List, boolean)} are shared in a thread-safe cache.
+	 */
+	private static <T> List<T> getConcurrently(Executor executor, int count, IntFunction<T> painter) {
+		List<CompletableFuture<T>> futures = new ArrayList<>();
+
+		for (int i = 0; i < count; i++) {
+			int index = i;
+
+			futures.add(CompletableFuture.supplyAsync(() -> painter.apply(index), executor));
+		}
+
+		List<T> results = new ArrayList<>();
+
+		try {
+			for (CompletableFuture<T> future : futures) {
+				results.add(future.join());
+			}
+		} catch (CompletionException e) {
+			Throwables.propagateIfPossible(e.getCause());
+			throw e;
+		}
+
+		return results;
+	}
+
 	public static ImagePortObjectSpec getImageSpec(boolean asSvg) {
 		return new ImagePortObjectSpec(asSvg ? SvgCell.TYPE : PNGImageContent.TYPE);
 	}
@@ -609,7 +981,7 @@ public class CanvasUtils {
 	}
 
 	private static <E extends Element> HighlightResult<E> getResult(Collection<E> elements,
-			HighlightConditionList highlightConditions) {
+			HighlightConditionList highlightConditions, HighlightConditionCache cache) {
 		List<Color> colorList = new ArrayList<>();
 		ListMultimap<E, Double> alphaValues = ArrayListMultimap.create();
 		Map<E, Double> thicknessValues = new LinkedHashMap<>();
@@ -623,7 +995,7 @@ public class CanvasUtils {
 				continue;
 			}
 
-			Map<E, Double> values = condition.getValues(elements);
+			Map<E, Double> values = cache.getValues(condition, elements);
 
 			if (condition.getColor() != null) {
 				colorList.add(condition.getColor());
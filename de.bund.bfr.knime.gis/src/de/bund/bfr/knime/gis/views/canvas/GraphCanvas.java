@@ -88,7 +88,8 @@ public class GraphCanvas extends Canvas<GraphNode> {
 	public void initLayout() {
 	
 		if (!this.getLayoutableNodes().isEmpty()) {
-			applyLayout(LayoutType.ISOM_LAYOUT, this.getLayoutableNodes(), false);
+			applyLayout(LayoutType.getInitialLayout(this.getLayoutableNodes().size()), this.getLayoutableNodes(),
+					false);
 		}
 		
 	}
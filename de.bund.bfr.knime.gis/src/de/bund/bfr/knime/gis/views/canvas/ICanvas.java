@@ -20,6 +20,7 @@
 package de.bund.bfr.knime.gis.views.canvas;
 
 import java.awt.Dimension;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -28,6 +29,7 @@ import javax.swing.JPanel;
 import de.bund.bfr.jung.BetterVisualizationViewer;
 import de.bund.bfr.knime.gis.views.canvas.element.Edge;
 import de.bund.bfr.knime.gis.views.canvas.element.Node;
+import de.bund.bfr.knime.gis.views.canvas.highlighting.HighlightConditionCache;
 import de.bund.bfr.knime.gis.views.canvas.highlighting.HighlightConditionList;
 import de.bund.bfr.knime.gis.views.canvas.util.CanvasOptionsPanel;
 import de.bund.bfr.knime.gis.views.canvas.util.CanvasPopupMenu;
@@ -88,6 +90,8 @@ public interface ICanvas<V extends Node> {
 	void setHighlightConditions(HighlightConditionList nodeHighlightConditions,
 			HighlightConditionList edgeHighlightConditions);
 
+	HighlightConditionCache getHighlightConditionCache();
+
 	Map<String, Set<String>> getCollapsedNodes();
 
 	void setCollapsedNodes(Map<String, Set<String>> collapsedNodes);
@@ -122,5 +126,9 @@ public interface ICanvas<V extends Node> {
 
 	void applyShowEdgesInMetaNode();
 
+	List<Object> getGraphSettings();
+
+	List<Object> getGraphElementsState();
+
 	JPanel getComponent();
 }
\ No newline at end of file
@@ -39,12 +39,14 @@ import de.bund.bfr.knime.gis.views.canvas.util.CanvasPopupMenu;
 import de.bund.bfr.knime.gis.views.canvas.util.EdgePropertySchema;
 import de.bund.bfr.knime.gis.views.canvas.util.Naming;
 import de.bund.bfr.knime.gis.views.canvas.util.NodePropertySchema;
+import de.bund.bfr.knime.gis.views.canvas.util.RegionIndex;
 
 public class LocationCanvas extends ShapefileCanvas<LocationNode> {
 
 	private static final long serialVersionUID = 1L;
 
 	private List<RegionNode> regions;
+	private RegionIndex regionIndex;
 	private Polygon invalidArea;
 	private Double lastScaleX;
 
@@ -82,9 +84,12 @@ public class LocationCanvas extends ShapefileCanvas<LocationNode> {
 		}
 
 		for (RegionNode region : this.regions) {
-			region.updatePolygon(GisUtils.latLonToViz(region.getPolygon()));
+			region.updatePolygon(GisUtils.latLonToViz(region.getPolygon()),
+					GisUtils.latLonToViz(region.getSimplifiedPolygons()));
 		}
 
+		regionIndex = new RegionIndex(this.regions);
+
 		//invalidArea = LocationCanvasUtils.placeNodes(this.nodes, this.edges, viewer.getGraphLayout());
 		this.placeNodes(this.nodes, this.edges);
 	}
@@ -100,6 +105,11 @@ public class LocationCanvas extends ShapefileCanvas<LocationNode> {
 		return regions;
 	}
 
+	@Override
+	protected Collection<RegionNode> getVisibleRegions() {
+		return regionIndex.getRegions(RegionCanvasUtils.getViewport(transform, getCanvasSize()));
+	}
+
 	@Override
 	public void resetLayoutItemClicked() {
 		Rectangle2D bounds = PointUtils.getBounds(getNodePositions(nodes).values());
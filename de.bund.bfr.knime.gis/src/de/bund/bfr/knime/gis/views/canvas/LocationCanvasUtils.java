@@ -29,13 +29,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.function.IntConsumer;
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.SetMultimap;
 import com.vividsolutions.jts.geom.Polygon;
@@ -51,6 +52,8 @@ import edu.uci.ics.jung.algorithms.layout.Layout;
 public class LocationCanvasUtils {
 
 	private static Logger logger =  Logger.getLogger("de.bund.bfr");
+
+	private static final int PARALLEL_SEARCH_THRESHOLD = 1000;
 	
 	public static double INVALID_AREA_RELATIVE_MARGIN = 0.2;
 	public static double INVALID_AREA_RELATIVE_BORDERWIDTH = 0.02;
@@ -68,56 +71,139 @@ public class LocationCanvasUtils {
 			return;
 		}
 
-		Map<LocationNode, Point2D> positions = new LinkedHashMap<>();
+		List<LocationNode> nodeList = new ArrayList<>(nodes);
+		int n = nodeList.size();
+		double s = nodeSize / transform.getScaleX();
+		double d = s / 5.0;
 
-		for (LocationNode n : nodes) {
-			positions.put(n, n.getCenter());
+		if (!(d > 0.0) || Double.isInfinite(d)) {
+			for (LocationNode node : nodeList) {
+				layout.setLocation(node, node.getCenter());
+			}
+
+			return;
 		}
 
-		double s = nodeSize / transform.getScaleX();
-		double d = s / 5.0;
+		double[] centerX = new double[n];
+		double[] centerY = new double[n];
+		double[] randX = new double[n];
+		double[] randY = new double[n];
 		Random rand = new Random(0);
 
-		for (LocationNode n1 : nodes) {
-			Point2D p1 = positions.get(n1);
-			List<Point2D> neighbors = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			centerX[i] = nodeList.get(i).getCenter().getX();
+			centerY[i] = nodeList.get(i).getCenter().getY();
+			randX[i] = rand.nextDouble();
+			randY[i] = rand.nextDouble();
+		}
+
+		// Nodes are placed one after another and the nodes placed before are used at their new
+		// position, which is at most sqrt(2) * s away from their center. Therefore all neighbors of a
+		// node are in the cells around its center, if the cells have a size of (2 + sqrt(2)) * s.
+		SpatialHash hash = new SpatialHash(centerX, centerY, (2.0 + Math.sqrt(2.0)) * s);
+		double[] x = centerX.clone();
+		double[] y = centerY.clone();
+		int[] candidates = new int[16];
+		Neighbors neighbors = new Neighbors();
+
+		for (int i = 0; i < n; i++) {
+			double x1 = centerX[i];
+			double y1 = centerY[i];
+			int candidateCount = hash.getNodesAround(x1, y1, candidates);
+
+			if (candidateCount > candidates.length) {
+				candidates = new int[candidateCount];
+				hash.getNodesAround(x1, y1, candidates);
+			}
+
+			neighbors.clear();
 
-			for (LocationNode n2 : nodes) {
-				Point2D p2 = positions.get(n2);
+			for (int k = 0; k < candidateCount; k++) {
+				int j = candidates[k];
+				double dx = x[j] - x1;
+				double dy = y[j] - y1;
 
-				if (n1 != n2 && p1.distance(p2) < 2 * s) {
-					neighbors.add(p2);
+				if (j != i && Math.sqrt(dx * dx + dy * dy) < 2 * s) {
+					neighbors.add(x[j], y[j]);
 				}
 			}
 
-			double randX = rand.nextDouble();
-			double randY = rand.nextDouble();
-			double x1 = p1.getX() - s;
-			double x2 = p1.getX() + s;
-			double y1 = p1.getY() - s;
-			double y2 = p1.getY() + s;
-			double bestDistance = 0.0;
-			Point2D bestPoint = null;
+			neighbors.build();
 
-			for (double x = x1 + randX * d; x <= x2; x += d) {
-				for (double y = y1 + randY * d; y <= y2; y += d) {
-					double distance = Double.POSITIVE_INFINITY;
+			double[] best = getBestPosition(x1, y1, s, d, randX[i], randY[i], neighbors);
 
-					for (Point2D p : neighbors) {
-						distance = Math.min(distance, p.distance(x, y));
-					}
+			if (best != null) {
+				x[i] = best[0];
+				y[i] = best[1];
+			}
+		}
 
-					if (distance > bestDistance) {
-						bestDistance = distance;
-						bestPoint = new Point2D.Double(x, y);
-					}
+		for (int i = 0; i < n; i++) {
+			layout.setLocation(nodeList.get(i), new Point2D.Double(x[i], y[i]));
+		}
+	}
+
+	/**
+	 * Searches the grid of positions with distance {@code d} around the center, that is shifted by
+	 * the random offsets, for the position with the largest distance to the closest neighbor. The
+	 * columns of the grid are searched in parallel, if there are many neighbors. Of several
+	 * positions with the same distance the first one in the order of the grid is returned.
+	 */
+	private static double[] getBestPosition(double centerX, double centerY, double s, double d, double randX,
+			double randY, Neighbors neighbors) {
+		double[] xs = getGridPositions(centerX - s + randX * d, centerX + s, d);
+		double[] ys = getGridPositions(centerY - s + randY * d, centerY + s, d);
+		double[] columnDistances = new double[xs.length];
+		int[] columnBestY = new int[xs.length];
+		IntConsumer searchColumn = column -> {
+			double bestDistance = 0.0;
+			int bestY = -1;
+
+			for (int row = 0; row < ys.length; row++) {
+				double distance = neighbors.getMinDistance(xs[column], ys[row], bestDistance);
+
+				if (distance > bestDistance) {
+					bestDistance = distance;
+					bestY = row;
 				}
 			}
 
-			positions.put(n1, bestPoint);
+			columnDistances[column] = bestDistance;
+			columnBestY[column] = bestY;
+		};
+
+		if (neighbors.count >= PARALLEL_SEARCH_THRESHOLD) {
+			IntStream.range(0, xs.length).parallel().forEach(searchColumn);
+		} else {
+			IntStream.range(0, xs.length).forEach(searchColumn);
+		}
+
+		double bestDistance = 0.0;
+		double[] best = null;
+
+		for (int column = 0; column < xs.length; column++) {
+			if (columnDistances[column] > bestDistance) {
+				bestDistance = columnDistances[column];
+				best = new double[] { xs[column], ys[columnBestY[column]] };
+			}
+		}
+
+		return best;
+	}
+
+	private static double[] getGridPositions(double start, double end, double d) {
+		double[] positions = new double[(int) Math.max(0.0, (end - start) / d) + 2];
+		int count = 0;
+
+		for (double v = start; v <= end; v += d) {
+			if (count == positions.length) {
+				positions = Arrays.copyOf(positions, 2 * count);
+			}
+
+			positions[count++] = v;
 		}
 
-		positions.forEach((node, pos) -> layout.setLocation(node, pos));
+		return Arrays.copyOf(positions, count);
 	}
 
 	public static Polygon placeNodes(Collection<LocationNode> nodes, Collection<Edge<LocationNode>> edges,
@@ -281,4 +367,289 @@ public class LocationCanvasUtils {
 
 		throw new RuntimeException("This should not happen");
 	}
+
+	/**
+	 * Uniform spatial hash over fixed positions. The positions are assigned to square cells, which
+	 * are hashed into buckets, so that memory does not depend on the extent of the positions. All
+	 * nodes in a bucket are stored in one array (sorted by bucket).
+	 */
+	private static class SpatialHash {
+
+		private double cellSize;
+		private int mask;
+		private int[] bucketStarts;
+		private int[] entries;
+
+		public SpatialHash(double[] x, double[] y, double cellSize) {
+			int bucketCount = Integer.highestOneBit(Math.max(1, 2 * x.length - 1));
+			int[] buckets = new int[x.length];
+
+			this.cellSize = cellSize;
+			mask = bucketCount - 1;
+			bucketStarts = new int[bucketCount + 1];
+			entries = new int[x.length];
+
+			for (int i = 0; i < x.length; i++) {
+				buckets[i] = getBucket(getCell(x[i]), getCell(y[i]));
+				bucketStarts[buckets[i] + 1]++;
+			}
+
+			for (int b = 0; b < bucketCount; b++) {
+				bucketStarts[b + 1] += bucketStarts[b];
+			}
+
+			int[] next = Arrays.copyOf(bucketStarts, bucketCount);
+
+			for (int i = 0; i < x.length; i++) {
+				entries[next[buckets[i]]++] = i;
+			}
+		}
+
+		/**
+		 * Writes all nodes, whose position is in the cell of the point or in one of the eight cells
+		 * around it, to {@code result}. The result may contain additional nodes from other cells,
+		 * that have the same bucket.
+		 *
+		 * @return the number of nodes. If it is larger than the length of {@code result}, only the
+		 *         first nodes are written.
+		 */
+		public int getNodesAround(double px, double py, int[] result) {
+			long cellX = getCell(px);
+			long cellY = getCell(py);
+			int[] visitedBuckets = new int[9];
+			int visitedCount = 0;
+			int count = 0;
+
+			for (long cx = cellX - 1; cx <= cellX + 1; cx++) {
+				for (long cy = cellY - 1; cy <= cellY + 1; cy++) {
+					int bucket = getBucket(cx, cy);
+					boolean visited = false;
+
+					for (int k = 0; k < visitedCount; k++) {
+						visited |= visitedBuckets[k] == bucket;
+					}
+
+					if (visited) {
+						continue;
+					}
+
+					visitedBuckets[visitedCount++] = bucket;
+
+					for (int k = bucketStarts[bucket]; k < bucketStarts[bucket + 1]; k++) {
+						if (count < result.length) {
+							result[count] = entries[k];
+						}
+
+						count++;
+					}
+				}
+			}
+
+			return count;
+		}
+
+		private long getCell(double v) {
+			return (long) Math.floor(v / cellSize);
+		}
+
+		private int getBucket(long cellX, long cellY) {
+			long h = cellX * 0x9E3779B97F4A7C15L + cellY * 0xC2B2AE3D27D4EB4FL;
+
+			return (int) (h ^ (h >>> 32)) & mask;
+		}
+	}
+
+	/**
+	 * Positions of the neighbors of a node. If there are many neighbors, they are sorted into a
+	 * uniform grid, so that the closest neighbor of a position is found by searching the cells in
+	 * rings around it.
+	 */
+	private static class Neighbors {
+
+		private static final int GRID_THRESHOLD = 64;
+		private static final int NEIGHBORS_PER_CELL = 2;
+
+		private double[] x;
+		private double[] y;
+		private int count;
+
+		private boolean useGrid;
+		private double minX;
+		private double minY;
+		private double cellSize;
+		private int columns;
+		private int rows;
+		private int[] cellStarts;
+		private int[] cells;
+		private double[] sortedX;
+		private double[] sortedY;
+
+		public Neighbors() {
+			x = new double[16];
+			y = new double[16];
+			count = 0;
+			cellStarts = new int[0];
+			cells = new int[0];
+			sortedX = new double[0];
+			sortedY = new double[0];
+		}
+
+		public void clear() {
+			count = 0;
+		}
+
+		public void add(double px, double py) {
+			if (count == x.length) {
+				x = Arrays.copyOf(x, 2 * count);
+				y = Arrays.copyOf(y, 2 * count);
+			}
+
+			x[count] = px;
+			y[count] = py;
+			count++;
+		}
+
+		public void build() {
+			useGrid = count >= GRID_THRESHOLD;
+
+			if (!useGrid) {
+				return;
+			}
+
+			minX = Double.POSITIVE_INFINITY;
+			minY = Double.POSITIVE_INFINITY;
+
+			double maxX = Double.NEGATIVE_INFINITY;
+			double maxY = Double.NEGATIVE_INFINITY;
+
+			for (int i = 0; i < count; i++) {
+				minX = Math.min(minX, x[i]);
+				minY = Math.min(minY, y[i]);
+				maxX = Math.max(maxX, x[i]);
+				maxY = Math.max(maxY, y[i]);
+			}
+
+			double width = maxX - minX;
+			double height = maxY - minY;
+
+			cellSize = Math.sqrt(width * height * NEIGHBORS_PER_CELL / count);
+
+			if (!(cellSize > 0.0)) {
+				cellSize = Math.max(width, height) * NEIGHBORS_PER_CELL / count;
+			}
+
+			if (!(cellSize > 0.0)) {
+				cellSize = 1.0;
+			}
+
+			columns = (int) Math.min(count, Math.floor(width / cellSize) + 1);
+			rows = (int) Math.min(count, Math.floor(height / cellSize) + 1);
+
+			if (cellStarts.length < columns * rows + 1) {
+				cellStarts = new int[columns * rows + 1];
+			} else {
+				Arrays.fill(cellStarts, 0, columns * rows + 1, 0);
+			}
+
+			if (cells.length < count) {
+				cells = new int[count];
+				sortedX = new double[count];
+				sortedY = new double[count];
+			}
+
+			for (int i = 0; i < count; i++) {
+				cells[i] = getRow(y[i]) * columns + getColumn(x[i]);
+				cellStarts[cells[i] + 1]++;
+			}
+
+			for (int c = 0; c < columns * rows; c++) {
+				cellStarts[c + 1] += cellStarts[c];
+			}
+
+			for (int i = 0; i < count; i++) {
+				int index = cellStarts[cells[i]]++;
+
+				sortedX[index] = x[i];
+				sortedY[index] = y[i];
+			}
+
+			for (int c = columns * rows; c > 0; c--) {
+				cellStarts[c] = cellStarts[c - 1];
+			}
+
+			cellStarts[0] = 0;
+		}
+
+		/**
+		 * @return the distance from the position to the closest neighbor or, if it is not larger
+		 *         than {@code bound}, any distance, that is not larger than {@code bound}
+		 */
+		public double getMinDistance(double px, double py, double bound) {
+			double min = Double.POSITIVE_INFINITY;
+
+			if (!useGrid) {
+				for (int i = 0; i < count; i++) {
+					double dx = px - x[i];
+					double dy = py - y[i];
+
+					min = Math.min(min, Math.sqrt(dx * dx + dy * dy));
+
+					if (min <= bound) {
+						break;
+					}
+				}
+
+				return min;
+			}
+
+			int column = getColumn(px);
+			int row = getRow(py);
+			int maxRing = Math.max(Math.max(column, columns - 1 - column), Math.max(row, rows - 1 - row));
+
+			for (int ring = 0; ring <= maxRing; ring++) {
+				// Cells in this ring are at least (ring - 1) * cellSize away. One more ring is
+				// searched, so that rounding errors in the cell assignment cannot matter.
+				if (ring >= 2 && (ring - 2) * cellSize > min) {
+					break;
+				}
+
+				for (int r = row - ring; r <= row + ring; r++) {
+					if (r < 0 || r >= rows) {
+						continue;
+					}
+
+					boolean borderRow = r == row - ring || r == row + ring;
+
+					for (int c = column - ring; c <= column + ring; c += borderRow ? 1 : 2 * ring) {
+						if (c < 0 || c >= columns) {
+							continue;
+						}
+
+						int cell = r * columns + c;
+
+						for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+							double dx = px - sortedX[i];
+							double dy = py - sortedY[i];
+
+							min = Math.min(min, Math.sqrt(dx * dx + dy * dy));
+						}
+					}
+				}
+
+				if (min <= bound) {
+					break;
+				}
+			}
+
+			return min;
+		}
+
+		private int getColumn(double px) {
+			return Math.max(0, Math.min(columns - 1, (int) Math.floor((px - minX) / cellSize)));
+		}
+
+		private int getRow(double py) {
+			return Math.max(0, Math.min(rows - 1, (int) Math.floor((py - minY) / cellSize)));
+		}
+	}
 }
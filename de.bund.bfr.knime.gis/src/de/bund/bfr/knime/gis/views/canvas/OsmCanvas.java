@@ -29,15 +29,19 @@ import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 import org.openstreetmap.gui.jmapviewer.Coordinate;
 import org.openstreetmap.gui.jmapviewer.FeatureAdapter;
 import org.openstreetmap.gui.jmapviewer.MemoryTileCache;
 import org.openstreetmap.gui.jmapviewer.OsmMercator;
 import org.openstreetmap.gui.jmapviewer.Tile;
-import org.openstreetmap.gui.jmapviewer.TileController;
 import org.openstreetmap.gui.jmapviewer.interfaces.TileLoaderListener;
 import org.openstreetmap.gui.jmapviewer.interfaces.TileSource;
 import org.openstreetmap.gui.jmapviewer.tilesources.OsmTileSource;
@@ -48,9 +52,11 @@ import de.bund.bfr.jung.BetterGraphMouse;
 import de.bund.bfr.jung.ZoomingPaintable;
 import de.bund.bfr.knime.gis.views.canvas.element.Edge;
 import de.bund.bfr.knime.gis.views.canvas.element.Node;
+import de.bund.bfr.knime.gis.views.canvas.util.DiskTileCache;
 import de.bund.bfr.knime.gis.views.canvas.util.EdgePropertySchema;
 import de.bund.bfr.knime.gis.views.canvas.util.Naming;
 import de.bund.bfr.knime.gis.views.canvas.util.NodePropertySchema;
+import de.bund.bfr.knime.gis.views.canvas.util.TileManager;
 import edu.uci.ics.jung.visualization.VisualizationImageServer;
 import edu.uci.ics.jung.visualization.VisualizationServer.Paintable;
 
@@ -60,7 +66,7 @@ public abstract class OsmCanvas<V extends Node> extends GisCanvas<V> implements
 	
 	//private static Logger logger =  Logger.getLogger("de.bund.bfr");
 
-	private TileController tileController;
+	private TileManager tileManager;
 
 	private int lastZoom;
 	private Coordinate lastTopLeft;
@@ -70,7 +76,8 @@ public abstract class OsmCanvas<V extends Node> extends GisCanvas<V> implements
 			Naming naming) {
 		super(nodes, edges, nodeSchema, edgeSchema, naming);
 		
-		tileController = new TileController(new OsmTileSource.Mapnik(), new MemoryTileCache(), this);
+		tileManager = new TileManager(new OsmTileSource.Mapnik(), new MemoryTileCache(), DiskTileCache.getDefault(),
+				this);
 		lastZoom = -1;
 		lastTopLeft = null;
 		lastBottomRight = null;
@@ -78,23 +85,33 @@ public abstract class OsmCanvas<V extends Node> extends GisCanvas<V> implements
 	}
 
 	public TileSource getTileSource() {
-		return tileController.getTileSource();
+		return tileManager.getTileSource();
 	}
 
 	public void setTileSource(TileSource tileSource) {
-		tileController.cancelOutstandingJobs();
-		tileController.setTileSource(tileSource);
+		tileManager.setTileSource(tileSource);
 	}
 
 	public void loadAllTiles() {
-		int tileSize = tileController.getTileSource().getTileSize();
+		int tileSize = tileManager.getTileSource().getTileSize();
 		int maxTiles = (getCanvasSize().width / tileSize + 2) * (getCanvasSize().height / tileSize + 2);
-		MemoryTileCache tileCache = (MemoryTileCache) tileController.getTileCache();
+		MemoryTileCache tileCache = tileManager.getMemoryCache();
 
 		tileCache.setCacheSize(Math.max(tileCache.getCacheSize(), maxTiles));
 		getTiles(true);
 	}
 
+	/**
+	 * Loads all tiles of the bounding box for the zoom levels from {@code minZoom} to
+	 * {@code maxZoom} into the tile cache.
+	 *
+	 * @return a future, that completes when all tiles are loaded
+	 */
+	public CompletableFuture<Void> prefetchTiles(double minLat, double minLon, double maxLat, double maxLon,
+			int minZoom, int maxZoom) {
+		return tileManager.prefetch(minLat, minLon, maxLat, maxLon, minZoom, maxZoom);
+	}
+
 	@Override
 	public void tileLoadingFinished(Tile tile, boolean success) {
         flushImage();
@@ -120,7 +137,7 @@ public abstract class OsmCanvas<V extends Node> extends GisCanvas<V> implements
 	protected void paintGis(Graphics2D g, boolean toSvg, boolean onWhiteBackground) {
 		getTiles(false).forEach((pos, tile) -> tile.paint(g, pos.x, pos.y));
 
-		int size = (int) (Math.pow(2.0, lastZoom) * tileController.getTileSource().getTileSize());
+		int size = (int) (Math.pow(2.0, lastZoom) * tileManager.getTileSource().getTileSize());
 		Color currentColor = g.getColor();
 
 		g.setColor(Color.BLACK);
@@ -131,7 +148,7 @@ public abstract class OsmCanvas<V extends Node> extends GisCanvas<V> implements
 	private Map<Point, Tile> getTiles(boolean waitForLoading) {
 		int w = getCanvasSize().width;
 		int h = getCanvasSize().height;
-		int tileSize = tileController.getTileSource().getTileSize();
+		int tileSize = tileManager.getTileSource().getTileSize();
 		int zoom = (int) Math.round(Math.log(transform.getScaleX()) / Math.log(2.0));
 		double x = -transform.getTranslationX();
 		double y = -transform.getTranslationY();
@@ -150,25 +167,30 @@ public abstract class OsmCanvas<V extends Node> extends GisCanvas<V> implements
 				new OsmMercator().xToLon((maxX + 1) * tileSize, zoom));
 
 		Map<Point, Tile> tiles = new LinkedHashMap<>();
+		List<CompletableFuture<Tile>> futures = new ArrayList<>();
 
 		if (zoom < 0) return tiles;
 		
 		for (int ix = startX; ix <= maxX; ix++) {
 			for (int iy = startY; iy <= maxY; iy++) {
-				Tile tile = tileController.getTile(ix, iy, zoom);
+				Tile tile = tileManager.getTile(ix, iy, zoom);
+
+				if (tile == null) {
+					continue;
+				}
 
 				if (waitForLoading) {
-					while (!tile.isLoaded()) {
-						try {
-							Thread.sleep(10);
-						} catch (InterruptedException e) {
-						}
-					}
+					futures.add(tileManager.loadTile(ix, iy, zoom));
 				}
 
 				tiles.put(new Point((ix - startX) * tileSize + dx, (iy - startY) * tileSize + dy), tile);
 			}
 		}
+
+		try {
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+		} catch (CancellationException | CompletionException e) {
+		}
 		
 		return tiles;
 	}
@@ -200,8 +222,8 @@ public abstract class OsmCanvas<V extends Node> extends GisCanvas<V> implements
 				return;
 			}
 
-			String text = tileController.getTileSource().getAttributionText(lastZoom, lastTopLeft, lastBottomRight);
-			Image img = tileController.getTileSource().getAttributionImage();
+			String text = tileManager.getTileSource().getAttributionText(lastZoom, lastTopLeft, lastBottomRight);
+			Image img = tileManager.getTileSource().getAttributionImage();
 			int startY = 0;
 			Graphics2D g = (Graphics2D) graphics;
 			Color currentColor = g.getColor();
@@ -262,8 +284,8 @@ public abstract class OsmCanvas<V extends Node> extends GisCanvas<V> implements
 
 		@Override
 		public void mouseClicked(MouseEvent e) {
-			String textLink = tileController.getTileSource().getAttributionLinkURL();
-			String imgLink = tileController.getTileSource().getAttributionImageURL();
+			String textLink = tileManager.getTileSource().getAttributionLinkURL();
+			String imgLink = tileManager.getTileSource().getAttributionImageURL();
 
 			if (e.getButton() == MouseEvent.BUTTON1) {
 				if (textFocused && textLink != null) {
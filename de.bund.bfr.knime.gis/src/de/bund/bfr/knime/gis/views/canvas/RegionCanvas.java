@@ -38,6 +38,7 @@ import de.bund.bfr.knime.gis.views.canvas.util.CanvasPopupMenu;
 import de.bund.bfr.knime.gis.views.canvas.util.EdgePropertySchema;
 import de.bund.bfr.knime.gis.views.canvas.util.Naming;
 import de.bund.bfr.knime.gis.views.canvas.util.NodePropertySchema;
+import de.bund.bfr.knime.gis.views.canvas.util.RegionIndex;
 
 /**
  * @author Christian Thoens
@@ -46,6 +47,8 @@ public class RegionCanvas extends ShapefileCanvas<RegionNode> {
 
 	private static final long serialVersionUID = 1L;
 
+	private RegionIndex regionIndex;
+
 	public RegionCanvas(boolean allowEdges, Naming naming) {
 		this(new ArrayList<>(0), new ArrayList<>(0), new NodePropertySchema(), new EdgePropertySchema(), naming,
 				allowEdges);
@@ -76,9 +79,12 @@ public class RegionCanvas extends ShapefileCanvas<RegionNode> {
 		viewer.getRenderer().setVertexLabelRenderer(new BetterVertexLabelRenderer<>(LabelPosition.CENTER));
 
 		for (RegionNode node : this.nodes) {
-			node.updatePolygon(GisUtils.latLonToViz(node.getPolygon()));
+			node.updatePolygon(GisUtils.latLonToViz(node.getPolygon()),
+					GisUtils.latLonToViz(node.getSimplifiedPolygons()));
 		}
 
+		regionIndex = new RegionIndex(this.nodes);
+
 		for (RegionNode node : this.nodes) {
 			viewer.getGraphLayout().setLocation(node, node.getCenter());
 		}
@@ -89,6 +95,11 @@ public class RegionCanvas extends ShapefileCanvas<RegionNode> {
 		return nodes;
 	}
 
+	@Override
+	protected Collection<RegionNode> getVisibleRegions() {
+		return RegionCanvasUtils.getVisibleRegions(regionIndex, nodes, transform, getCanvasSize());
+	}
+
 	@Override
 	public void applyChanges() {
 		flushImage();
@@ -97,19 +108,22 @@ public class RegionCanvas extends ShapefileCanvas<RegionNode> {
 
 	@Override
 	public void applyHighlights() {
-		CanvasUtils.applyNodeLabels(viewer.getRenderContext(), nodes, nodeHighlightConditions);
+		CanvasUtils.applyNodeLabels(viewer.getRenderContext(), nodes, nodeHighlightConditions,
+				getHighlightConditionCache());
 		CanvasUtils.applyEdgeHighlights(viewer.getRenderContext(), edges, edgeHighlightConditions,
-				getOptionsPanel().getEdgeThickness(), getOptionsPanel().getEdgeMaxThickness());
+				getHighlightConditionCache(), getOptionsPanel().getEdgeThickness(),
+				getOptionsPanel().getEdgeMaxThickness());
 	}
 
 	@Override
 	protected BetterPickingGraphMousePlugin<RegionNode, Edge<RegionNode>> createPickingPlugin() {
-		return RegionCanvasUtils.createPickingPlugin(this);
+		return RegionCanvasUtils.createPickingPlugin(this, () -> regionIndex);
 	}
 
 	@Override
 	protected void paintGis(Graphics2D g, boolean toSvg, boolean onWhiteBackground) {
-		RegionCanvasUtils.paintRegions(g, nodes, getSelectedNodes(), nodeHighlightConditions);
+		RegionCanvasUtils.paintRegions(g, nodes, getVisibleRegions(), getSelectedNodes(), nodeHighlightConditions,
+				getHighlightConditionCache());
 		super.paintGis(g, toSvg, false);
 	}
 
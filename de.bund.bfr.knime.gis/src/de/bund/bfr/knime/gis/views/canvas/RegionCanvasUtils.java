@@ -20,6 +20,7 @@
 package de.bund.bfr.knime.gis.views.canvas;
 
 import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Paint;
 import java.awt.event.MouseEvent;
@@ -31,6 +32,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
@@ -39,7 +42,10 @@ import de.bund.bfr.jung.BetterPickingGraphMousePlugin;
 import de.bund.bfr.knime.gis.views.canvas.element.Edge;
 import de.bund.bfr.knime.gis.views.canvas.element.RegionNode;
 import de.bund.bfr.knime.gis.views.canvas.highlighting.HighlightCondition;
+import de.bund.bfr.knime.gis.views.canvas.highlighting.HighlightConditionCache;
 import de.bund.bfr.knime.gis.views.canvas.highlighting.HighlightConditionList;
+import de.bund.bfr.knime.gis.views.canvas.util.RegionIndex;
+import de.bund.bfr.knime.gis.views.canvas.util.Transform;
 
 public class RegionCanvasUtils {
 
@@ -47,7 +53,7 @@ public class RegionCanvasUtils {
 	}
 
 	public static BetterPickingGraphMousePlugin<RegionNode, Edge<RegionNode>> createPickingPlugin(
-			GisCanvas<RegionNode> canvas) {
+			GisCanvas<RegionNode> canvas, Supplier<RegionIndex> regionIndex) {
 		return new BetterPickingGraphMousePlugin<RegionNode, Edge<RegionNode>>(false) {
 
 			@Override
@@ -61,8 +67,10 @@ public class RegionCanvasUtils {
 				}
 
 				Point2D p = canvas.getTransform().applyInverse(e.getX(), e.getY());
+				Set<RegionNode> nodes = canvas.getNodes();
 
-				return canvas.getNodes().stream().filter(n -> n.containsPoint(p)).findAny().orElse(null);
+				return regionIndex.get().getRegions(p).stream().filter(n -> nodes.contains(n) && n.containsPoint(p))
+						.findFirst().orElse(null);
 			}
 		};
 	}
@@ -77,24 +85,50 @@ public class RegionCanvasUtils {
 		return bounds;
 	}
 
-	public static void paintRegions(Graphics2D g, Collection<RegionNode> nodes, Set<RegionNode> selectedNodes,
-			HighlightConditionList nodeHighlightConditions) {
+	/**
+	 * @return the area of the canvas in the coordinates of the regions
+	 */
+	public static Rectangle2D getViewport(Transform transform, Dimension canvasSize) {
+		Rectangle2D viewport = new Rectangle2D.Double();
+
+		viewport.setFrameFromDiagonal(transform.applyInverse(0, 0),
+				transform.applyInverse(canvasSize.width, canvasSize.height));
+
+		return viewport;
+	}
+
+	/**
+	 * @return the regions of {@code nodes}, that intersect the canvas, in the order of the index
+	 */
+	public static List<RegionNode> getVisibleRegions(RegionIndex regionIndex, Set<RegionNode> nodes,
+			Transform transform, Dimension canvasSize) {
+		return regionIndex.getRegions(getViewport(transform, canvasSize)).stream().filter(nodes::contains)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Only the {@code visibleNodes} are painted. The highlight conditions are still evaluated for all
+	 * {@code nodes}, since the values of a condition can depend on all nodes.
+	 */
+	public static void paintRegions(Graphics2D g, Collection<RegionNode> nodes, Collection<RegionNode> visibleNodes,
+			Set<RegionNode> selectedNodes, HighlightConditionList nodeHighlightConditions,
+			HighlightConditionCache cache) {
 		Paint currentPaint = g.getPaint();
 
 		g.setPaint(Color.BLUE);
-		selectedNodes.forEach(n -> g.fill(n.getTransformedPolygon()));
+		visibleNodes.stream().filter(selectedNodes::contains).forEach(n -> g.fill(n.getTransformedPolygon()));
 
 		List<Color> nodeColors = new ArrayList<>();
 		ListMultimap<RegionNode, Double> nodeAlphas = ArrayListMultimap.create();
 		boolean prioritize = nodeHighlightConditions.isPrioritizeColors();
 
 		for (HighlightCondition condition : nodeHighlightConditions.getConditions()) {
-			Map<RegionNode, Double> values = condition.getValues(nodes);
+			Map<RegionNode, Double> values = cache.getValues(condition, nodes);
 
 			if (condition.getColor() != null) {
 				nodeColors.add(condition.getColor());
 
-				for (RegionNode node : nodes) {
+				for (RegionNode node : visibleNodes) {
 					List<Double> alphas = nodeAlphas.get(node);
 
 					if (!prioritize || alphas.isEmpty() || Collections.max(alphas) == 0.0) {
@@ -106,7 +140,7 @@ public class RegionCanvasUtils {
 			}
 		}
 
-		for (RegionNode node : nodes) {
+		for (RegionNode node : visibleNodes) {
 			Paint color = CanvasUtils.mixColors(Color.WHITE, nodeColors, nodeAlphas.get(node), false);
 
 			if (!color.equals(Color.WHITE) && !selectedNodes.contains(node)) {
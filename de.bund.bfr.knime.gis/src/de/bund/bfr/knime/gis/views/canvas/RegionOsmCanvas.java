@@ -39,11 +39,14 @@ import de.bund.bfr.knime.gis.views.canvas.util.CanvasPopupMenu;
 import de.bund.bfr.knime.gis.views.canvas.util.EdgePropertySchema;
 import de.bund.bfr.knime.gis.views.canvas.util.Naming;
 import de.bund.bfr.knime.gis.views.canvas.util.NodePropertySchema;
+import de.bund.bfr.knime.gis.views.canvas.util.RegionIndex;
 
 public class RegionOsmCanvas extends OsmCanvas<RegionNode> {
 
 	private static final long serialVersionUID = 1L;
 
+	private RegionIndex regionIndex;
+
 	public RegionOsmCanvas(boolean allowEdges, Naming naming) {
 		this(new ArrayList<>(0), new ArrayList<>(0), new NodePropertySchema(), new EdgePropertySchema(), naming,
 				allowEdges);
@@ -74,9 +77,12 @@ public class RegionOsmCanvas extends OsmCanvas<RegionNode> {
 		viewer.getRenderer().setVertexLabelRenderer(new BetterVertexLabelRenderer<>(LabelPosition.CENTER));
 
 		for (RegionNode node : this.nodes) {
-			node.updatePolygon(GisUtils.latLonToViz(node.getPolygon()));
+			node.updatePolygon(GisUtils.latLonToViz(node.getPolygon()),
+					GisUtils.latLonToViz(node.getSimplifiedPolygons()));
 		}
 
+		regionIndex = new RegionIndex(this.nodes);
+
 		for (RegionNode node : this.nodes) {
 			viewer.getGraphLayout().setLocation(node, node.getCenter());
 		}
@@ -102,9 +108,11 @@ public class RegionOsmCanvas extends OsmCanvas<RegionNode> {
 
 	@Override
 	public void applyHighlights() {
-		CanvasUtils.applyNodeLabels(viewer.getRenderContext(), nodes, nodeHighlightConditions);
+		CanvasUtils.applyNodeLabels(viewer.getRenderContext(), nodes, nodeHighlightConditions,
+				getHighlightConditionCache());
 		CanvasUtils.applyEdgeHighlights(viewer.getRenderContext(), edges, edgeHighlightConditions,
-				getOptionsPanel().getEdgeThickness(), getOptionsPanel().getEdgeMaxThickness());
+				getHighlightConditionCache(), getOptionsPanel().getEdgeThickness(),
+				getOptionsPanel().getEdgeMaxThickness());
 	}
 
 	@Override
@@ -120,13 +128,15 @@ public class RegionOsmCanvas extends OsmCanvas<RegionNode> {
 
 	@Override
 	protected BetterPickingGraphMousePlugin<RegionNode, Edge<RegionNode>> createPickingPlugin() {
-		return RegionCanvasUtils.createPickingPlugin(this);
+		return RegionCanvasUtils.createPickingPlugin(this, () -> regionIndex);
 	}
 
 	@Override
 	protected void paintGis(Graphics2D g, boolean toSvg, boolean onWhiteBackground) {
 		super.paintGis(g, toSvg, onWhiteBackground);
-		RegionCanvasUtils.paintRegions(g, nodes, getSelectedNodes(), nodeHighlightConditions);
+		RegionCanvasUtils.paintRegions(g, nodes,
+				RegionCanvasUtils.getVisibleRegions(regionIndex, nodes, transform, getCanvasSize()), getSelectedNodes(),
+				nodeHighlightConditions, getHighlightConditionCache());
 	}
 
 	@Override
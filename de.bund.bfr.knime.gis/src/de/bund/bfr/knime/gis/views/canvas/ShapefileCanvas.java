@@ -44,6 +44,11 @@ public abstract class ShapefileCanvas<V extends Node> extends GisCanvas<V> {
 
 	public abstract Collection<RegionNode> getRegions();
 
+	/**
+	 * @return the regions, that intersect the canvas
+	 */
+	protected abstract Collection<RegionNode> getVisibleRegions();
+
 	@Override
 	public void resetLayoutItemClicked() {
 		Rectangle2D bounds = RegionCanvasUtils.getBounds(getRegions());
@@ -78,17 +83,18 @@ public abstract class ShapefileCanvas<V extends Node> extends GisCanvas<V> {
 	protected void paintGis(Graphics2D g, boolean toSvg, boolean onWhiteBackground) {
 		int borderAlpha = getOptionsPanel().getBorderAlpha();
 		Color currentColor = g.getColor();
+		Collection<RegionNode> visibleRegions = getVisibleRegions();
 
 		if (onWhiteBackground) {
 			g.setColor(new Color(255 - borderAlpha, 255 - borderAlpha, 255 - borderAlpha));
 
-			for (RegionNode node : getRegions()) {
+			for (RegionNode node : visibleRegions) {
 				g.draw(node.getTransformedPolygon());
 			}
 		} else if (toSvg || borderAlpha == 255) {
 			g.setColor(new Color(0, 0, 0, borderAlpha));
 
-			for (RegionNode node : getRegions()) {
+			for (RegionNode node : visibleRegions) {
 				g.draw(node.getTransformedPolygon());
 			}
 		} else {
@@ -98,7 +104,7 @@ public abstract class ShapefileCanvas<V extends Node> extends GisCanvas<V> {
 
 			borderGraphics.setColor(Color.BLACK);
 
-			for (RegionNode node : getRegions()) {
+			for (RegionNode node : visibleRegions) {
 				borderGraphics.draw(node.getTransformedPolygon());
 			}
 
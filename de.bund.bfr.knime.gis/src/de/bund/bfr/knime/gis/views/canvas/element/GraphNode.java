@@ -41,6 +41,11 @@ public class GraphNode extends Node {
 
 	@Override
 	public GraphNode copy() {
-		return new GraphNode(getId(), new LinkedHashMap<>(getProperties()), region);
+		return copy(new LinkedHashMap<>(getProperties()));
+	}
+
+	@Override
+	public GraphNode copy(Map<String, Object> properties) {
+		return new GraphNode(getId(), properties, region);
 	}
 }
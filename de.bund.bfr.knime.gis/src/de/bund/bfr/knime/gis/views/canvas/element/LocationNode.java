@@ -42,6 +42,11 @@ public class LocationNode extends Node {
 
 	@Override
 	public LocationNode copy() {
-		return new LocationNode(getId(), new LinkedHashMap<>(getProperties()), center);
+		return copy(new LinkedHashMap<>(getProperties()));
+	}
+
+	@Override
+	public LocationNode copy(Map<String, Object> properties) {
+		return new LocationNode(getId(), properties, center);
 	}
 }
@@ -28,4 +28,9 @@ public abstract class Node extends Element {
 	}
 
 	public abstract Node copy();
+
+	/**
+	 * Returns a copy of this node, that uses the given properties instead of a copy of its own.
+	 */
+	public abstract Node copy(Map<String, Object> properties);
 }
@@ -0,0 +1,627 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas.element;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Stores the properties of many elements column by column. Each property is held in one typed
+ * column (primitive arrays for numbers and booleans, dictionary encoded strings), so an element
+ * only needs the {@link Map} view returned by {@link #getRow(int)} instead of its own map with
+ * boxed values. Properties, that are not part of the initial columns, are added as new columns
+ * when they are first put into a row. Each change of a row increments the {@link #getVersion()
+ * version} of the store, so that results computed from the rows can be cached. Putting the value,
+ * that a row already has, is not a change. The version of the last change of each row is kept as
+ * well, so that results computed from a few rows can be cached independently of the other rows.
+ */
+public class PropertyStore {
+
+	private Map<String, Column> columns;
+	private int rowCount;
+	private long version;
+	private long[] rowVersions;
+
+	/**
+	 * @param types
+	 *            property names and types of the initial columns, usually the map of a
+	 *            {@link de.bund.bfr.knime.gis.views.canvas.util.PropertySchema}
+	 */
+	public PropertyStore(Map<String, Class<?>> types) {
+		columns = new LinkedHashMap<>();
+		rowCount = 0;
+		version = 0;
+		rowVersions = new long[0];
+		types.forEach((property, type) -> columns.put(property, createColumn(type)));
+	}
+
+	private PropertyStore(PropertyStore store) {
+		columns = new LinkedHashMap<>();
+		rowCount = store.rowCount;
+		version = 0;
+		rowVersions = new long[rowCount];
+		store.columns.forEach((property, column) -> columns.put(property, column.copy()));
+	}
+
+	public int addRow() {
+		if (rowCount >= rowVersions.length) {
+			rowVersions = Arrays.copyOf(rowVersions, grow(rowVersions.length, rowCount));
+		}
+
+		changed(rowCount);
+
+		return rowCount++;
+	}
+
+	/**
+	 * Adds a row with the given properties and returns the map of the row.
+	 */
+	public Map<String, Object> addRow(Map<String, Object> properties) {
+		Map<String, Object> row = getRow(addRow());
+
+		row.putAll(properties);
+
+		return row;
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Returns the number of changes made to the store. Results, that depend on the properties of the
+	 * rows, are still valid as long as the version does not change.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	public Map<String, Object> getRow(int row) {
+		if (row < 0 || row >= rowCount) {
+			throw new IndexOutOfBoundsException("Row " + row + " does not exist");
+		}
+
+		return new Row(row);
+	}
+
+	/**
+	 * Returns an independent copy of the store. Changes to rows of the copy do not affect this store
+	 * and vice versa.
+	 */
+	public PropertyStore copy() {
+		return new PropertyStore(this);
+	}
+
+	/**
+	 * Returns the store of a map returned by {@link #getRow(int)} or {@code null} for any other map.
+	 */
+	public static PropertyStore getStore(Map<String, Object> properties) {
+		return properties instanceof Row ? ((Row) properties).getStore() : null;
+	}
+
+	/**
+	 * Returns the row index of a map returned by {@link #getRow(int)} or -1 for any other map.
+	 */
+	public static int getRowIndex(Map<String, Object> properties) {
+		return properties instanceof Row ? ((Row) properties).row : -1;
+	}
+
+	/**
+	 * Returns the {@link #getVersion() version} of the store after the last change of a map
+	 * returned by {@link #getRow(int)} or -1 for any other map.
+	 */
+	public static long getRowVersion(Map<String, Object> properties) {
+		if (!(properties instanceof Row)) {
+			return -1;
+		}
+
+		Row row = (Row) properties;
+
+		return row.getStore().rowVersions[row.row];
+	}
+
+	private void changed(int row) {
+		version++;
+		rowVersions[row] = version;
+	}
+
+	private Object put(int row, String property, Object value) {
+		Column column = columns.get(property);
+
+		if (column != null && column.isPresent(row) && Objects.equals(column.get(row), value)) {
+			return value;
+		}
+
+		changed(row);
+
+		if (column == null) {
+			column = createColumn(value != null ? value.getClass() : Object.class);
+			columns.put(property, column);
+		}
+
+		Object previous = column.isPresent(row) ? column.get(row) : null;
+
+		if (!column.set(row, value)) {
+			column = new ObjectColumn(column);
+			columns.put(property, column);
+			column.set(row, value);
+		}
+
+		return previous;
+	}
+
+	private static Column createColumn(Class<?> type) {
+		if (type == String.class) {
+			return new StringColumn();
+		} else if (type == Double.class) {
+			return new DoubleColumn();
+		} else if (type == Integer.class) {
+			return new IntColumn();
+		} else if (type == Boolean.class) {
+			return new BooleanColumn();
+		}
+
+		return new ObjectColumn();
+	}
+
+	private static int grow(int length, int row) {
+		return Math.max(row + 1, Math.max(16, length + (length >> 1)));
+	}
+
+	private class Row extends AbstractMap<String, Object> {
+
+		private int row;
+
+		public Row(int row) {
+			this.row = row;
+		}
+
+		public PropertyStore getStore() {
+			return PropertyStore.this;
+		}
+
+		@Override
+		public Object get(Object key) {
+			Column column = columns.get(key);
+
+			return column != null && column.isPresent(row) ? column.get(row) : null;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			Column column = columns.get(key);
+
+			return column != null && column.isPresent(row);
+		}
+
+		@Override
+		public Object put(String key, Object value) {
+			return PropertyStore.this.put(row, key, value);
+		}
+
+		@Override
+		public Object remove(Object key) {
+			Column column = columns.get(key);
+
+			if (column == null || !column.isPresent(row)) {
+				return null;
+			}
+
+			Object previous = column.get(row);
+
+			column.remove(row);
+			changed(row);
+
+			return previous;
+		}
+
+		@Override
+		public Set<Entry<String, Object>> entrySet() {
+			return new AbstractSet<Entry<String, Object>>() {
+
+				@Override
+				public Iterator<Entry<String, Object>> iterator() {
+					return new RowIterator(row);
+				}
+
+				@Override
+				public int size() {
+					int size = 0;
+
+					for (Column column : columns.values()) {
+						if (column.isPresent(row)) {
+							size++;
+						}
+					}
+
+					return size;
+				}
+			};
+		}
+	}
+
+	private class RowIterator implements Iterator<Map.Entry<String, Object>> {
+
+		private int row;
+		private Iterator<Map.Entry<String, Column>> columnIterator;
+		private Map.Entry<String, Column> next;
+		private Map.Entry<String, Column> current;
+
+		public RowIterator(int row) {
+			this.row = row;
+			columnIterator = columns.entrySet().iterator();
+			next = findNext();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public Map.Entry<String, Object> next() {
+			if (next == null) {
+				throw new NoSuchElementException();
+			}
+
+			current = next;
+			next = findNext();
+
+			String property = current.getKey();
+
+			return new AbstractMap.SimpleEntry<String, Object>(property, current.getValue().get(row)) {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public Object setValue(Object value) {
+					super.setValue(value);
+
+					return PropertyStore.this.put(row, property, value);
+				}
+			};
+		}
+
+		@Override
+		public void remove() {
+			if (current == null) {
+				throw new IllegalStateException();
+			}
+
+			columns.get(current.getKey()).remove(row);
+			changed(row);
+			current = null;
+		}
+
+		private Map.Entry<String, Column> findNext() {
+			while (columnIterator.hasNext()) {
+				Map.Entry<String, Column> entry = columnIterator.next();
+
+				if (entry.getValue().isPresent(row)) {
+					return entry;
+				}
+			}
+
+			return null;
+		}
+	}
+
+	private static abstract class Column {
+
+		protected BitSet present;
+
+		public Column() {
+			present = new BitSet();
+		}
+
+		public Column(Column column) {
+			present = (BitSet) column.present.clone();
+		}
+
+		public boolean isPresent(int row) {
+			return present.get(row);
+		}
+
+		public abstract Object get(int row);
+
+		/**
+		 * @return {@code false} if the value does not fit the type of the column
+		 */
+		public abstract boolean set(int row, Object value);
+
+		public abstract void remove(int row);
+
+		public abstract Column copy();
+	}
+
+	private static class StringColumn extends Column {
+
+		private int[] codes;
+		private List<String> dictionary;
+		private Map<String, Integer> codesByValue;
+
+		public StringColumn() {
+			codes = new int[0];
+			dictionary = new ArrayList<>();
+			codesByValue = new HashMap<>();
+			dictionary.add(null);
+		}
+
+		private StringColumn(StringColumn column) {
+			super(column);
+			codes = column.codes.clone();
+			dictionary = new ArrayList<>(column.dictionary);
+			codesByValue = new HashMap<>(column.codesByValue);
+		}
+
+		@Override
+		public Object get(int row) {
+			return row < codes.length ? dictionary.get(codes[row]) : null;
+		}
+
+		@Override
+		public boolean set(int row, Object value) {
+			if (value != null && !(value instanceof String)) {
+				return false;
+			}
+
+			if (row >= codes.length) {
+				codes = Arrays.copyOf(codes, grow(codes.length, row));
+			}
+
+			codes[row] = value != null ? codesByValue.computeIfAbsent((String) value, v -> {
+				dictionary.add(v);
+				return dictionary.size() - 1;
+			}) : 0;
+			present.set(row);
+
+			return true;
+		}
+
+		@Override
+		public void remove(int row) {
+			if (row < codes.length) {
+				codes[row] = 0;
+			}
+
+			present.clear(row);
+		}
+
+		@Override
+		public Column copy() {
+			return new StringColumn(this);
+		}
+	}
+
+	private static class DoubleColumn extends Column {
+
+		private double[] values;
+		private BitSet notNull;
+
+		public DoubleColumn() {
+			values = new double[0];
+			notNull = new BitSet();
+		}
+
+		private DoubleColumn(DoubleColumn column) {
+			super(column);
+			values = column.values.clone();
+			notNull = (BitSet) column.notNull.clone();
+		}
+
+		@Override
+		public Object get(int row) {
+			return notNull.get(row) ? values[row] : null;
+		}
+
+		@Override
+		public boolean set(int row, Object value) {
+			if (value != null && !(value instanceof Double)) {
+				return false;
+			}
+
+			if (row >= values.length) {
+				values = Arrays.copyOf(values, grow(values.length, row));
+			}
+
+			values[row] = value != null ? (Double) value : 0.0;
+			notNull.set(row, value != null);
+			present.set(row);
+
+			return true;
+		}
+
+		@Override
+		public void remove(int row) {
+			notNull.clear(row);
+			present.clear(row);
+		}
+
+		@Override
+		public Column copy() {
+			return new DoubleColumn(this);
+		}
+	}
+
+	private static class IntColumn extends Column {
+
+		private int[] values;
+		private BitSet notNull;
+
+		public IntColumn() {
+			values = new int[0];
+			notNull = new BitSet();
+		}
+
+		private IntColumn(IntColumn column) {
+			super(column);
+			values = column.values.clone();
+			notNull = (BitSet) column.notNull.clone();
+		}
+
+		@Override
+		public Object get(int row) {
+			return notNull.get(row) ? values[row] : null;
+		}
+
+		@Override
+		public boolean set(int row, Object value) {
+			if (value != null && !(value instanceof Integer)) {
+				return false;
+			}
+
+			if (row >= values.length) {
+				values = Arrays.copyOf(values, grow(values.length, row));
+			}
+
+			values[row] = value != null ? (Integer) value : 0;
+			notNull.set(row, value != null);
+			present.set(row);
+
+			return true;
+		}
+
+		@Override
+		public void remove(int row) {
+			notNull.clear(row);
+			present.clear(row);
+		}
+
+		@Override
+		public Column copy() {
+			return new IntColumn(this);
+		}
+	}
+
+	private static class BooleanColumn extends Column {
+
+		private BitSet values;
+		private BitSet notNull;
+
+		public BooleanColumn() {
+			values = new BitSet();
+			notNull = new BitSet();
+		}
+
+		private BooleanColumn(BooleanColumn column) {
+			super(column);
+			values = (BitSet) column.values.clone();
+			notNull = (BitSet) column.notNull.clone();
+		}
+
+		@Override
+		public Object get(int row) {
+			return notNull.get(row) ? values.get(row) : null;
+		}
+
+		@Override
+		public boolean set(int row, Object value) {
+			if (value != null && !(value instanceof Boolean)) {
+				return false;
+			}
+
+			values.set(row, value != null && (Boolean) value);
+			notNull.set(row, value != null);
+			present.set(row);
+
+			return true;
+		}
+
+		@Override
+		public void remove(int row) {
+			values.clear(row);
+			notNull.clear(row);
+			present.clear(row);
+		}
+
+		@Override
+		public Column copy() {
+			return new BooleanColumn(this);
+		}
+	}
+
+	private static class ObjectColumn extends Column {
+
+		private Object[] values;
+
+		public ObjectColumn() {
+			values = new Object[0];
+		}
+
+		/**
+		 * Converts a typed column, when a value of another type is put into it.
+		 */
+		public ObjectColumn(Column column) {
+			super(column);
+			values = new Object[present.length()];
+
+			for (int row = present.nextSetBit(0); row >= 0; row = present.nextSetBit(row + 1)) {
+				values[row] = column.get(row);
+			}
+		}
+
+		private ObjectColumn(ObjectColumn column) {
+			super(column);
+			values = column.values.clone();
+		}
+
+		@Override
+		public Object get(int row) {
+			return row < values.length ? values[row] : null;
+		}
+
+		@Override
+		public boolean set(int row, Object value) {
+			if (row >= values.length) {
+				values = Arrays.copyOf(values, grow(values.length, row));
+			}
+
+			values[row] = value;
+			present.set(row);
+
+			return true;
+		}
+
+		@Override
+		public void remove(int row) {
+			if (row < values.length) {
+				values[row] = null;
+			}
+
+			present.clear(row);
+		}
+
+		@Override
+		public Column copy() {
+			return new ObjectColumn(this);
+		}
+	}
+}
@@ -20,10 +20,14 @@
 package de.bund.bfr.knime.gis.views.canvas.element;
 
 import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.NavigableMap;
 
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.Envelope;
@@ -35,23 +39,49 @@ import de.bund.bfr.knime.gis.views.canvas.util.Transform;
 
 public class RegionNode extends Node {
 
+	private static final double MAX_PIXEL_ERROR = 0.5;
+
 	private MultiPolygon polygon;
+	private NavigableMap<Double, MultiPolygon> simplifiedPolygons;
 	private Point2D center;
 
+	private Transform transform;
+	private Path2D scaledPolygon;
+	private double scaleX;
+	private double scaleY;
 	private Shape transformedPolygon;
 
 	public RegionNode(String id, Map<String, Object> properties, MultiPolygon polygon) {
+		this(id, properties, polygon, Collections.emptyNavigableMap());
+	}
+
+	public RegionNode(String id, Map<String, Object> properties, MultiPolygon polygon,
+			NavigableMap<Double, MultiPolygon> simplifiedPolygons) {
 		super(id, properties);
-		updatePolygon(polygon);
+		updatePolygon(polygon, simplifiedPolygons);
 	}
 
 	public MultiPolygon getPolygon() {
 		return polygon;
 	}
 
+	/**
+	 * @return simplified versions of the polygon by simplification tolerance
+	 */
+	public NavigableMap<Double, MultiPolygon> getSimplifiedPolygons() {
+		return simplifiedPolygons;
+	}
+
 	public void updatePolygon(MultiPolygon polygon) {
+		updatePolygon(polygon, Collections.emptyNavigableMap());
+	}
+
+	public synchronized void updatePolygon(MultiPolygon polygon,
+			NavigableMap<Double, MultiPolygon> simplifiedPolygons) {
 		this.polygon = polygon;
+		this.simplifiedPolygons = simplifiedPolygons;
 		center = GisUtils.getCenterOfLargestPolygon(polygon);
+		scaledPolygon = null;
 		transformedPolygon = null;
 	}
 
@@ -65,12 +95,43 @@ public class RegionNode extends Node {
 		return new Rectangle2D.Double(bounds.getMinX(), bounds.getMinY(), bounds.getWidth(), bounds.getHeight());
 	}
 
-	public Shape getTransformedPolygon() {
+	/**
+	 * The polygon is converted to a {@link Path2D} once per zoom level. When only the translation
+	 * of the transform changes, the cached path is translated, which is much faster than iterating
+	 * over the coordinates of the {@link MultiPolygon} again. The shape is created lazily, so that
+	 * regions outside of the viewport are never transformed. For each zoom level the coarsest
+	 * simplified polygon is used, whose error is at most half a pixel.
+	 *
+	 * @return the polygon transformed by the last transform passed to
+	 *         {@link #createTransformedPolygons(Transform)} or {@code null} if there is none
+	 */
+	public synchronized Shape getTransformedPolygon() {
+		if (transformedPolygon == null && transform != null) {
+			if (scaledPolygon == null || scaleX != transform.getScaleX() || scaleY != transform.getScaleY()) {
+				scaleX = transform.getScaleX();
+				scaleY = transform.getScaleY();
+				scaledPolygon = new Path2D.Double(new Transform(scaleX, scaleY, 0, 0)
+						.apply(getSimplifiedPolygon(Math.max(Math.abs(scaleX), Math.abs(scaleY)))));
+			}
+
+			transformedPolygon = scaledPolygon.createTransformedShape(
+					AffineTransform.getTranslateInstance(transform.getTranslationX(), transform.getTranslationY()));
+		}
+
 		return transformedPolygon;
 	}
 
-	public void createTransformedPolygons(Transform transform) {
-		transformedPolygon = transform.apply(polygon);
+	public synchronized void createTransformedPolygons(Transform transform) {
+		if (!transform.equals(this.transform)) {
+			this.transform = transform;
+			transformedPolygon = null;
+		}
+	}
+
+	private MultiPolygon getSimplifiedPolygon(double scale) {
+		Map.Entry<Double, MultiPolygon> level = simplifiedPolygons.floorEntry(MAX_PIXEL_ERROR / scale);
+
+		return level != null ? level.getValue() : polygon;
 	}
 
 	public boolean containsPoint(Point2D point) {
@@ -83,6 +144,11 @@ public class RegionNode extends Node {
 
 	@Override
 	public RegionNode copy() {
-		return new RegionNode(getId(), new LinkedHashMap<>(getProperties()), polygon);
+		return copy(new LinkedHashMap<>(getProperties()));
+	}
+
+	@Override
+	public RegionNode copy(Map<String, Object> properties) {
+		return new RegionNode(getId(), properties, polygon, simplifiedPolygons);
 	}
 }
@@ -29,6 +29,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import de.bund.bfr.jung.NamedShape;
@@ -146,29 +147,38 @@ public class AndOrHighlightCondition implements HighlightCondition, Serializable
 
 	@Override
 	public <T extends Element> Map<T, Double> getValues(Collection<? extends T> elements) {
-		List<List<Map<? extends T, Double>>> valuesList = new ArrayList<>();
+		Map<T, Double> returnValues = new LinkedHashMap<>();
+
+		if (!elements.isEmpty()) {
+			Predicate<Element> predicate = compile();
 
-		for (List<LogicalHighlightCondition> andLists : conditions) {
-			valuesList.add(
-					andLists.stream().map(c -> c.getValues(elements)).collect(Collectors.toCollection(ArrayList::new)));
+			elements.forEach(e -> returnValues.put(e, predicate.test(e) ? 1.0 : 0.0));
 		}
 
-		Map<T, Double> returnValues = new LinkedHashMap<>();
+		return returnValues;
+	}
+
+	/**
+	 * Returns a predicate, that is true for an element if all conditions in at least one of the AND
+	 * lists are true. The evaluation stops at the first false condition of an AND list and at the
+	 * first true AND list.
+	 */
+	public Predicate<Element> compile() {
+		List<List<Predicate<Element>>> predicates = new ArrayList<>();
 
-		for (T element : elements) {
-			boolean allFalse = true;
+		for (List<LogicalHighlightCondition> andList : conditions) {
+			predicates.add(andList.stream().map(c -> c.compile()).collect(Collectors.toCollection(ArrayList::new)));
+		}
 
-			for (List<Map<? extends T, Double>> andValues : valuesList) {
-				if (andValues.stream().allMatch(values -> values.get(element) == 1.0)) {
-					allFalse = false;
-					break;
+		return e -> {
+			for (List<Predicate<Element>> andList : predicates) {
+				if (allMatch(andList, e)) {
+					return true;
 				}
 			}
 
-			returnValues.put(element, allFalse ? 0.0 : 1.0);
-		}
-
-		return returnValues;
+			return false;
+		};
 	}
 
 	@Override
@@ -212,4 +222,14 @@ public class AndOrHighlightCondition implements HighlightCondition, Serializable
 				&& invisible == other.invisible && useThickness == other.useThickness
 				&& Objects.equals(labelProperty, other.labelProperty) && shape == other.shape;
 	}
+
+	private static boolean allMatch(List<Predicate<Element>> predicates, Element element) {
+		for (Predicate<Element> predicate : predicates) {
+			if (!predicate.test(element)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
 }
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas.highlighting;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import de.bund.bfr.knime.gis.views.canvas.element.Element;
+import de.bund.bfr.knime.gis.views.canvas.element.PropertyStore;
+
+/**
+ * Caches the values of highlight conditions of one canvas, so that applying the conditions again
+ * or repainting does not evaluate unchanged conditions. Each canvas has its own cache, so that the
+ * elements of a closed view do not stay reachable. Only changes of properties stored in a
+ * {@link PropertyStore} can be detected, therefore values are only cached if the properties of all
+ * elements are rows of a store. A result is reused as long as the condition, the number of
+ * elements and the {@link PropertyStore#getVersion() versions} of their stores do not change, and
+ * the cached values belong to exactly the same elements.
+ */
+public class HighlightConditionCache {
+
+	private static final int CACHE_SIZE = 100;
+
+	private Cache<Key, Map<? extends Element, Double>> cache;
+
+	public HighlightConditionCache() {
+		cache = CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+	}
+
+	/**
+	 * Same as {@link HighlightCondition#getValues(Collection)}, but the result is cached. The
+	 * returned map must not be modified.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Element> Map<T, Double> getValues(HighlightCondition condition,
+			Collection<? extends T> elements) {
+		Map<PropertyStore, Long> versions = getVersions(elements);
+
+		if (versions == null) {
+			return condition.getValues(elements);
+		}
+
+		Key key = new Key(condition.copy(), elements.size(), versions);
+		Map<T, Double> values = (Map<T, Double>) cache.getIfPresent(key);
+
+		if (values == null || !containsAll(values, elements)) {
+			values = Collections.unmodifiableMap(condition.getValues(elements));
+			cache.put(key, values);
+		}
+
+		return values;
+	}
+
+	/**
+	 * @return the version of each store, that holds properties of the elements, or {@code null} if
+	 *         an element has properties, that are not part of a store
+	 */
+	private static Map<PropertyStore, Long> getVersions(Collection<? extends Element> elements) {
+		Map<PropertyStore, Long> versions = new HashMap<>();
+		PropertyStore lastStore = null;
+
+		for (Element element : elements) {
+			PropertyStore store = PropertyStore.getStore(element.getProperties());
+
+			if (store == null) {
+				return null;
+			} else if (store != lastStore) {
+				versions.put(store, store.getVersion());
+				lastStore = store;
+			}
+		}
+
+		return versions;
+	}
+
+	/**
+	 * Collections with the same number of elements from the same stores share a key. Cached values
+	 * are therefore only used, if they belong to exactly the given elements.
+	 */
+	private static boolean containsAll(Map<? extends Element, Double> values, Collection<? extends Element> elements) {
+		if (values.size() != elements.size()) {
+			return false;
+		}
+
+		for (Element element : elements) {
+			if (!values.containsKey(element)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static class Key {
+
+		private HighlightCondition condition;
+		private int elementCount;
+		private Map<PropertyStore, Long> versions;
+		private int hashCode;
+
+		public Key(HighlightCondition condition, int elementCount, Map<PropertyStore, Long> versions) {
+			this.condition = condition;
+			this.elementCount = elementCount;
+			this.versions = versions;
+			hashCode = Objects.hash(condition, elementCount, versions);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+
+			Key other = (Key) obj;
+
+			return hashCode == other.hashCode && elementCount == other.elementCount
+					&& condition.equals(other.condition) && versions.equals(other.versions);
+		}
+	}
+}
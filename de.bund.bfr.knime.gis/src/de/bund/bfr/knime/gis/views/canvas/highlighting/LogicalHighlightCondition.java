@@ -24,10 +24,12 @@ import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
-import java.util.regex.Matcher;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 import com.google.common.base.Strings;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.primitives.Doubles;
 
 import de.bund.bfr.knime.gis.views.canvas.element.Element;
@@ -59,9 +61,6 @@ public class LogicalHighlightCondition implements Serializable {
 	private Type type;
 	private String value;
 
-	private transient Double doubleValue;
-	private transient Boolean booleanValue;
-
 	public LogicalHighlightCondition() {
 		this(null, null, null);
 	}
@@ -97,7 +96,27 @@ public class LogicalHighlightCondition implements Serializable {
 	}
 
 	public <T extends Element> Map<T, Double> getValues(Collection<? extends T> elements) {
-		doubleValue = value != null ? Doubles.tryParse(value) : null;
+		Map<T, Double> result = new LinkedHashMap<>();
+
+		if (!elements.isEmpty()) {
+			Predicate<Element> predicate = compile();
+
+			elements.forEach(e -> result.put(e, predicate.test(e) ? 1.0 : 0.0));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns a predicate, that evaluates the condition for one element. The value of the condition
+	 * is parsed and the regular expression compiled once, instead of for each element. The predicate
+	 * does not reflect later changes of the condition.
+	 */
+	public Predicate<Element> compile() {
+		String property = this.property;
+		String value = this.value;
+		Double doubleValue = value != null ? Doubles.tryParse(value) : null;
+		Boolean booleanValue;
 
 		if (value == null) {
 			booleanValue = null;
@@ -109,11 +128,26 @@ public class LogicalHighlightCondition implements Serializable {
 			booleanValue = null;
 		}
 
-		Map<T, Double> result = new LinkedHashMap<>();
-
-		elements.forEach(e -> result.put(e, evaluate(e)));
-
-		return result;
+		switch (type) {
+		case EQUAL:
+			return e -> isEqual(e.getProperties().get(property), value, doubleValue, booleanValue);
+		case NOT_EQUAL:
+			return e -> !isEqual(e.getProperties().get(property), value, doubleValue, booleanValue);
+		case GREATER:
+			return e -> compare(e.getProperties().get(property), doubleValue) > 0;
+		case LESS:
+			return e -> compare(e.getProperties().get(property), doubleValue) < 0;
+		case REGEX_EQUAL:
+			return createRegexPredicate(property, value, false, true);
+		case REGEX_NOT_EQUAL:
+			return createRegexPredicate(property, value, false, false);
+		case REGEX_EQUAL_IGNORE_CASE:
+			return createRegexPredicate(property, value, true, true);
+		case REGEX_NOT_EQUAL_IGNORE_CASE:
+			return createRegexPredicate(property, value, true, false);
+		default:
+			throw new RuntimeException("Unknown type of LogicalHighlightCondition: " + type);
+		}
 	}
 
 	@Override
@@ -136,32 +170,7 @@ public class LogicalHighlightCondition implements Serializable {
 		return Objects.equals(property, other.property) && type == other.type && Objects.equals(value, other.value);
 	}
 
-	private double evaluate(Element element) {
-		Object nodeValue = element.getProperties().get(property);
-
-		switch (type) {
-		case EQUAL:
-			return isEqual(nodeValue) ? 1.0 : 0.0;
-		case NOT_EQUAL:
-			return isEqual(nodeValue) ? 0.0 : 1.0;
-		case GREATER:
-			return isGreater(nodeValue) ? 1.0 : 0.0;
-		case LESS:
-			return isLess(nodeValue) ? 1.0 : 0.0;
-		case REGEX_EQUAL:
-			return isEqualRegex(nodeValue, false) ? 1.0 : 0.0;
-		case REGEX_NOT_EQUAL:
-			return isEqualRegex(nodeValue, false) ? 0.0 : 1.0;
-		case REGEX_EQUAL_IGNORE_CASE:
-			return isEqualRegex(nodeValue, true) ? 1.0 : 0.0;
-		case REGEX_NOT_EQUAL_IGNORE_CASE:
-			return isEqualRegex(nodeValue, true) ? 0.0 : 1.0;
-		default:
-			throw new RuntimeException("Unknown type of LogicalHighlightCondition: " + type);
-		}
-	}
-
-	private boolean isEqual(Object nodeValue) {
+	private static boolean isEqual(Object nodeValue, String value, Double doubleValue, Boolean booleanValue) {
 		if (nodeValue instanceof Boolean && booleanValue != null) {
 			return ((Boolean) nodeValue).booleanValue() == booleanValue;
 		} else if (nodeValue instanceof Number && doubleValue != null) {
@@ -175,32 +184,42 @@ public class LogicalHighlightCondition implements Serializable {
 		}
 	}
 
-	private boolean isGreater(Object nodeValue) {
+	/**
+	 * @return a positive or negative number, if the value of the node is greater or less than the
+	 *         value of the condition, and 0 if they are equal or cannot be compared
+	 */
+	private static int compare(Object nodeValue, Double doubleValue) {
 		if (nodeValue instanceof Number && doubleValue != null) {
-			return ((Number) nodeValue).doubleValue() > doubleValue;
+			double d = ((Number) nodeValue).doubleValue();
+
+			return d > doubleValue ? 1 : (d < doubleValue ? -1 : 0);
 		}
 
-		return false;
+		return 0;
 	}
 
-	private boolean isLess(Object nodeValue) {
-		if (nodeValue instanceof Number && doubleValue != null) {
-			return ((Number) nodeValue).doubleValue() < doubleValue;
-		}
+	/**
+	 * The pattern is compiled when it is needed for the first time, so that an invalid regular
+	 * expression only fails, when it is matched against a string.
+	 */
+	private static Predicate<Element> createRegexPredicate(String property, String value, boolean ignoreCase,
+			boolean equal) {
+		Supplier<Pattern> pattern = Suppliers
+				.memoize(() -> Pattern.compile(value, ignoreCase ? Pattern.CASE_INSENSITIVE : 0));
 
-		return false;
-	}
+		return e -> {
+			Object nodeValue = e.getProperties().get(property);
+			boolean matches;
 
-	private boolean isEqualRegex(Object nodeValue, boolean ignoreCase) {
-		if (nodeValue instanceof String && value != null) {
-			int flags = ignoreCase ? Pattern.CASE_INSENSITIVE : 0;
-			Matcher matcher = Pattern.compile(value, flags).matcher((String) nodeValue);
+			if (nodeValue instanceof String && value != null) {
+				matches = pattern.get().matcher((String) nodeValue).matches();
+			} else if (nodeValue == null || nodeValue.equals("")) {
+				matches = Strings.isNullOrEmpty(value);
+			} else {
+				matches = false;
+			}
 
-			return matcher.matches();
-		} else if (nodeValue == null || nodeValue.equals("")) {
-			return Strings.isNullOrEmpty(value);
-		} else {
-			return false;
-		}
+			return matches == equal;
+		};
 	}
 }
@@ -0,0 +1,316 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Size bounded cache of map tiles in a directory. Each tile is stored in its own file. The least
+ * recently used tiles are deleted when the total size exceeds the maximum size. The order of use
+ * is saved in an index file, so that it survives restarts. Files that are missing in the index
+ * (e.g. after a crash) are added in the order of their modification time.
+ * <p>
+ * The cache can be used from several threads. Only the index in memory is guarded by the lock of
+ * the cache, the tile files are read, written and deleted outside of it. A tile file, that is
+ * missing because of a concurrent eviction, is removed from the index, when it is read.
+ */
+public class DiskTileCache {
+
+	public static final long DEFAULT_MAX_SIZE = 256L * 1024L * 1024L;
+
+	private static final String INDEX_FILE = "index.txt";
+	private static final String TILE_EXTENSION = ".tile";
+	private static final int INDEX_WRITE_INTERVAL = 64;
+
+	private static DiskTileCache defaultCache = null;
+	private static boolean defaultCacheCreated = false;
+
+	private Path directory;
+	private long maxSize;
+	private long size;
+	private LinkedHashMap<String, Long> entries;
+	private int changesSinceIndexWrite;
+	private Object indexFileLock;
+
+	public DiskTileCache(Path directory, long maxSize) throws IOException {
+		this.directory = directory;
+		this.maxSize = maxSize;
+		entries = new LinkedHashMap<>(16, 0.75f, true);
+		size = 0;
+		changesSinceIndexWrite = 0;
+		indexFileLock = new Object();
+
+		Files.createDirectories(directory);
+		readEntries();
+		deleteFiles(evict());
+	}
+
+	/**
+	 * @return the cache in the user's home directory or {@code null} if it cannot be created. The
+	 *         index of the cache is written when the JVM exits.
+	 */
+	public static synchronized DiskTileCache getDefault() {
+		if (!defaultCacheCreated) {
+			defaultCacheCreated = true;
+
+			try {
+				defaultCache = new DiskTileCache(Paths.get(System.getProperty("user.home"), ".fcl", "tiles"),
+						DEFAULT_MAX_SIZE);
+				Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+					try {
+						defaultCache.flush();
+					} catch (IOException e) {
+					}
+				}));
+			} catch (IOException | InvalidPathException e) {
+				defaultCache = null;
+			}
+		}
+
+		return defaultCache;
+	}
+
+	public static String getKey(String sourceId, int x, int y, int zoom) {
+		return sourceId.replaceAll("[^A-Za-z0-9_\\-]", "_") + "/" + zoom + "/" + x + "/" + y;
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	public synchronized long getMaxSize() {
+		return maxSize;
+	}
+
+	public synchronized long getSize() {
+		return size;
+	}
+
+	public synchronized int getTileCount() {
+		return entries.size();
+	}
+
+	public synchronized boolean contains(String key) {
+		return entries.containsKey(key);
+	}
+
+	/**
+	 * @return the data of the tile or {@code null} if it is not in the cache
+	 */
+	public byte[] get(String key) {
+		synchronized (this) {
+			if (entries.get(key) == null) {
+				return null;
+			}
+		}
+
+		try {
+			return Files.readAllBytes(getFile(key));
+		} catch (IOException e) {
+			synchronized (this) {
+				Long oldSize = entries.remove(key);
+
+				if (oldSize != null) {
+					size -= oldSize;
+					changesSinceIndexWrite++;
+				}
+			}
+
+			return null;
+		}
+	}
+
+	/**
+	 * The data is written to a temporary file, which is then moved to the tile file, so that
+	 * concurrent readers never see a partially written tile.
+	 */
+	public void put(String key, byte[] data) throws IOException {
+		Path file = getFile(key);
+
+		Files.createDirectories(file.getParent());
+
+		Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+
+		try {
+			Files.write(tempFile, data);
+			Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+
+		List<String> evicted;
+		boolean writeIndex;
+
+		synchronized (this) {
+			Long oldSize = entries.put(key, (long) data.length);
+
+			size += data.length - (oldSize != null ? oldSize : 0L);
+			changesSinceIndexWrite++;
+			evicted = evict();
+			writeIndex = changesSinceIndexWrite >= INDEX_WRITE_INTERVAL;
+		}
+
+		deleteFiles(evicted);
+
+		if (writeIndex) {
+			flush();
+		}
+	}
+
+	public void clear() throws IOException {
+		List<String> keys;
+
+		synchronized (this) {
+			keys = new ArrayList<>(entries.keySet());
+			entries.clear();
+			size = 0;
+			changesSinceIndexWrite++;
+		}
+
+		deleteFiles(keys);
+		flush();
+	}
+
+	/**
+	 * Writes the index file. The keys are written from least to most recently used.
+	 */
+	public void flush() throws IOException {
+		synchronized (indexFileLock) {
+			List<String> keys;
+
+			synchronized (this) {
+				keys = new ArrayList<>(entries.keySet());
+				changesSinceIndexWrite = 0;
+			}
+
+			Path indexFile = directory.resolve(INDEX_FILE);
+			Path tempFile = directory.resolve(INDEX_FILE + ".tmp");
+
+			Files.write(tempFile, keys, StandardCharsets.UTF_8);
+			Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+	}
+
+	private Path getFile(String key) {
+		return directory.resolve(key + TILE_EXTENSION);
+	}
+
+	/**
+	 * Removes the least recently used tiles from the index, until the size does not exceed the
+	 * maximum size. Must be called while holding the lock.
+	 *
+	 * @return the keys of the removed tiles, whose files must be deleted with
+	 *         {@link #deleteFiles(List)} after releasing the lock
+	 */
+	private List<String> evict() {
+		List<String> evicted = new ArrayList<>();
+		Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+
+		while (size > maxSize && iterator.hasNext()) {
+			Map.Entry<String, Long> eldest = iterator.next();
+
+			evicted.add(eldest.getKey());
+			size -= eldest.getValue();
+			iterator.remove();
+			changesSinceIndexWrite++;
+		}
+
+		return evicted;
+	}
+
+	private void deleteFiles(List<String> keys) throws IOException {
+		for (String key : keys) {
+			Files.deleteIfExists(getFile(key));
+		}
+	}
+
+	private void readEntries() throws IOException {
+		Map<String, Integer> indexPositions = new HashMap<>();
+
+		try {
+			List<String> keys = Files.readAllLines(directory.resolve(INDEX_FILE), StandardCharsets.UTF_8);
+
+			for (int i = 0; i < keys.size(); i++) {
+				indexPositions.put(keys.get(i), i);
+			}
+		} catch (NoSuchFileException e) {
+		}
+
+		List<TileFile> files;
+
+		try (Stream<Path> stream = Files.walk(directory)) {
+			files = stream.filter(f -> f.getFileName().toString().endsWith(TILE_EXTENSION)).map(f -> {
+				String name = directory.relativize(f).toString().replace(f.getFileSystem().getSeparator(), "/");
+
+				try {
+					return new TileFile(name.substring(0, name.length() - TILE_EXTENSION.length()), Files.size(f),
+							Files.getLastModifiedTime(f).toMillis());
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}).collect(Collectors.toCollection(ArrayList::new));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+
+		files.sort(Comparator
+				.comparing((TileFile f) -> indexPositions.getOrDefault(f.key, Integer.MAX_VALUE))
+				.thenComparingLong(f -> f.lastModified));
+
+		for (TileFile f : files) {
+			entries.put(f.key, f.size);
+			size += f.size;
+		}
+
+		if (files.size() != indexPositions.size()) {
+			changesSinceIndexWrite++;
+		}
+	}
+
+	private static class TileFile {
+
+		private String key;
+		private long size;
+		private long lastModified;
+
+		public TileFile(String key, long size, long lastModified) {
+			this.key = key;
+			this.size = size;
+			this.lastModified = lastModified;
+		}
+	}
+}
@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas.util;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import de.bund.bfr.knime.KnimeUtils;
+import de.bund.bfr.knime.Pair;
+import de.bund.bfr.knime.gis.views.canvas.CanvasUtils;
+import de.bund.bfr.knime.gis.views.canvas.element.Edge;
+import de.bund.bfr.knime.gis.views.canvas.element.Node;
+import de.bund.bfr.knime.gis.views.canvas.element.PropertyStore;
+
+/**
+ * Joins edges with the same source and target like
+ * {@link CanvasUtils#joinEdges(Collection, EdgePropertySchema, Collection)}, but keeps the edges
+ * between each pair of nodes and the joined edges from the previous call. The properties of a
+ * joined edge are only merged again, if edges between its nodes were added or removed or their
+ * properties changed. Otherwise the same joined edge is returned again and only properties, that
+ * were changed on the joined edge itself, are reset to the merged values.
+ */
+public class EdgeJoiner<V extends Node> {
+
+	private EdgePropertySchema schema;
+	private Map<String, Class<?>> schemaTypes;
+	private Set<String> usedIds;
+
+	private Map<Pair<V, V>, Bucket<V>> buckets;
+	private Map<Edge<V>, Bucket<V>> bucketsByEdge;
+
+	private PropertyStore store;
+	private Deque<Integer> freeRows;
+
+	public EdgeJoiner(EdgePropertySchema schema, Collection<Edge<V>> allEdges) {
+		this.schema = schema;
+		schemaTypes = new LinkedHashMap<>(schema.getMap());
+		usedIds = CanvasUtils.getElementIds(allEdges);
+		buckets = new LinkedHashMap<>();
+		bucketsByEdge = new HashMap<>();
+		store = new PropertyStore(schemaTypes);
+		freeRows = new ArrayDeque<>();
+	}
+
+	/**
+	 * @return the joined edges in the order of their first edge in {@code edges}, mapped to the
+	 *         edges they contain. The returned sets are only valid until the next call.
+	 */
+	public Map<Edge<V>, Set<Edge<V>>> join(Collection<Edge<V>> edges) {
+		Set<Edge<V>> edgeSet = edges instanceof Set ? (Set<Edge<V>>) edges : new LinkedHashSet<>(edges);
+
+		if (!schemaTypes.equals(schema.getMap())) {
+			schemaTypes = new LinkedHashMap<>(schema.getMap());
+			buckets.values().forEach(b -> b.merged = null);
+		}
+
+		for (Iterator<Map.Entry<Edge<V>, Bucket<V>>> iterator = bucketsByEdge.entrySet().iterator(); iterator
+				.hasNext();) {
+			Map.Entry<Edge<V>, Bucket<V>> entry = iterator.next();
+
+			if (!edgeSet.contains(entry.getKey())) {
+				Bucket<V> bucket = entry.getValue();
+
+				bucket.edges.remove(entry.getKey());
+				bucket.merged = null;
+				iterator.remove();
+
+				if (bucket.edges.isEmpty()) {
+					removeBucket(bucket);
+				}
+			}
+		}
+
+		Map<Edge<V>, Set<Edge<V>>> joined = new LinkedHashMap<>();
+
+		for (Edge<V> edge : edgeSet) {
+			Bucket<V> bucket = bucketsByEdge.get(edge);
+
+			if (bucket == null) {
+				bucket = buckets.computeIfAbsent(new Pair<>(edge.getFrom(), edge.getTo()), this::createBucket);
+				bucket.edges.add(edge);
+				bucket.merged = null;
+				bucketsByEdge.put(edge, bucket);
+			}
+
+			if (!joined.containsKey(bucket.joinedEdge)) {
+				update(bucket);
+				joined.put(bucket.joinedEdge, Collections.unmodifiableSet(bucket.edges));
+			}
+		}
+
+		return joined;
+	}
+
+	private Bucket<V> createBucket(Pair<V, V> endpoints) {
+		V from = endpoints.getFirst();
+		V to = endpoints.getSecond();
+		String id = KnimeUtils.createNewValue(from.getId() + "->" + to.getId(), usedIds);
+		Map<String, Object> properties = store.getRow(freeRows.isEmpty() ? store.addRow() : freeRows.pop());
+
+		usedIds.add(id);
+
+		return new Bucket<>(endpoints, new Edge<>(id, properties, from, to));
+	}
+
+	private void removeBucket(Bucket<V> bucket) {
+		buckets.remove(bucket.endpoints);
+		usedIds.remove(bucket.joinedEdge.getId());
+		bucket.joinedEdge.getProperties().clear();
+		freeRows.push(PropertyStore.getRowIndex(bucket.joinedEdge.getProperties()));
+	}
+
+	private void update(Bucket<V> bucket) {
+		if (bucket.merged == null || isChanged(bucket)) {
+			Map<String, Object> merged = new LinkedHashMap<>();
+
+			for (Edge<V> edge : bucket.edges) {
+				CanvasUtils.addMapToMap(merged, schema, edge.getProperties());
+			}
+
+			merged.put(schema.getId(), bucket.joinedEdge.getId());
+			merged.put(schema.getFrom(), bucket.endpoints.getFirst().getId());
+			merged.put(schema.getTo(), bucket.endpoints.getSecond().getId());
+			bucket.merged = merged;
+			bucket.edgesVersion = getVersion(bucket.edges);
+		} else if (PropertyStore.getRowVersion(bucket.joinedEdge.getProperties()) == bucket.joinedVersion) {
+			return;
+		}
+
+		Map<String, Object> properties = bucket.joinedEdge.getProperties();
+
+		properties.keySet().retainAll(bucket.merged.keySet());
+		properties.putAll(bucket.merged);
+		bucket.joinedVersion = PropertyStore.getRowVersion(properties);
+	}
+
+	/**
+	 * @return whether the properties of an edge in the bucket changed since they were merged
+	 */
+	private static <V extends Node> boolean isChanged(Bucket<V> bucket) {
+		if (bucket.edgesVersion == null) {
+			return true;
+		}
+
+		PropertyStore edgeStore = bucket.edgesVersion.getFirst();
+		long version = bucket.edgesVersion.getSecond();
+
+		for (Edge<V> edge : bucket.edges) {
+			if (PropertyStore.getStore(edge.getProperties()) != edgeStore
+					|| PropertyStore.getRowVersion(edge.getProperties()) > version) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * @return the store of the edges and its version or {@code null}, if the properties of the
+	 *         edges are not rows of one store and changes can therefore not be detected
+	 */
+	private static <V extends Node> Pair<PropertyStore, Long> getVersion(Collection<Edge<V>> edges) {
+		PropertyStore edgeStore = PropertyStore.getStore(edges.iterator().next().getProperties());
+
+		if (edgeStore == null) {
+			return null;
+		}
+
+		for (Edge<V> edge : edges) {
+			if (PropertyStore.getStore(edge.getProperties()) != edgeStore) {
+				return null;
+			}
+		}
+
+		return new Pair<>(edgeStore, edgeStore.getVersion());
+	}
+
+	private static class Bucket<V extends Node> {
+
+		private Pair<V, V> endpoints;
+		private Edge<V> joinedEdge;
+		private Set<Edge<V>> edges;
+
+		private Map<String, Object> merged;
+		private Pair<PropertyStore, Long> edgesVersion;
+		private long joinedVersion;
+
+		public Bucket(Pair<V, V> endpoints, Edge<V> joinedEdge) {
+			this.endpoints = endpoints;
+			this.joinedEdge = joinedEdge;
+			edges = new LinkedHashSet<>();
+			merged = null;
+			edgesVersion = null;
+			joinedVersion = -1;
+		}
+	}
+}
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas.util;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.index.strtree.STRtree;
+
+import de.bund.bfr.knime.gis.views.canvas.element.RegionNode;
+
+/**
+ * STR-tree over the bounding boxes of regions. The tree is built once in the constructor and cannot
+ * be changed afterwards. The queries return the regions in the order in which they were passed to
+ * the constructor, so that overlapping regions are painted in the same order as without the index.
+ */
+public class RegionIndex {
+
+	private List<RegionNode> regions;
+	private STRtree tree;
+
+	public RegionIndex(Collection<RegionNode> regions) {
+		this.regions = new ArrayList<>(regions);
+		tree = new STRtree();
+
+		for (int i = 0; i < this.regions.size(); i++) {
+			tree.insert(this.regions.get(i).getPolygon().getEnvelopeInternal(), i);
+		}
+
+		tree.build();
+	}
+
+	public List<RegionNode> getAllRegions() {
+		return Collections.unmodifiableList(regions);
+	}
+
+	/**
+	 * @return all regions, whose bounding box intersects {@code bounds}
+	 */
+	public List<RegionNode> getRegions(Rectangle2D bounds) {
+		return query(new Envelope(bounds.getMinX(), bounds.getMaxX(), bounds.getMinY(), bounds.getMaxY()));
+	}
+
+	/**
+	 * @return all regions, whose bounding box contains {@code point}. The point itself is not
+	 *         necessarily inside of the returned regions.
+	 */
+	public List<RegionNode> getRegions(Point2D point) {
+		return query(new Envelope(point.getX(), point.getX(), point.getY(), point.getY()));
+	}
+
+	private List<RegionNode> query(Envelope envelope) {
+		if (regions.isEmpty()) {
+			return new ArrayList<>(0);
+		}
+
+		@SuppressWarnings("unchecked")
+		List<Integer> indices = tree.query(envelope);
+		List<RegionNode> result = new ArrayList<>(indices.size());
+
+		Collections.sort(indices);
+		indices.forEach(i -> result.add(regions.get(i)));
+
+		return result;
+	}
+}
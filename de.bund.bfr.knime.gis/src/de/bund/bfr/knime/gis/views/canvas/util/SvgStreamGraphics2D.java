@@ -0,0 +1,1279 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas.util;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.GradientPaint;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Paint;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.TexturePaint;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.TextLayout;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ColorModel;
+import java.awt.image.ImageObserver;
+import java.awt.image.RenderedImage;
+import java.awt.image.WritableRaster;
+import java.awt.image.renderable.RenderableImage;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.AttributedCharacterIterator;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Graphics that writes each drawing operation as an SVG element to an output stream, instead of
+ * building an SVG document in memory. Shapes are written in device coordinates, so that only the
+ * elements themselves are written and no group for each change of the transform. Elements outside
+ * of the image or the clip are not written at all.
+ * <p>
+ * Texts are written as text elements, if the transform only translates and scales, and as outlines
+ * otherwise. Texture paints are written as patterns, gradient paints as linear gradients and other
+ * paints are rasterized. Of the composites only the alpha of {@link AlphaComposite#SRC_OVER} is
+ * used and the XOR mode is ignored.
+ * <p>
+ * The methods of {@link Graphics2D} cannot throw {@link IOException}. The first error while
+ * writing is therefore thrown by {@link #finish()}, which must be called after painting.
+ */
+public class SvgStreamGraphics2D extends Graphics2D {
+
+	private static final int MAX_RASTER_PIXELS = 1 << 22;
+
+	private Output out;
+
+	private AffineTransform transform;
+	private Shape clip;
+	private String clipId;
+	private Paint paint;
+	private Color color;
+	private Color background;
+	private Stroke stroke;
+	private Font font;
+	private Composite composite;
+	private RenderingHints hints;
+
+	public SvgStreamGraphics2D(OutputStream stream, int width, int height) {
+		out = new Output(stream, width, height);
+		transform = new AffineTransform();
+		clip = null;
+		clipId = null;
+		paint = Color.BLACK;
+		color = Color.BLACK;
+		background = Color.WHITE;
+		stroke = new BasicStroke();
+		font = new Font(Font.DIALOG, Font.PLAIN, 12);
+		composite = AlphaComposite.SrcOver;
+		hints = new RenderingHints(null);
+
+		out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<svg xmlns=\"http://www.w3.org/2000/svg\""
+				+ " xmlns:xlink=\"http://www.w3.org/1999/xlink\" width=\"" + width + "\" height=\"" + height
+				+ "\" viewBox=\"0 0 " + width + " " + height + "\">\n");
+	}
+
+	private SvgStreamGraphics2D(SvgStreamGraphics2D g) {
+		out = g.out;
+		transform = new AffineTransform(g.transform);
+		clip = g.clip;
+		clipId = g.clipId;
+		paint = g.paint;
+		color = g.color;
+		background = g.background;
+		stroke = g.stroke;
+		font = g.font;
+		composite = g.composite;
+		hints = (RenderingHints) g.hints.clone();
+	}
+
+	/**
+	 * Closes the root element and flushes the output stream, which is not closed.
+	 *
+	 * @throws IOException
+	 *             if writing this or a previous element failed
+	 */
+	public void finish() throws IOException {
+		out.write("</svg>\n");
+		out.flush();
+
+		if (out.exception != null) {
+			throw out.exception;
+		}
+	}
+
+	@Override
+	public Graphics create() {
+		return new SvgStreamGraphics2D(this);
+	}
+
+	@Override
+	public void dispose() {
+	}
+
+	@Override
+	public void draw(Shape s) {
+		if (!isSupported(paint)) {
+			writeRasterized(stroke.createStrokedShape(s));
+		} else if (stroke instanceof BasicStroke && isUniform(transform)) {
+			BasicStroke basicStroke = (BasicStroke) stroke;
+			double scale = Math.sqrt(Math.abs(transform.getDeterminant()));
+			Shape device = transform.createTransformedShape(s);
+			Rectangle2D bounds = grow(device.getBounds2D(),
+					basicStroke.getLineWidth() * scale * Math.max(basicStroke.getMiterLimit(), 1.0) / 2.0);
+
+			if (isVisible(bounds)) {
+				StringBuilder element = new StringBuilder("<path fill=\"none\"");
+
+				appendPaint(element, "stroke");
+				appendStroke(element, basicStroke, scale);
+				appendClip(element, bounds);
+				element.append(" d=\"");
+				appendPath(element, device);
+				element.append("\"/>\n");
+				out.write(element);
+			}
+		} else {
+			fill(stroke.createStrokedShape(s));
+		}
+	}
+
+	@Override
+	public void fill(Shape s) {
+		if (!isSupported(paint)) {
+			writeRasterized(s);
+			return;
+		}
+
+		Shape device = transform.createTransformedShape(s);
+		Rectangle2D bounds = grow(device.getBounds2D(), 1.0);
+
+		if (isVisible(bounds)) {
+			StringBuilder element = new StringBuilder("<path");
+
+			appendPaint(element, "fill");
+
+			if (device.getPathIterator(null).getWindingRule() == PathIterator.WIND_EVEN_ODD) {
+				element.append(" fill-rule=\"evenodd\"");
+			}
+
+			appendClip(element, bounds);
+			element.append(" d=\"");
+			appendPath(element, device);
+			element.append("\"/>\n");
+			out.write(element);
+		}
+	}
+
+	@Override
+	public void drawString(String str, float x, float y) {
+		if (str.isEmpty()) {
+			return;
+		}
+
+		if (!(paint instanceof Color) || !isTranslateAndScale(transform) || font.isTransformed()) {
+			fill(font.createGlyphVector(getFontRenderContext(), str).getOutline(x, y));
+			return;
+		}
+
+		Rectangle2D logicalBounds = font.getStringBounds(str, getFontRenderContext());
+		Rectangle2D bounds = grow(transform.createTransformedShape(new Rectangle2D.Double(x + logicalBounds.getX(),
+				y + logicalBounds.getY(), logicalBounds.getWidth(), logicalBounds.getHeight())).getBounds2D(), 1.0);
+
+		if (!isVisible(bounds)) {
+			return;
+		}
+
+		Point2D position = transform.transform(new Point2D.Double(x, y), null);
+		StringBuilder element = new StringBuilder("<text x=\"");
+
+		appendNumber(element, position.getX());
+		element.append("\" y=\"");
+		appendNumber(element, position.getY());
+		element.append("\" font-family=\"");
+		appendEscaped(element, getFontFamily(font));
+		element.append("\" font-size=\"");
+		appendNumber(element, font.getSize2D() * transform.getScaleX());
+		element.append('"');
+
+		if (font.isBold()) {
+			element.append(" font-weight=\"bold\"");
+		}
+
+		if (font.isItalic()) {
+			element.append(" font-style=\"italic\"");
+		}
+
+		appendPaint(element, "fill");
+		appendClip(element, bounds);
+		element.append(" xml:space=\"preserve\">");
+		appendEscaped(element, str);
+		element.append("</text>\n");
+		out.write(element);
+	}
+
+	@Override
+	public void drawString(String str, int x, int y) {
+		drawString(str, (float) x, (float) y);
+	}
+
+	@Override
+	public void drawString(AttributedCharacterIterator iterator, float x, float y) {
+		if (iterator.getBeginIndex() < iterator.getEndIndex()) {
+			fill(new TextLayout(iterator, getFontRenderContext())
+					.getOutline(AffineTransform.getTranslateInstance(x, y)));
+		}
+	}
+
+	@Override
+	public void drawString(AttributedCharacterIterator iterator, int x, int y) {
+		drawString(iterator, (float) x, (float) y);
+	}
+
+	@Override
+	public void drawGlyphVector(GlyphVector g, float x, float y) {
+		fill(g.getOutline(x, y));
+	}
+
+	@Override
+	public boolean drawImage(Image img, AffineTransform xform, ImageObserver obs) {
+		BufferedImage image = toBufferedImage(img);
+
+		if (image == null) {
+			return false;
+		}
+
+		writeImage(image, xform != null ? xform : new AffineTransform());
+
+		return true;
+	}
+
+	@Override
+	public void drawImage(BufferedImage img, BufferedImageOp op, int x, int y) {
+		writeImage(op != null ? op.filter(img, null) : img, AffineTransform.getTranslateInstance(x, y));
+	}
+
+	@Override
+	public void drawRenderedImage(RenderedImage img, AffineTransform xform) {
+		writeImage(toBufferedImage(img), xform != null ? xform : new AffineTransform());
+	}
+
+	@Override
+	public void drawRenderableImage(RenderableImage img, AffineTransform xform) {
+		drawRenderedImage(img.createDefaultRendering(), xform);
+	}
+
+	@Override
+	public boolean drawImage(Image img, int x, int y, ImageObserver observer) {
+		return drawImage(img, AffineTransform.getTranslateInstance(x, y), observer);
+	}
+
+	@Override
+	public boolean drawImage(Image img, int x, int y, int width, int height, ImageObserver observer) {
+		return drawImage(img, x, y, width, height, null, observer);
+	}
+
+	@Override
+	public boolean drawImage(Image img, int x, int y, Color bgcolor, ImageObserver observer) {
+		BufferedImage image = toBufferedImage(img);
+
+		if (image == null) {
+			return false;
+		}
+
+		return drawImage(image, x, y, image.getWidth(), image.getHeight(), bgcolor, observer);
+	}
+
+	@Override
+	public boolean drawImage(Image img, int x, int y, int width, int height, Color bgcolor,
+			ImageObserver observer) {
+		BufferedImage image = toBufferedImage(img);
+
+		if (image == null) {
+			return false;
+		}
+
+		AffineTransform xform = AffineTransform.getTranslateInstance(x, y);
+
+		xform.scale((double) width / image.getWidth(), (double) height / image.getHeight());
+		fillBackground(bgcolor, new Rectangle(x, y, width, height));
+		writeImage(image, xform);
+
+		return true;
+	}
+
+	@Override
+	public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2,
+			ImageObserver observer) {
+		return drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, null, observer);
+	}
+
+	@Override
+	public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2,
+			Color bgcolor, ImageObserver observer) {
+		BufferedImage image = toBufferedImage(img);
+
+		if (image == null) {
+			return false;
+		}
+
+		if (dx1 == dx2 || dy1 == dy2 || sx1 == sx2 || sy1 == sy2) {
+			return true;
+		}
+
+		int minX = Math.max(Math.min(sx1, sx2), 0);
+		int minY = Math.max(Math.min(sy1, sy2), 0);
+		int maxX = Math.min(Math.max(sx1, sx2), image.getWidth());
+		int maxY = Math.min(Math.max(sy1, sy2), image.getHeight());
+
+		fillBackground(bgcolor, new Rectangle(Math.min(dx1, dx2), Math.min(dy1, dy2), Math.abs(dx2 - dx1),
+				Math.abs(dy2 - dy1)));
+
+		if (minX < maxX && minY < maxY) {
+			AffineTransform xform = AffineTransform.getTranslateInstance(dx1, dy1);
+
+			xform.scale((double) (dx2 - dx1) / (sx2 - sx1), (double) (dy2 - dy1) / (sy2 - sy1));
+			xform.translate(minX - sx1, minY - sy1);
+			writeImage(image.getSubimage(minX, minY, maxX - minX, maxY - minY), xform);
+		}
+
+		return true;
+	}
+
+	@Override
+	public boolean hit(Rectangle rect, Shape s, boolean onStroke) {
+		return transform.createTransformedShape(onStroke ? stroke.createStrokedShape(s) : s).intersects(rect);
+	}
+
+	@Override
+	public GraphicsConfiguration getDeviceConfiguration() {
+		return out.getMetricsGraphics().getDeviceConfiguration();
+	}
+
+	@Override
+	public void setComposite(Composite comp) {
+		if (comp != null) {
+			composite = comp;
+		}
+	}
+
+	@Override
+	public Composite getComposite() {
+		return composite;
+	}
+
+	@Override
+	public void setPaint(Paint paint) {
+		if (paint != null) {
+			this.paint = paint;
+
+			if (paint instanceof Color) {
+				color = (Color) paint;
+			}
+		}
+	}
+
+	@Override
+	public Paint getPaint() {
+		return paint;
+	}
+
+	@Override
+	public void setColor(Color c) {
+		setPaint(c);
+	}
+
+	@Override
+	public Color getColor() {
+		return color;
+	}
+
+	@Override
+	public void setStroke(Stroke s) {
+		if (s != null) {
+			stroke = s;
+		}
+	}
+
+	@Override
+	public Stroke getStroke() {
+		return stroke;
+	}
+
+	@Override
+	public void setFont(Font font) {
+		if (font != null) {
+			this.font = font;
+		}
+	}
+
+	@Override
+	public Font getFont() {
+		return font;
+	}
+
+	@Override
+	public FontMetrics getFontMetrics(Font f) {
+		Graphics2D metricsGraphics = out.getMetricsGraphics();
+
+		metricsGraphics.setRenderingHints(hints);
+
+		return metricsGraphics.getFontMetrics(f);
+	}
+
+	@Override
+	public FontRenderContext getFontRenderContext() {
+		return new FontRenderContext(null,
+				RenderingHints.VALUE_TEXT_ANTIALIAS_ON.equals(hints.get(RenderingHints.KEY_TEXT_ANTIALIASING)),
+				RenderingHints.VALUE_FRACTIONALMETRICS_ON.equals(hints.get(RenderingHints.KEY_FRACTIONALMETRICS)));
+	}
+
+	@Override
+	public void setBackground(Color color) {
+		background = color;
+	}
+
+	@Override
+	public Color getBackground() {
+		return background;
+	}
+
+	@Override
+	public void setRenderingHint(RenderingHints.Key hintKey, Object hintValue) {
+		hints.put(hintKey, hintValue);
+	}
+
+	@Override
+	public Object getRenderingHint(RenderingHints.Key hintKey) {
+		return hints.get(hintKey);
+	}
+
+	@Override
+	public void setRenderingHints(Map<?, ?> hints) {
+		this.hints.clear();
+		this.hints.putAll(hints);
+	}
+
+	@Override
+	public void addRenderingHints(Map<?, ?> hints) {
+		this.hints.putAll(hints);
+	}
+
+	@Override
+	public RenderingHints getRenderingHints() {
+		return (RenderingHints) hints.clone();
+	}
+
+	@Override
+	public void translate(int x, int y) {
+		transform.translate(x, y);
+	}
+
+	@Override
+	public void translate(double tx, double ty) {
+		transform.translate(tx, ty);
+	}
+
+	@Override
+	public void rotate(double theta) {
+		transform.rotate(theta);
+	}
+
+	@Override
+	public void rotate(double theta, double x, double y) {
+		transform.rotate(theta, x, y);
+	}
+
+	@Override
+	public void scale(double sx, double sy) {
+		transform.scale(sx, sy);
+	}
+
+	@Override
+	public void shear(double shx, double shy) {
+		transform.shear(shx, shy);
+	}
+
+	@Override
+	public void transform(AffineTransform tx) {
+		transform.concatenate(tx);
+	}
+
+	@Override
+	public void setTransform(AffineTransform tx) {
+		transform = new AffineTransform(tx);
+	}
+
+	@Override
+	public AffineTransform getTransform() {
+		return new AffineTransform(transform);
+	}
+
+	@Override
+	public void setPaintMode() {
+	}
+
+	@Override
+	public void setXORMode(Color c1) {
+	}
+
+	@Override
+	public void clip(Shape s) {
+		if (s == null) {
+			setClip(null);
+			return;
+		}
+
+		Shape device = toDevice(s);
+
+		if (clip == null) {
+			clip = device;
+		} else if (clip instanceof Rectangle2D && device instanceof Rectangle2D) {
+			Rectangle2D intersection = ((Rectangle2D) clip).createIntersection((Rectangle2D) device);
+
+			clip = intersection.isEmpty() ? new Rectangle2D.Double() : intersection;
+		} else {
+			Area area = new Area(clip);
+
+			area.intersect(new Area(device));
+			clip = area;
+		}
+
+		clipId = null;
+	}
+
+	@Override
+	public void clipRect(int x, int y, int width, int height) {
+		clip(new Rectangle(x, y, width, height));
+	}
+
+	@Override
+	public void setClip(Shape clip) {
+		this.clip = clip != null ? toDevice(clip) : null;
+		clipId = null;
+	}
+
+	@Override
+	public void setClip(int x, int y, int width, int height) {
+		setClip(new Rectangle(x, y, width, height));
+	}
+
+	@Override
+	public Shape getClip() {
+		if (clip == null) {
+			return null;
+		}
+
+		try {
+			AffineTransform inverse = transform.createInverse();
+
+			if (clip instanceof Rectangle2D && isTranslateAndScale(transform)) {
+				return transformRectangle((Rectangle2D) clip, inverse);
+			}
+
+			return inverse.createTransformedShape(clip);
+		} catch (NoninvertibleTransformException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public Rectangle getClipBounds() {
+		Shape userClip = getClip();
+
+		return userClip != null ? userClip.getBounds() : null;
+	}
+
+	@Override
+	public void copyArea(int x, int y, int width, int height, int dx, int dy) {
+	}
+
+	@Override
+	public void drawLine(int x1, int y1, int x2, int y2) {
+		draw(new Line2D.Double(x1, y1, x2, y2));
+	}
+
+	@Override
+	public void drawRect(int x, int y, int width, int height) {
+		if (width >= 0 && height >= 0) {
+			draw(new Rectangle(x, y, width, height));
+		}
+	}
+
+	@Override
+	public void fillRect(int x, int y, int width, int height) {
+		fill(new Rectangle(x, y, width, height));
+	}
+
+	@Override
+	public void clearRect(int x, int y, int width, int height) {
+		fillBackground(background, new Rectangle(x, y, width, height));
+	}
+
+	@Override
+	public void drawRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+		draw(new RoundRectangle2D.Double(x, y, width, height, arcWidth, arcHeight));
+	}
+
+	@Override
+	public void fillRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+		fill(new RoundRectangle2D.Double(x, y, width, height, arcWidth, arcHeight));
+	}
+
+	@Override
+	public void drawOval(int x, int y, int width, int height) {
+		draw(new Ellipse2D.Double(x, y, width, height));
+	}
+
+	@Override
+	public void fillOval(int x, int y, int width, int height) {
+		fill(new Ellipse2D.Double(x, y, width, height));
+	}
+
+	@Override
+	public void drawArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+		draw(new Arc2D.Double(x, y, width, height, startAngle, arcAngle, Arc2D.OPEN));
+	}
+
+	@Override
+	public void fillArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+		fill(new Arc2D.Double(x, y, width, height, startAngle, arcAngle, Arc2D.PIE));
+	}
+
+	@Override
+	public void drawPolyline(int[] xPoints, int[] yPoints, int nPoints) {
+		if (nPoints > 0) {
+			Path2D.Double path = new Path2D.Double();
+
+			path.moveTo(xPoints[0], yPoints[0]);
+
+			for (int i = 1; i < nPoints; i++) {
+				path.lineTo(xPoints[i], yPoints[i]);
+			}
+
+			draw(path);
+		}
+	}
+
+	@Override
+	public void drawPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+		draw(new Polygon(xPoints, yPoints, nPoints));
+	}
+
+	@Override
+	public void fillPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+		fill(new Polygon(xPoints, yPoints, nPoints));
+	}
+
+	private void fillBackground(Color bgcolor, Shape s) {
+		if (bgcolor != null) {
+			Paint currentPaint = paint;
+
+			paint = bgcolor;
+			fill(s);
+			paint = currentPaint;
+		}
+	}
+
+	private void writeImage(BufferedImage image, AffineTransform xform) {
+		AffineTransform imageTransform = new AffineTransform(transform);
+
+		imageTransform.concatenate(xform);
+
+		Rectangle2D bounds = grow(imageTransform
+				.createTransformedShape(new Rectangle(0, 0, image.getWidth(), image.getHeight())).getBounds2D(), 1.0);
+
+		if (!isVisible(bounds)) {
+			return;
+		}
+
+		StringBuilder clipGroup = new StringBuilder("<g");
+
+		appendClip(clipGroup, bounds);
+
+		boolean clipped = clipGroup.length() > 2;
+		StringBuilder element = new StringBuilder();
+
+		if (clipped) {
+			element.append(clipGroup).append(">\n");
+		}
+
+		element.append("<image width=\"").append(image.getWidth()).append("\" height=\"")
+				.append(image.getHeight()).append("\" preserveAspectRatio=\"none\"");
+		appendTransform(element, imageTransform);
+		appendOpacity(element, "opacity", 1.0);
+		element.append(" xlink:href=\"");
+		appendPngData(element, image);
+		element.append("\"/>\n");
+
+		if (clipped) {
+			element.append("</g>\n");
+		}
+
+		out.write(element);
+	}
+
+	/**
+	 * Paints the shape into an image, which is written instead of the shape. The resolution of the
+	 * image is reduced, if the shape is very large.
+	 */
+	private void writeRasterized(Shape s) {
+		Rectangle2D bounds = transform.createTransformedShape(s).getBounds2D()
+				.createIntersection(new Rectangle(0, 0, out.width, out.height));
+
+		if (clip != null) {
+			bounds = bounds.createIntersection(clip.getBounds2D());
+		}
+
+		Rectangle pixelBounds = bounds.getBounds();
+
+		if (bounds.isEmpty() || pixelBounds.isEmpty()) {
+			return;
+		}
+
+		double resolution = Math.min(
+				Math.sqrt((double) MAX_RASTER_PIXELS / pixelBounds.width / pixelBounds.height), 1.0);
+		BufferedImage image = new BufferedImage(Math.max((int) Math.ceil(pixelBounds.width * resolution), 1),
+				Math.max((int) Math.ceil(pixelBounds.height * resolution), 1), BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+
+		g.setRenderingHints(hints);
+		g.scale(resolution, resolution);
+		g.translate(-pixelBounds.x, -pixelBounds.y);
+		g.transform(transform);
+		g.setPaint(paint);
+		g.fill(s);
+		g.dispose();
+
+		AffineTransform currentTransform = transform;
+		AffineTransform xform = AffineTransform.getTranslateInstance(pixelBounds.x, pixelBounds.y);
+
+		xform.scale(1.0 / resolution, 1.0 / resolution);
+		transform = new AffineTransform();
+		writeImage(image, xform);
+		transform = currentTransform;
+	}
+
+	private boolean isVisible(Rectangle2D bounds) {
+		return bounds.intersects(0, 0, out.width, out.height) && (clip == null || clip.intersects(bounds));
+	}
+
+	/**
+	 * Clip paths are only written for elements, that are not completely inside the clip. The same
+	 * rectangular clip, which is set for example for each label, is only written once.
+	 */
+	private void appendClip(StringBuilder element, Rectangle2D bounds) {
+		if (clip == null || clip.contains(bounds.createIntersection(new Rectangle(0, 0, out.width, out.height)))) {
+			return;
+		}
+
+		if (clipId == null && clip instanceof Rectangle2D) {
+			clipId = out.rectangleClipIds.get(clip);
+		}
+
+		if (clipId == null) {
+			StringBuilder clipPath = new StringBuilder();
+
+			clipId = out.createId("clip");
+			clipPath.append("<clipPath id=\"").append(clipId).append("\"><path d=\"");
+			appendPath(clipPath, clip);
+			clipPath.append("\"/></clipPath>\n");
+			out.write(clipPath);
+
+			if (clip instanceof Rectangle2D) {
+				out.rectangleClipIds.put(clip.getBounds2D(), clipId);
+			}
+		}
+
+		element.append(" clip-path=\"url(#").append(clipId).append(")\"");
+	}
+
+	private void appendPaint(StringBuilder element, String attribute) {
+		if (paint instanceof Color) {
+			Color c = (Color) paint;
+
+			element.append(' ').append(attribute).append("=\"");
+			appendColor(element, c);
+			element.append('"');
+			appendOpacity(element, attribute + "-opacity", c.getAlpha() / 255.0);
+		} else {
+			element.append(' ').append(attribute).append("=\"url(#").append(getPaintId()).append(")\"");
+			appendOpacity(element, attribute + "-opacity", 1.0);
+		}
+	}
+
+	private void appendOpacity(StringBuilder element, String attribute, double opacity) {
+		if (composite instanceof AlphaComposite
+				&& ((AlphaComposite) composite).getRule() == AlphaComposite.SRC_OVER) {
+			opacity *= ((AlphaComposite) composite).getAlpha();
+		}
+
+		if (opacity < 1.0) {
+			element.append(' ').append(attribute).append("=\"");
+			appendNumber(element, opacity);
+			element.append('"');
+		}
+	}
+
+	private static void appendStroke(StringBuilder element, BasicStroke stroke, double scale) {
+		element.append(" stroke-width=\"");
+		appendNumber(element, stroke.getLineWidth() * scale);
+		element.append("\" stroke-linecap=\"");
+
+		switch (stroke.getEndCap()) {
+		case BasicStroke.CAP_BUTT:
+			element.append("butt");
+			break;
+		case BasicStroke.CAP_ROUND:
+			element.append("round");
+			break;
+		default:
+			element.append("square");
+			break;
+		}
+
+		element.append("\" stroke-linejoin=\"");
+
+		switch (stroke.getLineJoin()) {
+		case BasicStroke.JOIN_BEVEL:
+			element.append("bevel");
+			break;
+		case BasicStroke.JOIN_ROUND:
+			element.append("round");
+			break;
+		default:
+			element.append("miter\" stroke-miterlimit=\"");
+			appendNumber(element, Math.max(stroke.getMiterLimit(), 1.0));
+			break;
+		}
+
+		element.append('"');
+
+		if (stroke.getDashArray() != null) {
+			element.append(" stroke-dasharray=\"");
+
+			for (float dash : stroke.getDashArray()) {
+				appendNumber(element, dash * scale);
+				element.append(' ');
+			}
+
+			element.setLength(element.length() - 1);
+			element.append("\" stroke-dashoffset=\"");
+			appendNumber(element, stroke.getDashPhase() * scale);
+			element.append('"');
+		}
+	}
+
+	/**
+	 * Writes the definition of the current gradient or texture paint, if it was not written for the
+	 * current transform yet.
+	 */
+	private String getPaintId() {
+		List<Object> key = Arrays.asList(paint, new AffineTransform(transform));
+		String id = out.paintIds.get(key);
+
+		if (id != null) {
+			return id;
+		}
+
+		StringBuilder definition = new StringBuilder("<defs>");
+
+		if (paint instanceof GradientPaint) {
+			GradientPaint gradient = (GradientPaint) paint;
+			Point2D p1 = transform.transform(gradient.getPoint1(), null);
+			Point2D p2 = transform.transform(gradient.getPoint2(), null);
+
+			id = out.createId("gradient");
+			definition.append("<linearGradient id=\"").append(id).append("\" gradientUnits=\"userSpaceOnUse\"");
+			definition.append(" x1=\"");
+			appendNumber(definition, p1.getX());
+			definition.append("\" y1=\"");
+			appendNumber(definition, p1.getY());
+			definition.append("\" x2=\"");
+			appendNumber(definition, p2.getX());
+			definition.append("\" y2=\"");
+			appendNumber(definition, p2.getY());
+			definition.append('"');
+
+			if (gradient.isCyclic()) {
+				definition.append(" spreadMethod=\"reflect\"");
+			}
+
+			definition.append('>');
+			appendStop(definition, 0, gradient.getColor1());
+			appendStop(definition, 1, gradient.getColor2());
+			definition.append("</linearGradient>");
+		} else {
+			TexturePaint texture = (TexturePaint) paint;
+			Rectangle2D anchor = texture.getAnchorRect();
+
+			id = out.createId("pattern");
+			definition.append("<pattern id=\"").append(id).append("\" patternUnits=\"userSpaceOnUse\" x=\"");
+			appendNumber(definition, anchor.getX());
+			definition.append("\" y=\"");
+			appendNumber(definition, anchor.getY());
+			definition.append("\" width=\"");
+			appendNumber(definition, anchor.getWidth());
+			definition.append("\" height=\"");
+			appendNumber(definition, anchor.getHeight());
+			definition.append("\" patternTransform=\"");
+			appendMatrix(definition, transform);
+			definition.append("\"><image width=\"");
+			appendNumber(definition, anchor.getWidth());
+			definition.append("\" height=\"");
+			appendNumber(definition, anchor.getHeight());
+			definition.append("\" preserveAspectRatio=\"none\" xlink:href=\"");
+			appendPngData(definition, texture.getImage());
+			definition.append("\"/></pattern>");
+		}
+
+		definition.append("</defs>\n");
+		out.write(definition);
+		out.paintIds.put(key, id);
+
+		return id;
+	}
+
+	private static void appendStop(StringBuilder definition, double offset, Color c) {
+		definition.append("<stop offset=\"");
+		appendNumber(definition, offset);
+		definition.append("\" stop-color=\"");
+		appendColor(definition, c);
+		definition.append('"');
+
+		if (c.getAlpha() < 255) {
+			definition.append(" stop-opacity=\"");
+			appendNumber(definition, c.getAlpha() / 255.0);
+			definition.append('"');
+		}
+
+		definition.append("/>");
+	}
+
+	private static void appendTransform(StringBuilder element, AffineTransform t) {
+		if (!t.isIdentity()) {
+			element.append(" transform=\"");
+			appendMatrix(element, t);
+			element.append('"');
+		}
+	}
+
+	private static void appendMatrix(StringBuilder element, AffineTransform t) {
+		element.append("matrix(");
+		appendNumber(element, t.getScaleX());
+		element.append(' ');
+		appendNumber(element, t.getShearY());
+		element.append(' ');
+		appendNumber(element, t.getShearX());
+		element.append(' ');
+		appendNumber(element, t.getScaleY());
+		element.append(' ');
+		appendNumber(element, t.getTranslateX());
+		element.append(' ');
+		appendNumber(element, t.getTranslateY());
+		element.append(')');
+	}
+
+	private static void appendPath(StringBuilder element, Shape s) {
+		double[] coords = new double[6];
+
+		for (PathIterator iterator = s.getPathIterator(null); !iterator.isDone(); iterator.next()) {
+			switch (iterator.currentSegment(coords)) {
+			case PathIterator.SEG_MOVETO:
+				element.append('M');
+				appendCoordinates(element, coords, 2);
+				break;
+			case PathIterator.SEG_LINETO:
+				element.append('L');
+				appendCoordinates(element, coords, 2);
+				break;
+			case PathIterator.SEG_QUADTO:
+				element.append('Q');
+				appendCoordinates(element, coords, 4);
+				break;
+			case PathIterator.SEG_CUBICTO:
+				element.append('C');
+				appendCoordinates(element, coords, 6);
+				break;
+			case PathIterator.SEG_CLOSE:
+				element.append('Z');
+				break;
+			}
+		}
+	}
+
+	private static void appendCoordinates(StringBuilder element, double[] coords, int n) {
+		for (int i = 0; i < n; i++) {
+			if (i > 0) {
+				element.append(' ');
+			}
+
+			appendNumber(element, coords[i]);
+		}
+	}
+
+	/**
+	 * Appends the number with at most two decimal places, which is more than enough for pixel
+	 * coordinates.
+	 */
+	private static void appendNumber(StringBuilder element, double value) {
+		long hundredths = Math.round(value * 100.0);
+
+		if (hundredths < 0) {
+			element.append('-');
+			hundredths = -hundredths;
+		}
+
+		element.append(hundredths / 100);
+
+		int decimals = (int) (hundredths % 100);
+
+		if (decimals != 0) {
+			element.append('.');
+
+			if (decimals < 10) {
+				element.append('0').append(decimals);
+			} else if (decimals % 10 == 0) {
+				element.append(decimals / 10);
+			} else {
+				element.append(decimals);
+			}
+		}
+	}
+
+	private static void appendColor(StringBuilder element, Color c) {
+		element.append('#').append(Integer.toHexString(c.getRGB() & 0xffffff | 0x1000000), 1, 7);
+	}
+
+	private static void appendEscaped(StringBuilder element, String s) {
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+
+			switch (c) {
+			case '&':
+				element.append("&amp;");
+				break;
+			case '<':
+				element.append("&lt;");
+				break;
+			case '>':
+				element.append("&gt;");
+				break;
+			case '"':
+				element.append("&quot;");
+				break;
+			default:
+				if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+					element.append(c);
+				}
+
+				break;
+			}
+		}
+	}
+
+	private static void appendPngData(StringBuilder element, BufferedImage image) {
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+
+		try {
+			ImageIO.write(image, "png", png);
+		} catch (IOException e) {
+			// cannot happen for a byte array
+		}
+
+		element.append("data:image/png;base64,").append(Base64.getEncoder().encodeToString(png.toByteArray()));
+	}
+
+	private static String getFontFamily(Font font) {
+		switch (font.getFamily()) {
+		case Font.DIALOG:
+		case Font.SANS_SERIF:
+			return "sans-serif";
+		case Font.SERIF:
+			return "serif";
+		case Font.DIALOG_INPUT:
+		case Font.MONOSPACED:
+			return "monospace";
+		default:
+			return "'" + font.getFamily() + "', sans-serif";
+		}
+	}
+
+	private Shape toDevice(Shape s) {
+		if (s instanceof Rectangle2D && isTranslateAndScale(transform)) {
+			return transformRectangle((Rectangle2D) s, transform);
+		}
+
+		return transform.createTransformedShape(s);
+	}
+
+	private static Rectangle2D transformRectangle(Rectangle2D r, AffineTransform t) {
+		Point2D p1 = t.transform(new Point2D.Double(r.getMinX(), r.getMinY()), null);
+		Point2D p2 = t.transform(new Point2D.Double(r.getMaxX(), r.getMaxY()), null);
+		Rectangle2D result = new Rectangle2D.Double(p1.getX(), p1.getY(), 0, 0);
+
+		result.add(p2);
+
+		return result;
+	}
+
+	private static Rectangle2D grow(Rectangle2D r, double margin) {
+		return new Rectangle2D.Double(r.getX() - margin, r.getY() - margin, r.getWidth() + 2 * margin,
+				r.getHeight() + 2 * margin);
+	}
+
+	private static boolean isSupported(Paint paint) {
+		return paint instanceof Color || paint instanceof GradientPaint || paint instanceof TexturePaint;
+	}
+
+	private static boolean isUniform(AffineTransform t) {
+		return (t.getType() & (AffineTransform.TYPE_GENERAL_SCALE | AffineTransform.TYPE_GENERAL_TRANSFORM)) == 0;
+	}
+
+	private static boolean isTranslateAndScale(AffineTransform t) {
+		return (t.getType() & (AffineTransform.TYPE_GENERAL_SCALE | AffineTransform.TYPE_GENERAL_TRANSFORM
+				| AffineTransform.TYPE_MASK_ROTATION | AffineTransform.TYPE_FLIP)) == 0;
+	}
+
+	private static BufferedImage toBufferedImage(Image img) {
+		if (img instanceof BufferedImage) {
+			return (BufferedImage) img;
+		}
+
+		int width = img != null ? img.getWidth(null) : -1;
+		int height = img != null ? img.getHeight(null) : -1;
+
+		if (width <= 0 || height <= 0) {
+			return null;
+		}
+
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+
+		g.drawImage(img, 0, 0, null);
+		g.dispose();
+
+		return image;
+	}
+
+	private static BufferedImage toBufferedImage(RenderedImage img) {
+		if (img instanceof BufferedImage) {
+			return (BufferedImage) img;
+		}
+
+		ColorModel colorModel = img.getColorModel();
+		WritableRaster raster = colorModel.createCompatibleWritableRaster(img.getWidth(), img.getHeight());
+
+		img.copyData(raster.createWritableTranslatedChild(img.getMinX(), img.getMinY()));
+
+		return new BufferedImage(colorModel, raster, colorModel.isAlphaPremultiplied(), null);
+	}
+
+	/**
+	 * State that is shared by a graphics and all graphics created from it.
+	 */
+	private static class Output {
+
+		private Writer writer;
+		private int width;
+		private int height;
+		private int idCount;
+		private Map<List<Object>, String> paintIds;
+		private Map<Rectangle2D, String> rectangleClipIds;
+		private Graphics2D metricsGraphics;
+		private IOException exception;
+
+		public Output(OutputStream stream, int width, int height) {
+			writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+			this.width = width;
+			this.height = height;
+			idCount = 0;
+			paintIds = new HashMap<>();
+			rectangleClipIds = new HashMap<>();
+			metricsGraphics = null;
+			exception = null;
+		}
+
+		public String createId(String prefix) {
+			return prefix + idCount++;
+		}
+
+		public Graphics2D getMetricsGraphics() {
+			if (metricsGraphics == null) {
+				metricsGraphics = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+			}
+
+			return metricsGraphics;
+		}
+
+		public void write(CharSequence s) {
+			if (exception == null) {
+				try {
+					writer.append(s);
+				} catch (IOException e) {
+					exception = e;
+				}
+			}
+		}
+
+		public void flush() {
+			if (exception == null) {
+				try {
+					writer.flush();
+				} catch (IOException e) {
+					exception = e;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,292 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.openstreetmap.gui.jmapviewer.MemoryTileCache;
+import org.openstreetmap.gui.jmapviewer.OsmMercator;
+import org.openstreetmap.gui.jmapviewer.Tile;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileLoaderListener;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileSource;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * Loads map tiles from a {@link TileSource} in background threads. Loaded tiles are kept in a
+ * {@link MemoryTileCache} and the downloaded data in an optional {@link DiskTileCache}, which is
+ * read before a tile is downloaded. Each load returns a future, that completes when the tile is
+ * loaded or loading failed.
+ */
+public class TileManager {
+
+	private static final int THREAD_COUNT = 8;
+	private static final int TIMEOUT = 30000;
+
+	private static Logger logger = Logger.getLogger("de.bund.bfr");
+
+	private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREAD_COUNT, r -> {
+		Thread thread = new Thread(r, "Tile Loader");
+
+		thread.setDaemon(true);
+
+		return thread;
+	});
+
+	private TileSource tileSource;
+	private MemoryTileCache memoryCache;
+	private DiskTileCache diskCache;
+	private TileLoaderListener listener;
+
+	private Map<String, CompletableFuture<Tile>> jobs;
+
+	/**
+	 * @param diskCache
+	 *            the disk cache or {@code null}, if tiles should always be downloaded
+	 * @param listener
+	 *            notified in a loader thread, when loading of a tile finished, or {@code null}
+	 */
+	public TileManager(TileSource tileSource, MemoryTileCache memoryCache, DiskTileCache diskCache,
+			TileLoaderListener listener) {
+		this.tileSource = tileSource;
+		this.memoryCache = memoryCache;
+		this.diskCache = diskCache;
+		this.listener = listener;
+		jobs = new ConcurrentHashMap<>();
+	}
+
+	public TileSource getTileSource() {
+		return tileSource;
+	}
+
+	public void setTileSource(TileSource tileSource) {
+		cancelOutstandingJobs();
+		this.tileSource = tileSource;
+	}
+
+	public MemoryTileCache getMemoryCache() {
+		return memoryCache;
+	}
+
+	public DiskTileCache getDiskCache() {
+		return diskCache;
+	}
+
+	/**
+	 * @return the tile, which may still be loading, or {@code null} if the tile does not exist
+	 */
+	public Tile getTile(int x, int y, int zoom) {
+		Tile tile = getCachedTile(x, y, zoom);
+
+		if (tile != null && !tile.isLoaded()) {
+			startLoading(tile);
+		}
+
+		return tile;
+	}
+
+	/**
+	 * @return a future, that completes when the tile is loaded, or {@code null} if the tile does not
+	 *         exist. The future is cancelled by {@link #cancelOutstandingJobs()}.
+	 */
+	public CompletableFuture<Tile> loadTile(int x, int y, int zoom) {
+		Tile tile = getCachedTile(x, y, zoom);
+
+		if (tile == null) {
+			return null;
+		}
+
+		return tile.isLoaded() ? CompletableFuture.completedFuture(tile) : startLoading(tile);
+	}
+
+	/**
+	 * Downloads all tiles in the bounding box for all zoom levels from {@code minZoom} to
+	 * {@code maxZoom} into the disk cache. Without disk cache the tiles are loaded into the memory
+	 * cache.
+	 *
+	 * @return a future, that completes when all tiles are loaded
+	 */
+	public CompletableFuture<Void> prefetch(double minLat, double minLon, double maxLat, double maxLon, int minZoom,
+			int maxZoom) {
+		TileSource source = tileSource;
+		OsmMercator mercator = new OsmMercator();
+		int tileSize = source.getTileSize();
+		List<CompletableFuture<?>> futures = new ArrayList<>();
+
+		for (int zoom = Math.max(minZoom, source.getMinZoom()); zoom <= Math.min(maxZoom,
+				source.getMaxZoom()); zoom++) {
+			int minX = (int) Math.floor(mercator.lonToX(minLon, zoom) / tileSize);
+			int maxX = (int) Math.floor(mercator.lonToX(maxLon, zoom) / tileSize);
+			int minY = (int) Math.floor(mercator.latToY(maxLat, zoom) / tileSize);
+			int maxY = (int) Math.floor(mercator.latToY(minLat, zoom) / tileSize);
+
+			for (int x = minX; x <= maxX; x++) {
+				for (int y = minY; y <= maxY; y++) {
+					if (!exists(source, x, y, zoom)) {
+						continue;
+					} else if (diskCache == null) {
+						futures.add(loadTile(x, y, zoom));
+					} else if (!diskCache.contains(getKey(source, x, y, zoom))) {
+						int tileX = x;
+						int tileY = y;
+						int tileZoom = zoom;
+
+						futures.add(CompletableFuture.runAsync(() -> {
+							try {
+								getData(source, tileX, tileY, tileZoom);
+							} catch (IOException e) {
+								logger.log(Level.WARNING, "Tile " + getKey(source, tileX, tileY, tileZoom)
+										+ " could not be prefetched", e);
+							}
+						}, EXECUTOR));
+					}
+				}
+			}
+		}
+
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+	}
+
+	/**
+	 * Cancels the futures of all tiles, that are not loaded yet. Loading of these tiles is restarted
+	 * with the next call of {@link #getTile(int, int, int)} or {@link #loadTile(int, int, int)}.
+	 */
+	public void cancelOutstandingJobs() {
+		for (String key : new ArrayList<>(jobs.keySet())) {
+			CompletableFuture<Tile> future = jobs.remove(key);
+
+			if (future != null) {
+				future.cancel(false);
+			}
+		}
+	}
+
+	private Tile getCachedTile(int x, int y, int zoom) {
+		TileSource source = tileSource;
+
+		if (!exists(source, x, y, zoom)) {
+			return null;
+		}
+
+		synchronized (memoryCache) {
+			Tile tile = memoryCache.getTile(source, x, y, zoom);
+
+			if (tile == null) {
+				tile = new Tile(source, x, y, zoom);
+				memoryCache.addTile(tile);
+			}
+
+			return tile;
+		}
+	}
+
+	private CompletableFuture<Tile> startLoading(Tile tile) {
+		return jobs.computeIfAbsent(tile.getKey(), key -> {
+			CompletableFuture<Tile> future = new CompletableFuture<>();
+
+			EXECUTOR.execute(() -> load(tile, future));
+
+			return future;
+		});
+	}
+
+	private void load(Tile tile, CompletableFuture<Tile> future) {
+		if (future.isDone()) {
+			return;
+		} else if (tile.isLoaded()) {
+			jobs.remove(tile.getKey(), future);
+			future.complete(tile);
+			return;
+		}
+
+		boolean success;
+
+		try {
+			tile.loadImage(new ByteArrayInputStream(
+					getData(tile.getSource(), tile.getXtile(), tile.getYtile(), tile.getZoom())));
+			success = true;
+		} catch (IOException e) {
+			tile.setError(e.getMessage());
+			success = false;
+		}
+
+		tile.setLoaded(true);
+		jobs.remove(tile.getKey(), future);
+		future.complete(tile);
+
+		if (listener != null) {
+			listener.tileLoadingFinished(tile, success);
+		}
+	}
+
+	private byte[] getData(TileSource source, int x, int y, int zoom) throws IOException {
+		String key = getKey(source, x, y, zoom);
+		byte[] data = diskCache != null ? diskCache.get(key) : null;
+
+		if (data != null) {
+			return data;
+		}
+
+		URLConnection connection = new URL(source.getTileUrl(zoom, x, y)).openConnection();
+
+		connection.setConnectTimeout(TIMEOUT);
+		connection.setReadTimeout(TIMEOUT);
+		connection.setRequestProperty("Accept", "text/html, image/png, image/jpeg, image/gif, */*");
+
+		try (InputStream in = connection.getInputStream()) {
+			data = ByteStreams.toByteArray(in);
+		}
+
+		if (diskCache != null && data.length > 0) {
+			try {
+				diskCache.put(key, data);
+			} catch (IOException e) {
+				// The tile was downloaded, so it can be shown even if it cannot be cached.
+				logger.log(Level.WARNING, "Tile " + key + " could not be written to the disk cache", e);
+			}
+		}
+
+		return data;
+	}
+
+	private static boolean exists(TileSource source, int x, int y, int zoom) {
+		int max = 1 << zoom;
+
+		return zoom >= source.getMinZoom() && zoom <= source.getMaxZoom() && x >= 0 && x < max && y >= 0
+				&& y < max;
+	}
+
+	private static String getKey(TileSource source, int x, int y, int zoom) {
+		return DiskTileCache.getKey(source.getId(), x, y, zoom);
+	}
+}
@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.gis.views.canvas.util;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes RGB images as PNG, that are painted in horizontal strips. Only one strip is in memory at a
+ * time and its rows are compressed and written, before the next strip is painted. The image is
+ * therefore painted once for each strip, with the clip set to the strip.
+ */
+public class TiledPngWriter {
+
+	public static final int DEFAULT_STRIP_PIXELS = 1 << 22;
+
+	private static final byte[] SIGNATURE = { (byte) 137, 80, 78, 71, 13, 10, 26, 10 };
+	private static final int CHUNK_SIZE = 1 << 16;
+	private static final byte FILTER_SUB = 1;
+
+	private TiledPngWriter() {
+	}
+
+	/**
+	 * Writes the image in strips of {@link #DEFAULT_STRIP_PIXELS} pixels. The stream is not closed.
+	 *
+	 * @param painter
+	 *            paints the whole image with the origin at the upper left corner of the image
+	 */
+	public static void write(OutputStream out, int width, int height, Consumer<Graphics2D> painter)
+			throws IOException {
+		write(out, width, height, Math.max(DEFAULT_STRIP_PIXELS / Math.max(width, 1), 1), painter);
+	}
+
+	public static void write(OutputStream out, int width, int height, int stripHeight, Consumer<Graphics2D> painter)
+			throws IOException {
+		if (width <= 0 || height <= 0 || stripHeight <= 0) {
+			throw new IllegalArgumentException("Size must be positive: " + width + "x" + height + ", " + stripHeight);
+		}
+
+		BufferedImage strip = new BufferedImage(width, Math.min(stripHeight, height), BufferedImage.TYPE_INT_RGB);
+		ByteArrayOutputStream header = new ByteArrayOutputStream();
+
+		try (DataOutputStream data = new DataOutputStream(header)) {
+			data.writeInt(width);
+			data.writeInt(height);
+			data.writeByte(8);
+			data.writeByte(2);
+			data.writeByte(0);
+			data.writeByte(0);
+			data.writeByte(0);
+		}
+
+		out.write(SIGNATURE);
+		writeChunk(out, "IHDR", header.toByteArray(), header.size());
+
+		Deflater deflater = new Deflater();
+		DeflaterOutputStream compressed = new DeflaterOutputStream(new ChunkOutputStream(out), deflater, CHUNK_SIZE);
+
+		try {
+			writeStrips(compressed, strip, height, painter);
+			compressed.finish();
+			compressed.flush();
+		} finally {
+			deflater.end();
+		}
+
+		writeChunk(out, "IEND", new byte[0], 0);
+		out.flush();
+	}
+
+	private static void writeStrips(OutputStream compressed, BufferedImage strip, int height,
+			Consumer<Graphics2D> painter) throws IOException {
+		int width = strip.getWidth();
+		int[] pixels = ((DataBufferInt) strip.getRaster().getDataBuffer()).getData();
+		byte[] row = new byte[1 + 3 * width];
+
+		for (int y0 = 0; y0 < height; y0 += strip.getHeight()) {
+			int rows = Math.min(strip.getHeight(), height - y0);
+			Graphics2D g = strip.createGraphics();
+
+			Arrays.fill(pixels, 0);
+			g.translate(0, -y0);
+			g.clipRect(0, y0, width, rows);
+			painter.accept(g);
+			g.dispose();
+
+			for (int y = 0; y < rows; y++) {
+				int offset = y * width;
+				int previous = 0;
+
+				row[0] = FILTER_SUB;
+
+				for (int x = 0; x < width; x++) {
+					int rgb = pixels[offset + x];
+
+					row[1 + 3 * x] = (byte) ((rgb >> 16) - (previous >> 16));
+					row[2 + 3 * x] = (byte) ((rgb >> 8) - (previous >> 8));
+					row[3 + 3 * x] = (byte) (rgb - previous);
+					previous = rgb;
+				}
+
+				compressed.write(row);
+			}
+		}
+	}
+
+	private static void writeChunk(OutputStream out, String type, byte[] data, int length) throws IOException {
+		byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+		CRC32 crc = new CRC32();
+
+		crc.update(typeBytes);
+		crc.update(data, 0, length);
+
+		DataOutputStream chunk = new DataOutputStream(out);
+
+		chunk.writeInt(length);
+		chunk.write(typeBytes);
+		chunk.write(data, 0, length);
+		chunk.writeInt((int) crc.getValue());
+		chunk.flush();
+	}
+
+	/**
+	 * Splits the compressed image data into IDAT chunks.
+	 */
+	private static class ChunkOutputStream extends OutputStream {
+
+		private OutputStream out;
+		private byte[] buffer;
+		private int size;
+
+		public ChunkOutputStream(OutputStream out) {
+			this.out = out;
+			buffer = new byte[CHUNK_SIZE];
+			size = 0;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (size == buffer.length) {
+				flush();
+			}
+
+			buffer[size++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			while (len > 0) {
+				if (size == buffer.length) {
+					flush();
+				}
+
+				int n = Math.min(len, buffer.length - size);
+
+				System.arraycopy(b, off, buffer, size, n);
+				size += n;
+				off += n;
+				len -= n;
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (size > 0) {
+				writeChunk(out, "IDAT", buffer, size);
+				size = 0;
+			}
+		}
+	}
+}
@@ -23,9 +23,11 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import de.bund.bfr.knime.network.analyzer.BetweennessAnalyzerTypeTest;
 import de.bund.bfr.knime.network.analyzer.ClosenessAnalyzerTypeTest;
+import de.bund.bfr.knime.network.analyzer.HarmonicAnalyzerTypeTest;
 
 @RunWith(Suite.class)
-@SuiteClasses({ ClosenessAnalyzerTypeTest.class })
+@SuiteClasses({ BetweennessAnalyzerTypeTest.class, ClosenessAnalyzerTypeTest.class, HarmonicAnalyzerTypeTest.class })
 public class AllNetworkTests {
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.network.analyzer;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.network.core.core.exception.PersistenceException;
+
+public class BetweennessAnalyzerTypeTest {
+
+	private TestNetwork network;
+
+	@Before
+	public void setUp() throws PersistenceException {
+		network = new TestNetwork();
+	}
+
+	@Test
+	public void testWithoutWeights() throws PersistenceException, CanceledExecutionException {
+		network.setEdgeWeights(1.0, 1.0, 1.0, 1.0, 1.0, 1.0);
+
+		assertArrayEquals(new double[] { 7.0, 0.0, 1.0, 0.0, 0.0 },
+				network.analyze(new BetweennessAnalyzerType()), 0.0);
+	}
+
+	@Test
+	public void testWithWeights() throws PersistenceException, CanceledExecutionException {
+		network.setEdgeWeights(2.0, 2.0, 2.0, 2.0, 1.0, 1.0);
+
+		assertArrayEquals(new double[] { 6.0, 0.0, 2.0, 0.0, 0.0 },
+				network.analyze(new BetweennessAnalyzerType()), 0.0);
+	}
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.network.analyzer;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.network.core.api.GraphObjectIterator;
+import org.knime.network.core.api.KPartiteGraphView;
+import org.knime.network.core.api.Partition;
+import org.knime.network.core.api.PersistentObject;
+import org.knime.network.core.core.exception.PersistenceException;
+import org.mockito.Mockito;
+
+/**
+ * Mocked network with the nodes n1, ..., n5, on which the analyzers are tested. n1 is connected to
+ * all other nodes and the edges e23 and e34 connect n2 with n3 and n3 with n4.
+ */
+class TestNetwork {
+
+	private KPartiteGraphView<PersistentObject, Partition> view;
+
+	private PersistentObject[] nodes;
+	private PersistentObject[] edges;
+
+	@SuppressWarnings("unchecked")
+	public TestNetwork() throws PersistenceException {
+		PersistentObject n1 = () -> "n1";
+		PersistentObject n2 = () -> "n2";
+		PersistentObject n3 = () -> "n3";
+		PersistentObject n4 = () -> "n4";
+		PersistentObject n5 = () -> "n5";
+		PersistentObject e12 = () -> "e12";
+		PersistentObject e13 = () -> "e13";
+		PersistentObject e14 = () -> "e14";
+		PersistentObject e15 = () -> "e15";
+		PersistentObject e23 = () -> "e23";
+		PersistentObject e34 = () -> "e34";
+
+		view = Mockito.mock(KPartiteGraphView.class);
+		nodes = new PersistentObject[] { n1, n2, n3, n4, n5 };
+		edges = new PersistentObject[] { e12, e13, e14, e15, e23, e34 };
+
+		Mockito.when(view.getNoOfNodes()).thenReturn((long) nodes.length);
+		Mockito.when(view.getNoOfEdges()).thenReturn((long) edges.length);
+		Mockito.when(view.getNodes()).thenAnswer(invocation -> asIterator(nodes));
+		Mockito.when(view.getEdges()).thenAnswer(invocation -> asIterator(edges));
+
+		Mockito.when(view.getIncidentNodes(e12)).thenReturn(Arrays.asList(n1, n2));
+		Mockito.when(view.getIncidentNodes(e13)).thenReturn(Arrays.asList(n1, n3));
+		Mockito.when(view.getIncidentNodes(e14)).thenReturn(Arrays.asList(n1, n4));
+		Mockito.when(view.getIncidentNodes(e15)).thenReturn(Arrays.asList(n1, n5));
+		Mockito.when(view.getIncidentNodes(e23)).thenReturn(Arrays.asList(n2, n3));
+		Mockito.when(view.getIncidentNodes(e34)).thenReturn(Arrays.asList(n3, n4));
+
+		Mockito.when(view.getOutgoingEdges(n1)).thenReturn(Arrays.asList(e12, e13, e14, e15));
+		Mockito.when(view.getOutgoingEdges(n2)).thenReturn(Arrays.asList(e12, e23));
+		Mockito.when(view.getOutgoingEdges(n3)).thenReturn(Arrays.asList(e13, e23, e34));
+		Mockito.when(view.getOutgoingEdges(n4)).thenReturn(Arrays.asList(e14, e34));
+		Mockito.when(view.getOutgoingEdges(n5)).thenReturn(Arrays.asList(e15));
+	}
+
+	/**
+	 * Sets the weights of the edges e12, e13, e14, e15, e23 and e34.
+	 */
+	public void setEdgeWeights(double... weights) throws PersistenceException {
+		for (int i = 0; i < edges.length; i++) {
+			Mockito.when(view.getEdgeWeight(edges[i])).thenReturn(weights[i]);
+		}
+	}
+
+	/**
+	 * @return the values of the analyzer for n1, ..., n5
+	 */
+	public double[] analyze(ShortestPathAnalyzerType analyzer)
+			throws PersistenceException, CanceledExecutionException {
+		double[] values = new double[nodes.length];
+
+		analyzer.initializeInternal(view, new ExecutionMonitor());
+
+		for (int i = 0; i < nodes.length; i++) {
+			values[i] = analyzer.numericAnalyzeInternal(new ExecutionMonitor(), view, nodes[i])[0];
+		}
+
+		return values;
+	}
+
+	private static GraphObjectIterator<PersistentObject> asIterator(PersistentObject... objects) {
+		Iterator<PersistentObject> it = Arrays.asList(objects).iterator();
+
+		return new GraphObjectIterator<PersistentObject>() {
+
+			@Override
+			public boolean hasNext() {
+				return it.hasNext();
+			}
+
+			@Override
+			public PersistentObject next() {
+				return it.next();
+			}
+
+			@Override
+			public Iterator<PersistentObject> iterator() {
+				return it;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+}
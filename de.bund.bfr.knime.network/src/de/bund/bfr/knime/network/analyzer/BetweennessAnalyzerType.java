@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.network.analyzer;
+
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+
+/**
+ * Number of shortest paths between other nodes, that pass through a node (Brandes' algorithm).
+ * Paths are counted for every ordered pair of source and target, so in an undirected network
+ * each path is counted twice.
+ */
+public class BetweennessAnalyzerType extends ShortestPathAnalyzerType {
+
+	private static final String ID = "Betweenness";
+	private static final String NAME = "Betweenness Centrality (BfR)";
+
+	public BetweennessAnalyzerType() {
+		super(ID, NAME);
+	}
+
+	@Override
+	double[] computeValues(NetworkIndex index, ExecutionMonitor exec) throws CanceledExecutionException {
+		int nodeCount = index.getNodeCount();
+		double[] values = new double[nodeCount];
+
+		for (double[] workerValues : index.computeFromAllSources(exec, () -> new double[nodeCount],
+				(paths, source, result) -> paths.addDependencies(result))) {
+			for (int i = 0; i < nodeCount; i++) {
+				values[i] += workerValues[i];
+			}
+		}
+
+		return values;
+	}
+}
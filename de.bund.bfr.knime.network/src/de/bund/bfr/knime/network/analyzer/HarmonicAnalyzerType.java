@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.network.analyzer;
+
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+
+/**
+ * Sum of the inverse distances to all other nodes. Unlike closeness, nodes that cannot be reached
+ * simply do not contribute.
+ */
+public class HarmonicAnalyzerType extends ShortestPathAnalyzerType {
+
+	private static final String ID = "Harmonic";
+	private static final String NAME = "Harmonic Centrality (BfR)";
+
+	public HarmonicAnalyzerType() {
+		super(ID, NAME);
+	}
+
+	@Override
+	double[] computeValues(NetworkIndex index, ExecutionMonitor exec) throws CanceledExecutionException {
+		double[] values = new double[index.getNodeCount()];
+
+		index.computeFromAllSources(exec, () -> values, (paths, source, result) -> {
+			double inverseDistanceSum = 0.0;
+
+			for (int i = 1; i < paths.getReachedCount(); i++) {
+				double distance = paths.getDistance(paths.getReached(i));
+
+				if (distance > 0.0) {
+					inverseDistanceSum += 1.0 / distance;
+				}
+			}
+
+			result[source] = inverseDistanceSum;
+		});
+
+		return values;
+	}
+}
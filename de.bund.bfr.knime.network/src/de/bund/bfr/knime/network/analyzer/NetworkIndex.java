@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.network.analyzer;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+
+/**
+ * Nodes of a network indexed by int. The arcs leaving and entering each node are stored in
+ * compressed arrays, so that shortest paths can be computed without maps and sets of ids.
+ */
+class NetworkIndex {
+
+	private Map<String, Integer> nodeIndices;
+	private int[] outgoingStarts;
+	private int[] outgoingTargets;
+	private double[] outgoingWeights;
+	private int[] incomingStarts;
+	private int[] incomingSources;
+	private double[] incomingWeights;
+
+	private NetworkIndex(Builder builder) {
+		int nodeCount = builder.nodeIndices.size();
+		int arcCount = builder.arcCount;
+		boolean weighted = false;
+
+		for (int i = 0; i < arcCount; i++) {
+			if (builder.arcWeights[i] != 1.0) {
+				weighted = true;
+				break;
+			}
+		}
+
+		nodeIndices = builder.nodeIndices;
+		outgoingStarts = new int[nodeCount + 1];
+		outgoingTargets = new int[arcCount];
+		outgoingWeights = weighted ? new double[arcCount] : null;
+		incomingStarts = new int[nodeCount + 1];
+		incomingSources = new int[arcCount];
+		incomingWeights = weighted ? new double[arcCount] : null;
+
+		for (int i = 0; i < arcCount; i++) {
+			outgoingStarts[builder.arcSources[i] + 1]++;
+			incomingStarts[builder.arcTargets[i] + 1]++;
+		}
+
+		for (int i = 0; i < nodeCount; i++) {
+			outgoingStarts[i + 1] += outgoingStarts[i];
+			incomingStarts[i + 1] += incomingStarts[i];
+		}
+
+		int[] outgoingPositions = Arrays.copyOf(outgoingStarts, nodeCount);
+		int[] incomingPositions = Arrays.copyOf(incomingStarts, nodeCount);
+
+		for (int i = 0; i < arcCount; i++) {
+			int outgoing = outgoingPositions[builder.arcSources[i]]++;
+			int incoming = incomingPositions[builder.arcTargets[i]]++;
+
+			outgoingTargets[outgoing] = builder.arcTargets[i];
+			incomingSources[incoming] = builder.arcSources[i];
+
+			if (weighted) {
+				outgoingWeights[outgoing] = builder.arcWeights[i];
+				incomingWeights[incoming] = builder.arcWeights[i];
+			}
+		}
+	}
+
+	public int getNodeCount() {
+		return nodeIndices.size();
+	}
+
+	/**
+	 * @return the index of the node or -1 if the node is not part of the network
+	 */
+	public int getNodeIndex(String id) {
+		Integer index = nodeIndices.get(id);
+
+		return index != null ? index : -1;
+	}
+
+	public boolean isWeighted() {
+		return outgoingWeights != null;
+	}
+
+	int[] getOutgoingStarts() {
+		return outgoingStarts;
+	}
+
+	int[] getOutgoingTargets() {
+		return outgoingTargets;
+	}
+
+	double[] getOutgoingWeights() {
+		return outgoingWeights;
+	}
+
+	int[] getIncomingStarts() {
+		return incomingStarts;
+	}
+
+	int[] getIncomingSources() {
+		return incomingSources;
+	}
+
+	double[] getIncomingWeights() {
+		return incomingWeights;
+	}
+
+	/**
+	 * Computes the shortest paths from every node of the network. The sources are distributed over
+	 * all available processors. Each worker creates one result with {@code resultFactory}, which is
+	 * passed to {@code task} together with the shortest paths of each source the worker computed.
+	 *
+	 * @return the results of all workers
+	 */
+	public <T> List<T> computeFromAllSources(ExecutionMonitor exec, Supplier<T> resultFactory, SourceTask<T> task)
+			throws CanceledExecutionException {
+		int nodeCount = getNodeCount();
+		int workerCount = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), nodeCount));
+		AtomicInteger nextSource = new AtomicInteger();
+		AtomicBoolean canceled = new AtomicBoolean();
+		List<T> results = IntStream.range(0, workerCount).parallel().mapToObj(worker -> {
+			ShortestPaths paths = new ShortestPaths(this);
+			T result = resultFactory.get();
+			int source;
+
+			while (!canceled.get() && (source = nextSource.getAndIncrement()) < nodeCount) {
+				paths.compute(source);
+				task.compute(paths, source, result);
+
+				try {
+					exec.checkCanceled();
+					exec.setProgress((double) source / (double) nodeCount);
+				} catch (CanceledExecutionException e) {
+					canceled.set(true);
+				}
+			}
+
+			return result;
+		}).collect(Collectors.toList());
+
+		if (canceled.get()) {
+			throw new CanceledExecutionException();
+		}
+
+		return results;
+	}
+
+	public static interface SourceTask<T> {
+
+		void compute(ShortestPaths paths, int source, T result);
+	}
+
+	public static class Builder {
+
+		private Map<String, Integer> nodeIndices;
+		private int arcCount;
+		private int[] arcSources;
+		private int[] arcTargets;
+		private double[] arcWeights;
+
+		public Builder() {
+			this(0, 0);
+		}
+
+		/**
+		 * Creates a builder with room for the expected number of nodes and arcs, so that it does
+		 * not need to grow while the network is added.
+		 */
+		public Builder(int expectedNodes, int expectedArcs) {
+			int arcCapacity = Math.max(expectedArcs, 16);
+
+			nodeIndices = new LinkedHashMap<>(Math.max(expectedNodes * 4 / 3 + 1, 16));
+			arcCount = 0;
+			arcSources = new int[arcCapacity];
+			arcTargets = new int[arcCapacity];
+			arcWeights = new double[arcCapacity];
+		}
+
+		/**
+		 * Adds the node, if it is not already part of the network.
+		 *
+		 * @return the index of the node
+		 */
+		public int addNode(String id) {
+			return nodeIndices.computeIfAbsent(id, i -> nodeIndices.size());
+		}
+
+		/**
+		 * Adds an arc between two nodes returned by {@link #addNode(String)}.
+		 */
+		public void addArc(int source, int target, double weight) {
+			if (arcCount == arcSources.length) {
+				int length = arcCount + (arcCount >> 1);
+
+				arcSources = Arrays.copyOf(arcSources, length);
+				arcTargets = Arrays.copyOf(arcTargets, length);
+				arcWeights = Arrays.copyOf(arcWeights, length);
+			}
+
+			arcSources[arcCount] = source;
+			arcTargets[arcCount] = target;
+			arcWeights[arcCount] = weight;
+			arcCount++;
+		}
+
+		public NetworkIndex build() {
+			return new NetworkIndex(this);
+		}
+	}
+}
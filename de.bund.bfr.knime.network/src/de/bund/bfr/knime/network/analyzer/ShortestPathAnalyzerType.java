@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.network.analyzer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.knime.core.data.DataType;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.network.core.analyzer.Analyzer;
+import org.knime.network.core.analyzer.AnalyzerType;
+import org.knime.network.core.analyzer.NumericAnalyzer;
+import org.knime.network.core.api.GraphObjectIterator;
+import org.knime.network.core.api.GraphObjectType;
+import org.knime.network.core.api.KPartiteGraphView;
+import org.knime.network.core.api.Partition;
+import org.knime.network.core.api.PersistentObject;
+import org.knime.network.core.core.exception.PersistenceException;
+
+/**
+ * Base class for node centralities based on shortest paths. The network is indexed once in
+ * {@link #initializeInternal}. The values of all nodes are computed in parallel, when the first
+ * node is analyzed.
+ */
+public abstract class ShortestPathAnalyzerType extends NumericAnalyzer<PersistentObject>
+		implements AnalyzerType<PersistentObject> {
+
+	private String id;
+	private String name;
+
+	private NetworkIndex index;
+	private double[] values;
+
+	protected ShortestPathAnalyzerType(String id, String name) {
+		super(new String[] { id });
+		this.id = id;
+		this.name = name;
+		index = null;
+		values = null;
+	}
+
+	@Override
+	protected void initializeInternal(KPartiteGraphView<PersistentObject, Partition> view, ExecutionMonitor exec)
+			throws PersistenceException, CanceledExecutionException {
+		super.initializeInternal(view, exec);
+
+		int edgeCount = (int) view.getNoOfEdges();
+		// Each edge is an outgoing edge of both of its nodes and becomes two arcs.
+		NetworkIndex.Builder builder = new NetworkIndex.Builder((int) view.getNoOfNodes(), 2 * edgeCount);
+		Map<String, int[]> incidentNodes = new HashMap<>(edgeCount * 4 / 3 + 1);
+		Map<String, Double> edgeWeights = new HashMap<>(edgeCount * 4 / 3 + 1);
+
+		for (PersistentObject edge : view.getEdges()) {
+			incidentNodes.put(edge.getId(),
+					view.getIncidentNodes(edge).stream().mapToInt(o -> builder.addNode(o.getId())).toArray());
+			edgeWeights.put(edge.getId(), view.getEdgeWeight(edge));
+		}
+
+		for (PersistentObject node : view.getNodes()) {
+			int source = builder.addNode(node.getId());
+
+			for (PersistentObject edge : view.getOutgoingEdges(node)) {
+				for (int target : incidentNodes.get(edge.getId())) {
+					if (target != source) {
+						builder.addArc(source, target, edgeWeights.get(edge.getId()));
+					}
+				}
+			}
+		}
+
+		index = builder.build();
+		values = null;
+	}
+
+	@Override
+	protected double[] numericAnalyzeInternal(ExecutionMonitor exec,
+			KPartiteGraphView<PersistentObject, Partition> view, PersistentObject object)
+			throws PersistenceException, CanceledExecutionException {
+		return new double[] { getValues(exec)[index.getNodeIndex(object.getId())] };
+	}
+
+	@Override
+	protected GraphObjectIterator<PersistentObject> getGraphObjectIterator(
+			KPartiteGraphView<PersistentObject, Partition> view) throws PersistenceException {
+		return view.getNodes();
+	}
+
+	/**
+	 * @return the centralities of all nodes, by node index
+	 */
+	abstract double[] computeValues(NetworkIndex index, ExecutionMonitor exec) throws CanceledExecutionException;
+
+	private synchronized double[] getValues(ExecutionMonitor exec) throws CanceledExecutionException {
+		if (values == null) {
+			values = computeValues(index, exec);
+		}
+
+		return values;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String getToolTip() {
+		return name;
+	}
+
+	@Override
+	public boolean getDefaultSelected() {
+		return false;
+	}
+
+	@Override
+	public Analyzer<PersistentObject> getAnalyzer() {
+		return this;
+	}
+
+	@Override
+	public String getId() {
+		return id;
+	}
+
+	@Override
+	public GraphObjectType getTargetType() {
+		return GraphObjectType.NODE;
+	}
+
+	@Override
+	public Analyzer<PersistentObject> createInstance() {
+		return this;
+	}
+
+	@Override
+	public String[] getColumnNames() {
+		return new String[] { id };
+	}
+
+	@Override
+	public DataType[] getDataTypes() {
+		return new DataType[] { DoubleCell.TYPE };
+	}
+
+	@Override
+	public AnalyzerType<PersistentObject> getType() {
+		return this;
+	}
+}
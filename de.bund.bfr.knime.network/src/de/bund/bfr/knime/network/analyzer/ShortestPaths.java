@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.network.analyzer;
+
+import java.util.Arrays;
+
+/**
+ * Shortest paths from one source in a {@link NetworkIndex}. Unweighted networks are searched
+ * breadth first, weighted networks with Dijkstra's algorithm on a binary heap. An instance can be
+ * reused for many sources, but must not be shared between threads.
+ */
+class ShortestPaths {
+
+	private NetworkIndex index;
+
+	private double[] distances;
+	private double[] pathCounts;
+	private double[] dependencies;
+	private int[] order;
+	private int reachedCount;
+
+	private int[] heap;
+	private int[] heapPositions;
+	private int heapSize;
+
+	public ShortestPaths(NetworkIndex index) {
+		int nodeCount = index.getNodeCount();
+
+		this.index = index;
+		distances = new double[nodeCount];
+		pathCounts = new double[nodeCount];
+		dependencies = new double[nodeCount];
+		order = new int[nodeCount];
+		reachedCount = 0;
+		Arrays.fill(distances, Double.POSITIVE_INFINITY);
+
+		if (index.isWeighted()) {
+			heap = new int[nodeCount];
+			heapPositions = new int[nodeCount];
+			heapSize = 0;
+			Arrays.fill(heapPositions, -1);
+		}
+	}
+
+	public void compute(int source) {
+		for (int i = 0; i < reachedCount; i++) {
+			distances[order[i]] = Double.POSITIVE_INFINITY;
+			pathCounts[order[i]] = 0.0;
+		}
+
+		reachedCount = 0;
+		distances[source] = 0.0;
+		pathCounts[source] = 1.0;
+
+		if (index.isWeighted()) {
+			computeWithWeights(source);
+		} else {
+			computeWithoutWeights(source);
+		}
+	}
+
+	/**
+	 * @return number of nodes reachable from the source, including the source
+	 */
+	public int getReachedCount() {
+		return reachedCount;
+	}
+
+	/**
+	 * @return the i-th reached node in order of non-decreasing distance. The 0-th node is the
+	 *         source.
+	 */
+	public int getReached(int i) {
+		return order[i];
+	}
+
+	public double getDistance(int node) {
+		return distances[node];
+	}
+
+	/**
+	 * Adds the dependencies of the source on every other reached node to {@code centralities}
+	 * (Brandes' algorithm).
+	 */
+	public void addDependencies(double[] centralities) {
+		int[] starts = index.getIncomingStarts();
+		int[] sources = index.getIncomingSources();
+		double[] weights = index.getIncomingWeights();
+
+		for (int i = reachedCount - 1; i > 0; i--) {
+			int node = order[i];
+			double factor = (1.0 + dependencies[node]) / pathCounts[node];
+
+			for (int j = starts[node]; j < starts[node + 1]; j++) {
+				int predecessor = sources[j];
+				double weight = weights != null ? weights[j] : 1.0;
+
+				if (distances[predecessor] + weight == distances[node]) {
+					dependencies[predecessor] += pathCounts[predecessor] * factor;
+				}
+			}
+
+			centralities[node] += dependencies[node];
+			dependencies[node] = 0.0;
+		}
+
+		dependencies[order[0]] = 0.0;
+	}
+
+	private void computeWithoutWeights(int source) {
+		int[] starts = index.getOutgoingStarts();
+		int[] targets = index.getOutgoingTargets();
+
+		order[reachedCount++] = source;
+
+		for (int i = 0; i < reachedCount; i++) {
+			int node = order[i];
+			double targetDistance = distances[node] + 1.0;
+
+			for (int j = starts[node]; j < starts[node + 1]; j++) {
+				int target = targets[j];
+
+				if (distances[target] == Double.POSITIVE_INFINITY) {
+					distances[target] = targetDistance;
+					order[reachedCount++] = target;
+				}
+
+				if (distances[target] == targetDistance) {
+					pathCounts[target] += pathCounts[node];
+				}
+			}
+		}
+	}
+
+	private void computeWithWeights(int source) {
+		int[] starts = index.getOutgoingStarts();
+		int[] targets = index.getOutgoingTargets();
+		double[] weights = index.getOutgoingWeights();
+
+		push(source);
+
+		while (heapSize > 0) {
+			int node = pop();
+
+			order[reachedCount++] = node;
+
+			for (int j = starts[node]; j < starts[node + 1]; j++) {
+				int target = targets[j];
+				double targetDistance = distances[node] + weights[j];
+
+				if (targetDistance < distances[target]) {
+					boolean queued = distances[target] != Double.POSITIVE_INFINITY;
+
+					distances[target] = targetDistance;
+					pathCounts[target] = pathCounts[node];
+
+					if (queued) {
+						siftUp(heapPositions[target]);
+					} else {
+						push(target);
+					}
+				} else if (targetDistance == distances[target] && heapPositions[target] != -1) {
+					pathCounts[target] += pathCounts[node];
+				}
+			}
+		}
+	}
+
+	private void push(int node) {
+		heap[heapSize] = node;
+		heapPositions[node] = heapSize;
+		siftUp(heapSize++);
+	}
+
+	private int pop() {
+		int node = heap[0];
+
+		heapPositions[node] = -1;
+		heapSize--;
+
+		if (heapSize > 0) {
+			heap[0] = heap[heapSize];
+			heapPositions[heap[0]] = 0;
+			siftDown(0);
+		}
+
+		return node;
+	}
+
+	private void siftUp(int position) {
+		int node = heap[position];
+
+		while (position > 0) {
+			int parent = (position - 1) / 2;
+
+			if (distances[heap[parent]] <= distances[node]) {
+				break;
+			}
+
+			heap[position] = heap[parent];
+			heapPositions[heap[position]] = position;
+			position = parent;
+		}
+
+		heap[position] = node;
+		heapPositions[node] = position;
+	}
+
+	private void siftDown(int position) {
+		int node = heap[position];
+
+		while (true) {
+			int child = 2 * position + 1;
+
+			if (child >= heapSize) {
+				break;
+			}
+
+			if (child + 1 < heapSize && distances[heap[child + 1]] < distances[heap[child]]) {
+				child++;
+			}
+
+			if (distances[node] <= distances[heap[child]]) {
+				break;
+			}
+
+			heap[position] = heap[child];
+			heapPositions[heap[position]] = position;
+			position = child;
+		}
+
+		heap[position] = node;
+		heapPositions[node] = position;
+	}
+}
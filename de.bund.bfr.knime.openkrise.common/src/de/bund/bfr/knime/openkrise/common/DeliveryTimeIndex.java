@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.openkrise.common;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Deliveries sorted by their arrival date. For a date the deliveries, that arrive before or at
+ * that date, are a prefix of the sorted deliveries. The prefix is found by binary search, so that
+ * the deliveries, that enter or leave the time window when the date changes, can be determined
+ * without looking at the other deliveries.
+ * <p>
+ * A delivery is in the prefix for a date, if and only if
+ * {@code delivery.isBefore(new Delivery.Builder(...).departure(date).build())} is {@code true}.
+ * Missing months and days of the arrival are treated like in {@link Delivery#isBefore(Delivery)}.
+ */
+public class DeliveryTimeIndex {
+
+	private ImmutableList<String> sortedIds;
+	private long[] sortedKeys;
+	private ImmutableList<String> idsWithoutDate;
+
+	public DeliveryTimeIndex(Collection<Delivery> deliveries) {
+		List<Delivery> withDate = new ArrayList<>();
+		List<String> withoutDate = new ArrayList<>();
+
+		for (Delivery d : deliveries) {
+			if (d.getArrivalYear() != null) {
+				withDate.add(d);
+			} else {
+				withoutDate.add(d.getId());
+			}
+		}
+
+		withDate.sort(Comparator.comparingLong(DeliveryTimeIndex::getArrivalKey));
+		sortedIds = ImmutableList.copyOf(withDate.stream().map(Delivery::getId).iterator());
+		sortedKeys = withDate.stream().mapToLong(DeliveryTimeIndex::getArrivalKey).toArray();
+		idsWithoutDate = ImmutableList.copyOf(withoutDate);
+	}
+
+	/**
+	 * @return the number of deliveries with date, that arrive before or at the date
+	 */
+	public int getPosition(int year, int month, int day) {
+		long key = getKey(year, month, day);
+		int low = 0;
+		int high = sortedKeys.length;
+
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+
+			if (sortedKeys[mid] <= key) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * @return the number of deliveries with date
+	 */
+	public int getSize() {
+		return sortedIds.size();
+	}
+
+	/**
+	 * @return the ids of the deliveries with date from position {@code from} (inclusive) to
+	 *         {@code to} (exclusive) in the order of their arrival
+	 */
+	public List<String> getIds(int from, int to) {
+		return sortedIds.subList(from, to);
+	}
+
+	public List<String> getIdsWithoutDate() {
+		return idsWithoutDate;
+	}
+
+	/**
+	 * Dates are compared field by field in {@link Delivery#isBefore(Delivery)}. A missing month or
+	 * day of the arrival matches every month or day of the compared date, which is the same as
+	 * comparing the first month or day.
+	 */
+	private static long getArrivalKey(Delivery d) {
+		return getKey(d.getArrivalYear(), d.getArrivalMonth() != null ? d.getArrivalMonth() : 1,
+				d.getArrivalMonth() != null && d.getArrivalDay() != null ? d.getArrivalDay() : 1);
+	}
+
+	private static long getKey(long year, long month, long day) {
+		return (year * 100 + month) * 100 + day;
+	}
+}
@@ -26,27 +26,38 @@ import static de.bund.bfr.knime.openkrise.db.generated.public_.Tables.PRODUKTKAT
 import static de.bund.bfr.knime.openkrise.db.generated.public_.Tables.STATION;
 
 import java.sql.Connection;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.SignStyle;
+import java.time.temporal.ChronoField;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Date;
-import java.util.GregorianCalendar;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 
+import org.jooq.Condition;
 import org.jooq.Record;
 import org.jooq.Record1;
 import org.jooq.SQLDialect;
-import org.jooq.Select;
+import org.jooq.SelectJoinStep;
 import org.jooq.impl.DSL;
 
-import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.SetMultimap;
+import com.google.common.primitives.Ints;
 
 public class DeliveryUtils {
 
@@ -57,6 +68,19 @@ public class DeliveryUtils {
 	private static final String INCONSISTENT_DATES = "Dates are inconsistent for following deliveries";
 	private static final String AMOUNTS_INCORRECT = "Amounts might be incorrect";
 
+	private static final int MAX_IN_VALUES = 1000;
+
+	private static final Set<String> UNITS = ImmutableSet.of("kg", "g", "t");
+	private static final Cache<String, Optional<Double>> KG_PER_UNIT = CacheBuilder.newBuilder().maximumSize(10000)
+			.build();
+
+	private static final DateTimeFormatter YEAR_FORMAT = new DateTimeFormatterBuilder()
+			.appendValue(ChronoField.YEAR_OF_ERA, 4, 19, SignStyle.NORMAL).toFormatter();
+	private static final DateTimeFormatter YEAR_MONTH_FORMAT = new DateTimeFormatterBuilder().append(YEAR_FORMAT)
+			.appendLiteral('-').appendValue(ChronoField.MONTH_OF_YEAR, 2).toFormatter();
+	private static final DateTimeFormatter DATE_FORMAT = new DateTimeFormatterBuilder().append(YEAR_MONTH_FORMAT)
+			.appendLiteral('-').appendValue(ChronoField.DAY_OF_MONTH, 2).toFormatter();
+
 	private DeliveryUtils() {
 	}
 
@@ -118,48 +142,14 @@ public class DeliveryUtils {
 			return null;
 		}
 
-		List<String> units = Arrays.asList("kg", "g", "t");
-		String unitPart = null;
-
-		for (String part : Splitter.on(" ").split(unit)) {
-			if (part.matches(".*\\d.*") || units.contains(part.toLowerCase())) {
-				if (unitPart != null) {
-					return null;
-				}
-
-				unitPart = part;
-			}
-		}
-
-		if (unitPart == null) {
-			return null;
-		}
-
-		String numberPart = null;
-		Double factor = null;
-
-		if (unitPart.toLowerCase().endsWith("kg")) {
-			numberPart = unitPart.substring(0, unitPart.length() - 2);
-			factor = 1.0;
-		} else if (unitPart.toLowerCase().endsWith("g")) {
-			numberPart = unitPart.substring(0, unitPart.length() - 1);
-			factor = 0.001;
-		} else if (unitPart.toLowerCase().endsWith("t")) {
-			numberPart = unitPart.substring(0, unitPart.length() - 1);
-			factor = 1000.0;
-		} else {
-			return null;
-		}
+		Optional<Double> kgPerUnit = KG_PER_UNIT.getIfPresent(unit);
 
-		if (numberPart.isEmpty()) {
-			return factor * value;
+		if (kgPerUnit == null) {
+			kgPerUnit = Optional.ofNullable(getKgPerUnit(unit));
+			KG_PER_UNIT.put(unit, kgPerUnit);
 		}
 
-		try {
-			return Double.parseDouble(numberPart) * factor * value;
-		} catch (NumberFormatException e) {
-			return null;
-		}
+		return kgPerUnit.isPresent() ? kgPerUnit.get() * value : null;
 	}
 
 	public static String formatDate(Integer day, Integer month, Integer year) {
@@ -167,14 +157,16 @@ public class DeliveryUtils {
 			return null;
 		}
 
-		Date date = new GregorianCalendar(year, month != null ? month - 1 : 0, day != null ? day : 1).getTime();
+		// Months and days out of range are rolled over like in a lenient GregorianCalendar
+		LocalDate date = LocalDate.of(year, 1, 1).plusMonths(month != null ? month - 1 : 0)
+				.plusDays(day != null ? day - 1 : 0);
 
 		if (month == null) {
-			return new SimpleDateFormat("yyyy").format(date);
+			return YEAR_FORMAT.format(date);
 		} else if (day == null) {
-			return new SimpleDateFormat("yyyy-MM").format(date);
+			return YEAR_MONTH_FORMAT.format(date);
 		} else {
-			return new SimpleDateFormat("yyyy-MM-dd").format(date);
+			return DATE_FORMAT.format(date);
 		}
 	}
 
@@ -187,60 +179,288 @@ public class DeliveryUtils {
 		return Multimaps.asMap(warnings);
 	}
 
+	/**
+	 * Returns the warnings of {@link #getWarnings(Connection)}, that concern the given deliveries or
+	 * other deliveries with the same lot numbers. Only these deliveries and their direct neighbours
+	 * are read from the database.
+	 */
+	public static Map<String, Set<String>> getWarnings(Connection conn, Collection<Integer> deliveryIds) {
+		Set<String> lots = new LinkedHashSet<>();
+
+		for (List<Integer> ids : Iterables.partition(deliveryIds, MAX_IN_VALUES)) {
+			for (Record r : selectDeliveries(conn).where(LIEFERUNGEN.ID.in(ids))) {
+				if (r.getValue(CHARGEN.ID) != null) {
+					lots.add(getLotNumber(r));
+				}
+			}
+		}
+
+		return getWarnings(conn, lots, deliveryIds);
+	}
+
+	/**
+	 * Returns the warnings of {@link #getWarnings(Connection)}, that concern deliveries of the given
+	 * lots. Lots are identified like in {@link Delivery#getLot()}, by their number or by their id if
+	 * they have no number.
+	 */
+	public static Map<String, Set<String>> getLotWarnings(Connection conn, Collection<String> lots) {
+		return getWarnings(conn, lots, Collections.emptySet());
+	}
+
 	public static List<Delivery> getDeliveries(Connection conn, Map<Integer, String> stationIds,
 			Map<Integer, String> deliveryIds, SetMultimap<String, String> warnings) {
 		Map<String, Delivery.Builder> builders = new LinkedHashMap<>();
-		Select<Record> deliverySelect = DSL.using(conn, SQLDialect.HSQLDB).select().from(LIEFERUNGEN)
-				.leftOuterJoin(CHARGEN).on(LIEFERUNGEN.CHARGE.equal(CHARGEN.ID)).leftOuterJoin(PRODUKTKATALOG)
-				.on(CHARGEN.ARTIKEL.equal(PRODUKTKATALOG.ID));
 
-		for (Record r : deliverySelect) {
+		for (Record r : selectDeliveries(conn)) {
+			Delivery.Builder builder = createBuilder(r, stationIds, deliveryIds, warnings);
+
+			if (builder != null) {
+				builders.put(deliveryIds.get(r.getValue(LIEFERUNGEN.ID)), builder);
+			}
+		}
+
+		Map<String, Delivery> deliveries = connectDeliveries(builders,
+				DSL.using(conn, SQLDialect.HSQLDB).select().from(CHARGENVERBINDUNGEN).leftOuterJoin(LIEFERUNGEN)
+						.on(CHARGENVERBINDUNGEN.PRODUKT.equal(LIEFERUNGEN.CHARGE)),
+				deliveryIds, warnings);
+
+		checkDates(deliveries, deliveries.keySet(), warnings);
+		checkAmounts(deliveries, deliveries.keySet(), warnings);
+
+		return new ArrayList<>(deliveries.values());
+	}
+
+	private static Map<String, Set<String>> getWarnings(Connection conn, Collection<String> lots,
+			Collection<Integer> additionalDeliveryIds) {
+		// Deliveries of the lots in scope, their ingredients and the lots they are used in
+		Map<Integer, Record> deliveriesInScope = new TreeMap<>();
+
+		loadDeliveriesOfLots(conn, lots, deliveriesInScope);
+		loadDeliveries(conn, additionalDeliveryIds, deliveriesInScope);
+
+		Map<List<Integer>, Record> links = new LinkedHashMap<>();
+
+		for (List<Integer> part : Iterables.partition(getLotIds(deliveriesInScope.values()), MAX_IN_VALUES)) {
+			addLinks(conn, CHARGENVERBINDUNGEN.PRODUKT.in(part), links);
+		}
+
+		for (List<Integer> part : Iterables.partition(deliveriesInScope.keySet(), MAX_IN_VALUES)) {
+			addLinks(conn, CHARGENVERBINDUNGEN.ZUTAT.in(part), links);
+		}
+
+		Map<Integer, Record> allDeliveries = new TreeMap<>(deliveriesInScope);
+
+		loadDeliveries(conn, getNeighbourIds(links.keySet(), allDeliveries), allDeliveries);
+
+		// The amounts of the next lots depend on the deliveries in scope as well
+		Set<String> nextLots = new LinkedHashSet<>();
+
+		for (Record r : allDeliveries.values()) {
+			if (!deliveriesInScope.containsKey(r.getValue(LIEFERUNGEN.ID)) && r.getValue(CHARGEN.ID) != null) {
+				nextLots.add(getLotNumber(r));
+			}
+		}
+
+		Map<Integer, Record> nextDeliveries = new TreeMap<>();
+
+		loadDeliveriesOfLots(conn, nextLots, nextDeliveries);
+		allDeliveries.putAll(nextDeliveries);
+
+		for (List<Integer> part : Iterables.partition(getLotIds(nextDeliveries.values()), MAX_IN_VALUES)) {
+			addLinks(conn, CHARGENVERBINDUNGEN.PRODUKT.in(part), links);
+		}
+
+		loadDeliveries(conn, getNeighbourIds(links.keySet(), allDeliveries), allDeliveries);
+
+		boolean useSerialAsID = hasUniqueSerials(conn);
+		Map<Integer, String> stationIds = getStationIds(conn, allDeliveries.values(), useSerialAsID);
+		Map<Integer, String> deliveryIds = new LinkedHashMap<>();
+
+		for (Record r : allDeliveries.values()) {
+			deliveryIds.put(r.getValue(LIEFERUNGEN.ID),
+					useSerialAsID ? r.getValue(LIEFERUNGEN.SERIAL) : r.getValue(LIEFERUNGEN.ID).toString());
+		}
+
+		SetMultimap<String, String> warnings = LinkedHashMultimap.create();
+		SetMultimap<String, String> otherWarnings = LinkedHashMultimap.create();
+		Map<String, Delivery.Builder> builders = new LinkedHashMap<>();
+		Set<String> scope = new LinkedHashSet<>();
+		Set<String> amountScope = new LinkedHashSet<>();
+
+		for (Record r : allDeliveries.values()) {
 			Integer id = r.getValue(LIEFERUNGEN.ID);
-			Integer from = r.getValue(PRODUKTKATALOG.STATION);
-			Integer to = r.getValue(LIEFERUNGEN.EMPFÄNGER);
-			boolean invalid = false;
+			boolean inScope = deliveriesInScope.containsKey(id);
+			Delivery.Builder builder = createBuilder(r, stationIds, deliveryIds, inScope ? warnings : otherWarnings);
 
-			if (from == null) {
-				warnings.put(WITHOUT_SUPPLIER, deliveryIds.get(id));
-				invalid = true;
+			if (builder != null) {
+				builders.put(deliveryIds.get(id), builder);
 			}
 
-			if (to == null) {
-				warnings.put(WITHOUT_RECIPIENT, deliveryIds.get(id));
-				invalid = true;
+			if (inScope) {
+				scope.add(deliveryIds.get(id));
 			}
 
-			if (invalid) {
-				continue;
+			if (inScope || nextDeliveries.containsKey(id)) {
+				amountScope.add(deliveryIds.get(id));
 			}
+		}
+
+		Map<String, Delivery> deliveries = connectDeliveries(builders, links.values(), deliveryIds, warnings);
 
-			String lotNumber = r.getValue(CHARGEN.CHARGENNR) != null ? r.getValue(CHARGEN.CHARGENNR)
-					: r.getValue(CHARGEN.ID).toString();
-			Double amountInKg1 = getAmountInKg(r.getValue(LIEFERUNGEN.UNITMENGE), r.getValue(LIEFERUNGEN.UNITEINHEIT));
-			Double amountInKg2 = getAmountInKg(r.getValue(LIEFERUNGEN.NUMPU), r.getValue(LIEFERUNGEN.TYPEPU));
+		checkDates(deliveries, scope, warnings);
+		checkAmounts(deliveries, amountScope, warnings);
+
+		return Multimaps.asMap(warnings);
+	}
+
+	private static SelectJoinStep<Record> selectDeliveries(Connection conn) {
+		return DSL.using(conn, SQLDialect.HSQLDB).select().from(LIEFERUNGEN).leftOuterJoin(CHARGEN)
+				.on(LIEFERUNGEN.CHARGE.equal(CHARGEN.ID)).leftOuterJoin(PRODUKTKATALOG)
+				.on(CHARGEN.ARTIKEL.equal(PRODUKTKATALOG.ID));
+	}
 
-			if (amountInKg1 != null && amountInKg2 != null && !amountInKg1.equals(amountInKg2)) {
-				warnings.put(INCONSISTENT_AMOUNT_DECLARATIONS,
-						id + ": " + amountInKg1 + " kg vs. " + amountInKg2 + " kg");
+	private static void loadDeliveriesOfLots(Connection conn, Collection<String> lots,
+			Map<Integer, Record> deliveries) {
+		Set<String> lotSet = new LinkedHashSet<>(lots);
+
+		for (List<String> part : Iterables.partition(lotSet, MAX_IN_VALUES)) {
+			List<Integer> lotIds = new ArrayList<>();
+
+			for (String lot : part) {
+				Integer lotId = Ints.tryParse(lot);
+
+				if (lotId != null) {
+					lotIds.add(lotId);
+				}
+			}
+
+			for (Record r : selectDeliveries(conn).where(
+					CHARGEN.CHARGENNR.in(part).or(CHARGEN.CHARGENNR.isNull().and(CHARGEN.ID.in(lotIds))))) {
+				if (lotSet.contains(getLotNumber(r))) {
+					deliveries.put(r.getValue(LIEFERUNGEN.ID), r);
+				}
 			}
+		}
+	}
 
-			builders.put(deliveryIds.get(id),
-					new Delivery.Builder(deliveryIds.get(id), stationIds.get(from), stationIds.get(to))
-							.departure(r.getValue(LIEFERUNGEN.DD_YEAR), r.getValue(LIEFERUNGEN.DD_MONTH),
-									r.getValue(LIEFERUNGEN.DD_DAY))
-							.arrival(r.getValue(LIEFERUNGEN.AD_YEAR), r.getValue(LIEFERUNGEN.AD_MONTH),
-									r.getValue(LIEFERUNGEN.AD_DAY))
-							.lot(lotNumber).lotId(r.getValue(CHARGEN.ID).toString())
-							.amount(r.getValue(LIEFERUNGEN.NUMPU), r.getValue(LIEFERUNGEN.TYPEPU),
-									amountInKg1 != null ? amountInKg1 : amountInKg2));
+	private static void loadDeliveries(Connection conn, Collection<Integer> ids, Map<Integer, Record> deliveries) {
+		for (List<Integer> part : Iterables.partition(ids, MAX_IN_VALUES)) {
+			for (Record r : selectDeliveries(conn).where(LIEFERUNGEN.ID.in(part))) {
+				deliveries.put(r.getValue(LIEFERUNGEN.ID), r);
+			}
 		}
+	}
 
+	private static void addLinks(Connection conn, Condition condition, Map<List<Integer>, Record> links) {
+		for (Record r : DSL.using(conn, SQLDialect.HSQLDB).select(CHARGENVERBINDUNGEN.ZUTAT, LIEFERUNGEN.ID)
+				.from(CHARGENVERBINDUNGEN).leftOuterJoin(LIEFERUNGEN)
+				.on(CHARGENVERBINDUNGEN.PRODUKT.equal(LIEFERUNGEN.CHARGE)).where(condition)) {
+			links.put(Arrays.asList(r.getValue(CHARGENVERBINDUNGEN.ZUTAT), r.getValue(LIEFERUNGEN.ID)), r);
+		}
+	}
+
+	private static Set<Integer> getLotIds(Collection<Record> deliveries) {
+		Set<Integer> lotIds = new LinkedHashSet<>();
+
+		for (Record r : deliveries) {
+			if (r.getValue(CHARGEN.ID) != null) {
+				lotIds.add(r.getValue(CHARGEN.ID));
+			}
+		}
+
+		return lotIds;
+	}
+
+	private static Set<Integer> getNeighbourIds(Collection<List<Integer>> links, Map<Integer, Record> deliveries) {
+		Set<Integer> neighbourIds = new LinkedHashSet<>();
+
+		for (List<Integer> link : links) {
+			for (Integer id : link) {
+				if (id != null && !deliveries.containsKey(id)) {
+					neighbourIds.add(id);
+				}
+			}
+		}
+
+		return neighbourIds;
+	}
+
+	private static Map<Integer, String> getStationIds(Connection conn, Collection<Record> deliveries,
+			boolean useSerialAsID) {
+		Set<Integer> ids = new LinkedHashSet<>();
+
+		for (Record r : deliveries) {
+			if (r.getValue(PRODUKTKATALOG.STATION) != null) {
+				ids.add(r.getValue(PRODUKTKATALOG.STATION));
+			}
+
+			if (r.getValue(LIEFERUNGEN.EMPFÄNGER) != null) {
+				ids.add(r.getValue(LIEFERUNGEN.EMPFÄNGER));
+			}
+		}
+
+		Map<Integer, String> stationIds = new LinkedHashMap<>();
+
+		for (List<Integer> part : Iterables.partition(ids, MAX_IN_VALUES)) {
+			for (Record r : DSL.using(conn, SQLDialect.HSQLDB).select(STATION.ID, STATION.SERIAL).from(STATION)
+					.where(STATION.ID.in(part))) {
+				stationIds.put(r.getValue(STATION.ID),
+						useSerialAsID ? r.getValue(STATION.SERIAL) : r.getValue(STATION.ID).toString());
+			}
+		}
+
+		return stationIds;
+	}
+
+	private static String getLotNumber(Record r) {
+		return r.getValue(CHARGEN.CHARGENNR) != null ? r.getValue(CHARGEN.CHARGENNR)
+				: r.getValue(CHARGEN.ID).toString();
+	}
+
+	private static Delivery.Builder createBuilder(Record r, Map<Integer, String> stationIds,
+			Map<Integer, String> deliveryIds, SetMultimap<String, String> warnings) {
+		Integer id = r.getValue(LIEFERUNGEN.ID);
+		Integer from = r.getValue(PRODUKTKATALOG.STATION);
+		Integer to = r.getValue(LIEFERUNGEN.EMPFÄNGER);
+		boolean invalid = false;
+
+		if (from == null) {
+			warnings.put(WITHOUT_SUPPLIER, deliveryIds.get(id));
+			invalid = true;
+		}
+
+		if (to == null) {
+			warnings.put(WITHOUT_RECIPIENT, deliveryIds.get(id));
+			invalid = true;
+		}
+
+		if (invalid) {
+			return null;
+		}
+
+		Double amountInKg1 = getAmountInKg(r.getValue(LIEFERUNGEN.UNITMENGE), r.getValue(LIEFERUNGEN.UNITEINHEIT));
+		Double amountInKg2 = getAmountInKg(r.getValue(LIEFERUNGEN.NUMPU), r.getValue(LIEFERUNGEN.TYPEPU));
+
+		if (amountInKg1 != null && amountInKg2 != null && !amountInKg1.equals(amountInKg2)) {
+			warnings.put(INCONSISTENT_AMOUNT_DECLARATIONS, id + ": " + amountInKg1 + " kg vs. " + amountInKg2 + " kg");
+		}
+
+		return new Delivery.Builder(deliveryIds.get(id), stationIds.get(from), stationIds.get(to))
+				.departure(r.getValue(LIEFERUNGEN.DD_YEAR), r.getValue(LIEFERUNGEN.DD_MONTH),
+						r.getValue(LIEFERUNGEN.DD_DAY))
+				.arrival(r.getValue(LIEFERUNGEN.AD_YEAR), r.getValue(LIEFERUNGEN.AD_MONTH),
+						r.getValue(LIEFERUNGEN.AD_DAY))
+				.lot(getLotNumber(r)).lotId(r.getValue(CHARGEN.ID).toString())
+				.amount(r.getValue(LIEFERUNGEN.NUMPU), r.getValue(LIEFERUNGEN.TYPEPU),
+						amountInKg1 != null ? amountInKg1 : amountInKg2);
+	}
+
+	private static Map<String, Delivery> connectDeliveries(Map<String, Delivery.Builder> builders,
+			Iterable<? extends Record> links, Map<Integer, String> deliveryIds, SetMultimap<String, String> warnings) {
 		SetMultimap<String, String> previousDeliveries = LinkedHashMultimap.create();
 		SetMultimap<String, String> nextDeliveries = LinkedHashMultimap.create();
-		Select<Record> deliveryToDeliverySelect = DSL.using(conn, SQLDialect.HSQLDB).select().from(CHARGENVERBINDUNGEN)
-				.leftOuterJoin(LIEFERUNGEN).on(CHARGENVERBINDUNGEN.PRODUKT.equal(LIEFERUNGEN.CHARGE));
 
-		for (Record r : deliveryToDeliverySelect) {
+		for (Record r : links) {
 			String from = deliveryIds.get(r.getValue(CHARGENVERBINDUNGEN.ZUTAT));
 			String to = deliveryIds.get(r.getValue(LIEFERUNGEN.ID));
 
@@ -262,18 +482,16 @@ public class DeliveryUtils {
 		builders.forEach((id, builder) -> deliveries.put(id,
 				builder.connectedDeliveries(previousDeliveries.get(id), nextDeliveries.get(id)).build()));
 
-		checkDates(deliveries, warnings);
-		checkAmounts(deliveries, warnings);
-
-		return new ArrayList<>(deliveries.values());
+		return deliveries;
 	}
 
-	private static void checkDates(Map<String, Delivery> deliveries, SetMultimap<String, String> warnings) {
+	private static void checkDates(Map<String, Delivery> deliveries, Set<String> scope,
+			SetMultimap<String, String> warnings) {
 		for (Delivery d : deliveries.values()) {
 			for (String nextId : d.getAllNextIds()) {
 				Delivery next = deliveries.get(nextId);
 
-				if (!d.isBefore(next)) {
+				if ((scope.contains(d.getId()) || scope.contains(nextId)) && !d.isBefore(next)) {
 					warnings.put(INCONSISTENT_DATES, "In: \"" + d.getLot() + "\" ("
 							+ formatDate(d.getArrivalDay(), d.getArrivalMonth(), d.getArrivalYear()) + ") vs. Out: \""
 							+ next.getLot() + "\" ("
@@ -284,14 +502,24 @@ public class DeliveryUtils {
 		}
 	}
 
-	private static void checkAmounts(Map<String, Delivery> deliveries, SetMultimap<String, String> warnings) {
+	private static void checkAmounts(Map<String, Delivery> deliveries, Set<String> scope,
+			SetMultimap<String, String> warnings) {
 		SetMultimap<String, Delivery> deliveriesByLot = LinkedHashMultimap.create();
+		Set<String> lotsInScope = new LinkedHashSet<>();
 
 		for (Delivery d : deliveries.values()) {
 			deliveriesByLot.put(d.getLot(), d);
+
+			if (scope.contains(d.getId())) {
+				lotsInScope.add(d.getLot());
+			}
 		}
 
 		for (Map.Entry<String, Set<Delivery>> lot : Multimaps.asMap(deliveriesByLot).entrySet()) {
+			if (!lotsInScope.contains(lot.getKey())) {
+				continue;
+			}
+
 			Set<String> ingredients = new LinkedHashSet<>();
 			Double kgOut = 0.0;
 			Double amountOut = 0.0;
@@ -359,6 +587,79 @@ public class DeliveryUtils {
 		}
 	}
 
+	private static Double getKgPerUnit(String unit) {
+		String unitPart = null;
+
+		for (int start = 0; start <= unit.length();) {
+			int end = unit.indexOf(' ', start);
+
+			if (end == -1) {
+				end = unit.length();
+			}
+
+			String part = unit.substring(start, end);
+
+			if (containsDigit(part) || UNITS.contains(part.toLowerCase())) {
+				if (unitPart != null) {
+					return null;
+				}
+
+				unitPart = part;
+			}
+
+			start = end + 1;
+		}
+
+		if (unitPart == null) {
+			return null;
+		}
+
+		String numberPart = null;
+		double factor;
+
+		if (unitPart.toLowerCase().endsWith("kg")) {
+			numberPart = unitPart.substring(0, unitPart.length() - 2);
+			factor = 1.0;
+		} else if (unitPart.toLowerCase().endsWith("g")) {
+			numberPart = unitPart.substring(0, unitPart.length() - 1);
+			factor = 0.001;
+		} else if (unitPart.toLowerCase().endsWith("t")) {
+			numberPart = unitPart.substring(0, unitPart.length() - 1);
+			factor = 1000.0;
+		} else {
+			return null;
+		}
+
+		if (numberPart.isEmpty()) {
+			return factor;
+		}
+
+		try {
+			return Double.parseDouble(numberPart) * factor;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Same as {@code s.matches(".*\\d.*")}: true, if there is a digit and no line terminator.
+	 */
+	private static boolean containsDigit(String s) {
+		boolean digit = false;
+
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+
+			if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+				return false;
+			} else if (c >= '0' && c <= '9') {
+				digit = true;
+			}
+		}
+
+		return digit;
+	}
+
 	private static boolean areTooDifferent(double amount1, double amount2) {
 		return Math.max(amount1, amount2) > 2.0 * Math.min(amount1, amount2);
 	}
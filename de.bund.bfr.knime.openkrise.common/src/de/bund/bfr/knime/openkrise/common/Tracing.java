@@ -19,10 +19,14 @@
  *******************************************************************************/
 package de.bund.bfr.knime.openkrise.common;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -39,6 +43,9 @@ import com.google.common.collect.Sets;
 
 public class Tracing {
 
+	private static final int WITH_CROSS_CONTAMINATION = 1;
+	private static final int WITHOUT_CROSS_CONTAMINATION = 2;
+
 	private static enum ScoreType {
 		COMBINED {
 			@Override
@@ -84,6 +91,11 @@ public class Tracing {
 	private transient double positiveWeightSum;
 	private transient double negativeWeightSum;
 
+	private transient Boolean crossContaminationGraphTemporalOrder;
+	private transient SetMultimap<String, String> nextDeliveriesWithCrossContamination;
+	private transient SetMultimap<String, String> nextDeliveriesWithoutCrossContamination;
+	private transient boolean crossContaminationGraphHasCycles;
+
 	public Tracing(Collection<Delivery> deliveries) {
 		Set<String> allIds = new LinkedHashSet<>();
 
@@ -130,6 +142,8 @@ public class Tracing {
 	}
 
 	public void setCrossContaminationOfStation(String stationId, boolean enabled) {
+		crossContaminationGraphTemporalOrder = null;
+
 		if (enabled) {
 			ccStations.add(stationId);
 		} else {
@@ -138,6 +152,8 @@ public class Tracing {
 	}
 
 	public void setCrossContaminationOfDelivery(String deliveryId, boolean enabled) {
+		crossContaminationGraphTemporalOrder = null;
+
 		if (enabled) {
 			ccDeliveries.add(deliveryId);
 		} else {
@@ -146,6 +162,8 @@ public class Tracing {
 	}
 
 	public void setKillContaminationOfStation(String stationId, boolean enabled) {
+		crossContaminationGraphTemporalOrder = null;
+
 		if (enabled) {
 			killContaminationStations.add(stationId);
 		} else {
@@ -154,6 +172,8 @@ public class Tracing {
 	}
 
 	public void setKillContaminationOfDelivery(String deliveryId, boolean enabled) {
+		crossContaminationGraphTemporalOrder = null;
+
 		if (enabled) {
 			killContaminationDeliveries.add(deliveryId);
 		} else {
@@ -162,6 +182,7 @@ public class Tracing {
 	}
 
 	public void mergeStations(Set<String> toBeMerged, String mergedStationId) {
+		crossContaminationGraphTemporalOrder = null;
 		toBeMerged.forEach(s -> mergedTo.put(s, mergedStationId));
 	}
 
@@ -178,6 +199,154 @@ public class Tracing {
 		}
 	}
 
+	/**
+	 * Finds the deliveries, that are forward deliveries of {@code deliveryIds} only because of cross
+	 * contamination. The deliveries reachable with and without cross contamination are marked with
+	 * two flags in one traversal. The delivery graphs are kept until the cross or kill
+	 * contamination settings or the merged stations change, so that repeated calls with different
+	 * deliveries only repeat the traversal.
+	 * <p>
+	 * If the delivery graphs contain cycles, the forward deliveries in {@link #getResult(boolean)}
+	 * depend on the order, in which they are computed, and are not always the reachable
+	 * deliveries. In that case the result is computed from two results of
+	 * {@link #getResult(boolean)}, one with and one without cross contamination.
+	 *
+	 * @return the deliveries, that are forward deliveries of {@code deliveryIds} in
+	 *         {@link #getResult(boolean)}, but not if all cross contaminations are disabled
+	 */
+	public Set<String> getForwardDeliveriesByCrossContamination(Collection<String> deliveryIds,
+			boolean enforceTemporalOrder) {
+		if (!Boolean.valueOf(enforceTemporalOrder).equals(crossContaminationGraphTemporalOrder)) {
+			createDeliveryGraph(enforceTemporalOrder, false);
+			nextDeliveriesWithoutCrossContamination = nextDeliveries;
+			createDeliveryGraph(enforceTemporalOrder, true);
+			nextDeliveriesWithCrossContamination = nextDeliveries;
+			crossContaminationGraphHasCycles = hasCycles(nextDeliveriesWithoutCrossContamination)
+					|| hasCycles(nextDeliveriesWithCrossContamination);
+			crossContaminationGraphTemporalOrder = enforceTemporalOrder;
+		}
+
+		if (crossContaminationGraphHasCycles) {
+			return getForwardDeliveriesByCrossContaminationOfResults(deliveryIds, enforceTemporalOrder);
+		}
+
+		Map<String, Integer> flags = new HashMap<>();
+		Deque<String> active = new ArrayDeque<>();
+
+		for (String id : deliveryIds) {
+			visitNextDeliveries(id, WITH_CROSS_CONTAMINATION | WITHOUT_CROSS_CONTAMINATION, flags, active);
+		}
+
+		while (!active.isEmpty()) {
+			String id = active.removeFirst();
+
+			visitNextDeliveries(id, flags.get(id), flags, active);
+		}
+
+		Set<String> result = new LinkedHashSet<>();
+
+		flags.forEach((id, flag) -> {
+			if (flag == WITH_CROSS_CONTAMINATION) {
+				result.add(id);
+			}
+		});
+
+		return result;
+	}
+
+	private Set<String> getForwardDeliveriesByCrossContaminationOfResults(Collection<String> deliveryIds,
+			boolean enforceTemporalOrder) {
+		Result resultWithCC = getResult(enforceTemporalOrder);
+		Set<String> crossContaminationStations = ccStations;
+		Set<String> crossContaminationDeliveries = ccDeliveries;
+		Result resultWithoutCC;
+
+		ccStations = new LinkedHashSet<>();
+		ccDeliveries = new LinkedHashSet<>();
+
+		try {
+			resultWithoutCC = getResult(enforceTemporalOrder);
+		} finally {
+			ccStations = crossContaminationStations;
+			ccDeliveries = crossContaminationDeliveries;
+		}
+
+		Set<String> result = new LinkedHashSet<>();
+
+		deliveryIds.forEach(id -> result.addAll(resultWithCC.getForwardDeliveriesByDelivery().get(id)));
+		deliveryIds.forEach(id -> result.removeAll(resultWithoutCC.getForwardDeliveriesByDelivery().get(id)));
+
+		return result;
+	}
+
+	/**
+	 * @return whether the graph contains a cycle of at least two deliveries. Deliveries, that are
+	 *         their own next delivery, are ignored like in {@link #getForwardDeliveriesOfDelivery}.
+	 */
+	private static boolean hasCycles(SetMultimap<String, String> next) {
+		Set<String> finished = new HashSet<>();
+		Set<String> onPath = new HashSet<>();
+
+		for (String start : next.keySet()) {
+			if (finished.contains(start)) {
+				continue;
+			}
+
+			Deque<String> path = new ArrayDeque<>();
+			Deque<Iterator<String>> iterators = new ArrayDeque<>();
+
+			path.addLast(start);
+			iterators.addLast(next.get(start).iterator());
+			onPath.add(start);
+
+			while (!path.isEmpty()) {
+				String current = path.getLast();
+				Iterator<String> iterator = iterators.getLast();
+
+				if (!iterator.hasNext()) {
+					path.removeLast();
+					iterators.removeLast();
+					onPath.remove(current);
+					finished.add(current);
+					continue;
+				}
+
+				String n = iterator.next();
+
+				if (n.equals(current) || finished.contains(n)) {
+					continue;
+				}
+
+				if (onPath.contains(n)) {
+					return true;
+				}
+
+				path.addLast(n);
+				iterators.addLast(next.get(n).iterator());
+				onPath.add(n);
+			}
+		}
+
+		return false;
+	}
+
+	private void visitNextDeliveries(String id, int flag, Map<String, Integer> flags, Deque<String> active) {
+		for (String next : nextDeliveriesWithCrossContamination.get(id)) {
+			if (next.equals(id)) {
+				continue;
+			}
+
+			int nextFlag = nextDeliveriesWithoutCrossContamination.containsEntry(id, next) ? flag
+					: flag & WITH_CROSS_CONTAMINATION;
+			int oldFlag = flags.getOrDefault(next, 0);
+
+			if ((oldFlag | nextFlag) != oldFlag) {
+				flags.put(next, oldFlag | nextFlag);
+				active.addLast(next);
+			}
+		}
+	}
+
 	private Result getResult(boolean enforceTemporalOrder, boolean ignoreCircularDependencies) throws TracingException {
 		if (deliveries.isEmpty()) {
 			return new Result();
@@ -194,6 +363,72 @@ public class Tracing {
 			}
 		}
 
+		createDeliveryGraph(enforceTemporalOrder, true);
+
+		backwardDeliveries = new LinkedHashMap<>();
+		forwardDeliveries = new LinkedHashMap<>();
+
+		if (!ignoreCircularDependencies) {
+			checkForCircularDependencies();
+		}
+
+		Result result = new Result();
+
+		for (String s : Sets.union(incomingDeliveries.keySet(), outgoingDeliveries.keySet())) {
+			result.stationScores.put(s, getStationScore(s, ScoreType.COMBINED));
+			result.stationPositiveScores.put(s, getStationScore(s, ScoreType.POSITIVE));
+			result.stationNegativeScores.put(s, getStationScore(s, ScoreType.NEGATIVE));
+			result.forwardStationsByStation.putAll(s, getForwardStationsOfStation(s));
+			result.backwardStationsByStation.putAll(s, getBackwardStationsOfStation(s));
+			result.forwardDeliveriesByStation.putAll(s, getForwardDeliveriesOfStation(s));
+			result.backwardDeliveriesByStation.putAll(s, getBackwardDeliveriesOfStation(s));
+		}
+
+		Multimaps.asMap(stationLots).forEach((station, lots) -> {
+			double max = Double.NEGATIVE_INFINITY;
+
+			for (String lot : lots) {
+				max = Math.max(max, getLotScore(lot, ScoreType.COMBINED));
+			}
+
+			result.maxLotScores.put(station, max);
+		});
+
+		for (String d : deliveries.keySet()) {
+			result.deliveryScores.put(d, getDeliveryScore(d, ScoreType.COMBINED));
+			result.deliveryPositiveScores.put(d, getDeliveryScore(d, ScoreType.POSITIVE));
+			result.deliveryNegativeScores.put(d, getDeliveryScore(d, ScoreType.NEGATIVE));
+			result.forwardStationsByDelivery.putAll(d, getForwardStationsOfDelivery(d));
+			result.backwardStationsByDelivery.putAll(d, getBackwardStationsOfDelivery(d));
+			result.forwardDeliveriesByDelivery.putAll(d, getForwardDeliveriesOfDelivery(d));
+			result.backwardDeliveriesByDelivery.putAll(d, getBackwardDeliveriesOfDelivery(d));
+		}
+
+		Multimaps.asMap(lotDeliveries).forEach((lot, deliveries) -> {
+			for (String d : deliveries) {
+				result.lotScores.put(d, getLotScore(lot, ScoreType.COMBINED));
+			}
+		});
+
+		double maxScore = Math.max(Collections.max(result.stationScores.values()),
+				Collections.max(result.deliveryScores.values()));
+		double minScore = Math.min(Collections.min(result.stationScores.values()),
+				Collections.min(result.deliveryScores.values()));
+		double maxAbs = Math.max(maxScore, -minScore);
+
+		if (maxAbs > 0.0) {
+			result.scoreNormalizer = maxAbs;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Creates the next and previous deliveries of each delivery and the incoming and outgoing
+	 * deliveries of each station. The cross contamination of stations and deliveries is only
+	 * considered, if {@code useCrossContamination} is {@code true}.
+	 */
+	private void createDeliveryGraph(boolean enforceTemporalOrder, boolean useCrossContamination) {
 		suppliers = new LinkedHashMap<>();
 		recipients = new LinkedHashMap<>();
 		previousDeliveries = LinkedHashMultimap.create();
@@ -215,7 +450,10 @@ public class Tracing {
 			outgoingDeliveries.put(supplier, d.getId());
 		}
 
-		for (String station : ccStations) {
+		Set<String> crossContaminationStations = useCrossContamination ? ccStations : Collections.emptySet();
+		Set<String> crossContaminationDeliveries = useCrossContamination ? ccDeliveries : Collections.emptySet();
+
+		for (String station : crossContaminationStations) {
 			for (String in : incomingDeliveries.get(station)) {
 				for (String out : outgoingDeliveries.get(station)) {
 					if (in.equals(out)) {
@@ -230,8 +468,8 @@ public class Tracing {
 			}
 		}
 
-		for (String in1 : ccDeliveries) {
-			for (String in2 : ccDeliveries) {
+		for (String in1 : crossContaminationDeliveries) {
+			for (String in2 : crossContaminationDeliveries) {
 				if (in1.equals(in2) || !recipients.get(in1).equals(recipients.get(in2))) {
 					continue;
 				}
@@ -272,63 +510,6 @@ public class Tracing {
 			nextDeliveries.removeAll(delivery);
 			incomingDeliveries.remove(recipients.get(delivery), delivery);
 		}
-
-		backwardDeliveries = new LinkedHashMap<>();
-		forwardDeliveries = new LinkedHashMap<>();
-
-		if (!ignoreCircularDependencies) {
-			checkForCircularDependencies();
-		}
-
-		Result result = new Result();
-
-		for (String s : Sets.union(incomingDeliveries.keySet(), outgoingDeliveries.keySet())) {
-			result.stationScores.put(s, getStationScore(s, ScoreType.COMBINED));
-			result.stationPositiveScores.put(s, getStationScore(s, ScoreType.POSITIVE));
-			result.stationNegativeScores.put(s, getStationScore(s, ScoreType.NEGATIVE));
-			result.forwardStationsByStation.putAll(s, getForwardStationsOfStation(s));
-			result.backwardStationsByStation.putAll(s, getBackwardStationsOfStation(s));
-			result.forwardDeliveriesByStation.putAll(s, getForwardDeliveriesOfStation(s));
-			result.backwardDeliveriesByStation.putAll(s, getBackwardDeliveriesOfStation(s));
-		}
-
-		Multimaps.asMap(stationLots).forEach((station, lots) -> {
-			double max = Double.NEGATIVE_INFINITY;
-
-			for (String lot : lots) {
-				max = Math.max(max, getLotScore(lot, ScoreType.COMBINED));
-			}
-
-			result.maxLotScores.put(station, max);
-		});
-
-		for (String d : deliveries.keySet()) {
-			result.deliveryScores.put(d, getDeliveryScore(d, ScoreType.COMBINED));
-			result.deliveryPositiveScores.put(d, getDeliveryScore(d, ScoreType.POSITIVE));
-			result.deliveryNegativeScores.put(d, getDeliveryScore(d, ScoreType.NEGATIVE));
-			result.forwardStationsByDelivery.putAll(d, getForwardStationsOfDelivery(d));
-			result.backwardStationsByDelivery.putAll(d, getBackwardStationsOfDelivery(d));
-			result.forwardDeliveriesByDelivery.putAll(d, getForwardDeliveriesOfDelivery(d));
-			result.backwardDeliveriesByDelivery.putAll(d, getBackwardDeliveriesOfDelivery(d));
-		}
-
-		Multimaps.asMap(lotDeliveries).forEach((lot, deliveries) -> {
-			for (String d : deliveries) {
-				result.lotScores.put(d, getLotScore(lot, ScoreType.COMBINED));
-			}
-		});
-
-		double maxScore = Math.max(Collections.max(result.stationScores.values()),
-				Collections.max(result.deliveryScores.values()));
-		double minScore = Math.min(Collections.min(result.stationScores.values()),
-				Collections.min(result.deliveryScores.values()));
-		double maxAbs = Math.max(maxScore, -minScore);
-
-		if (maxAbs > 0.0) {
-			result.scoreNormalizer = maxAbs;
-		}
-
-		return result;
 	}
 
 	private void checkForCircularDependencies() throws TracingException {
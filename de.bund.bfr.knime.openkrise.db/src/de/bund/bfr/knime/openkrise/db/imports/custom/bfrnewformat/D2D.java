@@ -57,6 +57,9 @@ public class D2D {
 	public void addFlexibleField(String key, String value) {
 		flexibles.put(key, value);
 	}
+	public HashMap<String, String> getFlexibles() {
+		return flexibles;
+	}
 	
 	public void getId(Integer miDbId, MyDBI mydbi) throws Exception {
 		if (ingredient != null && targetDelivery != null) getId(ingredient.getDbId(), targetDelivery.getLot().getDbId(), miDbId, mydbi);
@@ -0,0 +1,657 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.openkrise.db.imports.custom.bfrnewformat;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.bund.bfr.knime.openkrise.db.MyDBI;
+
+/**
+ * Writes stations, products, lots, deliveries and delivery links of one import into the database.
+ * Existing rows are loaded once into hash indices, so duplicates are resolved in memory with the
+ * same matching rules as {@link Station#getID}, {@link Product#getID}, {@link Lot#getID},
+ * {@link Delivery#getID} and {@link D2D#getId}. All inserts and updates are sent as prepared
+ * statement batches in a single transaction by {@link #flush()}.
+ */
+class DbBatchWriter {
+
+	private static final int BATCH_SIZE = 5000;
+
+	private static final String[] STATION_COLUMNS = { "Name", "Strasse", "Hausnummer", "PLZ", "Ort", "District",
+			"Bundesland", "Land", "Betriebsart", "Serial", "Adresse" };
+	private static final int STATION_SERIAL = 9;
+	private static final String[] DELIVERY_COLUMNS = { "dd_day", "dd_month", "dd_year", "ad_day", "ad_month",
+			"ad_year", "numPU", "typePU", "Serial" };
+	private static final int DELIVERY_SERIAL = 8;
+
+	private Connection conn;
+	private Integer miDbId;
+
+	private Map<String, List<Object[]>> stationsBySerial = new HashMap<>();
+	private Map<Integer, List<Object[]>> productsByStation = new HashMap<>();
+	private Map<String, Integer> lotsByNumber = new HashMap<>();
+	private Map<String, List<Object[]>> deliveriesByLot = new HashMap<>();
+	private Set<String> deliverySerials = new HashSet<>();
+	private Map<String, Integer> d2ds = new HashMap<>();
+	private Map<String, Set<Integer>> ids = new HashMap<>();
+	private Map<String, Integer> maxIds = new HashMap<>();
+	private Set<String> extraFieldOwners = new HashSet<>();
+
+	private Map<Station, Integer> stationDbIds = new HashMap<>();
+	private Map<Product, Integer> productDbIds = new HashMap<>();
+	private Map<Lot, Integer> lotDbIds = new HashMap<>();
+
+	private List<Object[]> stationInserts = new ArrayList<>();
+	private List<Object[]> productInserts = new ArrayList<>();
+	private List<Object[]> lotInserts = new ArrayList<>();
+	private List<Object[]> deliveryInserts = new ArrayList<>();
+	private List<D2D> d2dInserts = new ArrayList<>();
+	private Map<String, Set<Integer>> importSourceUpdates = new LinkedHashMap<>();
+	private Map<String, Object[]> extraFields = new LinkedHashMap<>();
+
+	public DbBatchWriter(Connection conn, Integer miDbId) {
+		this.conn = conn;
+		this.miDbId = miDbId;
+	}
+
+	public void preload() throws SQLException {
+		try (Statement stmt = conn.createStatement()) {
+			try (ResultSet rs = stmt.executeQuery(select("Station", "ID", STATION_COLUMNS))) {
+				while (rs.next()) {
+					Object[] row = getRow(rs, STATION_COLUMNS.length + 1);
+
+					addId("Station", (Integer) row[0]);
+					add(stationsBySerial, upper(row[STATION_SERIAL + 1]), row);
+				}
+			}
+
+			try (ResultSet rs = stmt.executeQuery(select("Produktkatalog", "ID", "Station", "Bezeichnung"))) {
+				while (rs.next()) {
+					Object[] row = getRow(rs, 3);
+
+					addId("Produktkatalog", (Integer) row[0]);
+					add(productsByStation, (Integer) row[1], row);
+				}
+			}
+
+			try (ResultSet rs = stmt.executeQuery(select("Chargen", "ID", "Artikel", "ChargenNr"))) {
+				while (rs.next()) {
+					Object[] row = getRow(rs, 3);
+
+					addId("Chargen", (Integer) row[0]);
+
+					if (row[2] != null && !lotsByNumber.containsKey(row[1] + "\t" + row[2])) {
+						lotsByNumber.put(row[1] + "\t" + row[2], (Integer) row[0]);
+					}
+				}
+			}
+
+			String[] deliveryColumns = new String[DELIVERY_COLUMNS.length + 2];
+
+			deliveryColumns[0] = "Empfänger";
+			deliveryColumns[1] = "Charge";
+			System.arraycopy(DELIVERY_COLUMNS, 0, deliveryColumns, 2, DELIVERY_COLUMNS.length);
+
+			try (ResultSet rs = stmt.executeQuery(select("Lieferungen", "ID", deliveryColumns))) {
+				while (rs.next()) {
+					Object[] all = getRow(rs, deliveryColumns.length + 1);
+					Object[] row = new Object[DELIVERY_COLUMNS.length + 1];
+
+					row[0] = all[0];
+					System.arraycopy(all, 3, row, 1, DELIVERY_COLUMNS.length);
+					addId("Lieferungen", (Integer) row[0]);
+					add(deliveriesByLot, all[1] + "\t" + all[2], row);
+
+					if (row[DELIVERY_SERIAL + 1] != null) {
+						deliverySerials.add(upper(row[DELIVERY_SERIAL + 1]));
+					}
+				}
+			}
+
+			try (ResultSet rs = stmt.executeQuery(select("ChargenVerbindungen", "ID", "Zutat", "Produkt"))) {
+				while (rs.next()) {
+					Object[] row = getRow(rs, 3);
+
+					if (!d2ds.containsKey(row[1] + "\t" + row[2])) {
+						d2ds.put(row[1] + "\t" + row[2], (Integer) row[0]);
+					}
+				}
+			}
+
+			try (ResultSet rs = stmt.executeQuery("SELECT DISTINCT " + MyDBI.delimitL("tablename") + ","
+					+ MyDBI.delimitL("id") + " FROM " + MyDBI.delimitL("ExtraFields"))) {
+				while (rs.next()) {
+					extraFieldOwners.add(rs.getString(1) + "\t" + rs.getInt(2));
+				}
+			}
+		}
+	}
+
+	public Integer getStationId(Station s) {
+		if (stationDbIds.containsKey(s)) {
+			return stationDbIds.get(s);
+		}
+
+		Object[] values = { s.getName(), s.getStreet(), s.getNumber(), s.getZip(), s.getCity(), s.getDistrict(),
+				s.getState(), s.getCountry(), s.getTypeOfBusiness(), s.getId(), s.getAddress() };
+		Integer result = null;
+
+		if (values[STATION_SERIAL] != null) {
+			result = find(stationsBySerial.get(upper(values[STATION_SERIAL])), values);
+		} else {
+			for (List<Object[]> candidates : stationsBySerial.values()) {
+				if ((result = find(candidates, values)) != null) {
+					break;
+				}
+			}
+		}
+
+		if (result != null) {
+			updateImportSources("Station", result);
+		} else if (s.getDbId() != null && getIds("Station").contains(s.getDbId())) {
+			result = s.getDbId();
+		} else {
+			result = s.getDbId() != null ? s.getDbId() : nextId("Station");
+
+			Object[] row = new Object[STATION_COLUMNS.length + 1];
+			String serial = values[STATION_SERIAL] != null ? (String) values[STATION_SERIAL] : result.toString();
+
+			if (stationsBySerial.containsKey(serial.toUpperCase())) {
+				serial += "_" + result;
+			}
+
+			row[0] = result;
+			System.arraycopy(values, 0, row, 1, values.length);
+			row[STATION_SERIAL + 1] = serial;
+			addId("Station", result);
+			add(stationsBySerial, serial.toUpperCase(), row);
+			stationInserts.add(row);
+		}
+
+		s.setDbId(result);
+		stationDbIds.put(s, result);
+		addExtraFields("Station", result, s.getFlexibles());
+
+		return result;
+	}
+
+	public Integer getProductId(Product p, List<Exception> exceptions) {
+		if (productDbIds.containsKey(p)) {
+			return productDbIds.get(p);
+		}
+
+		Integer result = null;
+
+		if (p.getStation() != null) {
+			Integer stationId = getStationId(p.getStation());
+			Object[] values = { stationId, p.getName() };
+
+			result = find(productsByStation.get(stationId), values);
+
+			if (result != null) {
+				updateImportSources("Produktkatalog", result);
+			} else if (p.getDbId() != null && getIds("Produktkatalog").contains(p.getDbId())) {
+				result = p.getDbId();
+			} else {
+				result = p.getDbId() != null ? p.getDbId() : nextId("Produktkatalog");
+
+				Object[] row = { result, stationId, p.getName() };
+
+				addId("Produktkatalog", result);
+				add(productsByStation, stationId, row);
+				productInserts.add(row);
+				addExtraFields("Produktkatalog", result, p.getFlexibles());
+			}
+
+			p.setDbId(result);
+		}
+
+		productDbIds.put(p, result);
+
+		return result;
+	}
+
+	public Integer getLotId(Lot l, List<Exception> exceptions) {
+		if (lotDbIds.containsKey(l)) {
+			return lotDbIds.get(l);
+		}
+
+		Integer productId = getProductId(l.getProduct(), exceptions);
+
+		if (productId == null) {
+			exceptions.add(new Exception("addendum: Product unknown..."));
+			lotDbIds.put(l, null);
+			return null;
+		}
+
+		String key = productId + "\t" + l.getNumber();
+		Integer result = l.getNumber() != null ? lotsByNumber.get(key) : null;
+
+		if (result != null) {
+			updateImportSources("Chargen", result);
+		} else if (l.getDbId() != null && getIds("Chargen").contains(l.getDbId())) {
+			result = l.getDbId();
+		} else {
+			result = l.getDbId() != null ? l.getDbId() : nextId("Chargen");
+			addId("Chargen", result);
+
+			if (l.getNumber() != null) {
+				lotsByNumber.put(key, result);
+			}
+
+			lotInserts.add(new Object[] { result, productId, l.getNumber(), l.getUnitNumber(), l.getUnitUnit() });
+		}
+
+		l.setDbId(result);
+		lotDbIds.put(l, result);
+		addExtraFields("Chargen", result, l.getFlexibles());
+
+		return result;
+	}
+
+	public Integer getDeliveryId(Delivery d, List<Exception> exceptions) {
+		if (d.getReceiver() == null) {
+			exceptions.add(new Exception("addendum: Receiver unknown..."));
+			return null;
+		}
+
+		Integer receiverId = getStationId(d.getReceiver());
+		Integer lotId = d.getLot() != null ? getLotId(d.getLot(), exceptions) : null;
+
+		if (lotId == null) {
+			exceptions.add(new Exception("addendum: Lot unknown..."));
+			return null;
+		}
+
+		Object[] values = { d.getDepartureDay(), d.getDepartureMonth(), d.getDepartureYear(), d.getArrivalDay(),
+				d.getArrivalMonth(), d.getArrivalYear(), d.getUnitNumber(), d.getUnitUnit(), d.getId() };
+		String key = receiverId + "\t" + lotId;
+		Integer result = find(deliveriesByLot.get(key), values);
+
+		if (result != null) {
+			updateImportSources("Lieferungen", result);
+		} else if (d.getDbId() != null && getIds("Lieferungen").contains(d.getDbId())) {
+			result = d.getDbId();
+		} else {
+			result = d.getDbId() != null ? d.getDbId() : nextId("Lieferungen");
+
+			Object[] row = new Object[DELIVERY_COLUMNS.length + 1];
+			String serial = values[DELIVERY_SERIAL] != null ? (String) values[DELIVERY_SERIAL] : result.toString();
+
+			if (deliverySerials.contains(serial.toUpperCase())) {
+				serial += "_" + result;
+			}
+
+			row[0] = result;
+			System.arraycopy(values, 0, row, 1, values.length);
+			row[DELIVERY_SERIAL + 1] = serial;
+			addId("Lieferungen", result);
+			add(deliveriesByLot, key, row);
+			deliverySerials.add(serial.toUpperCase());
+			deliveryInserts.add(new Object[] { result, lotId, receiverId, row });
+		}
+
+		d.setDbId(result);
+		addExtraFields("Lieferungen", result, d.getFlexibles());
+
+		return result;
+	}
+
+	public void addD2D(D2D dl) {
+		if (dl.getIngredient() == null || dl.getTargetDelivery() == null
+				|| dl.getIngredient().getDbId() == null || dl.getTargetDelivery().getLot().getDbId() == null) {
+			return;
+		}
+
+		String key = dl.getIngredient().getDbId() + "\t" + dl.getTargetDelivery().getLot().getDbId();
+		Integer result = d2ds.get(key);
+
+		if (result != null) {
+			updateImportSources("ChargenVerbindungen", result);
+		} else if (!d2ds.containsKey(key)) {
+			d2ds.put(key, null);
+			d2dInserts.add(dl);
+		}
+	}
+
+	public void flush() throws SQLException {
+		boolean autoCommit = conn.getAutoCommit();
+
+		conn.setAutoCommit(false);
+
+		try {
+			executeInserts("Station", STATION_COLUMNS, stationInserts, new int[] { Types.VARCHAR });
+			executeInserts("Produktkatalog", new String[] { "Station", "Bezeichnung" }, productInserts,
+					new int[] { Types.INTEGER, Types.VARCHAR });
+			executeInserts("Chargen", new String[] { "Artikel", "ChargenNr", "Menge", "Einheit" }, lotInserts,
+					new int[] { Types.INTEGER, Types.VARCHAR, Types.DOUBLE, Types.VARCHAR });
+			executeDeliveryInserts();
+			executeD2DInserts();
+			executeExtraFields();
+			executeImportSourceUpdates();
+			conn.commit();
+		} catch (SQLException e) {
+			conn.rollback();
+			throw e;
+		} finally {
+			conn.setAutoCommit(autoCommit);
+		}
+	}
+
+	private void executeInserts(String table, String[] columns, List<Object[]> rows, int[] types)
+			throws SQLException {
+		try (PreparedStatement ps = conn.prepareStatement(insert(table, columns))) {
+			int n = 0;
+
+			for (Object[] row : rows) {
+				ps.setInt(1, (Integer) row[0]);
+
+				for (int i = 0; i < columns.length; i++) {
+					set(ps, i + 2, row[i + 1], types[Math.min(i, types.length - 1)]);
+				}
+
+				ps.setString(columns.length + 2, ";" + miDbId + ";");
+				ps.addBatch();
+
+				if (++n % BATCH_SIZE == 0) {
+					ps.executeBatch();
+				}
+			}
+
+			if (n % BATCH_SIZE != 0) {
+				ps.executeBatch();
+			}
+		}
+	}
+
+	private void executeDeliveryInserts() throws SQLException {
+		String[] columns = new String[DELIVERY_COLUMNS.length + 2];
+
+		columns[0] = "Charge";
+		columns[1] = "Empfänger";
+		System.arraycopy(DELIVERY_COLUMNS, 0, columns, 2, DELIVERY_COLUMNS.length);
+
+		try (PreparedStatement ps = conn.prepareStatement(insert("Lieferungen", columns))) {
+			int n = 0;
+
+			for (Object[] insert : deliveryInserts) {
+				Object[] row = (Object[]) insert[3];
+
+				ps.setInt(1, (Integer) insert[0]);
+				ps.setInt(2, (Integer) insert[1]);
+				ps.setInt(3, (Integer) insert[2]);
+
+				for (int i = 0; i < DELIVERY_COLUMNS.length; i++) {
+					set(ps, i + 4, row[i + 1], i < 6 ? Types.INTEGER : (i == 6 ? Types.DOUBLE : Types.VARCHAR));
+				}
+
+				ps.setString(columns.length + 2, ";" + miDbId + ";");
+				ps.addBatch();
+
+				if (++n % BATCH_SIZE == 0) {
+					ps.executeBatch();
+				}
+			}
+
+			if (n % BATCH_SIZE != 0) {
+				ps.executeBatch();
+			}
+		}
+	}
+
+	private void executeD2DInserts() throws SQLException {
+		String sql = "INSERT INTO " + MyDBI.delimitL("ChargenVerbindungen") + " (" + MyDBI.delimitL("Zutat") + ","
+				+ MyDBI.delimitL("Produkt") + "," + MyDBI.delimitL("ImportSources") + ") VALUES (?,?,?)";
+
+		try (PreparedStatement ps = conn.prepareStatement(sql);
+				PreparedStatement psWithKeys = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+			int n = 0;
+
+			for (D2D dl : d2dInserts) {
+				if (dl.getFlexibles().isEmpty()) {
+					setD2D(ps, dl);
+					ps.addBatch();
+
+					if (++n % BATCH_SIZE == 0) {
+						ps.executeBatch();
+					}
+				} else {
+					// the generated id is needed for the extra fields
+					setD2D(psWithKeys, dl);
+					psWithKeys.executeUpdate();
+
+					try (ResultSet rs = psWithKeys.getGeneratedKeys()) {
+						if (rs.next()) {
+							addExtraFields("ChargenVerbindungen", rs.getInt(1), dl.getFlexibles());
+						}
+					}
+				}
+			}
+
+			if (n % BATCH_SIZE != 0) {
+				ps.executeBatch();
+			}
+		}
+	}
+
+	private void executeExtraFields() throws SQLException {
+		String delete = "DELETE FROM " + MyDBI.delimitL("ExtraFields") + " WHERE " + MyDBI.delimitL("tablename")
+				+ "=? AND " + MyDBI.delimitL("id") + "=? AND " + MyDBI.delimitL("attribute") + "=?";
+		String insert = "INSERT INTO " + MyDBI.delimitL("ExtraFields") + " (" + MyDBI.delimitL("tablename") + ","
+				+ MyDBI.delimitL("id") + "," + MyDBI.delimitL("attribute") + "," + MyDBI.delimitL("value")
+				+ ") VALUES (?,?,?,?)";
+
+		try (PreparedStatement psDelete = conn.prepareStatement(delete);
+				PreparedStatement psInsert = conn.prepareStatement(insert)) {
+			int n = 0;
+
+			for (Object[] field : extraFields.values()) {
+				if (extraFieldOwners.contains(field[0] + "\t" + field[1])) {
+					psDelete.setString(1, (String) field[0]);
+					psDelete.setInt(2, (Integer) field[1]);
+					psDelete.setString(3, (String) field[2]);
+					psDelete.addBatch();
+					n++;
+				}
+			}
+
+			if (n > 0) {
+				psDelete.executeBatch();
+			}
+
+			n = 0;
+
+			for (Object[] field : extraFields.values()) {
+				psInsert.setString(1, (String) field[0]);
+				psInsert.setInt(2, (Integer) field[1]);
+				psInsert.setString(3, (String) field[2]);
+				psInsert.setString(4, (String) field[3]);
+				psInsert.addBatch();
+
+				if (++n % BATCH_SIZE == 0) {
+					psInsert.executeBatch();
+				}
+			}
+
+			if (n % BATCH_SIZE != 0) {
+				psInsert.executeBatch();
+			}
+		}
+	}
+
+	private void executeImportSourceUpdates() throws SQLException {
+		for (Map.Entry<String, Set<Integer>> entry : importSourceUpdates.entrySet()) {
+			if (entry.getValue().isEmpty()) {
+				continue;
+			}
+
+			String sql = "UPDATE " + MyDBI.delimitL(entry.getKey()) + " SET " + MyDBI.delimitL("ImportSources")
+					+ "=CASEWHEN(INSTR(';" + miDbId + ";'," + MyDBI.delimitL("ImportSources") + ")=0,CONCAT("
+					+ MyDBI.delimitL("ImportSources") + ", '" + miDbId + ";'), " + MyDBI.delimitL("ImportSources")
+					+ ") WHERE " + MyDBI.delimitL("ID") + "=?";
+
+			try (PreparedStatement ps = conn.prepareStatement(sql)) {
+				for (Integer id : entry.getValue()) {
+					ps.setInt(1, id);
+					ps.addBatch();
+				}
+
+				ps.executeBatch();
+			}
+		}
+	}
+
+	private void setD2D(PreparedStatement ps, D2D dl) throws SQLException {
+		ps.setInt(1, dl.getIngredient().getDbId());
+		ps.setInt(2, dl.getTargetDelivery().getLot().getDbId());
+		ps.setString(3, ";" + miDbId + ";");
+	}
+
+	private void updateImportSources(String table, Integer id) {
+		importSourceUpdates.computeIfAbsent(table, t -> new LinkedHashSet<>()).add(id);
+	}
+
+	private void addExtraFields(String table, Integer id, Map<String, String> flexibles) {
+		for (Map.Entry<String, String> es : flexibles.entrySet()) {
+			if (es.getValue() != null && !es.getValue().trim().isEmpty()) {
+				extraFields.put(table + "\t" + id + "\t" + es.getKey(),
+						new Object[] { table, id, es.getKey(), es.getValue() });
+			}
+		}
+	}
+
+	private Set<Integer> getIds(String table) {
+		return ids.computeIfAbsent(table, t -> new HashSet<>());
+	}
+
+	private void addId(String table, Integer id) {
+		getIds(table).add(id);
+
+		if (id != null && (!maxIds.containsKey(table) || maxIds.get(table) < id)) {
+			maxIds.put(table, id);
+		}
+	}
+
+	private Integer nextId(String table) {
+		return maxIds.containsKey(table) ? maxIds.get(table) + 1 : 1;
+	}
+
+	/**
+	 * Returns the id of the first row, whose columns are equal to all non-null values. Strings are
+	 * compared case-insensitive, like the {@code UCASE} comparisons of the single-row lookups.
+	 */
+	private static Integer find(List<Object[]> candidates, Object[] values) {
+		if (candidates == null) {
+			return null;
+		}
+
+		for (Object[] row : candidates) {
+			boolean matches = true;
+
+			for (int i = 0; i < values.length && matches; i++) {
+				if (values[i] != null) {
+					matches = equal(values[i], row[i + 1]);
+				}
+			}
+
+			if (matches) {
+				return (Integer) row[0];
+			}
+		}
+
+		return null;
+	}
+
+	private static boolean equal(Object value, Object dbValue) {
+		if (dbValue == null) {
+			return false;
+		} else if (value instanceof String) {
+			return ((String) value).toUpperCase().equals(dbValue.toString().toUpperCase());
+		} else if (value instanceof Number && dbValue instanceof Number) {
+			return ((Number) value).doubleValue() == ((Number) dbValue).doubleValue();
+		}
+
+		return value.equals(dbValue);
+	}
+
+	private static <K> void add(Map<K, List<Object[]>> index, K key, Object[] row) {
+		index.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+	}
+
+	private static String upper(Object value) {
+		return value != null ? value.toString().toUpperCase() : null;
+	}
+
+	private static Object[] getRow(ResultSet rs, int columns) throws SQLException {
+		Object[] row = new Object[columns];
+
+		for (int i = 0; i < columns; i++) {
+			row[i] = rs.getObject(i + 1);
+		}
+
+		row[0] = rs.getInt(1);
+
+		return row;
+	}
+
+	private static void set(PreparedStatement ps, int index, Object value, int type) throws SQLException {
+		if (value == null) {
+			ps.setNull(index, type);
+		} else {
+			ps.setObject(index, value, type);
+		}
+	}
+
+	private static String select(String table, String first, String... columns) {
+		String sql = "SELECT " + MyDBI.delimitL(first);
+
+		for (String c : columns) {
+			sql += "," + MyDBI.delimitL(c);
+		}
+
+		return sql + " FROM " + MyDBI.delimitL(table) + " ORDER BY " + MyDBI.delimitL("ID");
+	}
+
+	private static String insert(String table, String[] columns) {
+		String in = MyDBI.delimitL("ID");
+		String iv = "?";
+
+		for (String c : columns) {
+			in += "," + MyDBI.delimitL(c);
+			iv += ",?";
+		}
+
+		return "INSERT INTO " + MyDBI.delimitL(table) + " (" + in + "," + MyDBI.delimitL("ImportSources")
+				+ ") VALUES (" + iv + ",?)";
+	}
+}
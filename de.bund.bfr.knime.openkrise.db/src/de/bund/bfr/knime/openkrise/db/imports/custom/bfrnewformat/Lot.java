@@ -43,6 +43,9 @@ public class Lot {
 		if (flexibles.containsKey(key)) return flexibles.get(key);
 		else return null;
 	}
+	public HashMap<String, String> getFlexibles() {
+		return flexibles;
+	}
 	private HashSet<String> inDeliveries = new HashSet<>();
 	private List<Exception> exceptions = new ArrayList<>();
 	private Integer id;
@@ -42,6 +42,9 @@ public class Product {
 		if (flexibles.containsKey(key)) return flexibles.get(key);
 		else return null;
 	}
+	public HashMap<String, String> getFlexibles() {
+		return flexibles;
+	}
 	private Integer id;
 
 	public Integer getId() {
@@ -42,6 +42,9 @@ public class Station {
 		if (flexibles.containsKey(key)) return flexibles.get(key);
 		else return null;
 	}
+	public HashMap<String, String> getFlexibles() {
+		return flexibles;
+	}
 
 	private List<Exception> exceptions = new ArrayList<>();
 
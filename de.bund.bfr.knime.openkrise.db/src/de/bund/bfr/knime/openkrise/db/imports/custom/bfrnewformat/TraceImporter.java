@@ -27,6 +27,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -56,6 +58,7 @@ import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.ss.util.NumberToTextConverter;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.xml.sax.SAXException;
 
 import com.gisgraphy.addressparser.Address;
 import com.gisgraphy.addressparser.StructuredAddressQuery;
@@ -80,6 +83,7 @@ public class TraceImporter extends FileFilter implements MyImporter {
 	private String logWarnings = "";
 	private Map<String, Set<String>> warns = new HashMap<>();
 	private Map<String, Set<String>> warnsBeforeImport = new HashMap<>();
+	private Set<String> importedLots = null;
 	private DateFormat df = DateFormat.getDateInstance(DateFormat.MEDIUM, Locale.getDefault());
 	
 	public Map<String, Set<String>> getLastWarnings() {
@@ -98,34 +102,28 @@ public class TraceImporter extends FileFilter implements MyImporter {
 		int numRows = businessSheet.getLastRowNum() + 1;
 		for (int i=1;i<numRows;i++) {
 			Row row = businessSheet.getRow(i);
-			if (row != null) {
-				Cell cell = row.getCell(0); // ID
-				Cell cell1 = row.getCell(1); // Name
-				if ((cell == null || cell.getCellType() == Cell.CELL_TYPE_BLANK) && (cell1 == null || cell1.getCellType() == Cell.CELL_TYPE_BLANK)) return;
-				if (cell == null || cell.getCellType() == Cell.CELL_TYPE_BLANK) exceptions.add(new Exception("Station has no ID -> Row " + (i+1)));
-				cell.setCellType(Cell.CELL_TYPE_STRING);
-				String val = cell.getStringCellValue();
-				if (stationIDs.contains(val)) exceptions.add(new Exception("Station ID '" + val + "' is defined more than once -> Row " + (i+1)));
-				stationIDs.add(val);
-			}
+			if (row != null && !checkStation(exceptions, stationIDs, getValues(row), i)) return;
 		}
 	}
-	private void checkDeliveriesFirst(List<Exception> exceptions, Sheet deliverySheet) {
-		HashSet<String> deliveryIDs = new HashSet<>();
-		int numRows = deliverySheet.getLastRowNum() + 1;
-		for (int i=2;i<numRows;i++) {
-			Row row = deliverySheet.getRow(i);
-			if (row != null) {
-				Cell cell = row.getCell(0); // ID
-				Cell cell1 = row.getCell(1); // Station
-				if ((cell == null || cell.getCellType() == Cell.CELL_TYPE_BLANK) && (cell1 == null || cell1.getCellType() == Cell.CELL_TYPE_BLANK)) return;
-				if (cell == null || cell.getCellType() == Cell.CELL_TYPE_BLANK) exceptions.add(new Exception("Delivery has no ID -> Row " + (i+1)));
-				cell.setCellType(Cell.CELL_TYPE_STRING);
-				String val = cell.getStringCellValue();
-				if (deliveryIDs.contains(val)) exceptions.add(new Exception("Delivery ID '" + val + "' is defined more than once -> Row " + (i+1)));
-				deliveryIDs.add(val);
-			}
+	private boolean checkStation(List<Exception> exceptions, HashSet<String> stationIDs, String[] values, int rowIndex) {
+		String val = getValue(values, 0); // ID
+		if (val == null && getValue(values, 1) == null) return false; // Name
+		if (val == null) exceptions.add(new Exception("Station has no ID -> Row " + (rowIndex+1)));
+		else {
+			if (stationIDs.contains(val)) exceptions.add(new Exception("Station ID '" + val + "' is defined more than once -> Row " + (rowIndex+1)));
+			stationIDs.add(val);
+		}
+		return true;
+	}
+	private boolean checkDelivery(List<Exception> exceptions, HashSet<String> deliveryIDs, String[] values, int rowIndex) {
+		String val = getValue(values, 0); // ID
+		if (val == null && getValue(values, 1) == null) return false; // Station
+		if (val == null) exceptions.add(new Exception("Delivery has no ID -> Row " + (rowIndex+1)));
+		else {
+			if (deliveryIDs.contains(val)) exceptions.add(new Exception("Delivery ID '" + val + "' is defined more than once -> Row " + (rowIndex+1)));
+			deliveryIDs.add(val);
 		}
+		return true;
 	}
 	private void checkTraceDeliveries(List<Exception> exceptions, Sheet deliverySheet, int borderRowBetweenTopAndBottom, boolean isForTracing, boolean isNewFormat_151105) {
 		HashMap<String, HashSet<Row>> deliveryIDs = new HashMap<>();
@@ -209,38 +207,140 @@ public class TraceImporter extends FileFilter implements MyImporter {
 		int numRows = lookupSheet.getLastRowNum() + 1;
 		for (int i=1;i<numRows;i++) {
 			Row row = lookupSheet.getRow(i);
-			if (row != null) {
-				Cell cell = row.getCell(0); // Sampling
-				if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {
-					cell.setCellType(Cell.CELL_TYPE_STRING);
-					lu.addSampling(cell.getStringCellValue());
+			if (row != null) addLookUps(lu, getValues(row));
+		}
+		lu.intoDb(mydbi);
+	}
+	private void loadLookupSheet(XlsxSheetReader reader) throws IOException, SAXException {
+		LookUp lu = new LookUp();
+		reader.readSheet("LookUp", (rowIndex, values) -> {
+			if (rowIndex > 0 && values != null) addLookUps(lu, values);
+			return true;
+		});
+		lu.intoDb(mydbi);
+	}
+	private void addLookUps(LookUp lu, String[] values) {
+		if (getValue(values, 0) != null) lu.addSampling(getValue(values, 0));
+		if (getValue(values, 1) != null) lu.addTypeOfBusiness(getValue(values, 1));
+		if (getValue(values, 2) != null) lu.addTreatment(getValue(values, 2));
+		if (getValue(values, 3) != null) lu.addUnit(getValue(values, 3));
+	}
+	private List<Exception> doTheStreamingImport(XlsxSheetReader reader, String filename) throws IOException, SAXException {
+		List<Exception> exceptions = new ArrayList<>();
+		List<Exception> loadExceptions = new ArrayList<>();
+		boolean hasRecipes = reader.hasSheet("Deliveries2Deliveries");
+		importedLots = new HashSet<>();
+		
+		// check and load all Stations
+		HashMap<String, Station> stations = new HashMap<>();
+		HashSet<String> stationIDs = new HashSet<>();
+		String[][] titleRow = new String[1][];
+		boolean[] checking = {true};
+		boolean[] loading = {true};
+		reader.readSheet("Stations", (rowIndex, values) -> {
+			if (rowIndex == 0) {
+				titleRow[0] = values;
+				return true;
+			}
+			if (checking[0] && values != null) checking[0] = checkStation(exceptions, stationIDs, values, rowIndex);
+			if (loading[0]) {
+				Station s = getStation(titleRow[0], values);
+				if (s == null) loading[0] = false;
+				else {
+					if (stations.containsKey(s.getId())) loadExceptions.add(new Exception("Station defined twice -> Row " + (rowIndex+1) + "; Station Id: '" + s.getId() + "'"));
+					stations.put(s.getId(), s);
+				}
+			}
+			return checking[0] || loading[0];
+		});
+		
+		// check and load all Deliveries
+		HashMap<String, Delivery> deliveries = new HashMap<>();
+		HashSet<String> deliveryIDs = new HashSet<>();
+		HashMap<String,String> definedLots = new HashMap<>();
+		HashMap<String, Integer> deliveryRows = new HashMap<>();
+		titleRow[0] = null;
+		checking[0] = true;
+		loading[0] = true;
+		reader.readSheet("Deliveries", (rowIndex, values) -> {
+			if (rowIndex == 0) titleRow[0] = values;
+			if (rowIndex < 2) return true;
+			if (checking[0] && values != null) checking[0] = checkDelivery(exceptions, deliveryIDs, values, rowIndex);
+			if (loading[0]) {
+				Delivery d = getMultiOutDelivery(loadExceptions, stations, titleRow[0], values, definedLots, rowIndex, filename, hasRecipes);
+				if (d == null) loading[0] = false;
+				else {
+					if (deliveries.containsKey(d.getId())) loadExceptions.add(new Exception("Delivery defined twice -> in Row " + (rowIndex+1) + " and in Row " + deliveryRows.get(d.getId()) + "; Delivery Id: '" + d.getId() + "'"));
+					else deliveryRows.put(d.getId(), rowIndex+1);
+					deliveries.put(d.getId(), d);
 				}
-				cell = row.getCell(1); // TypeOfBusiness
-				if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {
-					cell.setCellType(Cell.CELL_TYPE_STRING);
-					lu.addTypeOfBusiness(cell.getStringCellValue());
+			}
+			return checking[0] || loading[0];
+		});
+		
+		// load Recipes
+		HashSet<D2D> recipes = new HashSet<>();
+		titleRow[0] = null;
+		reader.readSheet("Deliveries2Deliveries", (rowIndex, values) -> {
+			if (rowIndex == 0) {
+				titleRow[0] = values;
+				return true;
+			}
+			D2D dl = getD2D(loadExceptions, deliveries, titleRow[0], values, rowIndex);
+			if (dl == null) return false;
+			recipes.add(dl);
+			return true;
+		});
+		exceptions.addAll(loadExceptions);
+
+		MetaInfo mi = new MetaInfo();
+		mi.setFilename(filename);
+		
+		if (reader.hasSheet("LookUp")) loadLookupSheet(reader);
+		Integer miDbId = null;
+		try {
+			miDbId = mi.getID(mydbi);
+		} catch (Exception e) {
+			exceptions.add(e);
+		}
+		if (miDbId == null) exceptions.add(new Exception("Template already imported"));
+		if (deliveries.size() == 0) {
+			exceptions.add(new Exception("Template contains no deliveries"));
+		}
+		else {
+			// Predefine DB IDs for Format_2017
+			predefineIDs(deliveries.values());
+
+			@SuppressWarnings("resource")
+			Connection conn = (mydbi != null ? mydbi.getConn() : DBKernel.getDBConnection());
+			DbBatchWriter writer = new DbBatchWriter(conn, miDbId);
+			try {
+				writer.preload();
+				for (Delivery d : deliveries.values()) {
+					writer.getDeliveryId(d, exceptions);
 				}
-				cell = row.getCell(2); // Treatment
-				if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {
-					cell.setCellType(Cell.CELL_TYPE_STRING);
-					lu.addTreatment(cell.getStringCellValue());
+				for (D2D dl : recipes) {
+					writer.addD2D(dl);
 				}
-				cell = row.getCell(3); // Units
-				if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {
-					cell.setCellType(Cell.CELL_TYPE_STRING);
-					lu.addUnit(cell.getStringCellValue());
+				for (Delivery d : deliveries.values()) {
+					Lot l = d.getLot();
+					if (l.getNumber() != null) importedLots.add(l.getNumber());
+					else if (l.getDbId() != null) importedLots.add(l.getDbId().toString());
 				}
+				warnsBeforeImport.putAll(getWarnings(conn));
+				writer.flush();
+			} catch (SQLException e) {
+				exceptions.add(e);
 			}
-		}
-		lu.intoDb(mydbi);
+		}			
+
+		return exceptions;
 	}
 	private List<Exception> doTheImport(Workbook wb, String filename) { //  throws Exception
 		List<Exception> exceptions = new ArrayList<>();
 		
 		Sheet stationSheet = wb.getSheet("Stations");
 		if (stationSheet == null) return doTheSimpleImport(wb, filename);
-		Sheet deliverySheet = wb.getSheet("Deliveries");
-		Sheet d2dSheet = wb.getSheet("Deliveries2Deliveries");
 		Sheet transactionSheet = wb.getSheet("BackTracing");
 		Sheet lookupSheet = wb.getSheet("LookUp");
 		Sheet forwardSheet = wb.getSheet("Opt_ForwardTracing");
@@ -252,98 +352,13 @@ public class TraceImporter extends FileFilter implements MyImporter {
 		boolean isForTracing = forSheet != null;
 		if (isForTracing) transactionSheet = forSheet;
 		
-		if (stationSheet == null || transactionSheet == null && deliverySheet == null) {
+		if (transactionSheet == null) {
 			exceptions.add(new Exception("Wrong template format!"));
 			return exceptions;
 		}
 
 		checkStationsFirst(exceptions, stationSheet);
 		
-		if (deliverySheet != null) {
-			checkDeliveriesFirst(exceptions, deliverySheet);
-			// load all Stations
-			HashMap<String, Station> stations = new HashMap<>();
-			int numRows = stationSheet.getLastRowNum() + 1;
-			Row titleRow = stationSheet.getRow(0);
-			for (classRowIndex=1;classRowIndex<numRows;classRowIndex++) {
-				Station s = getStation(titleRow, stationSheet.getRow(classRowIndex));
-				if (s == null) break;
-				if (stations.containsKey(s.getId())) exceptions.add(new Exception("Station defined twice -> Row " + (classRowIndex+1) + "; Station Id: '" + s.getId() + "'"));
-				stations.put(s.getId(), s);
-			}
-			// load all Deliveries
-			HashMap<String, Delivery> deliveries = new HashMap<>();
-			numRows = deliverySheet.getLastRowNum() + 1;
-			titleRow = deliverySheet.getRow(0);
-			HashMap<String,String> definedLots = new HashMap<>();
-			HashMap<String, Integer> deliveryRows = new HashMap<>();
-			for (classRowIndex=2;classRowIndex<numRows;classRowIndex++) {
-				Delivery d = getMultiOutDelivery(exceptions, stations, titleRow, deliverySheet.getRow(classRowIndex), definedLots, classRowIndex, filename, d2dSheet != null);
-				if (d == null) break;
-				if (deliveries.containsKey(d.getId())) exceptions.add(new Exception("Delivery defined twice -> in Row " + (classRowIndex+1) + " and in Row " + deliveryRows.get(d.getId()) + "; Delivery Id: '" + d.getId() + "'"));
-				else deliveryRows.put(d.getId(), classRowIndex+1);
-				deliveries.put(d.getId(), d);
-			}
-			
-			// load Recipes
-			HashSet<D2D> recipes = new HashSet<>();
-			if (d2dSheet != null) {
-				numRows = d2dSheet.getLastRowNum() + 1;
-				titleRow = d2dSheet.getRow(0);
-				for (classRowIndex=1;classRowIndex<numRows;classRowIndex++) {
-					D2D dl = getD2D(exceptions, deliveries, titleRow, d2dSheet.getRow(classRowIndex), classRowIndex);
-					if (dl == null) break;
-					recipes.add(dl);
-				}
-			}
-
-			MetaInfo mi = new MetaInfo();
-			mi.setFilename(filename);
-			
-			if (lookupSheet != null) loadLookupSheet(lookupSheet);
-			Integer miDbId = null;
-			try {
-				miDbId = mi.getID(mydbi);
-			} catch (Exception e) {
-				exceptions.add(e);
-			}
-			if (miDbId == null) exceptions.add(new Exception("Template already imported"));
-			if (deliveries.size() == 0) {
-				exceptions.add(new Exception("Template contains no deliveries"));
-			}
-			else {
-				// Predefine DB IDs for Format_2017
-				predefineIDs(deliveries.values());
-
-				for (Delivery d : deliveries.values()) {
-					try {
-						d.getID(miDbId, false, mydbi);
-					} catch (Exception e) {
-						exceptions.add(e);
-					}
-					//if (!d.getLogMessages().isEmpty()) logMessages += d.getLogMessages() + "\n";
-					if (d.getExceptions().size() > 0) exceptions.addAll(d.getExceptions());
-					
-				}
-				
-				HashMap<Delivery, HashSet<Integer>> ingredients = new HashMap<>(); 
-				for (D2D dl : recipes) {
-					try {
-						dl.getId(miDbId, mydbi);
-					} catch (Exception e) {
-						exceptions.add(e);
-					}
-					
-					// collect data for checks if data is missing...
-					Delivery d = dl.getTargetDelivery();
-					if (!ingredients.containsKey(d)) ingredients.put(d, new HashSet<Integer>());
-					HashSet<Integer> hd = ingredients.get(d);
-					if (dl.getIngredient() != null) hd.add(dl.getIngredient().getDbId());
-				}
-			}			
-
-			return exceptions;
-		}
 		int borderRowLotStart = 0;
 		
 		Row row = transactionSheet.getRow(0);
@@ -1257,44 +1272,51 @@ public class TraceImporter extends FileFilter implements MyImporter {
 		return result;
 	}
 	private Station getStation(Row titleRow, Row row) {
+		return getStation(getValues(titleRow), getValues(row));
+	}
+	private Station getStation(String[] titleRow, String[] row) {
 		if (row == null) return null;
 		Station result = new Station();
-		Cell cell = row.getCell(0);
-		if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {
-			cell.setCellType(Cell.CELL_TYPE_STRING);
-			String id = getStr(cell.getStringCellValue());
-			if (id == null) return null;
-			result.setId(id);
-		}
-		else return null;
-		cell = row.getCell(1); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.setName(getStr(cell.getStringCellValue()));}
-		cell = row.getCell(2); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.setStreet(getStr(cell.getStringCellValue()));}
-		cell = row.getCell(3); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.setNumber(getStr(cell.getStringCellValue()));}
-		cell = row.getCell(4); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.setZip(getStr(cell.getStringCellValue()));}
-		cell = row.getCell(5); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.setCity(getStr(cell.getStringCellValue()));}
-		cell = row.getCell(6); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.setDistrict(getStr(cell.getStringCellValue()));}
-		cell = row.getCell(7); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.setState(getStr(cell.getStringCellValue()));}
-		cell = row.getCell(8); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.setCountry(getStr(cell.getStringCellValue()));}
-		cell = row.getCell(9); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.setTypeOfBusiness(getStr(cell.getStringCellValue()));}
-//		cell = row.getCell(10); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.setLookup(getStr(cell.getStringCellValue()));}
+		String id = getStr(getValue(row, 0));
+		if (id == null) return null;
+		result.setId(id);
+		result.setName(getStr(getValue(row, 1)));
+		result.setStreet(getStr(getValue(row, 2)));
+		result.setNumber(getStr(getValue(row, 3)));
+		result.setZip(getStr(getValue(row, 4)));
+		result.setCity(getStr(getValue(row, 5)));
+		result.setDistrict(getStr(getValue(row, 6)));
+		result.setState(getStr(getValue(row, 7)));
+		result.setCountry(getStr(getValue(row, 8)));
+		result.setTypeOfBusiness(getStr(getValue(row, 9)));
 		
 		// Further flexible cells
 		for (int ii=10;ii<20;ii++) {
-			Cell tCell = titleRow.getCell(ii);
-			if (tCell != null && tCell.getCellType() != Cell.CELL_TYPE_BLANK) {
-				tCell.setCellType(Cell.CELL_TYPE_STRING);
-				cell = row.getCell(ii); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.addFlexibleField(tCell.getStringCellValue(), cell.getStringCellValue());}			
-			}
+			String title = getValue(titleRow, ii);
+			if (title != null && getValue(row, ii) != null) result.addFlexibleField(title, getValue(row, ii));
 		}
 		return result;
 	}
-	private D2D getD2D(List<Exception> exceptions, HashMap<String, Delivery> deliveries, Row titleRow, Row row, int rowNum) {
+	private String[] getValues(Row row) {
+		if (row == null) return null;
+		String[] values = new String[Math.max(row.getLastCellNum(), 0)];
+		for (int i=0;i<values.length;i++) {
+			Cell cell = row.getCell(i);
+			if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {
+				cell.setCellType(Cell.CELL_TYPE_STRING);
+				values[i] = cell.getStringCellValue();
+			}
+		}
+		return values;
+	}
+	private static String getValue(String[] values, int column) {
+		return XlsxSheetReader.getValue(values, column);
+	}
+	private D2D getD2D(List<Exception> exceptions, HashMap<String, Delivery> deliveries, String[] titleRow, String[] row, int rowNum) {
 		if (row == null) return null;
 		D2D result = new D2D();
-		Cell cell = row.getCell(0);
-		if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {
-			cell.setCellType(Cell.CELL_TYPE_STRING);
-			String did = getStr(cell.getStringCellValue());
+		if (getValue(row, 0) != null) {
+			String did = getStr(getValue(row, 0));
 			Delivery d = deliveries.get(did);
 			if (d == null) exceptions.add(new Exception("Delivery ID in sheet Deliveries2Deliveries not defined in deliveries sheet: '" + did + "'; -> Row " + (rowNum+1)));
 			result.setIngredient(d);
@@ -1302,10 +1324,8 @@ public class TraceImporter extends FileFilter implements MyImporter {
 		else {
 			return null;
 		}
-		cell = row.getCell(1);
-		if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {
-			cell.setCellType(Cell.CELL_TYPE_STRING);
-			String did = getStr(cell.getStringCellValue());
+		if (getValue(row, 1) != null) {
+			String did = getStr(getValue(row, 1));
 			Delivery d = deliveries.get(did);
 			if (d == null) exceptions.add(new Exception("Delivery ID in sheet Deliveries2Deliveries not defined in deliveries sheet: '" + did + "'; -> Row " + (rowNum+1)));
 			result.setTargetDelivery(d);
@@ -1321,11 +1341,8 @@ public class TraceImporter extends FileFilter implements MyImporter {
 		
 		// Further flexible cells
 		for (int i=2;i<10;i++) {
-			Cell tCell = titleRow.getCell(i);
-			if (tCell != null && tCell.getCellType() != Cell.CELL_TYPE_BLANK) {
-				tCell.setCellType(Cell.CELL_TYPE_STRING);
-				cell = row.getCell(i); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.addFlexibleField(tCell.getStringCellValue(), cell.getStringCellValue());}			
-			}
+			String title = getValue(titleRow, i);
+			if (title != null && getValue(row, i) != null) result.addFlexibleField(title, getValue(row, i));
 		}
 		return result;
 	}
@@ -1378,15 +1395,13 @@ public class TraceImporter extends FileFilter implements MyImporter {
 		String s = getStr(cell.getStringCellValue());
 		return s;
 	}
-	private Delivery getMultiOutDelivery(List<Exception> exceptions, HashMap<String, Station> stations, Row titleRow, Row row, HashMap<String,String> definedLots,int rowNum, String filename, boolean ignoreMissingLotnumbers) {
+	private Delivery getMultiOutDelivery(List<Exception> exceptions, HashMap<String, Station> stations, String[] titleRow, String[] row, HashMap<String,String> definedLots,int rowNum, String filename, boolean ignoreMissingLotnumbers) {
 		if (row == null) return null;
 		Delivery result = new Delivery();
-		Cell cell = row.getCell(0); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.setId(getStr(cell.getStringCellValue()));}
+		if (getValue(row, 0) != null) result.setId(getStr(getValue(row, 0)));
 		Product p = new Product();
-		cell = row.getCell(1);
-		if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {
-			cell.setCellType(Cell.CELL_TYPE_STRING); 
-			String sid = getStr(cell.getStringCellValue());
+		if (getValue(row, 1) != null) {
+			String sid = getStr(getValue(row, 1));
 			Station s = stations.get(sid);
 			if (s == null) exceptions.add(new Exception("Station ID in Deliveries not defined in stations sheet: '" + sid + "'; -> Row " + (rowNum+1)));
 			p.setStation(s);
@@ -1394,15 +1409,14 @@ public class TraceImporter extends FileFilter implements MyImporter {
 		else {
 			return null;
 		}
-		cell = row.getCell(2); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); p.setName(getStr(cell.getStringCellValue()));}
+		p.setName(getStr(getValue(row, 2)));
 		Lot l = new Lot();
 		l.setProduct(p);
-		cell = row.getCell(3);
-		String str = getStr(cell);
+		String str = getStr(getValue(row, 3));
 		if (str != null) {l.setNumber(str);}
 		else if (!ignoreMissingLotnumbers) {exceptions.add(new Exception("Please, do always provide a lot number as this is most helpful! -> Row " + (rowNum+1) + " in '" + filename + "'\n"));}
-		cell = row.getCell(4); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); l.setUnitNumber(getDbl(cell.getStringCellValue()));}
-		cell = row.getCell(5); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); l.setUnitUnit(getStr(cell.getStringCellValue()));}
+		if (getValue(row, 4) != null) l.setUnitNumber(getDbl(getValue(row, 4)));
+		l.setUnitUnit(getStr(getValue(row, 5)));
 		String lotId = (p.getStation() == null) ? "_" + p.getName() + "_" + l.getNumber() : p.getStation().getId() + "_" + p.getName() + "_" + l.getNumber();
 		String lotInfo = l.getUnitNumber() + "_" + l.getUnitUnit();
 		if (definedLots.containsKey(lotId)) {
@@ -1411,18 +1425,16 @@ public class TraceImporter extends FileFilter implements MyImporter {
 		else definedLots.put(lotId, lotInfo);
 
 		result.setLot(l);
-		cell = row.getCell(6); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.setDepartureDay(getInt(cell.getStringCellValue()));}
-		cell = row.getCell(7); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.setDepartureMonth(getInt(cell.getStringCellValue()));}
-		cell = row.getCell(8); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.setDepartureYear(getInt(cell.getStringCellValue()));}
-		cell = row.getCell(9); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.setArrivalDay(getInt(cell.getStringCellValue()));}
-		cell = row.getCell(10); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.setArrivalMonth(getInt(cell.getStringCellValue()));}
-		cell = row.getCell(11); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.setArrivalYear(getInt(cell.getStringCellValue()));}
-		cell = row.getCell(12); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.setUnitNumber(getDbl(cell.getStringCellValue()));}
-		cell = row.getCell(13); if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {cell.setCellType(Cell.CELL_TYPE_STRING); result.setUnitUnit(getStr(cell.getStringCellValue()));}
-		cell = row.getCell(14);
-		if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {
-			cell.setCellType(Cell.CELL_TYPE_STRING); 
-			String sid = getStr(cell.getStringCellValue());
+		result.setDepartureDay(getInt(getValue(row, 6)));
+		result.setDepartureMonth(getInt(getValue(row, 7)));
+		result.setDepartureYear(getInt(getValue(row, 8)));
+		result.setArrivalDay(getInt(getValue(row, 9)));
+		result.setArrivalMonth(getInt(getValue(row, 10)));
+		result.setArrivalYear(getInt(getValue(row, 11)));
+		if (getValue(row, 12) != null) result.setUnitNumber(getDbl(getValue(row, 12)));
+		result.setUnitUnit(getStr(getValue(row, 13)));
+		if (getValue(row, 14) != null) {
+			String sid = getStr(getValue(row, 14));
 			Station s = stations.get(sid);
 			if (s == null) exceptions.add(new Exception("Recipient ID in sheet Deliveries not defined in stations sheet: '" + sid + "'; -> Row " + (rowNum+1)));
 			result.setReceiver(s);
@@ -1439,16 +1451,10 @@ public class TraceImporter extends FileFilter implements MyImporter {
 		le0.add("Treatment of product during production".toLowerCase());
 		le0.add("Sampling".toLowerCase());
 		for (int i=15;i<25;i++) {
-			Cell tCell = titleRow.getCell(i);
-			if (tCell != null && tCell.getCellType() != Cell.CELL_TYPE_BLANK) {
-				tCell.setCellType(Cell.CELL_TYPE_STRING);
-				String field = tCell.getStringCellValue();
-				cell = row.getCell(i);
-				if (cell != null && cell.getCellType() != Cell.CELL_TYPE_BLANK) {
-					cell.setCellType(Cell.CELL_TYPE_STRING);
-					if (le0.contains(field.toLowerCase())) l.addFlexibleField(field, cell.getStringCellValue());
-					else result.addFlexibleField(field, cell.getStringCellValue());
-				}			
+			String field = getValue(titleRow, i);
+			if (field != null && getValue(row, i) != null) {
+				if (le0.contains(field.toLowerCase())) l.addFlexibleField(field, getValue(row, i));
+				else result.addFlexibleField(field, getValue(row, i));
 			}
 		}
 		return result;
@@ -1700,22 +1706,28 @@ public class TraceImporter extends FileFilter implements MyImporter {
 						//file = new File(filename);
 					}
 
-					// warnsBeforeImport erkennen
 					warnsBeforeImport = new HashMap<>();
-					if (existsDBKernel()) warnsBeforeImport.putAll(de.bund.bfr.knime.openkrise.common.DeliveryUtils.getWarnings(DBKernel.getDBConnection()));
-					else if (mydbi != null) warnsBeforeImport.putAll(de.bund.bfr.knime.openkrise.common.DeliveryUtils.getWarnings(mydbi.getConn()));
+					importedLots = null;
 
+					OPCPackage opcPackage = OPCPackage.open(is);
+					XlsxSheetReader reader = new XlsxSheetReader(opcPackage);
+					boolean isStreamingImport = reader.hasSheet("Stations") && reader.hasSheet("Deliveries");
 
-					XSSFWorkbook wb = new XSSFWorkbook(is);
-					//OPCPackage opcPackage = OPCPackage.open(file.getAbsolutePath());
-					//XSSFWorkbook wb = new XSSFWorkbook(opcPackage);
+					// warnsBeforeImport erkennen (Streaming Import: erst direkt vor dem Schreiben)
+					if (!isStreamingImport) {
+						if (existsDBKernel()) warnsBeforeImport.putAll(getWarnings(DBKernel.getDBConnection()));
+						else if (mydbi != null) warnsBeforeImport.putAll(getWarnings(mydbi.getConn()));
+					}
 
 					Station.reset(); Lot.reset(); Delivery.reset();
 					warns = new HashMap<>();
 					//if (existsDBKernel()) DBKernel.sendRequest("SET AUTOCOMMIT FALSE", false);
 										
 					if (DBKernel.mainFrame != null) DBKernel.mainFrame.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-					List<Exception> exceptions = doTheImport(wb, filename);
+					List<Exception> exceptions;
+					if (isStreamingImport) exceptions = doTheStreamingImport(reader, filename);
+					else exceptions = doTheImport(new XSSFWorkbook(opcPackage), filename);
+					opcPackage.revert();
 					if (DBKernel.mainFrame != null) DBKernel.mainFrame.setCursor(Cursor.getDefaultCursor());
 					//List<Exception> exceptions = doTheSimpleImport(wb, filename);
 					
@@ -1724,10 +1736,10 @@ public class TraceImporter extends FileFilter implements MyImporter {
 						if (existsDBKernel()) {
 							//DBKernel.sendRequest("ROLLBACK", false);
 							//DBKernel.sendRequest("SET AUTOCOMMIT TRUE", false);
-							warns.putAll(de.bund.bfr.knime.openkrise.common.DeliveryUtils.getWarnings(DBKernel.getDBConnection()));
+							warns.putAll(getWarnings(DBKernel.getDBConnection()));
 						}
 						else if (mydbi != null) {
-							warns.putAll(de.bund.bfr.knime.openkrise.common.DeliveryUtils.getWarnings(mydbi.getConn()));
+							warns.putAll(getWarnings(mydbi.getConn()));
 						}
 						doWarns(filename);
 						
@@ -1766,10 +1778,10 @@ public class TraceImporter extends FileFilter implements MyImporter {
 								progress.setVisible(false);
 							}
 							*/
-							warns.putAll(de.bund.bfr.knime.openkrise.common.DeliveryUtils.getWarnings(DBKernel.getDBConnection()));
+							warns.putAll(getWarnings(DBKernel.getDBConnection()));
 						}
 						else if (mydbi != null) {
-							warns.putAll(de.bund.bfr.knime.openkrise.common.DeliveryUtils.getWarnings(mydbi.getConn()));
+							warns.putAll(getWarnings(mydbi.getConn()));
 						}
 						doWarns(filename);
 						is.close();
@@ -1804,6 +1816,10 @@ public class TraceImporter extends FileFilter implements MyImporter {
 		}
 		return importResult;
 	}
+	private Map<String, Set<String>> getWarnings(Connection conn) {
+		if (importedLots != null) return de.bund.bfr.knime.openkrise.common.DeliveryUtils.getLotWarnings(conn, importedLots);
+		return de.bund.bfr.knime.openkrise.common.DeliveryUtils.getWarnings(conn);
+	}
 	private void doWarns(String filename) {
 		if (warns.size() > 0) {
 			String newFileLogs = "";
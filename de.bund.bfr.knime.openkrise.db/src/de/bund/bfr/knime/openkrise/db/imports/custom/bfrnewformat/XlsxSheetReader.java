@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.openkrise.db.imports.custom.bfrnewformat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Reads the sheets of an xlsx file row by row through the SAX event model, without building the
+ * workbook DOM. Cell values are delivered as they would be returned by
+ * {@code cell.setCellType(Cell.CELL_TYPE_STRING); cell.getStringCellValue()}, blank cells as
+ * {@code null}.
+ */
+class XlsxSheetReader {
+
+	interface RowHandler {
+
+		/**
+		 * @param rowIndex
+		 *            zero based row index
+		 * @param values
+		 *            the cell values or {@code null} if the row does not exist
+		 * @return {@code false} to stop reading the sheet
+		 */
+		boolean row(int rowIndex, String[] values);
+	}
+
+	private OPCPackage pkg;
+	private ReadOnlySharedStringsTable sharedStrings;
+	private LinkedHashMap<String, PackagePart> sheets;
+
+	public XlsxSheetReader(OPCPackage pkg) throws IOException, OpenXML4JException, SAXException {
+		this.pkg = pkg;
+
+		XSSFReader reader = new XSSFReader(pkg);
+		XSSFReader.SheetIterator it = (XSSFReader.SheetIterator) reader.getSheetsData();
+
+		sharedStrings = new ReadOnlySharedStringsTable(pkg);
+		sheets = new LinkedHashMap<>();
+
+		while (it.hasNext()) {
+			it.next().close();
+			sheets.put(it.getSheetName(), it.getSheetPart());
+		}
+	}
+
+	public OPCPackage getPackage() {
+		return pkg;
+	}
+
+	public boolean hasSheet(String name) {
+		return sheets.containsKey(name);
+	}
+
+	/**
+	 * Rows missing in the sheet between the first row and the last row passed to the handler are
+	 * reported with {@code null} values, like {@code Sheet.getRow} would return {@code null}.
+	 */
+	public void readSheet(String name, RowHandler handler) throws IOException, SAXException {
+		PackagePart part = sheets.get(name);
+
+		if (part == null) {
+			return;
+		}
+
+		XMLReader parser;
+
+		try {
+			SAXParserFactory factory = SAXParserFactory.newInstance();
+
+			factory.setNamespaceAware(true);
+			parser = factory.newSAXParser().getXMLReader();
+		} catch (ParserConfigurationException e) {
+			throw new SAXException(e);
+		}
+
+		parser.setContentHandler(new SheetHandler(handler));
+
+		try (InputStream in = part.getInputStream()) {
+			parser.parse(new InputSource(in));
+		} catch (StopReadingException e) {
+		}
+	}
+
+	private static class StopReadingException extends SAXException {
+
+		private static final long serialVersionUID = 1L;
+	}
+
+	private class SheetHandler extends DefaultHandler {
+
+		private RowHandler handler;
+		private int nextRowIndex;
+
+		private List<String> rowValues;
+		private int columnIndex;
+		private String cellType;
+		private String cellValue;
+		private StringBuilder text;
+		private boolean inValue;
+		private boolean inInlineText;
+
+		public SheetHandler(RowHandler handler) {
+			this.handler = handler;
+			nextRowIndex = 0;
+			rowValues = new ArrayList<>();
+			text = new StringBuilder();
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes)
+				throws SAXException {
+			switch (localName) {
+			case "row":
+				String r = attributes.getValue("r");
+				int rowIndex = r != null ? Integer.parseInt(r) - 1 : nextRowIndex;
+
+				while (nextRowIndex < rowIndex) {
+					emit(nextRowIndex++, null);
+				}
+
+				rowValues.clear();
+				columnIndex = 0;
+				break;
+			case "c":
+				String ref = attributes.getValue("r");
+
+				if (ref != null) {
+					columnIndex = getColumnIndex(ref);
+				}
+
+				cellType = attributes.getValue("t");
+				cellValue = null;
+				break;
+			case "v":
+				inValue = true;
+				text.setLength(0);
+				break;
+			case "is":
+				text.setLength(0);
+				cellValue = "";
+				break;
+			case "t":
+				inInlineText = "inlineStr".equals(cellType);
+				break;
+			default:
+				break;
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) throws SAXException {
+			switch (localName) {
+			case "v":
+				inValue = false;
+				cellValue = text.toString();
+				break;
+			case "t":
+				if (inInlineText) {
+					cellValue = text.toString();
+				}
+
+				inInlineText = false;
+				break;
+			case "c":
+				while (rowValues.size() <= columnIndex) {
+					rowValues.add(null);
+				}
+
+				rowValues.set(columnIndex, getCellString());
+				columnIndex++;
+				break;
+			case "row":
+				emit(nextRowIndex++, rowValues.toArray(new String[0]));
+				break;
+			default:
+				break;
+			}
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) {
+			if (inValue || inInlineText) {
+				text.append(ch, start, length);
+			}
+		}
+
+		private void emit(int rowIndex, String[] values) throws StopReadingException {
+			if (!handler.row(rowIndex, values)) {
+				throw new StopReadingException();
+			}
+		}
+
+		private String getCellString() {
+			if (cellValue == null) {
+				return null;
+			} else if ("s".equals(cellType)) {
+				return sharedStrings.getEntryAt(Integer.parseInt(cellValue));
+			} else if ("b".equals(cellType)) {
+				return "1".equals(cellValue) ? "TRUE" : "FALSE";
+			}
+
+			return cellValue;
+		}
+	}
+
+	static int getColumnIndex(String cellRef) {
+		int index = 0;
+
+		for (char c : cellRef.toCharArray()) {
+			if (c < 'A' || c > 'Z') {
+				break;
+			}
+
+			index = index * 26 + (c - 'A' + 1);
+		}
+
+		return index - 1;
+	}
+
+	static String getValue(String[] values, int column) {
+		return values != null && column < values.length ? values[column] : null;
+	}
+}
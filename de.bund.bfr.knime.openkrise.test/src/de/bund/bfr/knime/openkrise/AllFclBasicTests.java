@@ -24,6 +24,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({ TracingTest.class })
+@SuiteClasses({ TracingTest.class, DeliveryUtilsTest.class, CountryUtilsTest.class,
+		DeliveryTimeIndexTest.class })
 public class AllFclBasicTests {
 }
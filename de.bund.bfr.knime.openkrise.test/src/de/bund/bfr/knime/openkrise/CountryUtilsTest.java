@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.openkrise;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class CountryUtilsTest {
+
+	@Test
+	public void testEnglishNames() {
+		assertEquals("DE", CountryUtils.getCountryCode("Germany"));
+		assertEquals("FR", CountryUtils.getCountryCode("France"));
+		assertEquals("GB", CountryUtils.getCountryCode("United Kingdom"));
+		assertEquals("US", CountryUtils.getCountryCode("United States"));
+
+		for (String code : Locale.getISOCountries()) {
+			assertEquals(code, CountryUtils.getCountryCode(new Locale("", code).getDisplayCountry(Locale.ENGLISH)));
+		}
+	}
+
+	@Test
+	public void testGermanNames() {
+		assertEquals("DE", CountryUtils.getCountryCode("Deutschland"));
+		assertEquals("AT", CountryUtils.getCountryCode("Österreich"));
+		assertEquals("AT", CountryUtils.getCountryCode("OSTERREICH"));
+		assertEquals("GB", CountryUtils.getCountryCode("Vereinigtes Königreich"));
+		assertEquals("US", CountryUtils.getCountryCode("Vereinigte Staaten"));
+	}
+
+	@Test
+	public void testFrenchNames() {
+		assertEquals("DE", CountryUtils.getCountryCode("Allemagne"));
+		assertEquals("GB", CountryUtils.getCountryCode("Royaume-Uni"));
+		assertEquals("US", CountryUtils.getCountryCode("États-Unis"));
+		assertEquals("US", CountryUtils.getCountryCode("etats unis"));
+		assertEquals("CI", CountryUtils.getCountryCode("Côte d’Ivoire"));
+		assertEquals("CI", CountryUtils.getCountryCode("cote d'ivoire"));
+	}
+
+	@Test
+	public void testCodesAndAliases() {
+		assertEquals("DE", CountryUtils.getCountryCode("DE"));
+		assertEquals("DE", CountryUtils.getCountryCode("deu"));
+		assertEquals("US", CountryUtils.getCountryCode("USA"));
+		assertEquals("US", CountryUtils.getCountryCode("U.S.A."));
+		assertEquals("GB", CountryUtils.getCountryCode("UK"));
+		assertEquals("NL", CountryUtils.getCountryCode("Holland"));
+	}
+
+	@Test
+	public void testUnknownAndAmbiguousNames() {
+		assertNull(CountryUtils.getCountryCode(null));
+		assertNull(CountryUtils.getCountryCode(""));
+		assertNull(CountryUtils.getCountryCode(" - "));
+		assertNull(CountryUtils.getCountryCode("Narnia"));
+		assertNull(CountryUtils.getCountryCode("Germany/France"));
+		assertNull(CountryUtils.getCountryCode("Deutschland, Österreich"));
+
+		// the result of an unknown name is cached and must stay the same
+		assertNull(CountryUtils.getCountryCode("Narnia"));
+
+		Set<String> primaryNames = new HashSet<>();
+
+		for (String code : Locale.getISOCountries()) {
+			Locale country = new Locale("", code);
+
+			primaryNames.add(CountryUtils.normalize(code));
+			primaryNames.add(CountryUtils.normalize(country.getISO3Country()));
+
+			for (Locale language : new Locale[] { Locale.ENGLISH, Locale.GERMAN, Locale.FRENCH }) {
+				primaryNames.add(CountryUtils.normalize(country.getDisplayCountry(language)));
+			}
+		}
+
+		Map<String, Set<String>> codesByName = new HashMap<>();
+		Map<String, String> displayNames = new HashMap<>();
+		Set<String> languages = new HashSet<>();
+
+		for (Locale locale : Locale.getAvailableLocales()) {
+			languages.add(locale.getLanguage());
+		}
+
+		for (String language : languages) {
+			for (String code : Locale.getISOCountries()) {
+				String displayName = new Locale("", code).getDisplayCountry(new Locale(language));
+				String name = CountryUtils.normalize(displayName);
+
+				if (!name.isEmpty() && !primaryNames.contains(name)) {
+					codesByName.computeIfAbsent(name, n -> new HashSet<>()).add(code);
+					displayNames.put(name, displayName);
+				}
+			}
+		}
+
+		codesByName.forEach((name, codes) -> {
+			String displayName = displayNames.get(name);
+
+			if (codes.size() > 1) {
+				assertNull(displayName, CountryUtils.getCountryCode(displayName));
+			} else {
+				assertEquals(displayName, codes.iterator().next(), CountryUtils.getCountryCode(displayName));
+			}
+		});
+	}
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.openkrise;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.bund.bfr.knime.openkrise.common.Delivery;
+import de.bund.bfr.knime.openkrise.common.DeliveryTimeIndex;
+
+public class DeliveryTimeIndexTest {
+
+	private static final int DELIVERY_COUNT = 2000;
+
+	private List<Delivery> deliveries;
+
+	@Before
+	public void setUp() {
+		Random random = new Random(0);
+
+		deliveries = new ArrayList<>();
+
+		for (int i = 0; i < DELIVERY_COUNT; i++) {
+			Delivery.Builder builder = new Delivery.Builder("d" + i, "s", "r");
+
+			if (random.nextInt(5) != 0) {
+				builder.departure(2016, random.nextBoolean() ? 1 + random.nextInt(3) : null,
+						random.nextBoolean() ? 1 + random.nextInt(28) : null);
+			}
+
+			if (random.nextInt(5) != 0) {
+				builder.arrival(2016 + random.nextInt(2), random.nextInt(4) != 0 ? 1 + random.nextInt(3) : null,
+						random.nextInt(4) != 0 ? 1 + random.nextInt(28) : null);
+			}
+
+			deliveries.add(builder.build());
+		}
+	}
+
+	@Test
+	public void testPositionMatchesIsBefore() {
+		DeliveryTimeIndex index = new DeliveryTimeIndex(deliveries);
+
+		for (int year = 2016; year <= 2017; year++) {
+			for (int month = 1; month <= 4; month++) {
+				for (int day = 1; day <= 28; day++) {
+					Delivery after = new Delivery.Builder("", "", "").departure(year, month, day).build();
+					Set<String> expected = new HashSet<>();
+
+					for (Delivery d : deliveries) {
+						if (d.getArrivalYear() != null && d.isBefore(after)) {
+							expected.add(d.getId());
+						}
+					}
+
+					int position = index.getPosition(year, month, day);
+
+					assertEquals(expected.size(), position);
+					assertEquals(expected, new HashSet<>(index.getIds(0, position)));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testIdsWithoutDate() {
+		DeliveryTimeIndex index = new DeliveryTimeIndex(deliveries);
+		Set<String> expected = new LinkedHashSet<>();
+
+		for (Delivery d : deliveries) {
+			if (d.getDepartureYear() == null && d.getArrivalYear() == null) {
+				expected.add(d.getId());
+			}
+		}
+
+		assertEquals(expected, new LinkedHashSet<>(index.getIdsWithoutDate()));
+		assertEquals(DELIVERY_COUNT - expected.size(), index.getSize());
+		assertEquals(0, index.getPosition(2015, 12, 31));
+		assertEquals(index.getSize(), index.getPosition(2018, 1, 1));
+	}
+}
@@ -0,0 +1,324 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.openkrise;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.base.Splitter;
+
+import de.bund.bfr.knime.openkrise.common.DeliveryUtils;
+
+public class DeliveryUtilsTest {
+
+	private static final String[] DATABASES = { "SupplyChainReader_Test", "SupplyChainReader_Test_With_Extrafields",
+			"SupplyChainReader_Test_LotBased_With_Extrafields", "SupplyChainReader_Test_Without_Serials" };
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testWarningsOfAllDeliveries() throws IOException, SQLException {
+		for (String database : DATABASES) {
+			try (Connection conn = openDatabase(database)) {
+				assertEquals(database, DeliveryUtils.getWarnings(conn),
+						DeliveryUtils.getWarnings(conn, getDeliveryIds(conn)));
+			}
+		}
+	}
+
+	@Test
+	public void testWarningsOfSingleDeliveries() throws IOException, SQLException {
+		for (String database : DATABASES) {
+			try (Connection conn = openDatabase(database)) {
+				Map<String, Set<String>> allWarnings = DeliveryUtils.getWarnings(conn);
+				Map<String, Set<String>> union = new LinkedHashMap<>();
+
+				for (Integer id : getDeliveryIds(conn)) {
+					DeliveryUtils.getWarnings(conn, Arrays.asList(id)).forEach((type, warnings) -> {
+						assertTrue(database, allWarnings.get(type).containsAll(warnings));
+						union.computeIfAbsent(type, t -> new LinkedHashSet<>()).addAll(warnings);
+					});
+				}
+
+				assertEquals(database, allWarnings, union);
+			}
+		}
+	}
+
+	@Test
+	public void testNewWarnings() throws IOException, SQLException {
+		boolean newWarningsFound = false;
+
+		for (String database : DATABASES) {
+			try (Connection conn = openDatabase(database)) {
+				conn.setAutoCommit(false);
+
+				for (Integer id : getDeliveryIds(conn)) {
+					Map<String, Set<String>> allBefore = DeliveryUtils.getWarnings(conn);
+					Map<String, Set<String>> before = DeliveryUtils.getWarnings(conn, Arrays.asList(id));
+
+					try (Statement stmt = conn.createStatement()) {
+						stmt.executeUpdate("UPDATE \"Lieferungen\" SET \"dd_day\"=1,\"dd_month\"=1,\"dd_year\"=1900,"
+								+ "\"ad_day\"=NULL,\"ad_month\"=NULL,\"ad_year\"=NULL,\"numPU\"=1000,"
+								+ "\"typePU\"='kg',\"Unitmenge\"=1,\"UnitEinheit\"='g' WHERE \"ID\"=" + id);
+					}
+
+					Map<String, Set<String>> allNew = getNewWarnings(allBefore, DeliveryUtils.getWarnings(conn));
+					Map<String, Set<String>> incrementalNew = getNewWarnings(before,
+							DeliveryUtils.getWarnings(conn, Arrays.asList(id)));
+
+					assertEquals(database + ": " + id, allNew, incrementalNew);
+					newWarningsFound |= !allNew.isEmpty();
+					conn.rollback();
+				}
+			}
+		}
+
+		assertTrue(newWarningsFound);
+	}
+
+	@Test
+	public void testLotWarnings() throws IOException, SQLException {
+		for (String database : DATABASES) {
+			try (Connection conn = openDatabase(database)) {
+				assertEquals(database, DeliveryUtils.getWarnings(conn),
+						DeliveryUtils.getLotWarnings(conn, getLots(conn)));
+				assertTrue(DeliveryUtils.getLotWarnings(conn, Arrays.asList("unknown lot")).isEmpty());
+			}
+		}
+	}
+
+	@Test
+	public void testGetAmountInKg() {
+		assertEquals(2.0, DeliveryUtils.getAmountInKg(2.0, "kg"), 0.0);
+		assertEquals(5.0, DeliveryUtils.getAmountInKg(2.0, "Box 2.5KG"), 0.0);
+		assertEquals(0.5, DeliveryUtils.getAmountInKg(2.0, "250g"), 0.0);
+		assertEquals(3000.0, DeliveryUtils.getAmountInKg(3.0, "t"), 0.0);
+		assertNull(DeliveryUtils.getAmountInKg(2.0, "10 kg"));
+		assertNull(DeliveryUtils.getAmountInKg(2.0, "bottle"));
+		assertNull(DeliveryUtils.getAmountInKg(null, "kg"));
+		assertNull(DeliveryUtils.getAmountInKg(2.0, null));
+
+		String[] tokens = { "kg", "KG", "Kg", "g", "G", "t", "T", "l", "box", "1", "25", "0.5", ".", ",", "e3", "-",
+				"x", "NaN", " ", " ", "\t", "\n" };
+		Random random = new Random(0);
+
+		for (int i = 0; i < 100000; i++) {
+			StringBuilder unit = new StringBuilder();
+			int n = random.nextInt(6);
+
+			for (int j = 0; j < n; j++) {
+				unit.append(tokens[random.nextInt(tokens.length)]);
+			}
+
+			double value = random.nextInt(1000) / 10.0;
+
+			// twice to compare the cached result as well
+			assertEquals(unit.toString(), getAmountInKgWithRegex(value, unit.toString()),
+					DeliveryUtils.getAmountInKg(value, unit.toString()));
+			assertEquals(unit.toString(), getAmountInKgWithRegex(value, unit.toString()),
+					DeliveryUtils.getAmountInKg(value, unit.toString()));
+		}
+	}
+
+	@Test
+	public void testFormatDate() {
+		assertNull(DeliveryUtils.formatDate(1, 1, null));
+		assertEquals("2017", DeliveryUtils.formatDate(null, null, 2017));
+		assertEquals("2017-03", DeliveryUtils.formatDate(null, 3, 2017));
+		assertEquals("2017-03-05", DeliveryUtils.formatDate(5, 3, 2017));
+		assertEquals("2018-01-01", DeliveryUtils.formatDate(1, 13, 2017));
+		assertEquals("2017-03-01", DeliveryUtils.formatDate(29, 2, 2017));
+
+		Random random = new Random(0);
+
+		for (int i = 0; i < 100000; i++) {
+			Integer day = random.nextInt(10) != 0 ? random.nextInt(40) - 4 : null;
+			Integer month = random.nextInt(10) != 0 ? random.nextInt(16) - 2 : null;
+			Integer year = random.nextInt(10) != 0 ? 1900 + random.nextInt(200) : null;
+
+			assertEquals(day + "." + month + "." + year, formatDateWithCalendar(day, month, year),
+					DeliveryUtils.formatDate(day, month, year));
+		}
+	}
+
+	private Connection openDatabase(String database) throws IOException, SQLException {
+		File dir = folder.newFolder();
+		File source = new File(getTestflowsDirectory(),
+				"workflows/" + database + "/Supply Chain Reader (#1)/drop/FCL-DB");
+
+		Files.copy(new File(source, "DB.script").toPath(), new File(dir, "DB.script").toPath());
+		Files.copy(new File(source, "DB.data").toPath(), new File(dir, "DB.data").toPath());
+
+		return DriverManager.getConnection("jdbc:hsqldb:file:" + new File(dir, "DB").getAbsolutePath(), "SA", "");
+	}
+
+	private static File getTestflowsDirectory() {
+		File dir = new File(DeliveryUtilsTest.class.getProtectionDomain().getCodeSource().getLocation().getPath());
+
+		while (dir != null && !new File(dir, "de.bund.bfr.knime.testflows").isDirectory()) {
+			dir = dir.getParentFile();
+		}
+
+		assertNotNull(dir);
+
+		return new File(dir, "de.bund.bfr.knime.testflows");
+	}
+
+	private static List<Integer> getDeliveryIds(Connection conn) throws SQLException {
+		List<Integer> ids = new ArrayList<>();
+
+		try (Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT \"ID\" FROM \"Lieferungen\"")) {
+			while (rs.next()) {
+				ids.add(rs.getInt(1));
+			}
+		}
+
+		assertFalse(ids.isEmpty());
+
+		return ids;
+	}
+
+	private static List<String> getLots(Connection conn) throws SQLException {
+		List<String> lots = new ArrayList<>();
+
+		try (Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT \"ID\",\"ChargenNr\" FROM \"Chargen\"")) {
+			while (rs.next()) {
+				lots.add(rs.getString(2) != null ? rs.getString(2) : String.valueOf(rs.getInt(1)));
+			}
+		}
+
+		return lots;
+	}
+
+	private static Map<String, Set<String>> getNewWarnings(Map<String, Set<String>> before,
+			Map<String, Set<String>> after) {
+		Map<String, Set<String>> newWarnings = new LinkedHashMap<>();
+
+		after.forEach((type, warnings) -> {
+			Set<String> diff = new LinkedHashSet<>(warnings);
+
+			if (before.containsKey(type)) {
+				diff.removeAll(before.get(type));
+			}
+
+			if (!diff.isEmpty()) {
+				newWarnings.put(type, diff);
+			}
+		});
+
+		return newWarnings;
+	}
+
+	private static Double getAmountInKgWithRegex(Double value, String unit) {
+		if (value == null || unit == null) {
+			return null;
+		}
+
+		List<String> units = Arrays.asList("kg", "g", "t");
+		String unitPart = null;
+
+		for (String part : Splitter.on(" ").split(unit)) {
+			if (part.matches(".*\\d.*") || units.contains(part.toLowerCase())) {
+				if (unitPart != null) {
+					return null;
+				}
+
+				unitPart = part;
+			}
+		}
+
+		if (unitPart == null) {
+			return null;
+		}
+
+		String numberPart = null;
+		Double factor = null;
+
+		if (unitPart.toLowerCase().endsWith("kg")) {
+			numberPart = unitPart.substring(0, unitPart.length() - 2);
+			factor = 1.0;
+		} else if (unitPart.toLowerCase().endsWith("g")) {
+			numberPart = unitPart.substring(0, unitPart.length() - 1);
+			factor = 0.001;
+		} else if (unitPart.toLowerCase().endsWith("t")) {
+			numberPart = unitPart.substring(0, unitPart.length() - 1);
+			factor = 1000.0;
+		} else {
+			return null;
+		}
+
+		if (numberPart.isEmpty()) {
+			return factor * value;
+		}
+
+		try {
+			return Double.parseDouble(numberPart) * factor * value;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private static String formatDateWithCalendar(Integer day, Integer month, Integer year) {
+		if (year == null) {
+			return null;
+		}
+
+		Date date = new GregorianCalendar(year, month != null ? month - 1 : 0, day != null ? day : 1).getTime();
+
+		if (month == null) {
+			return new SimpleDateFormat("yyyy").format(date);
+		} else if (day == null) {
+			return new SimpleDateFormat("yyyy-MM").format(date);
+		} else {
+			return new SimpleDateFormat("yyyy-MM-dd").format(date);
+		}
+	}
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.openkrise;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+import de.bund.bfr.knime.openkrise.common.Delivery;
+import de.bund.bfr.knime.openkrise.common.DeliveryTimeIndex;
+import de.bund.bfr.knime.openkrise.common.Tracing;
+
+/**
+ * Moves the date of the time window over a network with 500000 deliveries and logs the time of
+ * each step, that the tracing view runs for a slider update: the update of the deliveries outside
+ * the time window with {@link DeliveryTimeIndex}, the removal of these deliveries from all
+ * deliveries and the tracing of the remaining deliveries. The steps of the canvas (collapse,
+ * invisibility, joining of edges and the update of the graph) are not included, they are measured
+ * by {@code GraphCanvasBenchmark}. The target of less than 16 ms per slider update is not met: only
+ * the index update is within it, while the removal and the tracing still run over all deliveries.
+ * Part of {@link FclBasicBenchmarks} and not of the default test suite, since the run time depends
+ * on the machine.
+ */
+public class TimeWindowBenchmark {
+
+	private static final int STATION_COUNT = 50000;
+	private static final int DELIVERY_COUNT = 500000;
+	private static final int DAY_COUNT = 730;
+
+	private static Logger logger = Logger.getLogger("de.bund.bfr");
+
+	@Test(timeout = 600000)
+	public void testSliderUpdates500000Deliveries() {
+		List<Delivery> deliveries = createDeliveries(new Random(0));
+		DeliveryTimeIndex index = new DeliveryTimeIndex(deliveries);
+		Set<String> idsOutside = new HashSet<>();
+		int position = index.getSize();
+		Map<String, List<Long>> latencies = new LinkedHashMap<>();
+
+		for (int day = DAY_COUNT / 2; day < DAY_COUNT; day += 60) {
+			long start = System.nanoTime();
+			int newPosition = index.getPosition(2016 + day / 365, 1 + day % 365 / 31, 1 + day % 365 % 31 % 28);
+
+			if (newPosition < position) {
+				idsOutside.addAll(index.getIds(newPosition, position));
+			} else {
+				index.getIds(position, newPosition).forEach(idsOutside::remove);
+			}
+
+			position = newPosition;
+
+			long indexTime = System.nanoTime();
+			List<Delivery> visible = new ArrayList<>();
+
+			for (Delivery d : deliveries) {
+				if (!idsOutside.contains(d.getId())) {
+					visible.add(d);
+				}
+			}
+
+			long removeTime = System.nanoTime();
+			Tracing tracing = new Tracing(visible);
+
+			tracing.setStationWeight("s0", 1.0);
+			tracing.getResult(false);
+
+			long tracingTime = System.nanoTime();
+
+			latencies.put("day " + day + " (" + visible.size() + " deliveries)",
+					Arrays.asList((indexTime - start) / 1000000, (removeTime - indexTime) / 1000000,
+							(tracingTime - removeTime) / 1000000));
+		}
+
+		logger.info("Time window latencies in ms (index update, removal, tracing): " + latencies);
+	}
+
+	/**
+	 * Each delivery leads to up to two later deliveries of its recipient, so that the network is
+	 * connected like a supply chain.
+	 */
+	private static List<Delivery> createDeliveries(Random random) {
+		int[] suppliers = new int[DELIVERY_COUNT];
+		int[] recipients = new int[DELIVERY_COUNT];
+		int[] days = new int[DELIVERY_COUNT];
+		List<List<Integer>> outgoing = new ArrayList<>();
+
+		for (int i = 0; i < STATION_COUNT; i++) {
+			outgoing.add(new ArrayList<>());
+		}
+
+		for (int i = 0; i < DELIVERY_COUNT; i++) {
+			suppliers[i] = random.nextInt(STATION_COUNT);
+			recipients[i] = random.nextInt(STATION_COUNT);
+			days[i] = random.nextInt(DAY_COUNT);
+			outgoing.get(suppliers[i]).add(i);
+		}
+
+		List<Set<String>> previous = new ArrayList<>();
+		List<Set<String>> next = new ArrayList<>();
+
+		for (int i = 0; i < DELIVERY_COUNT; i++) {
+			previous.add(new LinkedHashSet<>());
+			next.add(new LinkedHashSet<>());
+		}
+
+		for (int i = 0; i < DELIVERY_COUNT; i++) {
+			List<Integer> candidates = outgoing.get(recipients[i]);
+
+			for (int j = 0; j < 2 && !candidates.isEmpty(); j++) {
+				int n = candidates.get(random.nextInt(candidates.size()));
+
+				if (days[n] >= days[i]) {
+					next.get(i).add("d" + n);
+					previous.get(n).add("d" + i);
+				}
+			}
+		}
+
+		List<Delivery> deliveries = new ArrayList<>();
+
+		for (int i = 0; i < DELIVERY_COUNT; i++) {
+			int day = days[i];
+
+			deliveries.add(new Delivery.Builder("d" + i, "s" + suppliers[i], "s" + recipients[i])
+					.connectedDeliveries(previous.get(i), next.get(i))
+					.departure(2016 + day / 365, 1 + day % 365 / 31, 1 + day % 365 % 31 % 28)
+					.arrival(2016 + day / 365, 1 + day % 365 / 31, 1 + day % 365 % 31 % 28).build());
+		}
+
+		return deliveries;
+	}
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.openkrise;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntFunction;
+import java.util.logging.Logger;
+
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTable;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowIterator;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.StringCell;
+
+import de.bund.bfr.knime.gis.geocode.GeocodingNodeModel;
+import de.bund.bfr.knime.gis.views.canvas.util.EdgePropertySchema;
+import de.bund.bfr.knime.gis.views.canvas.util.NodePropertySchema;
+
+/**
+ * Reads a station table with 100000 rows and a delivery table with 1000000 rows with
+ * {@link TracingTableReader} and logs the time of each result, that the tracing view creates its
+ * canvases from. The rows are created while the tables are iterated, so the time includes the
+ * creation of the cells, but not the storage of a table. Part of {@link FclBasicBenchmarks} and not
+ * of the default test suite, since the run time depends on the machine.
+ */
+public class TracingTableReaderBenchmark {
+
+	private static final int STATION_COUNT = 100000;
+	private static final int DELIVERY_COUNT = 1000000;
+
+	private static Logger logger = Logger.getLogger("de.bund.bfr");
+
+	@Test(timeout = 300000)
+	public void testRead1000000Deliveries() throws Exception {
+		DataTable stationTable = createTable(
+				createSpec(new String[] { TracingColumns.ID, TracingColumns.STATION_NAME,
+						GeocodingNodeModel.LATITUDE_COLUMN, GeocodingNodeModel.LONGITUDE_COLUMN },
+						StringCell.TYPE, StringCell.TYPE, DoubleCell.TYPE, DoubleCell.TYPE),
+				STATION_COUNT, i -> new DataCell[] { new StringCell("s" + i), new StringCell("Station " + i),
+						new DoubleCell(45.0 + i % 1000 * 0.01), new DoubleCell(5.0 + i / 1000 * 0.1) });
+		Random random = new Random(0);
+		DataTable deliveryTable = createTable(
+				createSpec(new String[] { TracingColumns.ID, TracingColumns.FROM, TracingColumns.TO,
+						TracingColumns.DELIVERY_AMOUNT }, StringCell.TYPE, StringCell.TYPE, StringCell.TYPE,
+						DoubleCell.TYPE),
+				DELIVERY_COUNT,
+				i -> new DataCell[] { new StringCell("d" + i), new StringCell("s" + random.nextInt(STATION_COUNT)),
+						new StringCell("s" + random.nextInt(STATION_COUNT)), new DoubleCell(i % 100) });
+		Map<String, Class<?>> nodeProperties = TracingUtils.getTableColumns(stationTable.getDataTableSpec());
+		Map<String, Class<?>> edgeProperties = TracingUtils.getTableColumns(deliveryTable.getDataTableSpec());
+
+		TracingColumns.STATION_IN_OUT_COLUMNS
+				.forEach(c -> nodeProperties.put(c, TracingColumns.IN_OUT_COLUMN_CLASSES.get(c)));
+		TracingColumns.DELIVERY_IN_OUT_COLUMNS
+				.forEach(c -> edgeProperties.put(c, TracingColumns.IN_OUT_COLUMN_CLASSES.get(c)));
+
+		NodePropertySchema nodeSchema = new NodePropertySchema(nodeProperties, TracingColumns.ID);
+		EdgePropertySchema edgeSchema = new EdgePropertySchema(edgeProperties, TracingColumns.ID,
+				TracingColumns.FROM, TracingColumns.TO);
+
+		nodeSchema.setLatitude(GeocodingNodeModel.LATITUDE_COLUMN);
+		nodeSchema.setLongitude(GeocodingNodeModel.LONGITUDE_COLUMN);
+
+		TracingTableReader reader = new TracingTableReader(stationTable, deliveryTable, null, nodeSchema,
+				edgeSchema);
+		long start = System.nanoTime();
+
+		assertEquals(STATION_COUNT, reader.getGraphNodes().size());
+
+		long graphNodesTime = System.nanoTime();
+
+		assertEquals(DELIVERY_COUNT, reader.getGraphEdges().size());
+
+		long graphEdgesTime = System.nanoTime();
+
+		assertEquals(STATION_COUNT, reader.getLocationNodes().size());
+		assertEquals(DELIVERY_COUNT, reader.getLocationEdges().size());
+
+		long locationTime = System.nanoTime();
+
+		logger.info("TracingTableReader in ms: graph nodes " + (graphNodesTime - start) / 1000000
+				+ ", graph edges " + (graphEdgesTime - graphNodesTime) / 1000000 + ", location nodes and edges "
+				+ (locationTime - graphEdgesTime) / 1000000);
+	}
+
+	private static DataTableSpec createSpec(String[] names, DataType... types) {
+		DataColumnSpec[] columns = new DataColumnSpec[names.length];
+
+		for (int i = 0; i < names.length; i++) {
+			columns[i] = new DataColumnSpecCreator(names[i], types[i]).createSpec();
+		}
+
+		return new DataTableSpec(columns);
+	}
+
+	private static DataTable createTable(DataTableSpec spec, int rowCount, IntFunction<DataCell[]> cells) {
+		return new DataTable() {
+
+			@Override
+			public DataTableSpec getDataTableSpec() {
+				return spec;
+			}
+
+			@Override
+			public RowIterator iterator() {
+				return new RowIterator() {
+
+					private int index = 0;
+
+					@Override
+					public boolean hasNext() {
+						return index < rowCount;
+					}
+
+					@Override
+					public DataRow next() {
+						return new DefaultRow("Row" + index, cells.apply(index++));
+					}
+				};
+			}
+		};
+	}
+}
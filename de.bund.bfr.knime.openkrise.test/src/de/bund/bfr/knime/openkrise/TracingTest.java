@@ -26,7 +26,11 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -260,6 +264,117 @@ public class TracingTest {
 		assertEquals(1.0, result.getDeliveryScore(F3P2_1), 0.0);
 	}
 
+	@Test
+	public void testForwardDeliveriesByCrossContamination() {
+		Tracing tracing = new Tracing(deliveries);
+		Tracing tracingWithoutCC = new Tracing(deliveries);
+
+		tracing.setCrossContaminationOfStation(PRODUCER_1, true);
+		tracing.setCrossContaminationOfDelivery(P1T1_1, true);
+		tracing.setCrossContaminationOfDelivery(P2T1_2, true);
+
+		for (boolean enforceTemporalOrder : new boolean[] { true, false }) {
+			Tracing.Result result = tracing.getResult(enforceTemporalOrder);
+			Tracing.Result resultWithoutCC = tracingWithoutCC.getResult(enforceTemporalOrder);
+
+			for (Delivery d : deliveries) {
+				assertEquals(
+						getForwardDeliveriesByCrossContamination(result, resultWithoutCC, ImmutableSet.of(d.getId())),
+						tracing.getForwardDeliveriesByCrossContamination(ImmutableSet.of(d.getId()),
+								enforceTemporalOrder));
+			}
+		}
+
+		assertEquals(ImmutableSet.of(P1T1_2, T1M2_1, T1M3_1),
+				tracing.getForwardDeliveriesByCrossContamination(ImmutableSet.of(F1P1_1), true));
+	}
+
+	@Test
+	public void testForwardDeliveriesByCrossContaminationInRandomNetwork() {
+		testForwardDeliveriesByCrossContaminationInRandomNetwork(false);
+	}
+
+	/**
+	 * The memoised forward deliveries of {@link Tracing#getResult(boolean)} are incomplete on
+	 * cycles and depend on the weights, so the network has weights and deliveries in both
+	 * directions.
+	 */
+	@Test
+	public void testForwardDeliveriesByCrossContaminationInCyclicRandomNetwork() {
+		testForwardDeliveriesByCrossContaminationInRandomNetwork(true);
+	}
+
+	private static void testForwardDeliveriesByCrossContaminationInRandomNetwork(boolean cyclic) {
+		Random random = new Random(0);
+		List<Delivery> randomDeliveries = new ArrayList<>();
+		List<String> suppliers = new ArrayList<>();
+		List<String> recipients = new ArrayList<>();
+
+		for (int i = 0; i < 300; i++) {
+			suppliers.add("s" + random.nextInt(30));
+			recipients.add("s" + random.nextInt(30));
+		}
+
+		for (int i = 0; i < 300; i++) {
+			Set<String> previous = new LinkedHashSet<>();
+			Set<String> next = new LinkedHashSet<>();
+
+			for (int j = 0; j < 300; j++) {
+				if ((cyclic || j < i) && recipients.get(j).equals(suppliers.get(i)) && random.nextInt(3) == 0) {
+					previous.add("d" + j);
+				} else if ((cyclic || j > i) && recipients.get(i).equals(suppliers.get(j))
+						&& random.nextInt(3) == 0) {
+					next.add("d" + j);
+				}
+			}
+
+			randomDeliveries.add(new Delivery.Builder("d" + i, suppliers.get(i), recipients.get(i))
+					.connectedDeliveries(previous, next).departure(2000 + i / 336, 1 + i / 28 % 12, 1 + i % 28)
+					.build());
+		}
+
+		Tracing tracing = new Tracing(randomDeliveries);
+		Tracing tracingWithoutCC = new Tracing(randomDeliveries);
+
+		for (int i = 0; i < 30; i++) {
+			String killed = "d" + random.nextInt(300);
+
+			tracing.setCrossContaminationOfStation("s" + random.nextInt(30), true);
+			tracing.setCrossContaminationOfDelivery("d" + random.nextInt(300), true);
+			tracing.setKillContaminationOfDelivery(killed, true);
+			tracingWithoutCC.setKillContaminationOfDelivery(killed, true);
+		}
+
+		tracing.setKillContaminationOfStation("s0", true);
+		tracingWithoutCC.setKillContaminationOfStation("s0", true);
+
+		if (cyclic) {
+			for (int i = 0; i < 5; i++) {
+				String station = "s" + random.nextInt(30);
+				double weight = random.nextDouble();
+
+				tracing.setStationWeight(station, weight);
+				tracingWithoutCC.setStationWeight(station, weight);
+			}
+		}
+
+		for (boolean enforceTemporalOrder : new boolean[] { true, false }) {
+			Tracing.Result result = tracing.getResult(enforceTemporalOrder);
+			Tracing.Result resultWithoutCC = tracingWithoutCC.getResult(enforceTemporalOrder);
+
+			for (int i = 0; i < 20; i++) {
+				Set<String> ids = new LinkedHashSet<>();
+
+				for (int j = 0; j < 1 + random.nextInt(20); j++) {
+					ids.add("d" + random.nextInt(300));
+				}
+
+				assertEquals(getForwardDeliveriesByCrossContamination(result, resultWithoutCC, ids),
+						tracing.getForwardDeliveriesByCrossContamination(ids, enforceTemporalOrder));
+			}
+		}
+	}
+
 	@Test
 	public void testMergeStations() {
 		final String FARM_12 = "farm12";
@@ -273,4 +388,14 @@ public class TracingTest {
 				result.getForwardStationsByStation().get(FARM_12));
 		assertEquals(ImmutableSet.of(), result.getBackwardStationsByStation().get(FARM_12));
 	}
+
+	private static Set<String> getForwardDeliveriesByCrossContamination(Tracing.Result result,
+			Tracing.Result resultWithoutCC, Collection<String> ids) {
+		Set<String> forward = new LinkedHashSet<>();
+
+		ids.forEach(id -> forward.addAll(result.getForwardDeliveriesByDelivery().get(id)));
+		ids.forEach(id -> forward.removeAll(resultWithoutCC.getForwardDeliveriesByDelivery().get(id)));
+
+		return forward;
+	}
 }
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.openkrise.util.cluster;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.math3.ml.clustering.Cluster;
+import org.apache.commons.math3.ml.clustering.DBSCANClusterer;
+import org.apache.commons.math3.ml.clustering.Clusterable;
+import org.junit.Test;
+
+/**
+ * Compares the {@link GeoDBSCANClusterer} with the {@link DBSCANClusterer} of Commons Math, which
+ * computes the distances between all pairs of points.
+ */
+public class GeoDBSCANClustererTest {
+
+	@Test
+	public void testRandomPoints() {
+		Random random = new Random(0);
+
+		for (int i = 0; i < 20; i++) {
+			List<Location> points = new ArrayList<>();
+
+			for (int j = 0; j < 300; j++) {
+				points.add(createPoint(random.nextDouble() * 20.0 + 40.0, random.nextDouble() * 20.0));
+			}
+
+			assertSameClusters(points, 50.0 + 10.0 * i, 1 + i % 4);
+		}
+	}
+
+	@Test
+	public void testPoles() {
+		Random random = new Random(1);
+		List<Location> points = new ArrayList<>();
+
+		for (int i = 0; i < 200; i++) {
+			double lat = 90.0 - random.nextDouble() * 5.0;
+			double lon = random.nextDouble() * 360.0 - 180.0;
+
+			points.add(createPoint(i % 2 == 0 ? lat : -lat, lon));
+		}
+
+		points.add(createPoint(90.0, 0.0));
+		points.add(createPoint(-90.0, 123.0));
+
+		for (double eps : new double[] { 50.0, 200.0, 600.0 }) {
+			assertSameClusters(points, eps, 3);
+		}
+	}
+
+	@Test
+	public void testDateLine() {
+		Random random = new Random(2);
+		List<Location> points = new ArrayList<>();
+
+		for (int i = 0; i < 200; i++) {
+			double lat = random.nextDouble() * 20.0 - 10.0;
+			double lon = 180.0 - random.nextDouble() * 3.0;
+
+			points.add(createPoint(lat, i % 2 == 0 ? lon : -lon));
+		}
+
+		points.add(createPoint(0.0, 180.0));
+		points.add(createPoint(0.0, -180.0));
+
+		for (double eps : new double[] { 50.0, 150.0, 400.0 }) {
+			assertSameClusters(points, eps, 3);
+		}
+	}
+
+	@Test
+	public void testDuplicates() {
+		Random random = new Random(3);
+		List<Location> points = new ArrayList<>();
+
+		for (int i = 0; i < 50; i++) {
+			double lat = random.nextDouble() * 10.0 + 45.0;
+			double lon = random.nextDouble() * 10.0 + 5.0;
+			int copies = random.nextInt(4) + 1;
+
+			for (int j = 0; j < copies; j++) {
+				points.add(createPoint(lat, lon));
+			}
+		}
+
+		for (int minPoints = 1; minPoints <= 4; minPoints++) {
+			assertSameClusters(points, 0.0, minPoints);
+			assertSameClusters(points, 80.0, minPoints);
+		}
+	}
+
+	@Test
+	public void testDistanceSpanningTheGlobe() {
+		Random random = new Random(4);
+		List<Location> points = new ArrayList<>();
+
+		for (int i = 0; i < 200; i++) {
+			points.add(createPoint(Math.toDegrees(Math.asin(2.0 * random.nextDouble() - 1.0)),
+					random.nextDouble() * 360.0 - 180.0));
+		}
+
+		for (double eps : new double[] { 5000.0, 20000.0, 30000.0 }) {
+			assertSameClusters(points, eps, 5);
+		}
+	}
+
+	private static Location createPoint(double lat, double lon) {
+		return new Location(Math.toRadians(lat), Math.toRadians(lon));
+	}
+
+	private static void assertSameClusters(List<Location> points, double eps, int minPoints) {
+		List<Cluster<Location>> expected = new DBSCANClusterer<Location>(eps, minPoints,
+				new HaversineDistance()).cluster(points);
+		List<Cluster<Location>> actual = new GeoDBSCANClusterer<Location>(eps, minPoints).cluster(points);
+
+		assertEquals(expected.size(), actual.size());
+		assertEquals(getClusterIndices(expected), getClusterIndices(actual));
+	}
+
+	/**
+	 * @return the index of the cluster for each point
+	 */
+	private static Map<Location, Integer> getClusterIndices(List<Cluster<Location>> clusters) {
+		Map<Location, Integer> indices = new IdentityHashMap<>();
+
+		for (int i = 0; i < clusters.size(); i++) {
+			for (Location point : clusters.get(i).getPoints()) {
+				indices.put(point, i);
+			}
+		}
+
+		return indices;
+	}
+
+	/**
+	 * Like the rows clustered by the {@link DBSCANNodeModel}, duplicates are different points,
+	 * since {@link Object#equals} is not overridden.
+	 */
+	private static class Location implements Clusterable {
+
+		private double[] point;
+
+		public Location(double latitude, double longitude) {
+			point = new double[] { latitude, longitude };
+		}
+
+		@Override
+		public double[] getPoint() {
+			return point;
+		}
+	}
+}
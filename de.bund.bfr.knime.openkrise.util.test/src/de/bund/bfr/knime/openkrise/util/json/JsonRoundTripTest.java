@@ -0,0 +1,276 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.openkrise.util.json;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.knime.core.node.ExecutionMonitor;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.bund.bfr.knime.gis.views.canvas.element.Edge;
+import de.bund.bfr.knime.gis.views.canvas.element.GraphNode;
+import de.bund.bfr.knime.openkrise.TracingColumns;
+import de.bund.bfr.knime.openkrise.common.Delivery;
+
+public class JsonRoundTripTest {
+
+	private static final JsonFactory FACTORY = new JsonFactory();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testReadFromFile() throws Exception {
+		File file = folder.newFile("elements.json");
+		List<List<Object>> elements = createElements(1000);
+		Set<String> stationProperties = new LinkedHashSet<>();
+		Set<String> deliveryProperties = new LinkedHashSet<>();
+
+		writeElements(file, elements);
+		JsonElementsReader.readPropertyNames(FACTORY.createParser(file), stationProperties, deliveryProperties);
+
+		assertEquals(Arrays.asList("Address", "Weight", "Country"), new ArrayList<>(stationProperties));
+		assertEquals(Arrays.asList("Amount", "Lot"), new ArrayList<>(deliveryProperties));
+		assertEquals(elements, readElements(FACTORY.createParser(file)));
+	}
+
+	@Test
+	public void testReadFromTree() throws Exception {
+		File file = folder.newFile("elements.json");
+		List<List<Object>> elements = createElements(10);
+
+		writeElements(file, elements);
+
+		assertEquals(elements, readElements(new ObjectMapper().readTree(file).traverse()));
+	}
+
+	@Test
+	public void testWriteToFile() throws Exception {
+		File file = folder.newFile("network.json");
+		GraphNode farm = new GraphNode("1", properties(TracingColumns.NAME, "Farm", "Weight", 2.0, "Case", true));
+		GraphNode shop = new GraphNode("2", properties(TracingColumns.NAME, "Shop"));
+		Edge<GraphNode> milk = new Edge<>("10", properties(TracingColumns.NAME, "Milk"), farm, shop);
+		Edge<GraphNode> cheese = new Edge<>("11", properties(), shop, farm);
+		Map<String, Delivery> deliveries = new LinkedHashMap<>();
+
+		deliveries.put("10", new Delivery.Builder("10", "1", "2").departure(2017, 3, 4).lot("L1")
+				.connectedDeliveries(Collections.emptySet(), Collections.singleton("11")).build());
+		deliveries.put("11", new Delivery.Builder("11", "2", "1").departure(2017, 3, null).build());
+
+		try (JsonGenerator generator = FACTORY.createGenerator(file, JsonEncoding.UTF8)) {
+			JsonNetworkWriter.write(generator, Arrays.asList(farm, shop), Arrays.asList(milk, cheese), deliveries,
+					new ExecutionMonitor());
+		}
+
+		JsonNode json = new ObjectMapper().readTree(file);
+		JsonNode stations = json.get(JsonConstants.STATIONS);
+		JsonNode delivery = json.get(JsonConstants.DELIVERIES).get(0);
+		JsonNode relation = json.get(JsonConstants.DELIVERY_RELATIONS).get(0);
+
+		assertEquals(2, stations.size());
+		assertEquals("S1", stations.get(0).get(JsonConstants.ID).asText());
+		assertEquals("Farm", stations.get(0).get(JsonConstants.NAME).asText());
+		assertEquals(2.0, stations.get(0).get("Weight").asDouble(), 0.0);
+		assertEquals(true, stations.get(0).get("Case").asBoolean());
+		assertEquals(2, json.get(JsonConstants.DELIVERIES).size());
+		assertEquals("D10", delivery.get(JsonConstants.ID).asText());
+		assertEquals("S1", delivery.get(JsonConstants.SOURCE).asText());
+		assertEquals("S2", delivery.get(JsonConstants.TARGET).asText());
+		assertEquals("Milk", delivery.get(JsonConstants.NAME).asText());
+		assertEquals("L1", delivery.get(JsonConstants.LOT).asText());
+		assertEquals("2017-03-04", delivery.get(JsonConstants.DATE).asText());
+		assertEquals(null, json.get(JsonConstants.DELIVERIES).get(1).get(JsonConstants.DATE));
+		assertEquals(1, json.get(JsonConstants.DELIVERY_RELATIONS).size());
+		assertEquals("D10", relation.get(JsonConstants.SOURCE).asText());
+		assertEquals("D11", relation.get(JsonConstants.TARGET).asText());
+	}
+
+	/**
+	 * @return stations and deliveries as lists of the values passed to the
+	 *         {@link JsonElementsReader.ElementHandler}
+	 */
+	private static List<List<Object>> createElements(int stationCount) {
+		List<List<Object>> elements = new ArrayList<>();
+
+		for (int i = 0; i < stationCount; i++) {
+			Map<String, String> properties = new LinkedHashMap<>();
+
+			properties.put("Address", "Street " + i);
+			properties.put("Weight", i % 2 == 0 ? String.valueOf(i) : null);
+
+			if (i % 3 == 0) {
+				properties.put("Country", "DE");
+			}
+
+			elements.add(Arrays.asList("S" + i, "Station " + i, properties,
+					i > 0 ? Arrays.asList(Arrays.asList("D" + (i - 1), "D" + i)) : Collections.emptyList()));
+		}
+
+		for (int i = 0; i < stationCount; i++) {
+			Map<String, String> properties = new LinkedHashMap<>();
+
+			properties.put("Amount", i + " kg");
+			properties.put("Lot", "L" + i);
+			elements.add(Arrays.asList("D" + i, "Delivery " + i, "S" + i, "S" + ((i + 1) % stationCount),
+					properties));
+		}
+
+		return elements;
+	}
+
+	/**
+	 * Writes the elements in the format of the FoodChain-Lab Web App. Values that are not strings
+	 * and fields that are not read are added, so that they are skipped by the reader.
+	 */
+	@SuppressWarnings("unchecked")
+	private static void writeElements(File file, List<List<Object>> elements) throws Exception {
+		try (JsonGenerator generator = FACTORY.createGenerator(file, JsonEncoding.UTF8)) {
+			generator.writeStartObject();
+			generator.writeObjectFieldStart("settings");
+			generator.writeNumberField("zoom", 1.5);
+			generator.writeEndObject();
+			generator.writeObjectFieldStart(JsonConstants.ELEMENTS);
+			generator.writeArrayFieldStart(JsonConstants.STATIONS);
+
+			for (List<Object> element : elements) {
+				if (element.size() != 4) {
+					continue;
+				}
+
+				generator.writeStartObject();
+				generator.writeStringField(JsonConstants.ID, (String) element.get(0));
+				generator.writeStringField(JsonConstants.NAME, (String) element.get(1));
+				generator.writeBooleanField("invisible", false);
+				writeProperties(generator, (Map<String, String>) element.get(2));
+				generator.writeArrayFieldStart(JsonConstants.CONNECTIONS);
+
+				for (List<String> connection : (List<List<String>>) element.get(3)) {
+					generator.writeStartObject();
+					generator.writeStringField(JsonConstants.SOURCE, connection.get(0));
+					generator.writeStringField(JsonConstants.TARGET, connection.get(1));
+					generator.writeEndObject();
+				}
+
+				generator.writeEndArray();
+				generator.writeEndObject();
+			}
+
+			generator.writeEndArray();
+			generator.writeArrayFieldStart(JsonConstants.DELIVERIES);
+
+			for (List<Object> element : elements) {
+				if (element.size() != 5) {
+					continue;
+				}
+
+				generator.writeStartObject();
+				generator.writeStringField(JsonConstants.ID, (String) element.get(0));
+				generator.writeStringField(JsonConstants.NAME, (String) element.get(1));
+				generator.writeStringField(JsonConstants.SOURCE, (String) element.get(2));
+				generator.writeStringField(JsonConstants.TARGET, (String) element.get(3));
+				generator.writeArrayFieldStart("position");
+				generator.writeNumber(1.0);
+				generator.writeNumber(2.0);
+				generator.writeEndArray();
+				writeProperties(generator, (Map<String, String>) element.get(4));
+				generator.writeEndObject();
+			}
+
+			generator.writeEndArray();
+			generator.writeEndObject();
+			generator.writeEndObject();
+		}
+	}
+
+	private static void writeProperties(JsonGenerator generator, Map<String, String> properties) throws Exception {
+		generator.writeArrayFieldStart(JsonConstants.PROPERTIES);
+
+		for (Map.Entry<String, String> entry : properties.entrySet()) {
+			generator.writeStartObject();
+			generator.writeStringField(JsonConstants.NAME, entry.getKey());
+
+			if (entry.getValue() != null) {
+				generator.writeStringField(JsonConstants.VALUE, entry.getValue());
+			} else {
+				generator.writeNumberField(JsonConstants.VALUE, 0.5);
+			}
+
+			generator.writeEndObject();
+		}
+
+		generator.writeEndArray();
+	}
+
+	private static List<List<Object>> readElements(JsonParser parser) throws Exception {
+		List<List<Object>> stations = new ArrayList<>();
+		List<List<Object>> deliveries = new ArrayList<>();
+
+		JsonElementsReader.readElements(parser, new JsonElementsReader.ElementHandler() {
+
+			@Override
+			public void station(String id, String name, Map<String, String> properties,
+					List<String[]> connections) {
+				List<List<String>> connectionLists = new ArrayList<>();
+
+				connections.forEach(c -> connectionLists.add(Arrays.asList(c)));
+				stations.add(Arrays.asList(id, name, properties, connectionLists));
+			}
+
+			@Override
+			public void delivery(String id, String name, String source, String target,
+					Map<String, String> properties) {
+				deliveries.add(Arrays.asList(id, name, source, target, properties));
+			}
+		});
+
+		stations.addAll(deliveries);
+
+		return stations;
+	}
+
+	private static Map<String, Object> properties(Object... namesAndValues) {
+		Map<String, Object> properties = new LinkedHashMap<>();
+
+		for (int i = 0; i < namesAndValues.length; i += 2) {
+			properties.put((String) namesAndValues[i], namesAndValues[i + 1]);
+		}
+
+		return properties;
+	}
+}
@@ -29,10 +29,8 @@ import java.util.Set;
 
 import org.apache.commons.math3.ml.clustering.Cluster;
 import org.apache.commons.math3.ml.clustering.Clusterable;
-import org.apache.commons.math3.ml.clustering.DBSCANClusterer;
 import org.apache.commons.math3.ml.clustering.KMeansPlusPlusClusterer;
 import org.apache.commons.math3.ml.clustering.MultiKMeansPlusPlusClusterer;
-import org.apache.commons.math3.ml.distance.DistanceMeasure;
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataColumnSpec;
 import org.knime.core.data.DataColumnSpecCreator;
@@ -111,11 +109,14 @@ public class DBSCANNodeModel extends NoInternalsNodeModel {
 		}
 
 		List<ClusterableRow> clusterableRows = new ArrayList<>();
+		int idIndex = spec.findColumnIndex(TracingColumns.ID);
+		int latIndex = spec.findColumnIndex(latColumn);
+		int lonIndex = spec.findColumnIndex(lonColumn);
 
 		for (DataRow row : table) {
-			String id = IO.getToCleanString(row.getCell(spec.findColumnIndex(TracingColumns.ID)));
-			Double lat = IO.getDouble(row.getCell(spec.findColumnIndex(latColumn)));
-			Double lon = IO.getDouble(row.getCell(spec.findColumnIndex(lonColumn)));
+			String id = IO.getToCleanString(row.getCell(idIndex));
+			Double lat = IO.getDouble(row.getCell(latIndex));
+			Double lon = IO.getDouble(row.getCell(lonIndex));
 
 			if (id == null || lat == null || lon == null || filteredOut.contains(id)) {
 				continue;
@@ -127,8 +128,8 @@ public class DBSCANNodeModel extends NoInternalsNodeModel {
 		List<? extends Cluster<ClusterableRow>> clusters;
 
 		if (set.getModel().equals(DBSCANNSettings.MODEL_DBSCAN)) {
-			clusters = new DBSCANClusterer<ClusterableRow>(set.getMaxDistance(), set.getMinPoints(),
-					new HaversineDistance()).cluster(clusterableRows);
+			clusters = new GeoDBSCANClusterer<ClusterableRow>(set.getMaxDistance(), set.getMinPoints())
+					.cluster(clusterableRows);
 		} else if (set.getModel().equals(DBSCANNSettings.MODEL_K_MEANS)) {
 			clusters = new MultiKMeansPlusPlusClusterer<ClusterableRow>(
 					new KMeansPlusPlusClusterer<>(set.getNumClusters(), -1, new HaversineDistance()), 5)
@@ -147,15 +148,16 @@ public class DBSCANNodeModel extends NoInternalsNodeModel {
 
 		DataTableSpec outSpec = createSpec(spec);
 		BufferedDataContainer container = exec.createDataContainer(outSpec);
+		int clusterIdIndex = outSpec.findColumnIndex(TracingColumns.CLUSTER_ID);
 
 		for (DataRow row : table) {
 			DataCell[] cells = new DataCell[outSpec.getNumColumns()];
 
-			for (String column : spec.getColumnNames()) {
-				cells[outSpec.findColumnIndex(column)] = row.getCell(spec.findColumnIndex(column));
+			for (int i = 0; i < spec.getNumColumns(); i++) {
+				cells[i] = row.getCell(i);
 			}
 
-			cells[outSpec.findColumnIndex(TracingColumns.CLUSTER_ID)] = IO.createCell(clusterIds.get(row.getKey()));
+			cells[clusterIdIndex] = IO.createCell(clusterIds.get(row.getKey()));
 			container.addRowToTable(new DefaultRow(row.getKey(), cells));
 			exec.checkCanceled();
 		}
@@ -232,21 +234,4 @@ public class DBSCANNodeModel extends NoInternalsNodeModel {
 			return point;
 		}
 	}
-
-	private static class HaversineDistance implements DistanceMeasure {
-
-		private static final long serialVersionUID = 1L;
-		private static final double AVERAGE_RADIUS_OF_EARTH = 6372.8;
-
-		@Override
-		public double compute(double[] p1, double[] p2) {
-			double d2LatSin = Math.sin((p2[0] - p1[0]) / 2);
-			double d2LonSin = Math.sin((p2[1] - p1[1]) / 2);
-
-			double a = d2LatSin * d2LatSin + Math.cos(p1[0]) * Math.cos(p2[0]) * d2LonSin * d2LonSin;
-
-			return 2 * AVERAGE_RADIUS_OF_EARTH * Math.asin(Math.sqrt(a));
-		}
-
-	}
 }
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.openkrise.util.cluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import org.apache.commons.math3.ml.clustering.Cluster;
+import org.apache.commons.math3.ml.clustering.Clusterable;
+
+/**
+ * DBSCAN for points given as latitude and longitude in radians, with {@link HaversineDistance}
+ * in km. The result is the same as the one of
+ * {@link org.apache.commons.math3.ml.clustering.DBSCANClusterer}: clusters are created in the
+ * order of their first core point, and a border point belongs to the first cluster that reaches
+ * it. Neighbors of a point do not include the point itself.
+ * <p>
+ * Instead of comparing each point with all others, the points are put into a grid of cubes on
+ * their unit sphere coordinates. The cubes are at least as large as the chord length, that
+ * corresponds to the maximum distance, so all neighbors of a point are found in the 27 cubes
+ * around it. Core points are determined in parallel.
+ */
+public class GeoDBSCANClusterer<T extends Clusterable> {
+
+	private static final int CELL_BITS = 21;
+	private static final int CELL_OFFSET = 1 << (CELL_BITS - 1);
+
+	private double maxDistance;
+	private int minPoints;
+	private HaversineDistance distance;
+
+	/**
+	 * @param maxDistance
+	 *            maximum distance in km between neighbors
+	 * @param minPoints
+	 *            minimum number of neighbors of a core point
+	 */
+	public GeoDBSCANClusterer(double maxDistance, int minPoints) {
+		this.maxDistance = maxDistance;
+		this.minPoints = minPoints;
+		distance = new HaversineDistance();
+	}
+
+	public List<Cluster<T>> cluster(List<T> points) {
+		Grid grid = new Grid(points);
+		int n = points.size();
+		boolean[] core = new boolean[n];
+
+		IntStream.range(0, n).parallel().forEach(i -> {
+			int[] count = { 0 };
+
+			grid.forEachNeighbor(i, j -> count[0]++);
+			core[i] = count[0] >= minPoints;
+		});
+
+		List<Cluster<T>> clusters = new ArrayList<>();
+		int[] clusterIndices = new int[n];
+		int[] queue = new int[n];
+		int noise = -2;
+		int unvisited = -1;
+
+		Arrays.fill(clusterIndices, unvisited);
+
+		for (int i = 0; i < n; i++) {
+			if (clusterIndices[i] != unvisited) {
+				continue;
+			} else if (!core[i]) {
+				clusterIndices[i] = noise;
+				continue;
+			}
+
+			Cluster<T> cluster = new Cluster<>();
+			int clusterIndex = clusters.size();
+			int[] queueSize = { 0 };
+
+			clusters.add(cluster);
+			clusterIndices[i] = clusterIndex;
+			cluster.addPoint(points.get(i));
+			queue[queueSize[0]++] = i;
+
+			for (int q = 0; q < queueSize[0]; q++) {
+				grid.forEachNeighbor(queue[q], j -> {
+					if (clusterIndices[j] < 0) {
+						if (core[j] && clusterIndices[j] == unvisited) {
+							queue[queueSize[0]++] = j;
+						}
+
+						clusterIndices[j] = clusterIndex;
+						cluster.addPoint(points.get(j));
+					}
+				});
+			}
+		}
+
+		return clusters;
+	}
+
+	private class Grid {
+
+		private List<T> points;
+		private long[] pointCells;
+		private double cellSize;
+		private Map<Long, int[]> cells;
+
+		public Grid(List<T> points) {
+			this.points = points;
+			pointCells = new long[points.size()];
+
+			double angle = maxDistance / HaversineDistance.AVERAGE_RADIUS_OF_EARTH;
+			double chord = angle < Math.PI ? 2.0 * Math.sin(angle / 2.0) : 2.0;
+
+			// the padding makes sure that rounding errors do not move a neighbor two cells away
+			cellSize = Math.max(chord * (1.0 + 1e-9) + 1e-12, 2.0 / CELL_OFFSET);
+
+			Map<Long, List<Integer>> cellLists = new HashMap<>();
+
+			for (int i = 0; i < points.size(); i++) {
+				double[] p = points.get(i).getPoint();
+				double cosLat = Math.cos(p[0]);
+
+				pointCells[i] = getCell(toCell(cosLat * Math.cos(p[1])), toCell(cosLat * Math.sin(p[1])),
+						toCell(Math.sin(p[0])));
+				cellLists.computeIfAbsent(pointCells[i], c -> new ArrayList<>()).add(i);
+			}
+
+			cells = new HashMap<>(cellLists.size() * 2);
+			cellLists.forEach((cell, list) -> cells.put(cell, list.stream().mapToInt(Integer::intValue).toArray()));
+		}
+
+		/**
+		 * Calls {@code consumer} for each neighbor of point {@code i}.
+		 */
+		public void forEachNeighbor(int i, IntConsumer consumer) {
+			long cell = pointCells[i];
+			int x = (int) (cell >>> (2 * CELL_BITS));
+			int y = (int) ((cell >>> CELL_BITS) & ((1 << CELL_BITS) - 1));
+			int z = (int) (cell & ((1 << CELL_BITS) - 1));
+			double[] point = points.get(i).getPoint();
+
+			for (int dx = -1; dx <= 1; dx++) {
+				for (int dy = -1; dy <= 1; dy++) {
+					for (int dz = -1; dz <= 1; dz++) {
+						int[] candidates = cells.get(getCell(x + dx, y + dy, z + dz));
+
+						if (candidates == null) {
+							continue;
+						}
+
+						for (int j : candidates) {
+							if (j != i && distance.compute(points.get(j).getPoint(), point) <= maxDistance) {
+								consumer.accept(j);
+							}
+						}
+					}
+				}
+			}
+		}
+
+		private int toCell(double coordinate) {
+			return (int) Math.floor(coordinate / cellSize) + CELL_OFFSET;
+		}
+
+		private long getCell(int x, int y, int z) {
+			return ((long) x << (2 * CELL_BITS)) | ((long) y << CELL_BITS) | z;
+		}
+	}
+}
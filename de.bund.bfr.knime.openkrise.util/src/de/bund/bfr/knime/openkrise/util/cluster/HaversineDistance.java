@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.openkrise.util.cluster;
+
+import org.apache.commons.math3.ml.distance.DistanceMeasure;
+
+/**
+ * Great circle distance in km between two points given as latitude and longitude in radians.
+ */
+class HaversineDistance implements DistanceMeasure {
+
+	private static final long serialVersionUID = 1L;
+
+	static final double AVERAGE_RADIUS_OF_EARTH = 6372.8;
+
+	@Override
+	public double compute(double[] p1, double[] p2) {
+		double d2LatSin = Math.sin((p2[0] - p1[0]) / 2);
+		double d2LonSin = Math.sin((p2[1] - p1[1]) / 2);
+
+		double a = d2LatSin * d2LatSin + Math.cos(p1[0]) * Math.cos(p2[0]) * d2LonSin * d2LonSin;
+
+		return 2 * AVERAGE_RADIUS_OF_EARTH * Math.asin(Math.sqrt(a));
+	}
+}
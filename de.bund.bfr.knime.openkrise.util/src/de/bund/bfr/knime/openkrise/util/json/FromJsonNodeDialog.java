@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.openkrise.util.json;
+
+import org.knime.core.node.defaultnodesettings.DefaultNodeSettingsPane;
+import org.knime.core.node.defaultnodesettings.DialogComponentFileChooser;
+import org.knime.core.node.defaultnodesettings.SettingsModelString;
+
+public class FromJsonNodeDialog extends DefaultNodeSettingsPane {
+
+	/**
+	 * New pane for configuring the FromJson node.
+	 */
+	public FromJsonNodeDialog() {
+		DialogComponentFileChooser jsonDialog = new DialogComponentFileChooser(
+				new SettingsModelString(FromJsonNodeModel.JSON_FILE, null), "JsonFileHistory", ".json");
+
+		jsonDialog.setBorderTitle("JSON File (optional)");
+		addDialogComponent(jsonDialog);
+	}
+}
@@ -20,17 +20,13 @@
 package de.bund.bfr.knime.openkrise.util.json;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-
-import javax.json.JsonArray;
-import javax.json.JsonObject;
-import javax.json.JsonString;
-import javax.json.JsonValue;
+import java.util.Set;
+import java.util.concurrent.Callable;
 
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataColumnSpec;
@@ -44,67 +40,56 @@ import org.knime.core.data.def.StringCell;
 import org.knime.core.data.json.JSONValue;
 import org.knime.core.node.BufferedDataContainer;
 import org.knime.core.node.BufferedDataTable;
-import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
-import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.InvalidSettingsException;
-import org.knime.core.node.NoSettingsNodeModel;
-
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.defaultnodesettings.SettingsModelString;
+import org.knime.core.node.port.PortType;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.google.common.base.Strings;
 import com.google.common.collect.Iterables;
 
+import de.bund.bfr.knime.KnimeUtils;
+import de.bund.bfr.knime.NoInternalsNodeModel;
 import de.bund.bfr.knime.openkrise.TracingColumns;
 
 /**
  * @author Christian Thoens
  */
-public class FromJsonNodeModel extends NoSettingsNodeModel {
+public class FromJsonNodeModel extends NoInternalsNodeModel {
+
+	protected static final String JSON_FILE = "FileName";
+
+	private static final JsonFactory FACTORY = new JsonFactory();
+
+	private SettingsModelString jsonFile;
 
 	/**
 	 * Constructor for the node model.
 	 */
 	protected FromJsonNodeModel() {
-		super(1, 3);
+		super(new PortType[] { BufferedDataTable.TYPE_OPTIONAL },
+				new PortType[] { BufferedDataTable.TYPE, BufferedDataTable.TYPE, BufferedDataTable.TYPE });
+		jsonFile = new SettingsModelString(JSON_FILE, null);
 	}
 
 	@Override
 	protected BufferedDataTable[] execute(BufferedDataTable[] inData, ExecutionContext exec) throws Exception {
-		DataRow row = Iterables.getFirst(inData[0], null);
-		DataCell cell = row.getCell(inData[0].getSpec().findColumnIndex(JsonConstants.JSON_COLUMN));
-
-		if (cell.isMissing()) {
-			throw new Exception("Cell in " + JsonConstants.JSON_COLUMN + " is missing");
-		}
-
-		JsonObject json = (JsonObject) ((JSONValue) cell).getJsonValue();
-
-		if (!json.containsKey(JsonConstants.ELEMENTS)) {
-			throw new Exception("Wrong json format. Must be exported from FoodChain-Lab Web App");
-		}
-
-		JsonObject elements = (JsonObject) json.get(JsonConstants.ELEMENTS);
-		JsonArray stations = elements.getJsonArray(JsonConstants.STATIONS);
-		JsonArray deliveries = elements.getJsonArray(JsonConstants.DELIVERIES);
-		Map<String, DataType> stationColumns = new LinkedHashMap<>();
-		Map<String, DataType> deliveryColumns = new LinkedHashMap<>();
-
-		for (JsonValue s : stations) {
-			for (JsonValue prop : ((JsonObject) s).getJsonArray(JsonConstants.PROPERTIES)) {
-				stationColumns.put(((JsonObject) prop).getString(JsonConstants.NAME), StringCell.TYPE);
-			}
-		}
+		Callable<JsonParser> parsers = createParsers(inData[0]);
+		Set<String> stationColumns = new LinkedHashSet<>();
+		Set<String> deliveryColumns = new LinkedHashSet<>();
 
-		for (JsonValue d : deliveries) {
-			for (JsonValue prop : ((JsonObject) d).getJsonArray(JsonConstants.PROPERTIES)) {
-				deliveryColumns.put(((JsonObject) prop).getString(JsonConstants.NAME), StringCell.TYPE);
-			}
-		}
+		JsonElementsReader.readPropertyNames(parsers.call(), stationColumns, deliveryColumns);
 
-		stationColumns.put(TracingColumns.ID, StringCell.TYPE);
-		stationColumns.put(TracingColumns.NAME, StringCell.TYPE);
-		deliveryColumns.put(TracingColumns.ID, StringCell.TYPE);
-		deliveryColumns.put(TracingColumns.NAME, StringCell.TYPE);
-		deliveryColumns.put(TracingColumns.FROM, StringCell.TYPE);
-		deliveryColumns.put(TracingColumns.TO, StringCell.TYPE);
+		stationColumns.add(TracingColumns.ID);
+		stationColumns.add(TracingColumns.NAME);
+		deliveryColumns.add(TracingColumns.ID);
+		deliveryColumns.add(TracingColumns.NAME);
+		deliveryColumns.add(TracingColumns.FROM);
+		deliveryColumns.add(TracingColumns.TO);
 
 		DataTableSpec stationsSpec = toTableSpec(stationColumns);
 		DataTableSpec deliveriesSpec = toTableSpec(deliveryColumns);
@@ -114,76 +99,44 @@ public class FromJsonNodeModel extends NoSettingsNodeModel {
 		BufferedDataContainer stationsContainer = exec.createDataContainer(stationsSpec);
 		BufferedDataContainer deliveriesContainer = exec.createDataContainer(deliveriesSpec);
 		BufferedDataContainer deliveryRelationsContainer = exec.createDataContainer(deliveryRelationsSpec);
-		long stationsIndex = 0;
-		long deliveriesIndex = 0;
-		long deliveryRelationsIndex = 0;
 
-		for (JsonValue s : stations) {
-			DataCell[] cells = new DataCell[stationsSpec.getNumColumns()];
+		JsonElementsReader.readElements(parsers.call(), new JsonElementsReader.ElementHandler() {
 
-			Arrays.fill(cells, DataType.getMissingCell());
+			private long stationsIndex = 0;
+			private long deliveriesIndex = 0;
+			private long deliveryRelationsIndex = 0;
 
-			JsonObject station = (JsonObject) s;
+			@Override
+			public void station(String id, String name, Map<String, String> properties, List<String[]> connections)
+					throws Exception {
+				DataCell[] cells = createCells(stationsSpec, properties);
 
-			for (JsonValue prop : station.getJsonArray(JsonConstants.PROPERTIES)) {
-				String name = ((JsonObject) prop).getString(JsonConstants.NAME);
-				JsonValue value = ((JsonObject) prop).get(JsonConstants.VALUE);
+				cells[stationsSpec.findColumnIndex(TracingColumns.ID)] = new StringCell(readStationId(id));
+				cells[stationsSpec.findColumnIndex(TracingColumns.NAME)] = new StringCell(name);
+				stationsContainer.addRowToTable(new DefaultRow(RowKey.createRowKey(stationsIndex++), cells));
 
-				if (stationsSpec.containsName(name)) {
-					cells[stationsSpec.findColumnIndex(name)] = value instanceof JsonString
-							? new StringCell(((JsonString) value).getString()) : DataType.getMissingCell();
+				for (String[] c : connections) {
+					deliveryRelationsContainer.addRowToTable(
+							new DefaultRow(RowKey.createRowKey(deliveryRelationsIndex++),
+									new StringCell(readDeliveryId(c[0])), new StringCell(readDeliveryId(c[1]))));
 				}
-			}
 
-			cells[stationsSpec.findColumnIndex(TracingColumns.ID)] = new StringCell(
-					readStationId(station.getString(JsonConstants.ID)));
-			cells[stationsSpec.findColumnIndex(TracingColumns.NAME)] = new StringCell(
-					station.getString(JsonConstants.NAME));
-
-			stationsContainer.addRowToTable(new DefaultRow(RowKey.createRowKey(stationsIndex++), cells));
-
-			JsonValue connections = station.get(JsonConstants.CONNECTIONS);
-
-			if (connections instanceof JsonArray) {
-				for (JsonValue c : (JsonArray) connections) {
-					if (c instanceof JsonObject) {
-						deliveryRelationsContainer.addRowToTable(new DefaultRow(
-								RowKey.createRowKey(deliveryRelationsIndex++),
-								new StringCell(readDeliveryId(((JsonObject) c).getString(JsonConstants.SOURCE))),
-								new StringCell(readDeliveryId(((JsonObject) c).getString(JsonConstants.TARGET)))));
-					}
-				}
+				exec.checkCanceled();
 			}
-		}
-
-		for (JsonValue d : deliveries) {
-			DataCell[] cells = new DataCell[deliveriesSpec.getNumColumns()];
-
-			Arrays.fill(cells, DataType.getMissingCell());
-
-			JsonObject delivery = (JsonObject) d;
 
-			for (JsonValue prop : delivery.getJsonArray(JsonConstants.PROPERTIES)) {
-				String name = ((JsonObject) prop).getString(JsonConstants.NAME);
-				JsonValue value = ((JsonObject) prop).get(JsonConstants.VALUE);
-
-				if (deliveriesSpec.containsName(name)) {
-					cells[deliveriesSpec.findColumnIndex(name)] = value instanceof JsonString
-							? new StringCell(((JsonString) value).getString()) : DataType.getMissingCell();
-				}
+			@Override
+			public void delivery(String id, String name, String source, String target,
+					Map<String, String> properties) throws Exception {
+				DataCell[] cells = createCells(deliveriesSpec, properties);
+
+				cells[deliveriesSpec.findColumnIndex(TracingColumns.ID)] = new StringCell(readDeliveryId(id));
+				cells[deliveriesSpec.findColumnIndex(TracingColumns.NAME)] = new StringCell(name);
+				cells[deliveriesSpec.findColumnIndex(TracingColumns.FROM)] = new StringCell(readStationId(source));
+				cells[deliveriesSpec.findColumnIndex(TracingColumns.TO)] = new StringCell(readStationId(target));
+				deliveriesContainer.addRowToTable(new DefaultRow(RowKey.createRowKey(deliveriesIndex++), cells));
+				exec.checkCanceled();
 			}
-
-			cells[deliveriesSpec.findColumnIndex(TracingColumns.ID)] = new StringCell(
-					readDeliveryId(delivery.getString(JsonConstants.ID)));
-			cells[deliveriesSpec.findColumnIndex(TracingColumns.NAME)] = new StringCell(
-					delivery.getString(JsonConstants.NAME));
-			cells[deliveriesSpec.findColumnIndex(TracingColumns.FROM)] = new StringCell(
-					readStationId(delivery.getString(JsonConstants.SOURCE)));
-			cells[deliveriesSpec.findColumnIndex(TracingColumns.TO)] = new StringCell(
-					readStationId(delivery.getString(JsonConstants.TARGET)));
-
-			deliveriesContainer.addRowToTable(new DefaultRow(RowKey.createRowKey(deliveriesIndex++), cells));
-		}
+		});
 
 		stationsContainer.close();
 		deliveriesContainer.close();
@@ -195,7 +148,11 @@ public class FromJsonNodeModel extends NoSettingsNodeModel {
 
 	@Override
 	protected DataTableSpec[] configure(DataTableSpec[] inSpecs) throws InvalidSettingsException {
-		if (!inSpecs[0].containsName(JsonConstants.JSON_COLUMN)) {
+		if (!Strings.isNullOrEmpty(jsonFile.getStringValue())) {
+			return null;
+		} else if (inSpecs[0] == null) {
+			throw new InvalidSettingsException("No file name specified and no JSON table connected");
+		} else if (!inSpecs[0].containsName(JsonConstants.JSON_COLUMN)) {
 			throw new InvalidSettingsException(JsonConstants.JSON_COLUMN + " is missing");
 		} else if (!inSpecs[0].getColumnSpec(JsonConstants.JSON_COLUMN).getType().isCompatible(JSONValue.class)) {
 			throw new InvalidSettingsException(JsonConstants.JSON_COLUMN + " must be of type JSON");
@@ -205,23 +162,77 @@ public class FromJsonNodeModel extends NoSettingsNodeModel {
 	}
 
 	@Override
-	protected void loadInternals(File nodeInternDir, ExecutionMonitor exec)
-			throws IOException, CanceledExecutionException {
+	protected void saveSettingsTo(NodeSettingsWO settings) {
+		jsonFile.saveSettingsTo(settings);
+	}
+
+	@Override
+	protected void loadValidatedSettingsFrom(NodeSettingsRO settings) throws InvalidSettingsException {
+		try {
+			jsonFile.loadSettingsFrom(settings);
+		} catch (InvalidSettingsException e) {
+			// Nodes created before the file option always read the JSON cell
+			jsonFile.setStringValue(null);
+		}
 	}
 
 	@Override
-	protected void saveInternals(File nodeInternDir, ExecutionMonitor exec)
-			throws IOException, CanceledExecutionException {
+	protected void validateSettings(NodeSettingsRO settings) throws InvalidSettingsException {
 	}
 
-	private static DataTableSpec toTableSpec(Map<String, DataType> columns) {
+	/**
+	 * The document is read twice, once for the column names and once for the rows. A file is
+	 * therefore parsed twice as a stream and never held in memory. The document of the JSON cell is
+	 * serialized once and the string is parsed as a stream, without building a Jackson tree.
+	 */
+	private Callable<JsonParser> createParsers(BufferedDataTable table) throws Exception {
+		if (!Strings.isNullOrEmpty(jsonFile.getStringValue())) {
+			File file = KnimeUtils.getFile(jsonFile.getStringValue());
+
+			return () -> FACTORY.createParser(file);
+		}
+
+		DataRow row = Iterables.getFirst(table, null);
+
+		if (row == null) {
+			throw new Exception("Table with " + JsonConstants.JSON_COLUMN + " is empty");
+		}
+
+		DataCell cell = row.getCell(table.getSpec().findColumnIndex(JsonConstants.JSON_COLUMN));
+
+		if (cell.isMissing()) {
+			throw new Exception("Cell in " + JsonConstants.JSON_COLUMN + " is missing");
+		}
+
+		String json = ((JSONValue) cell).getJsonValue().toString();
+
+		return () -> FACTORY.createParser(json);
+	}
+
+	private static DataTableSpec toTableSpec(Set<String> columns) {
 		List<DataColumnSpec> columnSpecs = new ArrayList<>();
 
-		columns.forEach((name, type) -> columnSpecs.add(new DataColumnSpecCreator(name, type).createSpec()));
+		columns.forEach(name -> columnSpecs.add(new DataColumnSpecCreator(name, StringCell.TYPE).createSpec()));
 
 		return new DataTableSpec(columnSpecs.toArray(new DataColumnSpec[0]));
 	}
 
+	private static DataCell[] createCells(DataTableSpec spec, Map<String, String> properties) {
+		DataCell[] cells = new DataCell[spec.getNumColumns()];
+
+		Arrays.fill(cells, DataType.getMissingCell());
+
+		properties.forEach((name, value) -> {
+			int index = spec.findColumnIndex(name);
+
+			if (index != -1 && value != null) {
+				cells[index] = new StringCell(value);
+			}
+		});
+
+		return cells;
+	}
+
 	private static String readStationId(String id) throws Exception {
 		if (id.startsWith(JsonConstants.STATION_ID_PREFIX)) {
 			return id.substring(JsonConstants.STATION_ID_PREFIX.length());
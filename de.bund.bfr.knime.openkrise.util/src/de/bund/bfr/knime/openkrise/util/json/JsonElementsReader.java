@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.openkrise.util.json;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads the stations and deliveries of a FoodChain-Lab Web App json document with a streaming
+ * parser. Only one station or delivery is held in memory at a time, so the document is read
+ * twice: once to collect the property names ({@link #readPropertyNames}) and once to read the
+ * elements ({@link #readElements}). Both methods close the parser.
+ */
+public class JsonElementsReader {
+
+	public interface ElementHandler {
+
+		void station(String id, String name, Map<String, String> properties, List<String[]> connections)
+				throws Exception;
+
+		void delivery(String id, String name, String source, String target, Map<String, String> properties)
+				throws Exception;
+	}
+
+	private JsonElementsReader() {
+	}
+
+	/**
+	 * Adds the names of all station and delivery properties in the order of their first
+	 * occurrence. All other values are skipped without being read.
+	 */
+	public static void readPropertyNames(JsonParser parser, Set<String> stationProperties,
+			Set<String> deliveryProperties) throws Exception {
+		try {
+			readElementArrays(parser, (array, p) -> {
+				Set<String> properties = array.equals(JsonConstants.STATIONS) ? stationProperties
+						: deliveryProperties;
+
+				while (p.nextToken() == JsonToken.FIELD_NAME) {
+					String field = p.getCurrentName();
+
+					if (p.nextToken() == JsonToken.START_ARRAY && field.equals(JsonConstants.PROPERTIES)) {
+						for (String[] property : readProperties(p)) {
+							properties.add(property[0]);
+						}
+					} else {
+						p.skipChildren();
+					}
+				}
+			});
+		} finally {
+			parser.close();
+		}
+	}
+
+	public static void readElements(JsonParser parser, ElementHandler handler) throws Exception {
+		try {
+			readElementArrays(parser, (array, p) -> {
+				Map<String, String> values = new LinkedHashMap<>();
+				Map<String, String> properties = new LinkedHashMap<>();
+				List<String[]> connections = new ArrayList<>();
+
+				while (p.nextToken() == JsonToken.FIELD_NAME) {
+					String field = p.getCurrentName();
+					JsonToken token = p.nextToken();
+
+					if (token == JsonToken.START_ARRAY && field.equals(JsonConstants.PROPERTIES)) {
+						for (String[] property : readProperties(p)) {
+							properties.put(property[0], property[1]);
+						}
+					} else if (token == JsonToken.START_ARRAY && field.equals(JsonConstants.CONNECTIONS)) {
+						while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+							if (token == JsonToken.START_OBJECT) {
+								Map<String, String> connection = readStrings(p);
+
+								connections.add(new String[] { getString(connection, JsonConstants.SOURCE),
+										getString(connection, JsonConstants.TARGET) });
+							} else {
+								p.skipChildren();
+							}
+						}
+					} else if (token == JsonToken.VALUE_STRING) {
+						values.put(field, p.getText());
+					} else {
+						p.skipChildren();
+					}
+				}
+
+				String id = getString(values, JsonConstants.ID);
+				String name = getString(values, JsonConstants.NAME);
+
+				if (array.equals(JsonConstants.STATIONS)) {
+					handler.station(id, name, properties, connections);
+				} else {
+					handler.delivery(id, name, getString(values, JsonConstants.SOURCE),
+							getString(values, JsonConstants.TARGET), properties);
+				}
+			});
+		} finally {
+			parser.close();
+		}
+	}
+
+	private static void readElementArrays(JsonParser parser, ObjectHandler handler) throws Exception {
+		boolean elementsFound = false;
+
+		if (parser.nextToken() == JsonToken.START_OBJECT) {
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+
+				if (parser.nextToken() != JsonToken.START_OBJECT || !field.equals(JsonConstants.ELEMENTS)) {
+					parser.skipChildren();
+					continue;
+				}
+
+				elementsFound = true;
+
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					String array = parser.getCurrentName();
+
+					if (parser.nextToken() != JsonToken.START_ARRAY
+							|| !(array.equals(JsonConstants.STATIONS) || array.equals(JsonConstants.DELIVERIES))) {
+						parser.skipChildren();
+						continue;
+					}
+
+					JsonToken token;
+
+					while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+						if (token != JsonToken.START_OBJECT) {
+							throw new Exception("Wrong json format. Element in " + array + " is not an object");
+						}
+
+						handler.read(array, parser);
+					}
+				}
+			}
+		}
+
+		if (!elementsFound) {
+			throw new Exception("Wrong json format. Must be exported from FoodChain-Lab Web App");
+		}
+	}
+
+	/**
+	 * Reads an array of property objects as name-value pairs. A value is {@code null} if it is not
+	 * a string.
+	 */
+	private static List<String[]> readProperties(JsonParser parser) throws Exception {
+		List<String[]> properties = new ArrayList<>();
+		JsonToken token;
+
+		while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+			if (token != JsonToken.START_OBJECT) {
+				throw new Exception("Wrong json format. Element in " + JsonConstants.PROPERTIES + " is not an object");
+			}
+
+			Map<String, String> property = readStrings(parser);
+
+			properties.add(new String[] { getString(property, JsonConstants.NAME), property.get(JsonConstants.VALUE) });
+		}
+
+		return properties;
+	}
+
+	private static Map<String, String> readStrings(JsonParser parser) throws IOException {
+		Map<String, String> values = new LinkedHashMap<>();
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+
+			if (parser.nextToken() == JsonToken.VALUE_STRING) {
+				values.put(field, parser.getText());
+			} else {
+				parser.skipChildren();
+			}
+		}
+
+		return values;
+	}
+
+	private static String getString(Map<String, String> values, String field) throws Exception {
+		String value = values.get(field);
+
+		if (value == null) {
+			throw new Exception("Wrong json format. String \"" + field + "\" is missing");
+		}
+
+		return value;
+	}
+
+	private static interface ObjectHandler {
+
+		void read(String array, JsonParser parser) throws Exception;
+	}
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.openkrise.util.json;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import de.bund.bfr.knime.gis.views.canvas.element.Edge;
+import de.bund.bfr.knime.gis.views.canvas.element.GraphNode;
+import de.bund.bfr.knime.openkrise.TracingColumns;
+import de.bund.bfr.knime.openkrise.common.Delivery;
+
+/**
+ * Writes a FoodChain-Lab network in the json format of the FoodChain-Lab Web App with a streaming
+ * generator. The stations, deliveries and delivery relations are written one by one, so that only
+ * the generator's buffer is held in addition to the network.
+ */
+public class JsonNetworkWriter {
+
+	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+	private JsonNetworkWriter() {
+	}
+
+	public static void write(JsonGenerator generator, Collection<GraphNode> stations,
+			List<Edge<GraphNode>> deliveries, Map<String, Delivery> deliveryInfos, ExecutionMonitor exec)
+			throws IOException, CanceledExecutionException {
+		generator.writeStartObject();
+		generator.writeArrayFieldStart(JsonConstants.STATIONS);
+
+		for (GraphNode s : stations) {
+			generator.writeStartObject();
+			generator.writeStringField(JsonConstants.ID, createStationId(s.getId()));
+			writeIfNotNull(generator, JsonConstants.NAME, s.getProperties().get(TracingColumns.NAME));
+
+			for (Map.Entry<String, Object> entry : s.getProperties().entrySet()) {
+				if (!JsonConstants.STATION_PROPERTIES.contains(entry.getKey())) {
+					writeIfNotNull(generator, entry.getKey(), entry.getValue());
+				}
+			}
+
+			generator.writeEndObject();
+			exec.checkCanceled();
+		}
+
+		generator.writeEndArray();
+		generator.writeArrayFieldStart(JsonConstants.DELIVERIES);
+
+		for (Edge<GraphNode> d : deliveries) {
+			Delivery delivery = deliveryInfos.get(d.getId());
+			Integer year = delivery.getDepartureYear();
+			Integer month = delivery.getDepartureMonth();
+			Integer day = delivery.getDepartureDay();
+
+			generator.writeStartObject();
+			generator.writeStringField(JsonConstants.ID, createDeliveryId(d.getId()));
+			generator.writeStringField(JsonConstants.SOURCE, createStationId(d.getFrom().getId()));
+			generator.writeStringField(JsonConstants.TARGET, createStationId(d.getTo().getId()));
+			writeIfNotNull(generator, JsonConstants.NAME, d.getProperties().get(TracingColumns.NAME));
+			writeIfNotNull(generator, JsonConstants.LOT, delivery.getLot());
+
+			if (year != null && month != null && day != null) {
+				generator.writeStringField(JsonConstants.DATE,
+						LocalDate.of(year, Month.of(month), day).format(DATE_FORMAT));
+			}
+
+			for (Map.Entry<String, Object> entry : d.getProperties().entrySet()) {
+				if (!JsonConstants.DELIVERY_PROPERTIES.contains(entry.getKey())) {
+					writeIfNotNull(generator, entry.getKey(), entry.getValue());
+				}
+			}
+
+			generator.writeEndObject();
+			exec.checkCanceled();
+		}
+
+		generator.writeEndArray();
+		generator.writeArrayFieldStart(JsonConstants.DELIVERY_RELATIONS);
+
+		for (Edge<GraphNode> d : deliveries) {
+			for (String next : deliveryInfos.get(d.getId()).getAllNextIds()) {
+				generator.writeStartObject();
+				generator.writeStringField(JsonConstants.SOURCE, createDeliveryId(d.getId()));
+				generator.writeStringField(JsonConstants.TARGET, createDeliveryId(next));
+				generator.writeEndObject();
+			}
+		}
+
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	private static void writeIfNotNull(JsonGenerator generator, String fieldName, Object value)
+			throws IOException {
+		if (value != null) {
+			if (value instanceof Number) {
+				generator.writeNumberField(fieldName, ((Number) value).doubleValue());
+			} else if (value instanceof Boolean) {
+				generator.writeBooleanField(fieldName, ((Boolean) value).booleanValue());
+			} else {
+				generator.writeStringField(fieldName, value.toString());
+			}
+		}
+	}
+
+	private static String createStationId(String id) {
+		return JsonConstants.STATION_ID_PREFIX + id;
+	}
+
+	private static String createDeliveryId(String id) {
+		return JsonConstants.DELIVERY_ID_PREFIX + id;
+	}
+}
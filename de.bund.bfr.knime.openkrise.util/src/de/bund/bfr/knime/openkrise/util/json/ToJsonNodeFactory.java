@@ -60,7 +60,7 @@ public class ToJsonNodeFactory extends NodeFactory<ToJsonNodeModel> {
 	 */
 	@Override
 	public boolean hasDialog() {
-		return false;
+		return true;
 	}
 
 	/**
@@ -68,7 +68,7 @@ public class ToJsonNodeFactory extends NodeFactory<ToJsonNodeModel> {
 	 */
 	@Override
 	public NodeDialogPane createNodeDialogPane() {
-		return null;
+		return new ToJsonNodeDialog();
 	}
 
 }
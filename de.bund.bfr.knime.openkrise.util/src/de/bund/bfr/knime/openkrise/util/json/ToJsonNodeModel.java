@@ -19,11 +19,7 @@
  *******************************************************************************/
 package de.bund.bfr.knime.openkrise.util.json;
 
-import java.io.File;
-import java.io.IOException;
-import java.time.LocalDate;
-import java.time.Month;
-import java.time.format.DateTimeFormatter;
+import java.io.StringWriter;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,20 +30,21 @@ import org.knime.core.data.RowKey;
 import org.knime.core.data.def.DefaultRow;
 import org.knime.core.data.json.JSONCell;
 import org.knime.core.data.json.JSONCellFactory;
-import org.knime.core.data.json.JacksonConversions;
 import org.knime.core.node.BufferedDataContainer;
 import org.knime.core.node.BufferedDataTable;
-import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
-import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.InvalidSettingsException;
-import org.knime.core.node.NoSettingsNodeModel;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.defaultnodesettings.SettingsModelString;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.github.fge.jackson.JacksonUtils;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.base.Strings;
 
+import de.bund.bfr.knime.KnimeUtils;
+import de.bund.bfr.knime.NoInternalsNodeModel;
 import de.bund.bfr.knime.gis.views.canvas.element.Edge;
 import de.bund.bfr.knime.gis.views.canvas.element.GraphNode;
 import de.bund.bfr.knime.gis.views.canvas.util.EdgePropertySchema;
@@ -59,13 +56,20 @@ import de.bund.bfr.knime.openkrise.common.Delivery;
 /**
  * @author Christian Thoens
  */
-public class ToJsonNodeModel extends NoSettingsNodeModel {
+public class ToJsonNodeModel extends NoInternalsNodeModel {
+
+	protected static final String JSON_FILE = "FileName";
+
+	private static final JsonFactory FACTORY = new JsonFactory();
+
+	private SettingsModelString jsonFile;
 
 	/**
 	 * Constructor for the node model.
 	 */
 	protected ToJsonNodeModel() {
 		super(3, 1);
+		jsonFile = new SettingsModelString(JSON_FILE, null);
 	}
 
 	@Override
@@ -91,59 +95,23 @@ public class ToJsonNodeModel extends NoSettingsNodeModel {
 				"Deliveries Relations Table: Row " + key.getString() + " skipped (" + value + ")"));
 
 		BufferedDataContainer container = exec.createDataContainer(configure(null)[0]);
-		JsonNodeFactory nodeFactory = JacksonUtils.nodeFactory();
-		ObjectNode rootNode = nodeFactory.objectNode();
-		ArrayNode stationsNode = rootNode.putArray(JsonConstants.STATIONS);
-		ArrayNode deliveriesNode = rootNode.putArray(JsonConstants.DELIVERIES);
-		ArrayNode deliveryRelationsNode = rootNode.putArray(JsonConstants.DELIVERY_RELATIONS);
-
-		for (GraphNode s : nodes.values()) {
-			ObjectNode node = stationsNode.addObject();
-
-			node.put(JsonConstants.ID, createStationId(s.getId()));
-			addIfNotNull(node, JsonConstants.NAME, s.getProperties().get(TracingColumns.NAME));
-
-			s.getProperties().forEach((name, value) -> {
-				if (!JsonConstants.STATION_PROPERTIES.contains(name)) {
-					addIfNotNull(node, name, value);
-				}
-			});
-		}
 
-		for (Edge<GraphNode> d : edges) {
-			ObjectNode node = deliveriesNode.addObject();
-
-			node.put(JsonConstants.ID, createDeliveryId(d.getId()));
-			node.put(JsonConstants.SOURCE, createStationId(d.getFrom().getId()));
-			node.put(JsonConstants.TARGET, createStationId(d.getTo().getId()));
-			addIfNotNull(node, JsonConstants.NAME, d.getProperties().get(TracingColumns.NAME));
-			addIfNotNull(node, JsonConstants.LOT, deliveries.get(d.getId()).getLot());
-
-			Integer year = deliveries.get(d.getId()).getDepartureYear();
-			Integer month = deliveries.get(d.getId()).getDepartureMonth();
-			Integer day = deliveries.get(d.getId()).getDepartureDay();
-
-			if (year != null && month != null && day != null) {
-				node.put(JsonConstants.DATE,
-						LocalDate.of(year, Month.of(month), day).format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
+		if (!Strings.isNullOrEmpty(jsonFile.getStringValue())) {
+			try (JsonGenerator generator = FACTORY.createGenerator(KnimeUtils.getFile(jsonFile.getStringValue()),
+					JsonEncoding.UTF8)) {
+				JsonNetworkWriter.write(generator, nodes.values(), edges, deliveries, exec);
 			}
+		} else {
+			StringWriter json = new StringWriter();
 
-			d.getProperties().forEach((name, value) -> {
-				if (!JsonConstants.DELIVERY_PROPERTIES.contains(name)) {
-					addIfNotNull(node, name, value);
-				}
-			});
-
-			for (String next : deliveries.get(d.getId()).getAllNextIds()) {
-				ObjectNode n = deliveryRelationsNode.addObject();
-
-				n.put(JsonConstants.SOURCE, createDeliveryId(d.getId()));
-				n.put(JsonConstants.TARGET, createDeliveryId(next));
+			try (JsonGenerator generator = FACTORY.createGenerator(json)) {
+				JsonNetworkWriter.write(generator, nodes.values(), edges, deliveries, exec);
 			}
+
+			container.addRowToTable(
+					new DefaultRow(RowKey.createRowKey(0L), JSONCellFactory.create(json.toString(), false)));
 		}
 
-		container.addRowToTable(new DefaultRow(RowKey.createRowKey(0L),
-				JSONCellFactory.create(JacksonConversions.getInstance().toJSR353(rootNode))));
 		container.close();
 
 		return new BufferedDataTable[] { container.getTable() };
@@ -156,32 +124,21 @@ public class ToJsonNodeModel extends NoSettingsNodeModel {
 	}
 
 	@Override
-	protected void loadInternals(File nodeInternDir, ExecutionMonitor exec)
-			throws IOException, CanceledExecutionException {
+	protected void saveSettingsTo(NodeSettingsWO settings) {
+		jsonFile.saveSettingsTo(settings);
 	}
 
 	@Override
-	protected void saveInternals(File nodeInternDir, ExecutionMonitor exec)
-			throws IOException, CanceledExecutionException {
-	}
-
-	private static void addIfNotNull(ObjectNode node, String fieldName, Object value) {
-		if (value != null) {
-			if (value instanceof Number) {
-				node.put(fieldName, ((Number) value).doubleValue());
-			} else if (value instanceof Boolean) {
-				node.put(fieldName, ((Boolean) value).booleanValue());
-			} else {
-				node.put(fieldName, value.toString());
-			}
+	protected void loadValidatedSettingsFrom(NodeSettingsRO settings) throws InvalidSettingsException {
+		try {
+			jsonFile.loadSettingsFrom(settings);
+		} catch (InvalidSettingsException e) {
+			// Nodes created before the file option always write the JSON cell
+			jsonFile.setStringValue(null);
 		}
 	}
 
-	private static String createStationId(String id) {
-		return JsonConstants.STATION_ID_PREFIX + id;
-	}
-
-	private static String createDeliveryId(String id) {
-		return JsonConstants.DELIVERY_ID_PREFIX + id;
+	@Override
+	protected void validateSettings(NodeSettingsRO settings) throws InvalidSettingsException {
 	}
 }
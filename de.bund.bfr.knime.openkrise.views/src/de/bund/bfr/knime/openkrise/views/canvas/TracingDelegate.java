@@ -28,9 +28,11 @@ import java.awt.Graphics2D;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.GregorianCalendar;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -64,6 +66,7 @@ import de.bund.bfr.knime.gis.views.canvas.element.Node;
 import de.bund.bfr.knime.gis.views.canvas.highlighting.HighlightCondition;
 import de.bund.bfr.knime.openkrise.TracingColumns;
 import de.bund.bfr.knime.openkrise.common.Delivery;
+import de.bund.bfr.knime.openkrise.common.DeliveryTimeIndex;
 import de.bund.bfr.knime.openkrise.common.Tracing;
 import edu.uci.ics.jung.visualization.VisualizationServer.Paintable;
 
@@ -89,6 +92,17 @@ public class TracingDelegate<V extends Node> {
 	private JCheckBox showForwardBox;
 	private DateSlider dateSlider;
 
+	private DeliveryTimeIndex timeIndex;
+	private Set<String> idsOutsideTimeWindow;
+	private int timeWindowPosition;
+	private boolean timeWindowWithoutDate;
+
+	private List<Object> graphSettings;
+	private List<Object> graphElementsState;
+
+	private Tracing invisibilityTracing;
+	private List<Object> invisibilityTracingInputs;
+
 	public TracingDelegate(ITracingCanvas<V> canvas, Map<String, V> nodeSaveMap, Map<String, Edge<V>> edgeSaveMap,
 			Map<Edge<V>, Set<Edge<V>>> joinMap, Map<String, Delivery> deliveries) {
 		logger.finest("entered");
@@ -129,6 +143,10 @@ public class TracingDelegate<V extends Node> {
 			from.add(Calendar.DAY_OF_MONTH, -1);
 
 			dateSlider = new DateSlider(from, to);
+			timeIndex = new DeliveryTimeIndex(deliveries.values());
+			idsOutsideTimeWindow = new HashSet<>();
+			timeWindowPosition = timeIndex.getSize();
+			timeWindowWithoutDate = true;
 			
 			dateSlider.addDateListener(e -> {
 				applyChanges();
@@ -416,16 +434,22 @@ public class TracingDelegate<V extends Node> {
 		Set<String> selectedNodeIds = canvas.getSelectedNodeIds();
 		Set<String> selectedEdgeIds = canvas.getSelectedEdgeIds();
 
-		canvas.resetNodesAndEdges();
-		if(!ignoreTimeWindow) applyTimeWindow();
-		canvas.applyNodeCollapse();
-		applyInvisibility();
-		canvas.applyJoinEdgesAndSkipEdgeless();
-		applyTracing();
-		canvas.applyShowEdgesInMetaNode();
+		List<Object> settings = getGraphSettings(ignoreTimeWindow);
+
+		if (!settings.equals(graphSettings) || !canvas.getGraphElementsState().equals(graphElementsState)) {
+			canvas.resetNodesAndEdges();
+			if(!ignoreTimeWindow) applyTimeWindow();
+			canvas.applyNodeCollapse();
+			applyInvisibility();
+			canvas.applyJoinEdgesAndSkipEdgeless();
+			applyTracing();
+			canvas.applyShowEdgesInMetaNode();
+			CanvasUtils.updateGraph(canvas.getViewer(), canvas.getNodes(), canvas.getEdges());
+			graphSettings = settings;
+			graphElementsState = canvas.getGraphElementsState();
+		}
+
 		canvas.applyHighlights();
-		canvas.getViewer().getGraphLayout()
-				.setGraph(CanvasUtils.createGraph(canvas.getViewer(), canvas.getNodes(), canvas.getEdges()));
 
 		canvas.setSelectedNodeIdsWithoutListener(selectedNodeIds);
 		canvas.setSelectedEdgeIdsWithoutListener(selectedEdgeIds);
@@ -490,6 +514,22 @@ public class TracingDelegate<V extends Node> {
 		}
 	}
 
+	/**
+	 * @return the settings of {@link ICanvas#getGraphSettings()} and the tracing settings. The tracing
+	 *         weights are node and edge properties and therefore part of
+	 *         {@link ICanvas#getGraphElementsState()}.
+	 */
+	private List<Object> getGraphSettings(boolean ignoreTimeWindow) {
+		List<Object> inputs = new ArrayList<>(canvas.getGraphSettings());
+		GregorianCalendar showToDate = dateSlider != null ? dateSlider.getShowToDate() : null;
+
+		inputs.addAll(Arrays.asList(ignoreTimeWindow, showToDate != null ? showToDate.getTimeInMillis() : null,
+				dateSlider != null ? dateSlider.isShowDeliveriesWithoutDate() : null, isShowForward(),
+				isEnforceTemporalOrder(), isPerformTracing()));
+
+		return inputs;
+	}
+
 	private void applyTimeWindow() {
 		logger.finest("entered");
 		if (dateSlider == null) {
@@ -505,19 +545,44 @@ public class TracingDelegate<V extends Node> {
 			return;
 		}
 
-		Delivery afterDelivery = createDeliveryFromDate(to);
+		int position = to != null
+				? timeIndex.getPosition(to.get(Calendar.YEAR), to.get(Calendar.MONTH) + 1,
+						to.get(Calendar.DAY_OF_MONTH))
+				: timeIndex.getSize();
+
+		updateIdsOutsideTimeWindow(position, showEdgesWithoutDate);
 
-		for (Edge<V> edge : new LinkedHashSet<>(canvas.getEdges())) {
-			Delivery d = deliveries.get(edge.getId());
+		for (String id : idsOutsideTimeWindow) {
+			Edge<V> edge = edgeSaveMap.get(id);
 
-			if ((d.getDepartureYear() == null && d.getArrivalYear() == null && !showEdgesWithoutDate)
-					|| !d.isBefore(afterDelivery)) {
+			if (edge != null) {
 				canvas.getEdges().remove(edge);
 			}
 		}
 		logger.finest("leaving");
 	}
 
+	/**
+	 * Only the deliveries between the old and the new position in the {@link DeliveryTimeIndex}
+	 * enter or leave the time window, when the date of the slider changes.
+	 */
+	private void updateIdsOutsideTimeWindow(int position, boolean showEdgesWithoutDate) {
+		if (position < timeWindowPosition) {
+			idsOutsideTimeWindow.addAll(timeIndex.getIds(position, timeWindowPosition));
+		} else {
+			timeIndex.getIds(timeWindowPosition, position).forEach(idsOutsideTimeWindow::remove);
+		}
+
+		if (showEdgesWithoutDate && !timeWindowWithoutDate) {
+			timeIndex.getIdsWithoutDate().forEach(idsOutsideTimeWindow::remove);
+		} else if (!showEdgesWithoutDate && timeWindowWithoutDate) {
+			idsOutsideTimeWindow.addAll(timeIndex.getIdsWithoutDate());
+		}
+
+		timeWindowPosition = position;
+		timeWindowWithoutDate = showEdgesWithoutDate;
+	}
+
 	private void applyInvisibility() {
 		logger.finest("entered");
 		if (!isShowForward()) {
@@ -526,24 +591,17 @@ public class TracingDelegate<V extends Node> {
 			return;
 		}
 
-		Tracing.Result tracingWithCC = createTracing(canvas.getEdges(), true);
-		Tracing.Result tracingWithoutCC = createTracing(canvas.getEdges(), false);
+		Tracing tracing = getInvisibilityTracing();
 		Set<Edge<V>> removedEdges = new LinkedHashSet<>();
 
-		CanvasUtils.removeInvisibleElements(canvas.getNodes(), canvas.getNodeHighlightConditions());
-		removedEdges
-				.addAll(CanvasUtils.removeInvisibleElements(canvas.getEdges(), canvas.getEdgeHighlightConditions()));
+		CanvasUtils.removeInvisibleElements(canvas.getNodes(), canvas.getNodeHighlightConditions(),
+				canvas.getHighlightConditionCache());
+		removedEdges.addAll(CanvasUtils.removeInvisibleElements(canvas.getEdges(),
+				canvas.getEdgeHighlightConditions(), canvas.getHighlightConditionCache()));
 		removedEdges.addAll(CanvasUtils.removeNodelessEdges(canvas.getEdges(), canvas.getNodes()));
 
-		Set<String> forwardEdges = new LinkedHashSet<>();
-
-		for (Edge<V> edge : canvas.getEdges()) {
-			forwardEdges.addAll(tracingWithCC.getForwardDeliveriesByDelivery().get(edge.getId()));
-		}
-
-		for (Edge<V> edge : canvas.getEdges()) {
-			forwardEdges.removeAll(tracingWithoutCC.getForwardDeliveriesByDelivery().get(edge.getId()));
-		}
+		Set<String> forwardEdges = tracing.getForwardDeliveriesByCrossContamination(
+				CanvasUtils.getElementIds(canvas.getEdges()), isEnforceTemporalOrder());
 
 		for (Edge<V> edge : removedEdges) {
 			if (forwardEdges.contains(edge.getId())) {
@@ -572,7 +630,7 @@ public class TracingDelegate<V extends Node> {
 			}
 		}
 
-		Tracing.Result tracing = createTracing(edges, true);
+		Tracing.Result tracing = createTracing(edges).getResult(isEnforceTemporalOrder());
 
 		Set<String> backwardNodes = new LinkedHashSet<>();
 		Set<String> forwardNodes = new LinkedHashSet<>();
@@ -646,7 +704,36 @@ public class TracingDelegate<V extends Node> {
 		logger.finest("leaving");
 	}
 
-	private Tracing.Result createTracing(Set<Edge<V>> edges, boolean useCrossContamination) {
+	/**
+	 * The delivery graphs of the invisibility tracing only depend on the stations, the deliveries,
+	 * the merged stations and the cross and kill contaminations. When these inputs are unchanged,
+	 * the tracing of the last call is reused. Only the weights are updated, since with circular
+	 * dependencies the forward deliveries are taken from the scored results of the tracing.
+	 */
+	private Tracing getInvisibilityTracing() {
+		Map<String, Set<String>> collapsedNodes = new LinkedHashMap<>();
+
+		canvas.getCollapsedNodes().forEach((metaId, containedIds) -> collapsedNodes.put(metaId,
+				new LinkedHashSet<>(containedIds)));
+
+		List<Object> inputs = Arrays.asList(CanvasUtils.getElementIds(canvas.getNodes()),
+				CanvasUtils.getElementIds(canvas.getEdges()), collapsedNodes,
+				getPropertyValues(canvas.getNodes(), TracingColumns.CROSS_CONTAMINATION),
+				getPropertyValues(canvas.getNodes(), TracingColumns.KILL_CONTAMINATION),
+				getPropertyValues(canvas.getEdges(), TracingColumns.CROSS_CONTAMINATION),
+				getPropertyValues(canvas.getEdges(), TracingColumns.KILL_CONTAMINATION));
+
+		if (!inputs.equals(invisibilityTracingInputs)) {
+			invisibilityTracing = createTracing(canvas.getEdges());
+			invisibilityTracingInputs = inputs;
+		} else {
+			setWeights(invisibilityTracing, canvas.getEdges());
+		}
+
+		return invisibilityTracing;
+	}
+
+	private Tracing createTracing(Set<Edge<V>> edges) {
 		Map<String, Delivery> activeDeliveries = new LinkedHashMap<>();
 
 		for (Edge<V> edge : edges) {
@@ -657,25 +744,35 @@ public class TracingDelegate<V extends Node> {
 
 		canvas.getCollapsedNodes().forEach((metaId, containedIds) -> tracing.mergeStations(containedIds, metaId));
 
+		setWeights(tracing, edges);
+
 		for (V node : canvas.getNodes()) {
-			tracing.setStationWeight(node.getId(), node.getProperties().get(TracingColumns.WEIGHT) instanceof Double
-					? (Double) node.getProperties().get(TracingColumns.WEIGHT) : 0.0);
-			tracing.setCrossContaminationOfStation(node.getId(), useCrossContamination
-					? Boolean.TRUE.equals(node.getProperties().get(TracingColumns.CROSS_CONTAMINATION)) : false);
+			tracing.setCrossContaminationOfStation(node.getId(),
+					Boolean.TRUE.equals(node.getProperties().get(TracingColumns.CROSS_CONTAMINATION)));
 			tracing.setKillContaminationOfStation(node.getId(),
 					Boolean.TRUE.equals(node.getProperties().get(TracingColumns.KILL_CONTAMINATION)));
 		}
 
 		for (Edge<V> edge : edges) {
-			tracing.setDeliveryWeight(edge.getId(), edge.getProperties().get(TracingColumns.WEIGHT) instanceof Double
-					? (Double) edge.getProperties().get(TracingColumns.WEIGHT) : 0.0);
-			tracing.setCrossContaminationOfDelivery(edge.getId(), useCrossContamination
-					? Boolean.TRUE.equals(edge.getProperties().get(TracingColumns.CROSS_CONTAMINATION)) : false);
+			tracing.setCrossContaminationOfDelivery(edge.getId(),
+					Boolean.TRUE.equals(edge.getProperties().get(TracingColumns.CROSS_CONTAMINATION)));
 			tracing.setKillContaminationOfDelivery(edge.getId(),
 					Boolean.TRUE.equals(edge.getProperties().get(TracingColumns.KILL_CONTAMINATION)));
 		}
 
-		return tracing.getResult(isEnforceTemporalOrder());
+		return tracing;
+	}
+
+	private void setWeights(Tracing tracing, Set<Edge<V>> edges) {
+		for (V node : canvas.getNodes()) {
+			tracing.setStationWeight(node.getId(), node.getProperties().get(TracingColumns.WEIGHT) instanceof Double
+					? (Double) node.getProperties().get(TracingColumns.WEIGHT) : 0.0);
+		}
+
+		for (Edge<V> edge : edges) {
+			tracing.setDeliveryWeight(edge.getId(), edge.getProperties().get(TracingColumns.WEIGHT) instanceof Double
+					? (Double) edge.getProperties().get(TracingColumns.WEIGHT) : 0.0);
+		}
 	}
 
 	private void call(Consumer<TracingListener> action) {
@@ -691,12 +788,6 @@ public class TracingDelegate<V extends Node> {
 		return from.isPresent() && to.isPresent() ? new Pair<>(from.get(), to.get()) : null;
 	}
 
-	private static Delivery createDeliveryFromDate(GregorianCalendar c) {
-		return c != null ? new Delivery.Builder("", "", "")
-				.departure(c.get(Calendar.YEAR), c.get(Calendar.MONTH) + 1, c.get(Calendar.DAY_OF_MONTH)).build()
-				: new Delivery.Builder("", "", "").build();
-	}
-
 	private static GregorianCalendar createDateFromDelivery(Delivery d, boolean arrival) {
 		Integer year = arrival ? d.getArrivalYear() : d.getDepartureYear();
 		Integer month = arrival ? d.getArrivalMonth() : d.getDepartureMonth();
@@ -24,12 +24,10 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import org.knime.core.data.DataRow;
 import org.knime.core.data.RowKey;
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.NotConfigurableException;
 
-import de.bund.bfr.knime.IO;
 import de.bund.bfr.knime.gis.BackwardUtils;
 import de.bund.bfr.knime.gis.GisType;
 import de.bund.bfr.knime.gis.geocode.GeocodingNodeModel;
@@ -39,6 +37,7 @@ import de.bund.bfr.knime.gis.views.canvas.element.LocationNode;
 import de.bund.bfr.knime.gis.views.canvas.util.EdgePropertySchema;
 import de.bund.bfr.knime.gis.views.canvas.util.NodePropertySchema;
 import de.bund.bfr.knime.openkrise.TracingColumns;
+import de.bund.bfr.knime.openkrise.TracingTableReader;
 import de.bund.bfr.knime.openkrise.TracingUtils;
 import de.bund.bfr.knime.openkrise.common.Delivery;
 import de.bund.bfr.knime.openkrise.views.canvas.ExplosionTracingGraphCanvas;
@@ -62,8 +61,7 @@ public class TracingViewCanvasCreator {
 	private NodePropertySchema nodeSchema;
 	private EdgePropertySchema edgeSchema;
 
-	private Map<RowKey, String> skippedDeliveryRows;
-	private Map<RowKey, String> skippedDeliveryRelationRows;
+	private TracingTableReader reader;
 	private Map<RowKey, String> skippedShapeRows;
 
 	private boolean lotBased;
@@ -95,8 +93,7 @@ public class TracingViewCanvasCreator {
 		nodeSchema.setLongitude(nodeProperties.containsKey(BackwardUtils.OLD_LONGITUDE_COLUMN)
 				? BackwardUtils.OLD_LONGITUDE_COLUMN : GeocodingNodeModel.LONGITUDE_COLUMN);
 
-		skippedDeliveryRows = new LinkedHashMap<>();
-		skippedDeliveryRelationRows = new LinkedHashMap<>();
+		reader = new TracingTableReader(nodeTable, edgeTable, tracingTable, nodeSchema, edgeSchema);
 		skippedShapeRows = new LinkedHashMap<>();
 
 		lotBased = TracingUtils.isLotBased(nodeSchema, edgeSchema);
@@ -105,46 +102,30 @@ public class TracingViewCanvasCreator {
 
 	public boolean hasGisCoordinates() {
 		
-		int latIndex = nodeTable.getSpec().findColumnIndex(GeocodingNodeModel.LATITUDE_COLUMN);
-		int lonIndex = nodeTable.getSpec().findColumnIndex(GeocodingNodeModel.LONGITUDE_COLUMN);
+		boolean hasOldColumns = nodeTable.getSpec().containsName(BackwardUtils.OLD_LATITUDE_COLUMN)
+				&& nodeTable.getSpec().containsName(BackwardUtils.OLD_LONGITUDE_COLUMN);
+		boolean hasColumns = nodeTable.getSpec().containsName(GeocodingNodeModel.LATITUDE_COLUMN)
+				&& nodeTable.getSpec().containsName(GeocodingNodeModel.LONGITUDE_COLUMN);
 
-		if (nodeTable.getSpec().containsName(BackwardUtils.OLD_LATITUDE_COLUMN)
-				&& nodeTable.getSpec().containsName(BackwardUtils.OLD_LONGITUDE_COLUMN)) {
-			latIndex = nodeTable.getSpec().findColumnIndex(BackwardUtils.OLD_LATITUDE_COLUMN);
-			lonIndex = nodeTable.getSpec().findColumnIndex(BackwardUtils.OLD_LONGITUDE_COLUMN);
-		}
-
-		if (latIndex == -1 || lonIndex == -1) {
+		if (!hasOldColumns && !hasColumns) {
 			return false;
 		}
 
-		int intIDIndex = nodeTable.getSpec().findColumnIndex(TracingColumns.ID);
-		
 		// if an explosion view is opened consider only the available GIS information for inner nodes
 		Set<String> filterNodes = (this.set.getExplosionSettingsList().getActiveExplosionSettings()==null?null:this.set.getExplosionSettingsList().getActiveExplosionSettings().getContainedNodesIds());
-	
-		
-		for (DataRow row : nodeTable) {
-			if(filterNodes==null || filterNodes.contains(IO.getToCleanString(row.getCell(intIDIndex))))
-			{
-				Double lat = IO.getDouble(row.getCell(latIndex));
-				Double lon = IO.getDouble(row.getCell(lonIndex));
-
-				if (lat != null && lon != null) {
-					return true;
-				}
-			}
-		}
 
-		return false;
+		try {
+			return reader.hasCoordinates(filterNodes);
+		} catch (NotConfigurableException e) {
+			return false;
+		}
 	}
 
 	public TracingGraphCanvas createGraphCanvas() throws NotConfigurableException {
         
-		Map<String, GraphNode> nodes = TracingUtils.readGraphNodes(nodeTable, nodeSchema);
-		List<Edge<GraphNode>> edges = TracingUtils.readEdges(edgeTable, edgeSchema, nodes, skippedDeliveryRows);
-		Map<String, Delivery> deliveries = TracingUtils.readDeliveries(tracingTable, edges,
-				skippedDeliveryRelationRows);
+		Map<String, GraphNode> nodes = reader.getGraphNodes();
+		List<Edge<GraphNode>> edges = reader.getGraphEdges();
+		Map<String, Delivery> deliveries = reader.getDeliveries();
 		TracingGraphCanvas canvas = new TracingGraphCanvas(new ArrayList<>(nodes.values()), edges, nodeSchema,
 				edgeSchema, deliveries, lotBased);
 
@@ -184,10 +165,9 @@ public class TracingViewCanvasCreator {
 	 */
 	public TracingGraphCanvas createExplosionGraphCanvas() throws NotConfigurableException {
 		
-		Map<String, GraphNode> nodes = TracingUtils.readGraphNodes(nodeTable, nodeSchema);
-		List<Edge<GraphNode>> edges = TracingUtils.readEdges(edgeTable, edgeSchema, nodes, skippedDeliveryRows);
-		Map<String, Delivery> deliveries = TracingUtils.readDeliveries(tracingTable, edges,
-				skippedDeliveryRelationRows);
+		Map<String, GraphNode> nodes = reader.getGraphNodes();
+		List<Edge<GraphNode>> edges = reader.getGraphEdges();
+		Map<String, Delivery> deliveries = reader.getDeliveries();
 		
 		
 		//this.filterExplosionData(nodes, edges, deliveries);
@@ -207,12 +187,9 @@ public class TracingViewCanvasCreator {
 
 	public ITracingGisCanvas<?> createGisCanvas() throws NotConfigurableException {
 		
-		Map<String, LocationNode> nodes = TracingUtils.readLocationNodes(nodeTable, nodeSchema, new LinkedHashMap<>(),
-				false);
-		
-		List<Edge<LocationNode>> edges = TracingUtils.readEdges(edgeTable, edgeSchema, nodes, skippedDeliveryRows);
-		Map<String, Delivery> deliveries = TracingUtils.readDeliveries(tracingTable, edges,
-				skippedDeliveryRelationRows);
+		Map<String, LocationNode> nodes = reader.getLocationNodes();
+		List<Edge<LocationNode>> edges = reader.getLocationEdges();
+		Map<String, Delivery> deliveries = reader.getDeliveries();
 		ITracingGisCanvas<?> canvas;
 
 		if (set.getGisType() == GisType.SHAPEFILE) {
@@ -236,12 +213,9 @@ public class TracingViewCanvasCreator {
 	 * returns an explosion canvas for GIS views
 	 */
 	public ITracingGisCanvas<?> createExplosionGisCanvas() throws NotConfigurableException {
-		Map<String, LocationNode> nodes = TracingUtils.readLocationNodes(nodeTable, nodeSchema, new LinkedHashMap<>(),
-				false);
-		
-		List<Edge<LocationNode>> edges = TracingUtils.readEdges(edgeTable, edgeSchema, nodes, skippedDeliveryRows);
-		Map<String, Delivery> deliveries = TracingUtils.readDeliveries(tracingTable, edges,
-				skippedDeliveryRelationRows);
+		Map<String, LocationNode> nodes = reader.getLocationNodes();
+		List<Edge<LocationNode>> edges = reader.getLocationEdges();
+		Map<String, Delivery> deliveries = reader.getDeliveries();
 		ITracingGisCanvas<?> canvas;
 
 		//this.filterExplosionData(nodes, edges, deliveries);
@@ -272,11 +246,11 @@ public class TracingViewCanvasCreator {
 
 	
 	public Map<RowKey, String> getSkippedDeliveryRows() {
-		return skippedDeliveryRows;
+		return reader.getSkippedDeliveryRows();
 	}
 
 	public Map<RowKey, String> getSkippedDeliveryRelationRows() {
-		return skippedDeliveryRelationRows;
+		return reader.getSkippedDeliveryRelationRows();
 	}
 
 	public Map<RowKey, String> getSkippedShapeRows() {
@@ -24,6 +24,8 @@ import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataColumnSpec;
@@ -63,7 +65,10 @@ import de.bund.bfr.knime.openkrise.views.canvas.TracingOsmCanvas;
  */
 public class TracingViewNodeModel extends NoInternalsNodeModel {
 
+	private static final int PAINT_THREAD_COUNT = 2;
+
 	private TracingViewSettings set;
+	private ExecutorService paintExecutor;
 
 	private int count;
 	private int maxCount;
@@ -77,6 +82,13 @@ public class TracingViewNodeModel extends NoInternalsNodeModel {
 				new PortType[] { BufferedDataTable.TYPE, BufferedDataTable.TYPE, ImagePortObject.TYPE,
 						ImagePortObject.TYPE, ImagePortObject.TYPE });
 		set = new TracingViewSettings();
+		paintExecutor = Executors.newFixedThreadPool(PAINT_THREAD_COUNT, r -> {
+			Thread thread = new Thread(r, "Tracing View Painter");
+
+			thread.setDaemon(true);
+
+			return thread;
+		});
 	}
 
 	/**
@@ -97,7 +109,7 @@ public class TracingViewNodeModel extends NoInternalsNodeModel {
 		TracingViewCanvasCreator creator = new TracingViewCanvasCreator(nodeTable, edgeTable, tracingTable, shapeTable,
 				set);
 		TracingGraphCanvas graphCanvas = creator.createGraphCanvas();
-		ImagePortObject graphImage = CanvasUtils.getImage(set.isExportAsSvg(), graphCanvas);
+		ImagePortObject graphImage;
 		ImagePortObject gisImage;
 		ImagePortObject combinedImage;
 
@@ -108,9 +120,14 @@ public class TracingViewNodeModel extends NoInternalsNodeModel {
 				((TracingOsmCanvas) gisCanvas).loadAllTiles();
 			}
 
-			gisImage = CanvasUtils.getImage(set.isExportAsSvg(), gisCanvas);
-			combinedImage = CanvasUtils.getImage(set.isExportAsSvg(), graphCanvas, gisCanvas);
+			List<ImagePortObject> images = CanvasUtils.getImages(paintExecutor, set.isExportAsSvg(), graphCanvas,
+					gisCanvas);
+
+			graphImage = images.get(0);
+			gisImage = images.get(1);
+			combinedImage = images.get(2);
 		} else {
+			graphImage = CanvasUtils.getImage(set.isExportAsSvg(), graphCanvas);
 			gisImage = CanvasUtils.getImage(set.isExportAsSvg());
 			combinedImage = CanvasUtils.getImage(set.isExportAsSvg());
 		}
@@ -173,6 +190,14 @@ public class TracingViewNodeModel extends NoInternalsNodeModel {
 	protected void validateSettings(final NodeSettingsRO settings) throws InvalidSettingsException {
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void onDispose() {
+		paintExecutor.shutdown();
+	}
+
 	private BufferedDataTable createTable(Collection<? extends Element> elements, Map<String, Class<?>> propertyTypes,
 			DataTableSpec spec, ExecutionContext exec) throws CanceledExecutionException {
 		BufferedDataContainer nodeContainer = exec.createDataContainer(spec);
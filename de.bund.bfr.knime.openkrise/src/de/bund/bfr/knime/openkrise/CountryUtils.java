@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.openkrise;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+public class CountryUtils {
+
+	private static final ImmutableMap<String, String> ALIASES = new ImmutableMap.Builder<String, String>()
+			.put("USA", "US").put("U.S.A.", "US").put("United States of America", "US").put("UK", "GB")
+			.put("Great Britain", "GB").put("England", "GB").put("Scotland", "GB").put("Wales", "GB")
+			.put("Northern Ireland", "GB").put("Holland", "NL").put("The Netherlands", "NL")
+			.put("Czech Republic", "CZ").put("Russian Federation", "RU").put("South Korea", "KR")
+			.put("North Korea", "KP").put("Ivory Coast", "CI").put("Macedonia", "MK").put("Swaziland", "SZ")
+			.put("Vatican", "VA").put("Burma", "MM").put("Viet Nam", "VN").put("Iran", "IR").put("Syria", "SY")
+			.put("Bolivia", "BO").put("Venezuela", "VE").put("Tanzania", "TZ").put("Moldova", "MD")
+			.put("Laos", "LA").put("Palestine", "PS").build();
+
+	private static final Cache<String, Optional<String>> CACHE = CacheBuilder.newBuilder().maximumSize(10000).build();
+
+	private CountryUtils() {
+	}
+
+	/**
+	 * Returns the ISO 3166-1 alpha-2 code of a country. The name can be given in any language
+	 * supported by the JVM, as alpha-2 or alpha-3 code or as one of several common aliases. Case,
+	 * accents and punctuation are ignored. English names, codes and aliases take precedence over
+	 * German and French names, which take precedence over all other languages. Returns
+	 * {@code null} if the name is unknown or refers to different countries within the same group
+	 * of languages.
+	 */
+	public static String getCountryCode(String country) {
+		if (country == null) {
+			return null;
+		}
+
+		Optional<String> code = CACHE.getIfPresent(country);
+
+		if (code == null) {
+			String name = normalize(country);
+			String primaryCode = PrimaryNames.CODES.get(name);
+
+			code = Optional.ofNullable(primaryCode != null ? primaryCode : OtherNames.CODES.get(name));
+			CACHE.put(country, code);
+		}
+
+		return code.orElse(null);
+	}
+
+	static String normalize(String name) {
+		String decomposed = Normalizer.normalize(name.replace("ß", "ss"), Normalizer.Form.NFD);
+		StringBuilder normalized = new StringBuilder(decomposed.length());
+		boolean space = false;
+
+		for (int i = 0; i < decomposed.length(); i++) {
+			char c = decomposed.charAt(i);
+
+			if (Character.getType(c) == Character.NON_SPACING_MARK) {
+				continue;
+			} else if (Character.isLetterOrDigit(c)) {
+				if (space && normalized.length() > 0) {
+					normalized.append(' ');
+				}
+
+				normalized.append(Character.toLowerCase(c));
+				space = false;
+			} else {
+				space = true;
+			}
+		}
+
+		return normalized.toString();
+	}
+
+	private static Map<String, String> createCodes(Collection<Locale> languages) {
+		Map<String, String> codes = new HashMap<>();
+		Set<String> ambiguous = new HashSet<>();
+
+		for (Locale language : languages) {
+			for (String code : Locale.getISOCountries()) {
+				String name = normalize(new Locale("", code).getDisplayCountry(language));
+
+				if (name.isEmpty() || ambiguous.contains(name)) {
+					continue;
+				}
+
+				String previous = codes.putIfAbsent(name, code);
+
+				if (previous != null && !previous.equals(code)) {
+					codes.remove(name);
+					ambiguous.add(name);
+				}
+			}
+		}
+
+		return codes;
+	}
+
+	/**
+	 * English, German and French names, ISO codes and aliases. Built on first use.
+	 */
+	private static class PrimaryNames {
+
+		private static final Map<String, String> CODES = createPrimaryCodes();
+
+		private static Map<String, String> createPrimaryCodes() {
+			Map<String, String> codes = createCodes(Arrays.asList(Locale.GERMAN, Locale.FRENCH));
+
+			for (String code : Locale.getISOCountries()) {
+				Locale country = new Locale("", code);
+
+				codes.put(normalize(country.getDisplayCountry(Locale.ENGLISH)), code);
+				codes.put(normalize(code), code);
+				codes.put(normalize(country.getISO3Country()), code);
+			}
+
+			ALIASES.forEach((alias, code) -> codes.put(normalize(alias), code));
+
+			return codes;
+		}
+	}
+
+	/**
+	 * Names in all other languages. Collecting them takes a few seconds, so they are only loaded
+	 * when a name is not found in {@link PrimaryNames}.
+	 */
+	private static class OtherNames {
+
+		private static final Map<String, String> CODES = createOtherCodes();
+
+		private static Map<String, String> createOtherCodes() {
+			Set<String> primaryLanguages = ImmutableSet.of(Locale.ENGLISH.getLanguage(), Locale.GERMAN.getLanguage(),
+					Locale.FRENCH.getLanguage());
+			Set<Locale> languages = new LinkedHashSet<>();
+
+			for (Locale locale : Locale.getAvailableLocales()) {
+				if (!locale.getLanguage().isEmpty() && !primaryLanguages.contains(locale.getLanguage())) {
+					languages.add(new Locale(locale.getLanguage()));
+				}
+			}
+
+			return createCodes(languages);
+		}
+	}
+}
@@ -37,14 +37,13 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
 import org.jooq.Record;
 import org.jooq.Record1;
 import org.jooq.Record2;
-import org.jooq.Result;
+import org.jooq.Record4;
 import org.jooq.SQLDialect;
 import org.jooq.SelectJoinStep;
 import org.jooq.TableField;
@@ -368,6 +367,10 @@ public class MyKrisenInterfacesNodeModel extends NoInternalsNodeModel {
 					.on(PRODUKTKATALOG.ID.equal(CHARGEN.ARTIKEL));
 		}
 
+		Map<String, Map<Integer, Map<String, String>>> extraFields = !set.isLotBased()
+				? getExtraFields(conn, STATION.getName())
+				: getExtraFields(conn, STATION.getName(), CHARGEN.getName(), PRODUKTKATALOG.getName());
+
 		for (Record r : select) {
 			String stationId = stationIds.get(r.getValue(STATION.ID));
 			String state = clean(r.getValue(STATION.BUNDESLAND));
@@ -426,30 +429,21 @@ public class MyKrisenInterfacesNodeModel extends NoInternalsNodeModel {
 
 			for (String column : spec.getColumnNames()) {
 				if (column.startsWith("_") || extraFieldS.containsKey(column) && extraFieldS.get(column).startsWith("_")) {
-					Result<Record1<String>> result;
+					String value;
 
 					if (!set.isLotBased()) {
 						String c = extraFieldS.containsKey(column) ? extraFieldS.get(column) : column;
 						String attribute = c.substring(1);
 
-						result = DSL.using(conn, SQLDialect.HSQLDB).select(EXTRAFIELDS.VALUE).from(EXTRAFIELDS)
-								.where(EXTRAFIELDS.TABLENAME.equal(STATION.getName()),
-										EXTRAFIELDS.ID.equal(r.getValue(STATION.ID)),
-										EXTRAFIELDS.ATTRIBUTE.equal(attribute))
-								.fetch();
+						value = getExtraField(extraFields, STATION.getName(), r.getValue(STATION.ID), attribute);
 					} else {
 						String table = column.substring(1, column.indexOf("."));
 						String attribute = column.substring(column.indexOf(".") + 1);
 
-						result = DSL.using(conn, SQLDialect.HSQLDB).select(EXTRAFIELDS.VALUE).from(EXTRAFIELDS)
-								.where(EXTRAFIELDS.TABLENAME.equal(table),
-										EXTRAFIELDS.ID.equal(r.getValue(ID_COLUMNS.get(table))),
-										EXTRAFIELDS.ATTRIBUTE.equal(attribute))
-								.fetch();
+						value = getExtraField(extraFields, table, r.getValue(ID_COLUMNS.get(table)), attribute);
 					}
 
-					fillCell(spec, cells, column,
-							!result.isEmpty() ? createCell(result.get(0).value1()) : DataType.getMissingCell());
+					fillCell(spec, cells, column, createCell(value));
 				}
 			}
 
@@ -477,6 +471,10 @@ public class MyKrisenInterfacesNodeModel extends NoInternalsNodeModel {
 			select = select.join(CHARGENVERBINDUNGEN).on(LIEFERUNGEN.ID.equal(CHARGENVERBINDUNGEN.ZUTAT));
 		}
 
+		Map<String, Map<Integer, Map<String, String>>> extraFields = !set.isLotBased()
+				? getExtraFields(conn, ID_COLUMNS.keySet().toArray(new String[0]))
+				: getExtraFields(conn, LIEFERUNGEN.getName());
+
 		for (Record r : select.orderBy(PRODUKTKATALOG.ID)) {
 			String deliveryId = deliveryIds.get(r.getValue(LIEFERUNGEN.ID));
 			String lotId = r.getValue(CHARGEN.ID) + "";
@@ -539,31 +537,22 @@ public class MyKrisenInterfacesNodeModel extends NoInternalsNodeModel {
 
 			for (String column : spec.getColumnNames()) {
 				if (column.startsWith("_") || extraFieldD.containsKey(column) && extraFieldD.get(column).startsWith("_")) {
-					Result<Record1<String>> result;
+					String value;
 
 					if (!set.isLotBased()) {
 						String c = extraFieldD.containsKey(column) ? extraFieldD.get(column) : column;
 						String table = c.substring(1, c.indexOf("."));
 						String attribute = c.substring(c.indexOf(".") + 1);
 
-						result = DSL.using(conn, SQLDialect.HSQLDB).select(EXTRAFIELDS.VALUE).from(EXTRAFIELDS)
-								.where(EXTRAFIELDS.TABLENAME.equal(table),
-										EXTRAFIELDS.ID.equal(r.getValue(ID_COLUMNS.get(table))),
-										EXTRAFIELDS.ATTRIBUTE.equal(attribute))
-								.fetch();
-
+						value = getExtraField(extraFields, table, r.getValue(ID_COLUMNS.get(table)), attribute);
 					} else {
 						String attribute = column.substring(1);
 
-						result = DSL.using(conn, SQLDialect.HSQLDB).select(EXTRAFIELDS.VALUE).from(EXTRAFIELDS)
-								.where(EXTRAFIELDS.TABLENAME.equal(LIEFERUNGEN.getName()),
-										EXTRAFIELDS.ID.equal(r.getValue(LIEFERUNGEN.ID)),
-										EXTRAFIELDS.ATTRIBUTE.equal(attribute))
-								.fetch();
+						value = getExtraField(extraFields, LIEFERUNGEN.getName(), r.getValue(LIEFERUNGEN.ID),
+								attribute);
 					}
 
-					fillCell(spec, cells, column,
-							!result.isEmpty() ? createCell(result.get(0).value1()) : DataType.getMissingCell());
+					fillCell(spec, cells, column, createCell(value));
 				}
 			}
 
@@ -662,10 +651,10 @@ public class MyKrisenInterfacesNodeModel extends NoInternalsNodeModel {
 	}
 
 	private static String getISO3166_2(String country, String state) {
-		for (String code : Locale.getISOCountries()) {
-			if (new Locale("", code).getDisplayCountry(Locale.ENGLISH).equals(country)) {
-				return code;
-			}
+		String code = CountryUtils.getCountryCode(country);
+
+		if (code != null) {
+			return code;
 		}
 
 		if (state != null && state.length() >= 2) {
@@ -675,6 +664,37 @@ public class MyKrisenInterfacesNodeModel extends NoInternalsNodeModel {
 		return "NN";
 	}
 
+	/**
+	 * Loads the extra fields of the given tables with a single query instead of one query per row
+	 * and column. The result maps table name to row id to attribute to value. Like the former
+	 * per-row queries, only the first value of each (table, id, attribute) is used.
+	 */
+	private static Map<String, Map<Integer, Map<String, String>>> getExtraFields(Connection conn,
+			String... tables) {
+		Map<String, Map<Integer, Map<String, String>>> extraFields = new HashMap<>();
+
+		for (Record4<String, Integer, String, String> r : DSL.using(conn, SQLDialect.HSQLDB)
+				.select(EXTRAFIELDS.TABLENAME, EXTRAFIELDS.ID, EXTRAFIELDS.ATTRIBUTE, EXTRAFIELDS.VALUE)
+				.from(EXTRAFIELDS).where(EXTRAFIELDS.TABLENAME.in(tables))) {
+			Map<String, String> values = extraFields.computeIfAbsent(r.value1(), t -> new HashMap<>())
+					.computeIfAbsent(r.value2(), id -> new HashMap<>());
+
+			if (!values.containsKey(r.value3())) {
+				values.put(r.value3(), r.value4());
+			}
+		}
+
+		return extraFields;
+	}
+
+	private static String getExtraField(Map<String, Map<Integer, Map<String, String>>> extraFields, String table,
+			Integer id, String attribute) {
+		Map<Integer, Map<String, String>> tableFields = extraFields.get(table);
+		Map<String, String> values = tableFields != null ? tableFields.get(id) : null;
+
+		return values != null ? values.get(attribute) : null;
+	}
+
 	private static boolean hasValues(Connection conn, TableField<?, ?>... fields) {
 		for (TableField<?, ?> field : fields) {
 			for (Record1<?> r : DSL.using(conn, SQLDialect.HSQLDB).selectDistinct(field).from(field.getTable())) {
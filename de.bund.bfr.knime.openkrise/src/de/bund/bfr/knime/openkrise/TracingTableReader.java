@@ -0,0 +1,364 @@
+/*******************************************************************************
+ * Copyright (c) 2017 German Federal Institute for Risk Assessment (BfR)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     Department Biological Safety - BfR
+ *******************************************************************************/
+package de.bund.bfr.knime.openkrise;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTable;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.NotConfigurableException;
+
+import de.bund.bfr.knime.IO;
+import de.bund.bfr.knime.gis.geocode.GeocodingNodeModel;
+import de.bund.bfr.knime.gis.views.canvas.element.Edge;
+import de.bund.bfr.knime.gis.views.canvas.element.GraphNode;
+import de.bund.bfr.knime.gis.views.canvas.element.LocationNode;
+import de.bund.bfr.knime.gis.views.canvas.element.Node;
+import de.bund.bfr.knime.gis.views.canvas.element.PropertyStore;
+import de.bund.bfr.knime.gis.views.canvas.util.EdgePropertySchema;
+import de.bund.bfr.knime.gis.views.canvas.util.NodePropertySchema;
+import de.bund.bfr.knime.openkrise.common.Delivery;
+
+/**
+ * Reads the station, delivery and delivery relations tables of a tracing view at most once each.
+ * Graph nodes and location nodes (and the edges between them) are created from the same scan of
+ * the station and delivery table. The properties are stored column by column and copied for the
+ * location nodes and edges, so that the graph and gis canvases can be changed independently. Id
+ * strings of stations are reused for the from and to properties of deliveries. The results are
+ * kept, so a reader should live as long as its tables, e.g. for one execution of a node. The station
+ * and delivery tables are only iterated, so any {@link DataTable} can be read.
+ * <p>
+ * The results are equivalent to {@link TracingUtils#readGraphNodes},
+ * {@link TracingUtils#readLocationNodes} (without skipping invalid rows),
+ * {@link TracingUtils#readEdges} and {@link TracingUtils#readDeliveries}.
+ */
+public class TracingTableReader {
+
+	private DataTable stationTable;
+	private DataTable deliveryTable;
+	private BufferedDataTable deliveryRelationsTable;
+	private NodePropertySchema nodeSchema;
+	private EdgePropertySchema edgeSchema;
+
+	private Map<String, StationRow> stations;
+	private PropertyStore stationStore;
+	private boolean hasCoordinateColumns;
+	private List<DeliveryRow> deliveryRows;
+	private PropertyStore deliveryStore;
+	private Map<RowKey, String> skippedDeliveryRows;
+	private Map<RowKey, String> skippedDeliveryRelationRows;
+
+	private Map<String, GraphNode> graphNodes;
+	private Map<String, LocationNode> locationNodes;
+	private List<Edge<GraphNode>> graphEdges;
+	private List<Edge<LocationNode>> locationEdges;
+	private Map<String, Delivery> deliveries;
+
+	public TracingTableReader(DataTable stationTable, DataTable deliveryTable,
+			BufferedDataTable deliveryRelationsTable, NodePropertySchema nodeSchema, EdgePropertySchema edgeSchema) {
+		this.stationTable = stationTable;
+		this.deliveryTable = deliveryTable;
+		this.deliveryRelationsTable = deliveryRelationsTable;
+		this.nodeSchema = nodeSchema;
+		this.edgeSchema = edgeSchema;
+		skippedDeliveryRows = new LinkedHashMap<>();
+		skippedDeliveryRelationRows = new LinkedHashMap<>();
+	}
+
+	public Map<String, GraphNode> getGraphNodes() throws NotConfigurableException {
+		if (graphNodes == null) {
+			Map<String, GraphNode> nodes = new LinkedHashMap<>();
+
+			for (StationRow station : readStations().values()) {
+				nodes.put(station.id, new GraphNode(station.id, station.properties));
+			}
+
+			graphNodes = nodes;
+		}
+
+		return graphNodes;
+	}
+
+	public Map<String, LocationNode> getLocationNodes() throws NotConfigurableException {
+		if (locationNodes == null) {
+			Collection<StationRow> rows = readStations().values();
+
+			if (!hasCoordinateColumns) {
+				TracingUtils.assertColumnNotMissing(stationTable.getDataTableSpec(),
+						GeocodingNodeModel.LATITUDE_COLUMN, "Station Table");
+				TracingUtils.assertColumnNotMissing(stationTable.getDataTableSpec(),
+						GeocodingNodeModel.LONGITUDE_COLUMN, "Station Table");
+			}
+
+			if (!hasCoordinates(null)) {
+				throw new NotConfigurableException("Station Table: No geographic coordinates contained in table");
+			}
+
+			Map<String, LocationNode> nodes = new LinkedHashMap<>();
+			PropertyStore store = stationStore.copy();
+
+			for (StationRow station : rows) {
+				nodes.put(station.id, new LocationNode(station.id,
+						store.getRow(PropertyStore.getRowIndex(station.properties)), station.center));
+			}
+
+			locationNodes = nodes;
+		}
+
+		return locationNodes;
+	}
+
+	/**
+	 * @param ids
+	 *            the stations to consider or {@code null} for all stations
+	 * @return whether any of the stations has valid geographic coordinates
+	 */
+	public boolean hasCoordinates(Collection<String> ids) throws NotConfigurableException {
+		for (StationRow station : readStations().values()) {
+			if (station.center != null && (ids == null || ids.contains(station.id))) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	public List<Edge<GraphNode>> getGraphEdges() throws NotConfigurableException {
+		if (graphEdges == null) {
+			graphEdges = createEdges(getGraphNodes(), false);
+		}
+
+		return graphEdges;
+	}
+
+	public List<Edge<LocationNode>> getLocationEdges() throws NotConfigurableException {
+		if (locationEdges == null) {
+			locationEdges = createEdges(getLocationNodes(), true);
+		}
+
+		return locationEdges;
+	}
+
+	public Map<String, Delivery> getDeliveries() throws NotConfigurableException {
+		if (deliveries == null) {
+			deliveries = TracingUtils.readDeliveries(deliveryRelationsTable, getGraphEdges(),
+					skippedDeliveryRelationRows);
+		}
+
+		return deliveries;
+	}
+
+	public Map<RowKey, String> getSkippedDeliveryRows() {
+		return skippedDeliveryRows;
+	}
+
+	public Map<RowKey, String> getSkippedDeliveryRelationRows() {
+		return skippedDeliveryRelationRows;
+	}
+
+	private Map<String, StationRow> readStations() throws NotConfigurableException {
+		if (stations != null) {
+			return stations;
+		}
+
+		DataTableSpec spec = stationTable.getDataTableSpec();
+		String latColumn = GeocodingNodeModel.LATITUDE_COLUMN;
+		String lonColumn = GeocodingNodeModel.LONGITUDE_COLUMN;
+
+		TracingUtils.assertColumnNotMissing(spec, TracingColumns.ID, "Station Table");
+
+		if (spec.containsName(de.bund.bfr.knime.gis.BackwardUtils.OLD_LATITUDE_COLUMN)
+				&& spec.containsName(de.bund.bfr.knime.gis.BackwardUtils.OLD_LONGITUDE_COLUMN)) {
+			latColumn = de.bund.bfr.knime.gis.BackwardUtils.OLD_LATITUDE_COLUMN;
+			lonColumn = de.bund.bfr.knime.gis.BackwardUtils.OLD_LONGITUDE_COLUMN;
+		}
+
+		nodeSchema.getMap().put(TracingColumns.ID, String.class);
+
+		Map<String, StationRow> rows = new LinkedHashMap<>();
+		PropertyStore store = new PropertyStore(nodeSchema.getMap());
+		Map<String, Integer> columnIndices = TracingUtils.getColumnIndices(nodeSchema, spec);
+		int idIndex = spec.findColumnIndex(TracingColumns.ID);
+		int latIndex = spec.findColumnIndex(latColumn);
+		int lonIndex = spec.findColumnIndex(lonColumn);
+
+		hasCoordinateColumns = latIndex >= 0 && lonIndex >= 0;
+
+		for (DataRow row : stationTable) {
+			String id = IO.getToCleanString(row.getCell(idIndex));
+
+			if (id == null) {
+				throw new NotConfigurableException("Station Table: Missing value in " + TracingColumns.ID + " column");
+			} else if (rows.containsKey(id)) {
+				throw new NotConfigurableException(
+						"Station Table: Duplicate value in " + TracingColumns.ID + " column: " + id);
+			}
+
+			Double lat = hasCoordinateColumns ? IO.getDouble(row.getCell(latIndex)) : null;
+			Double lon = hasCoordinateColumns ? IO.getDouble(row.getCell(lonIndex)) : null;
+			Map<String, Object> properties = store.getRow(store.addRow());
+
+			TracingUtils.addToProperties(properties, nodeSchema, columnIndices, row);
+			properties.put(TracingColumns.ID, id);
+			TracingUtils.replaceNullsInInputProperties(properties, nodeSchema);
+			rows.put(id, new StationRow(id, properties,
+					lat != null && lon != null ? new Point2D.Double(lat, lon) : null));
+		}
+
+		if (rows.isEmpty()) {
+			throw new NotConfigurableException("Station Table: No valid nodes contained in table");
+		}
+
+		stations = rows;
+		stationStore = store;
+
+		return stations;
+	}
+
+	private List<DeliveryRow> readDeliveryRows() throws NotConfigurableException {
+		if (deliveryRows != null) {
+			return deliveryRows;
+		}
+
+		Map<String, StationRow> stationRows = readStations();
+		DataTableSpec spec = deliveryTable.getDataTableSpec();
+
+		TracingUtils.assertColumnNotMissing(spec, TracingColumns.ID, "Delivery Table");
+		TracingUtils.assertColumnNotMissing(spec, TracingColumns.FROM, "Delivery Table");
+		TracingUtils.assertColumnNotMissing(spec, TracingColumns.TO, "Delivery Table");
+
+		if (spec.containsName(TracingColumns.DELIVERY_DEPARTURE)
+				&& spec.getColumnSpec(TracingColumns.DELIVERY_DEPARTURE).getType() != StringCell.TYPE) {
+			throw new NotConfigurableException(
+					"Delivery Table: Column \"" + TracingColumns.DELIVERY_DEPARTURE + "\" must be of type String");
+		}
+
+		if (spec.containsName(TracingColumns.DELIVERY_ARRIVAL)
+				&& spec.getColumnSpec(TracingColumns.DELIVERY_ARRIVAL).getType() != StringCell.TYPE) {
+			throw new NotConfigurableException(
+					"Delivery Table: Column \"" + TracingColumns.DELIVERY_ARRIVAL + "\" must be of type String");
+		}
+
+		edgeSchema.getMap().put(TracingColumns.ID, String.class);
+		edgeSchema.getMap().put(TracingColumns.FROM, String.class);
+		edgeSchema.getMap().put(TracingColumns.TO, String.class);
+
+		List<DeliveryRow> rows = new ArrayList<>();
+		Set<String> ids = new HashSet<>();
+		PropertyStore store = new PropertyStore(edgeSchema.getMap());
+		Map<String, Integer> columnIndices = TracingUtils.getColumnIndices(edgeSchema, spec);
+		int idIndex = spec.findColumnIndex(TracingColumns.ID);
+		int fromIndex = spec.findColumnIndex(TracingColumns.FROM);
+		int toIndex = spec.findColumnIndex(TracingColumns.TO);
+
+		for (DataRow row : deliveryTable) {
+			String id = IO.getToCleanString(row.getCell(idIndex));
+
+			if (id == null) {
+				throw new NotConfigurableException("Delivery Table: Missing value in " + TracingColumns.ID + " column");
+			} else if (!ids.add(id)) {
+				throw new NotConfigurableException(
+						"Delivery Table: Duplicate value in " + TracingColumns.ID + " column: " + id);
+			}
+
+			String from = IO.getToCleanString(row.getCell(fromIndex));
+			String to = IO.getToCleanString(row.getCell(toIndex));
+			StationRow fromStation = stationRows.get(from);
+			StationRow toStation = stationRows.get(to);
+
+			if (fromStation == null) {
+				skippedDeliveryRows.put(row.getKey(),
+						"Station with " + TracingColumns.ID + " \"" + from + "\" does not exist");
+				continue;
+			} else if (toStation == null) {
+				skippedDeliveryRows.put(row.getKey(),
+						"Station with " + TracingColumns.ID + " \"" + to + "\" does not exist");
+				continue;
+			}
+
+			Map<String, Object> properties = store.getRow(store.addRow());
+
+			TracingUtils.addToProperties(properties, edgeSchema, columnIndices, row);
+			properties.put(TracingColumns.ID, id);
+			properties.put(TracingColumns.FROM, fromStation.id);
+			properties.put(TracingColumns.TO, toStation.id);
+			TracingUtils.replaceNullsInInputProperties(properties, edgeSchema);
+			rows.add(new DeliveryRow(id, properties, fromStation.id, toStation.id));
+		}
+
+		deliveryRows = rows;
+		deliveryStore = store;
+
+		return deliveryRows;
+	}
+
+	private <V extends Node> List<Edge<V>> createEdges(Map<String, V> nodes, boolean copyProperties)
+			throws NotConfigurableException {
+		List<DeliveryRow> rows = readDeliveryRows();
+		PropertyStore store = copyProperties ? deliveryStore.copy() : deliveryStore;
+		List<Edge<V>> edges = new ArrayList<>();
+
+		for (DeliveryRow delivery : rows) {
+			edges.add(new Edge<>(delivery.id, store.getRow(PropertyStore.getRowIndex(delivery.properties)),
+					nodes.get(delivery.from), nodes.get(delivery.to)));
+		}
+
+		return edges;
+	}
+
+	private static class StationRow {
+
+		private String id;
+		private Map<String, Object> properties;
+		private Point2D center;
+
+		public StationRow(String id, Map<String, Object> properties, Point2D center) {
+			this.id = id;
+			this.properties = properties;
+			this.center = center;
+		}
+	}
+
+	private static class DeliveryRow {
+
+		private String id;
+		private Map<String, Object> properties;
+		private String from;
+		private String to;
+
+		public DeliveryRow(String id, Map<String, Object> properties, String from, String to) {
+			this.id = id;
+			this.properties = properties;
+			this.from = from;
+			this.to = to;
+		}
+	}
+}
@@ -57,6 +57,7 @@ import de.bund.bfr.knime.gis.views.canvas.element.Edge;
 import de.bund.bfr.knime.gis.views.canvas.element.GraphNode;
 import de.bund.bfr.knime.gis.views.canvas.element.LocationNode;
 import de.bund.bfr.knime.gis.views.canvas.element.Node;
+import de.bund.bfr.knime.gis.views.canvas.element.PropertyStore;
 import de.bund.bfr.knime.gis.views.canvas.element.RegionNode;
 import de.bund.bfr.knime.gis.views.canvas.util.EdgePropertySchema;
 import de.bund.bfr.knime.gis.views.canvas.util.Naming;
@@ -123,8 +124,12 @@ public class TracingUtils {
 
 		nodeSchema.getMap().put(TracingColumns.ID, String.class);
 
+		PropertyStore store = new PropertyStore(nodeSchema.getMap());
+		Map<String, Integer> columnIndices = getColumnIndices(nodeSchema, stationTable.getSpec());
+		int idIndex = stationTable.getSpec().findColumnIndex(TracingColumns.ID);
+
 		for (DataRow row : stationTable) {
-			String id = IO.getToCleanString(row.getCell(stationTable.getSpec().findColumnIndex(TracingColumns.ID)));
+			String id = IO.getToCleanString(row.getCell(idIndex));
 
 			if (id == null) {
 				throw new NotConfigurableException("Station Table: Missing value in " + TracingColumns.ID + " column");
@@ -133,9 +138,9 @@ public class TracingUtils {
 						"Station Table: Duplicate value in " + TracingColumns.ID + " column: " + id);
 			}
 
-			Map<String, Object> properties = new LinkedHashMap<>();
+			Map<String, Object> properties = store.getRow(store.addRow());
 
-			TracingUtils.addToProperties(properties, nodeSchema, stationTable.getSpec(), row);
+			TracingUtils.addToProperties(properties, nodeSchema, columnIndices, row);
 			properties.put(TracingColumns.ID, id);
 			replaceNullsInInputProperties(properties, nodeSchema);
 			nodes.put(id, new GraphNode(id, properties));
@@ -172,10 +177,16 @@ public class TracingUtils {
 
 		nodeSchema.getMap().put(TracingColumns.ID, String.class);
 
+		PropertyStore store = new PropertyStore(nodeSchema.getMap());
+		Map<String, Integer> columnIndices = getColumnIndices(nodeSchema, spec);
+		int idIndex = spec.findColumnIndex(TracingColumns.ID);
+		int latIndex = spec.findColumnIndex(latColumn);
+		int lonIndex = spec.findColumnIndex(lonColumn);
+
 		for (DataRow row : stationTable) {
-			String id = IO.getToCleanString(row.getCell(spec.findColumnIndex(TracingColumns.ID)));
-			Double lat = IO.getDouble(row.getCell(spec.findColumnIndex(latColumn)));
-			Double lon = IO.getDouble(row.getCell(spec.findColumnIndex(lonColumn)));
+			String id = IO.getToCleanString(row.getCell(idIndex));
+			Double lat = IO.getDouble(row.getCell(latIndex));
+			Double lon = IO.getDouble(row.getCell(lonIndex));
 
 			if (id == null) {
 				throw new NotConfigurableException("Station Table: Missing value in " + TracingColumns.ID + " column");
@@ -198,9 +209,9 @@ public class TracingUtils {
 				}
 			}
 
-			Map<String, Object> properties = new LinkedHashMap<>();
+			Map<String, Object> properties = store.getRow(store.addRow());
 
-			TracingUtils.addToProperties(properties, nodeSchema, stationTable.getSpec(), row);
+			TracingUtils.addToProperties(properties, nodeSchema, columnIndices, row);
 			properties.put(TracingColumns.ID, id);
 			replaceNullsInInputProperties(properties, nodeSchema);
 			nodes.put(id, new LocationNode(id, properties, center));
@@ -245,8 +256,14 @@ public class TracingUtils {
 		edgeSchema.getMap().put(TracingColumns.FROM, String.class);
 		edgeSchema.getMap().put(TracingColumns.TO, String.class);
 
+		PropertyStore store = new PropertyStore(edgeSchema.getMap());
+		Map<String, Integer> columnIndices = getColumnIndices(edgeSchema, spec);
+		int idIndex = spec.findColumnIndex(TracingColumns.ID);
+		int fromIndex = spec.findColumnIndex(TracingColumns.FROM);
+		int toIndex = spec.findColumnIndex(TracingColumns.TO);
+
 		for (DataRow row : deliveryTable) {
-			String id = IO.getToCleanString(row.getCell(spec.findColumnIndex(TracingColumns.ID)));
+			String id = IO.getToCleanString(row.getCell(idIndex));
 
 			if (id == null) {
 				throw new NotConfigurableException("Delivery Table: Missing value in " + TracingColumns.ID + " column");
@@ -255,8 +272,8 @@ public class TracingUtils {
 						"Delivery Table: Duplicate value in " + TracingColumns.ID + " column: " + id);
 			}
 
-			String from = IO.getToCleanString(row.getCell(spec.findColumnIndex(TracingColumns.FROM)));
-			String to = IO.getToCleanString(row.getCell(spec.findColumnIndex(TracingColumns.TO)));
+			String from = IO.getToCleanString(row.getCell(fromIndex));
+			String to = IO.getToCleanString(row.getCell(toIndex));
 			V fromNode = nodes.get(from);
 			V toNode = nodes.get(to);
 
@@ -268,9 +285,9 @@ public class TracingUtils {
 				continue;
 			}
 
-			Map<String, Object> properties = new LinkedHashMap<>();
+			Map<String, Object> properties = store.getRow(store.addRow());
 
-			TracingUtils.addToProperties(properties, edgeSchema, deliveryTable.getSpec(), row);
+			TracingUtils.addToProperties(properties, edgeSchema, columnIndices, row);
 			properties.put(TracingColumns.ID, id);
 			properties.put(TracingColumns.FROM, from);
 			properties.put(TracingColumns.TO, to);
@@ -313,10 +330,12 @@ public class TracingUtils {
 
 		SetMultimap<String, String> previousDeliveries = LinkedHashMultimap.create();
 		SetMultimap<String, String> nextDeliveries = LinkedHashMultimap.create();
+		int fromIndex = spec.findColumnIndex(fromColumn);
+		int toIndex = spec.findColumnIndex(toColumn);
 
 		for (DataRow row : deliveryRelationsTable) {
-			String from = IO.getToCleanString(row.getCell(spec.findColumnIndex(fromColumn)));
-			String to = IO.getToCleanString(row.getCell(spec.findColumnIndex(toColumn)));
+			String from = IO.getToCleanString(row.getCell(fromIndex));
+			String to = IO.getToCleanString(row.getCell(toIndex));
 
 			if (!builders.containsKey(from)) {
 				skippedRows.put(row.getKey(),
@@ -358,14 +377,16 @@ public class TracingUtils {
 		int index = 0;
 
 		for (DataRow row : shapeTable) {
-			Geometry shape = GisUtils.getShape(row.getCell(shapeIndex));
+			DataCell cell = row.getCell(shapeIndex);
+			Geometry shape = GisUtils.getShape(cell);
 
 			if (!(shape instanceof MultiPolygon)) {
 				skippedRows.put(row.getKey(), "No valid shape");
 				continue;
 			}
 
-			nodes.add(new RegionNode(index + "", new LinkedHashMap<>(0), (MultiPolygon) shape));
+			nodes.add(new RegionNode(index + "", new LinkedHashMap<>(0), (MultiPolygon) shape,
+					GisUtils.getSimplifiedPolygons(cell)));
 			index++;
 		}
 
@@ -376,14 +397,22 @@ public class TracingUtils {
 		return nodes;
 	}
 
-	private static void addToProperties(Map<String, Object> properties, PropertySchema schema, DataTableSpec spec,
-			DataRow row) {
-		schema.getMap().forEach((property, type) -> {
+	static Map<String, Integer> getColumnIndices(PropertySchema schema, DataTableSpec spec) {
+		Map<String, Integer> columnIndices = new LinkedHashMap<>();
+
+		for (String property : schema.getMap().keySet()) {
 			if (spec.containsName(property)) {
-				TracingUtils.addCellContentToMap(properties, property, type,
-						row.getCell(spec.findColumnIndex(property)));
+				columnIndices.put(property, spec.findColumnIndex(property));
 			}
-		});
+		}
+
+		return columnIndices;
+	}
+
+	static void addToProperties(Map<String, Object> properties, PropertySchema schema,
+			Map<String, Integer> columnIndices, DataRow row) {
+		columnIndices.forEach((property, index) -> TracingUtils.addCellContentToMap(properties, property,
+				schema.getMap().get(property), row.getCell(index)));
 	}
 
 	private static void addCellContentToMap(Map<String, Object> map, String property, Class<?> type, DataCell cell) {
@@ -402,7 +431,7 @@ public class TracingUtils {
 		CanvasUtils.addObjectToMap(map, property, type, obj);
 	}
 
-	private static void replaceNullsInInputProperties(Map<String, Object> properties, PropertySchema schema) {
+	static void replaceNullsInInputProperties(Map<String, Object> properties, PropertySchema schema) {
 		if (schema.getMap().containsKey(TracingColumns.WEIGHT) && properties.get(TracingColumns.WEIGHT) == null) {
 			properties.put(TracingColumns.WEIGHT, 0.0);
 		}
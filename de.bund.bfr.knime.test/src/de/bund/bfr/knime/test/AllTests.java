@@ -23,12 +23,15 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import de.bund.bfr.jung.AllJungTests;
 import de.bund.bfr.knime.gis.AllGisTests;
 import de.bund.bfr.knime.network.AllNetworkTests;
 import de.bund.bfr.knime.openkrise.AllFclBasicTests;
+import de.bund.bfr.knime.openkrise.util.AllFclUtilTests;
 import de.bund.bfr.knime.testflows.TestFlows;
 
 @RunWith(Suite.class)
-@SuiteClasses({ TestFlows.class, AllNetworkTests.class, AllGisTests.class, AllFclBasicTests.class })
+@SuiteClasses({ TestFlows.class, AllNetworkTests.class, AllGisTests.class, AllFclBasicTests.class,
+		AllJungTests.class, AllFclUtilTests.class })
 public class AllTests {
 }